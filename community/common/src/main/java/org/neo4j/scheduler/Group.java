@@ -34,6 +34,8 @@ public enum Group
     PAGE_CACHE_EVICTION( "PageCacheEviction" ),
     /* Page cache background eviction. */
     PAGE_CACHE_PRE_FETCHER( "PageCachePreFetcher", ExecutorServiceFactory.cachedWithDiscard() ),
+    /** Takes page cache warmup profiles, away from the check point group. */
+    PAGE_CACHE_PROFILER( "PageCacheProfiler" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher" ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
@@ -42,6 +44,14 @@ public enum Group
     LOG_ROTATION( "LogRotation" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
+    /** Prepares the next transaction log file ahead of rotation. */
+    TRANSACTION_LOG_PREPARATION( "TransactionLogPreparation" ),
+    /** Prunes transaction log files that are no longer needed. */
+    TRANSACTION_LOG_PRUNING( "TransactionLogPruning" ),
+    /** Reads and deserializes transactions ahead of recovery applying them. */
+    RECOVERY_PREFETCHER( "RecoveryPrefetcher" ),
+    /** The append, force and apply stages of the pipelined commit process. */
+    COMMIT_PIPELINE( "CommitPipeline" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
     STORAGE_MAINTENANCE( "StorageMaintenance" ),
     /** Index recovery cleanup. */
@@ -29,20 +29,31 @@ import java.nio.file.StandardOpenOption;
 import java.util.SplittableRandom;
 import java.util.function.Consumer;
 
+import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.impl.IoUringPageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
 import org.neo4j.kernel.impl.store.NoStoreHeader;
 import org.neo4j.kernel.impl.store.format.RecordFormat;
 import org.neo4j.kernel.impl.store.format.standard.Standard;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.pagecache.PageCacheExtension;
 import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 
 @PageCacheExtension
@@ -111,6 +122,84 @@ class PageCachePrefetchingTest
         assertThat( faultsWithPreFetch ).as( "faults" ).isLessThan( faultsWithoutPreFetch );
     }
 
+    @Test
+    void scanningWithReadAheadMustReportPagesReadAheadAndFaultsAvoided() throws Exception
+    {
+        scanner = cursor -> cursor.putBytes( PageCache.PAGE_SIZE, (byte) 0xA7 );
+        runScan( file, tracer, "Warmup", 0 );
+
+        DefaultPageCacheTracer cacheTracer = new DefaultPageCacheTracer();
+        try ( ThreadPoolJobScheduler scheduler = new ThreadPoolJobScheduler();
+              PageCache readAheadPageCache = StandalonePageCacheFactory.createPageCache( fs, scheduler, cacheTracer );
+              PagedFile pagedFile = readAheadPageCache.map( file, PageCache.PAGE_SIZE );
+              PageCursorTracer cursorTracer = cacheTracer.createPageCursorTracer( "scanningWithReadAhead" ) )
+        {
+            for ( int i = 0; i < 5; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PagedFile.PF_SHARED_READ_LOCK | PF_READ_AHEAD, cursorTracer ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        do
+                        {
+                            cursor.getLong();
+                        }
+                        while ( cursor.shouldRetry() );
+                    }
+                }
+            }
+        }
+        assertThat( cacheTracer.readAheads() ).as( "pages read ahead" ).isGreaterThan( 0 );
+        assertThat( cacheTracer.readAheadHits() ).as( "faults avoided" ).isGreaterThan( 0 ).isLessThanOrEqualTo( cacheTracer.readAheads() );
+    }
+
+    @Test
+    void batchedReadAheadAndEvictionMustPreservePageContents() throws Exception
+    {
+        IoUringPageSwapperFactory swapperFactory = new IoUringPageSwapperFactory( fs );
+        assumeTrue( swapperFactory.isSupported(), "io_uring is not supported on this platform" );
+        DefaultPageCacheTracer cacheTracer = new DefaultPageCacheTracer();
+        int pages = 6_000;
+        try ( ThreadPoolJobScheduler scheduler = new ThreadPoolJobScheduler();
+              PageCache batchedPageCache = new MuninnPageCache( swapperFactory,
+                      MemoryAllocator.createAllocator( ByteUnit.mebiBytes( 8 ), EmptyMemoryTracker.INSTANCE ), cacheTracer,
+                      EmptyVersionContextSupplier.EMPTY, scheduler, Clocks.nanoClock(), EmptyMemoryTracker.INSTANCE );
+              PagedFile pagedFile = batchedPageCache.map( file, PageCache.PAGE_SIZE );
+              PageCursorTracer cursorTracer = cacheTracer.createPageCursorTracer( "batchedReadAhead" ) )
+        {
+            // The file is larger than the page cache, so writing it makes the eviction flush batches of modified pages.
+            try ( PageCursor cursor = pagedFile.io( 0, PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer ) )
+            {
+                for ( int i = 0; i < pages; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( 0, cursor.getCurrentPageId() );
+                    cursor.putLong( PageCache.PAGE_SIZE - Long.BYTES, ~cursor.getCurrentPageId() );
+                }
+            }
+            for ( int i = 0; i < 3; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PagedFile.PF_SHARED_READ_LOCK | PF_READ_AHEAD, cursorTracer ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        long first;
+                        long last;
+                        do
+                        {
+                            first = cursor.getLong( 0 );
+                            last = cursor.getLong( PageCache.PAGE_SIZE - Long.BYTES );
+                        }
+                        while ( cursor.shouldRetry() );
+                        assertThat( first ).isEqualTo( cursor.getCurrentPageId() );
+                        assertThat( last ).isEqualTo( ~cursor.getCurrentPageId() );
+                    }
+                }
+            }
+        }
+        assertThat( cacheTracer.readAheads() ).as( "pages read ahead" ).isGreaterThan( 0 );
+    }
+
     private long runScan( File file, DefaultPageCursorTracer tracer, String threadName, int additionalPfFlags ) throws InterruptedException
     {
         long faultsWith;
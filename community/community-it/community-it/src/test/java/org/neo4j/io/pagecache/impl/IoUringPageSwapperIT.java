@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageSwapperTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class IoUringPageSwapperIT extends PageSwapperTest
+{
+    private static final int PAGE_SIZE = 32;
+
+    private DefaultFileSystemAbstraction fileSystem;
+
+    @BeforeEach
+    void setUp()
+    {
+        fileSystem = new DefaultFileSystemAbstraction();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        IOUtils.closeAll( fileSystem );
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory( FileSystemAbstraction fileSystem )
+    {
+        return new IoUringPageSwapperFactory( fileSystem );
+    }
+
+    @Override
+    protected void mkdirs( File dir ) throws IOException
+    {
+        getFs().mkdirs( dir );
+    }
+
+    @Override
+    protected FileSystemAbstraction getFs()
+    {
+        return fileSystem;
+    }
+
+    @Test
+    void mustFallBackToSynchronousSwappersOnFileSystemsWithoutFileDescriptors() throws IOException
+    {
+        try ( EphemeralFileSystemAbstraction ephemeralFs = new EphemeralFileSystemAbstraction() )
+        {
+            IoUringPageSwapperFactory factory = new IoUringPageSwapperFactory( ephemeralFs );
+            try
+            {
+                assertThat( factory.isSupported() ).isFalse();
+                PageSwapper swapper = factory.createPageSwapper( new File( "a" ), PAGE_SIZE, NO_CALLBACK, true, false );
+                assertThat( swapper ).isNotInstanceOf( IoUringPageSwapper.class );
+                assertThat( swapper.supportsBatchedIO() ).isFalse();
+                swapper.close();
+            }
+            finally
+            {
+                factory.close();
+            }
+        }
+    }
+
+    @Test
+    void batchedWritesMustBeVisibleToBatchedReads() throws IOException
+    {
+        PageSwapper swapper = createBatchedSwapper();
+        long[] filePageIds = {7, 0, 3, 12};
+        long[] pages = new long[filePageIds.length];
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            pages[i] = createPage( PAGE_SIZE );
+            putInt( pages[i], 0, i + 1 );
+            putInt( pages[i], PAGE_SIZE - 4, (int) filePageIds[i] );
+        }
+
+        assertThat( swapper.writePages( filePageIds, pages, pages.length ) ).isEqualTo( (long) PAGE_SIZE * pages.length );
+        assertThat( swapper.getLastPageId() ).isEqualTo( 12 );
+
+        for ( long page : pages )
+        {
+            putInt( page, 0, 0 );
+            putInt( page, PAGE_SIZE - 4, 0 );
+        }
+        assertThat( swapper.readPages( filePageIds, pages, pages.length ) ).isEqualTo( (long) PAGE_SIZE * pages.length );
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            assertThat( getInt( pages[i], 0 ) ).isEqualTo( i + 1 );
+            assertThat( getInt( pages[i], PAGE_SIZE - 4 ) ).isEqualTo( (int) filePageIds[i] );
+            assertThat( swapper.read( filePageIds[i], pages[i] ) ).isEqualTo( PAGE_SIZE );
+            assertThat( getInt( pages[i], 0 ) ).isEqualTo( i + 1 );
+        }
+    }
+
+    @Test
+    void batchedReadsBeyondEndOfFileMustZeroFillPages() throws IOException
+    {
+        PageSwapper swapper = createBatchedSwapper();
+        long page = createPage( PAGE_SIZE );
+        putInt( page, 0, 1 );
+        swapper.write( 0, page );
+
+        long[] filePageIds = {0, 1, 5};
+        long[] pages = {createPage( PAGE_SIZE ), createPage( PAGE_SIZE ), createPage( PAGE_SIZE )};
+        for ( long p : pages )
+        {
+            putInt( p, 0, -1 );
+        }
+
+        assertThat( swapper.readPages( filePageIds, pages, pages.length ) ).isEqualTo( PAGE_SIZE );
+        assertThat( getInt( pages[0], 0 ) ).isEqualTo( 1 );
+        assertThat( getInt( pages[1], 0 ) ).isEqualTo( 0 );
+        assertThat( getInt( pages[2], 0 ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    void batchesLargerThanTheQueueMustBeSubmittedInSeveralRounds() throws IOException
+    {
+        PageSwapper swapper = createBatchedSwapper();
+        int length = 1000;
+        long[] filePageIds = new long[length];
+        long[] pages = new long[length];
+        for ( int i = 0; i < length; i++ )
+        {
+            filePageIds[i] = length - 1 - i;
+            pages[i] = createPage( PAGE_SIZE );
+            putInt( pages[i], 0, i );
+        }
+
+        assertThat( swapper.writePages( filePageIds, pages, length ) ).isEqualTo( (long) PAGE_SIZE * length );
+        for ( long page : pages )
+        {
+            putInt( page, 0, -1 );
+        }
+        assertThat( swapper.readPages( filePageIds, pages, length ) ).isEqualTo( (long) PAGE_SIZE * length );
+        for ( int i = 0; i < length; i++ )
+        {
+            assertThat( getInt( pages[i], 0 ) ).isEqualTo( i );
+        }
+    }
+
+    private PageSwapper createBatchedSwapper() throws IOException
+    {
+        IoUringPageSwapperFactory factory = (IoUringPageSwapperFactory) createSwapperFactory( getFs() );
+        assumeTrue( factory.isSupported(), "io_uring is not supported on this platform" );
+        PageSwapper swapper = createSwapper( factory, testDir.file( "a" ), PAGE_SIZE, NO_CALLBACK, true );
+        assertThat( swapper ).isInstanceOf( IoUringPageSwapper.class );
+        assertThat( swapper.supportsBatchedIO() ).isTrue();
+        return swapper;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageSwapperTest;
+import org.neo4j.test.Race;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.test.Race.throwing;
+
+class MemoryMappedPageSwapperIT extends PageSwapperTest
+{
+    private static final int PAGE_SIZE = 32;
+
+    private DefaultFileSystemAbstraction fileSystem;
+
+    @BeforeEach
+    void setUp()
+    {
+        fileSystem = new DefaultFileSystemAbstraction();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        IOUtils.closeAll( fileSystem );
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory( FileSystemAbstraction fileSystem )
+    {
+        return new MemoryMappedPageSwapperFactory( fileSystem );
+    }
+
+    @Override
+    protected void mkdirs( File dir ) throws IOException
+    {
+        getFs().mkdirs( dir );
+    }
+
+    @Override
+    protected FileSystemAbstraction getFs()
+    {
+        return fileSystem;
+    }
+
+    @Test
+    void mustCreateMemoryMappedSwappersUnlessDirectIOIsRequested() throws IOException
+    {
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        File file = testDir.file( "a" );
+
+        assertThat( createSwapper( factory, file, PAGE_SIZE, NO_CALLBACK, true ) ).isInstanceOf( MemoryMappedPageSwapper.class );
+    }
+
+    @Test
+    void memoryMappedReadsMustOnlyBeUsedOnTheRealFileSystem() throws IOException
+    {
+        try ( EphemeralFileSystemAbstraction ephemeralFs = new EphemeralFileSystemAbstraction() )
+        {
+            PageSwapperFactory ephemeralFactory = new SingleFilePageSwapperFactory( ephemeralFs );
+            assertThat( ephemeralFactory.memoryMappedReads() ).isSameAs( ephemeralFactory );
+        }
+        assertThat( new SingleFilePageSwapperFactory( getFs() ).memoryMappedReads() ).isInstanceOf( MemoryMappedPageSwapperFactory.class );
+    }
+
+    @Test
+    void readsMustObservePagesWrittenAfterTheFileWasMapped() throws IOException
+    {
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        PageSwapper swapper = createSwapper( factory, testDir.file( "a" ), PAGE_SIZE, NO_CALLBACK, true );
+        long page = createPage( PAGE_SIZE );
+
+        putInt( page, 0, 1 );
+        swapper.write( 0, page );
+        putInt( page, 0, 0 );
+        assertThat( swapper.read( 0, page ) ).isEqualTo( PAGE_SIZE );
+        assertThat( getInt( page, 0 ) ).isEqualTo( 1 );
+
+        // Both overwrites of mapped pages, and pages that grow the file beyond the current mapping, must be visible.
+        putInt( page, 0, 2 );
+        swapper.write( 0, page );
+        putInt( page, 0, 3 );
+        swapper.write( 10, page );
+
+        assertThat( swapper.read( 0, page ) ).isEqualTo( PAGE_SIZE );
+        assertThat( getInt( page, 0 ) ).isEqualTo( 2 );
+        assertThat( swapper.read( 10, page ) ).isEqualTo( PAGE_SIZE );
+        assertThat( getInt( page, 0 ) ).isEqualTo( 3 );
+        assertThat( swapper.read( 5, page ) ).isEqualTo( PAGE_SIZE );
+        assertThat( getInt( page, 0 ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    void readsAfterTruncateMustBeZeroFilled() throws IOException
+    {
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        PageSwapper swapper = createSwapper( factory, testDir.file( "a" ), PAGE_SIZE, NO_CALLBACK, true );
+        long page = createPage( PAGE_SIZE );
+
+        putInt( page, 0, 1 );
+        swapper.write( 0, page );
+        swapper.write( 1, page );
+        assertThat( swapper.read( 1, page ) ).isEqualTo( PAGE_SIZE );
+
+        swapper.truncate();
+
+        assertThat( swapper.read( 1, page ) ).isEqualTo( 0 );
+        assertThat( getInt( page, 0 ) ).isEqualTo( 0 );
+
+        putInt( page, 0, 2 );
+        swapper.write( 0, page );
+        putInt( page, 0, 0 );
+        assertThat( swapper.read( 0, page ) ).isEqualTo( PAGE_SIZE );
+        assertThat( getInt( page, 0 ) ).isEqualTo( 2 );
+    }
+
+    @Test
+    void concurrentReadsAndTruncatesMustNotTouchUnmappedMemory() throws Throwable
+    {
+        PageSwapperFactory factory = createSwapperFactory( getFs() );
+        PageSwapper swapper = createSwapper( factory, testDir.file( "a" ), PAGE_SIZE, NO_CALLBACK, true );
+        int pageCount = 64;
+        int readers = 4;
+        long writePage = createPage( PAGE_SIZE );
+        putInt( writePage, 0, 1 );
+        long[] readPages = new long[readers];
+        for ( int i = 0; i < readers; i++ )
+        {
+            readPages[i] = createPage( PAGE_SIZE );
+        }
+
+        Race race = new Race().withMaxDuration( 2, SECONDS );
+        race.addContestants( readers, reader -> throwing( () ->
+        {
+            long page = readPages[reader];
+            long bytesRead = swapper.read( ThreadLocalRandom.current().nextInt( pageCount ), page );
+            // A page is either read in full before the truncate, or found to be beyond the end of the file after it.
+            assertThat( bytesRead ).isIn( 0L, (long) PAGE_SIZE );
+            assertThat( getInt( page, 0 ) ).isEqualTo( bytesRead == 0 ? 0 : 1 );
+        } ) );
+        race.addContestant( throwing( () ->
+        {
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                swapper.write( i, writePage );
+            }
+            swapper.truncate();
+        } ) );
+        race.go();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrequencySketchTest
+{
+    private final FrequencySketch sketch = new FrequencySketch( 1000 );
+
+    @Test
+    void frequencyMustCountAccesses()
+    {
+        long key = PageList.bindingKey( 1, 42 );
+        assertThat( sketch.frequency( key ) ).isZero();
+        sketch.recordAccess( key );
+        sketch.recordAccess( key );
+        sketch.recordFault( key );
+        assertThat( sketch.frequency( key ) ).isEqualTo( 3 );
+    }
+
+    @Test
+    void frequencyMustSaturate()
+    {
+        long key = PageList.bindingKey( 1, 42 );
+        for ( int i = 0; i < 100; i++ )
+        {
+            sketch.recordAccess( key );
+        }
+        assertThat( sketch.frequency( key ) ).isEqualTo( 15 );
+    }
+
+    @Test
+    void mustRetainFrequentlyAccessedPagesOverScannedPages()
+    {
+        long hotKey = PageList.bindingKey( 1, 0 );
+        for ( int i = 0; i < 5; i++ )
+        {
+            sketch.recordAccess( hotKey );
+        }
+        for ( long filePageId = 1; filePageId < 500; filePageId++ )
+        {
+            sketch.recordFault( PageList.bindingKey( 2, filePageId ) );
+        }
+        assertThat( sketch.shouldRetain( hotKey ) ).isTrue();
+        assertThat( sketch.shouldRetain( PageList.bindingKey( 2, 250 ) ) ).isFalse();
+    }
+
+    @Test
+    void mustForgetOldAccessesOverTime()
+    {
+        long key = PageList.bindingKey( 1, 42 );
+        for ( int i = 0; i < 15; i++ )
+        {
+            sketch.recordAccess( key );
+        }
+        // Sample size is ten times the number of pages, so this triggers at least one halving of all counters.
+        for ( long filePageId = 0; filePageId < 10_000; filePageId++ )
+        {
+            sketch.recordAccess( PageList.bindingKey( 2, filePageId ) );
+        }
+        assertThat( sketch.frequency( key ) ).isLessThan( 15 );
+    }
+}
@@ -41,6 +41,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.memory.ByteBuffers;
 import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
@@ -57,10 +58,12 @@ import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 
 import static java.time.Duration.ofMillis;
+import static org.eclipse.collections.api.factory.Sets.immutable;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -149,6 +152,97 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void mustCountDirtyPagesUntilFlushed() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            assertEquals( 0, pageCache.dirtyPages() );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            assertEquals( 2, pageCache.dirtyPages() );
+
+            pageCache.flushAndForce();
+            assertEquals( 0, pageCache.dirtyPages() );
+        }
+    }
+
+    @Test
+    void mustCountDirtyPagesPerFileUntilEvicted() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        writeInitialDataTo( file( "b" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL );
+                PagedFile pagedFileA = map( pageCache, file( "a" ), 8 );
+                PagedFile pagedFileB = map( pageCache, file( "b" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFileA.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            try ( PageCursor cursor = pagedFileB.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            assertEquals( 1, pagedFileA.dirtyPages() );
+            assertEquals( 2, pagedFileB.dirtyPages() );
+            assertEquals( 3, pageCache.dirtyPages() );
+
+            evictAllPages( pageCache );
+            assertEquals( 0, pagedFileA.dirtyPages() );
+            assertEquals( 0, pagedFileB.dirtyPages() );
+            assertEquals( 0, pageCache.dirtyPages() );
+        }
+    }
+
+    @Test
+    void mustOnlyFlushAndForceFilesWithPagesModifiedSinceLastFlush() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, tracer );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            // We don't know what was written to the file before it was mapped, so the first flush must force it.
+            pageCache.flushAndForce();
+            assertEquals( 0, tracer.skippedForces() );
+
+            pageCache.flushAndForce();
+            assertEquals( 1, tracer.skippedForces() );
+            assertEquals( MuninnPagedFile.translationTableChunkSize, tracer.flushSkippedPages() );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            long flushes = tracer.flushes();
+            pagedFile.flushAndForce();
+            assertEquals( 1, tracer.skippedForces() );
+            assertEquals( flushes + 1, tracer.flushes() );
+
+            pagedFile.flushAndForce();
+            assertEquals( 2, tracer.skippedForces() );
+            assertEquals( flushes + 1, tracer.flushes() );
+        }
+    }
+
     @Test
     void mustEvictCleanPageWithoutFlushing() throws Exception
     {
@@ -270,6 +364,150 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void residentPagesMustCountFaultedAndEvictedPages() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        RecordingPageCacheTracer tracer = new RecordingPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, blockCacheFlush( tracer ) );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            assertThat( pagedFile.residentPages() ).isZero();
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_GROW, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.next() );
+            }
+            assertThat( pagedFile.residentPages() ).isEqualTo( 2L );
+
+            pageCache.evictPages( 2, 0, tracer.beginPageEvictions( 2 ) );
+            assertThat( pagedFile.residentPages() ).isZero();
+        }
+    }
+
+    @Test
+    void mustNotEvictPagesOfFileWithinItsReservedResidency() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        writeInitialDataTo( file( "b" ) );
+        RecordingPageCacheTracer tracer = new RecordingPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, blockCacheFlush( tracer ) );
+                PagedFile reserved = map( pageCache, file( "a" ), 8, immutable.of( PageCacheOpenOptions.RESERVED_RESIDENCY ) );
+                PagedFile other = map( pageCache, file( "b" ), 8 ) )
+        {
+            try ( PageCursor reservedCursor = reserved.io( 0, PF_SHARED_READ_LOCK, NULL );
+                    PageCursor otherCursor = other.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( reservedCursor.next() );
+                assertTrue( otherCursor.next() );
+            }
+
+            pageCache.evictPages( 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( reserved.residentPages() ).isEqualTo( 1L );
+            assertThat( other.residentPages() ).isZero();
+        }
+    }
+
+    @Test
+    void mustEvictPagesOfFileOverItsCappedResidencyRegardlessOfUsage() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        RecordingPageCacheTracer tracer = new RecordingPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, blockCacheFlush( tracer ) );
+                PagedFile capped = map( pageCache, file( "a" ), 8, immutable.of( PageCacheOpenOptions.CAPPED_RESIDENCY ) ) )
+        {
+            for ( int i = 0; i < 4; i++ )
+            {
+                try ( PageCursor cursor = capped.io( 0, PF_SHARED_READ_LOCK | PF_NO_GROW, NULL ) )
+                {
+                    assertTrue( cursor.next() );
+                    assertTrue( cursor.next() );
+                }
+            }
+            assertThat( capped.residentPages() ).isEqualTo( 2L );
+
+            // The pages have high usage counts, but the file is over its cap of a single page, so the first page the
+            // clock arm finds is evicted right away.
+            long clockArm = pageCache.evictPages( 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( clockArm ).isEqualTo( 1L );
+            assertThat( capped.residentPages() ).isEqualTo( 1L );
+        }
+    }
+
+    @Test
+    void mustReportEvictionsOfFileOverItsCappedResidency() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, blockCacheFlush( tracer ) );
+                PagedFile capped = map( pageCache, file( "a" ), 8, immutable.of( PageCacheOpenOptions.CAPPED_RESIDENCY ) ) )
+        {
+            touchFirstTwoPages( capped );
+
+            pageCache.evictPages( 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( tracer.cappedResidencyEvictions() ).isOne();
+        }
+    }
+
+    @Test
+    void mustApplyResidencySharesToFilesMappedAfterwards() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, blockCacheFlush( tracer ) ) )
+        {
+            pageCache.setResidencyShares( 10, 50 );
+            try ( PagedFile capped = map( pageCache, file( "a" ), 8, immutable.of( PageCacheOpenOptions.CAPPED_RESIDENCY ) ) )
+            {
+                touchFirstTwoPages( capped );
+
+                // The cap is now two pages, so the file is not over it and its pages are evicted by usage as usual.
+                pageCache.evictPages( 1, 0, tracer.beginPageEvictions( 1 ) );
+                assertThat( tracer.cappedResidencyEvictions() ).isZero();
+                assertThat( capped.residentPages() ).isEqualTo( 2L );
+            }
+        }
+    }
+
+    @Test
+    void mustNotAcceptResidencySharesOutsideOfOneToHundredPercent() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL ) )
+        {
+            assertThrows( IllegalArgumentException.class, () -> pageCache.setResidencyShares( 0, 10 ) );
+            assertThrows( IllegalArgumentException.class, () -> pageCache.setResidencyShares( 10, 101 ) );
+        }
+    }
+
+    private static void touchFirstTwoPages( PagedFile pagedFile ) throws IOException
+    {
+        for ( int i = 0; i < 4; i++ )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_GROW, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.next() );
+            }
+        }
+    }
+
+    @Test
+    void mustNotMapFileWithBothReservedAndCappedResidency() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL ) )
+        {
+            assertThrows( IllegalArgumentException.class, () -> map( pageCache, file( "a" ), 8,
+                    immutable.of( PageCacheOpenOptions.RESERVED_RESIDENCY, PageCacheOpenOptions.CAPPED_RESIDENCY ) ) );
+        }
+    }
+
     @Test
     void trackPageModificationTransactionId() throws Exception
     {
@@ -509,6 +747,71 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void concurrentTranslationTableExpansionsMustNotLoseAnyPages() throws Exception
+    {
+        int threads = 8;
+        int pagesPerThread = 16;
+        int filePageSize = 16;
+        try ( MuninnPageCache pageCache = createPageCache( fs, threads * pagesPerThread * 2, PageCacheTracer.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+        {
+            CountDownLatch start = new CountDownLatch( 1 );
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                int thread = t;
+                futures.add( executor.submit( () ->
+                {
+                    start.await();
+                    try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                    {
+                        // Every page is in its own chunk, so the threads keep racing to expand the translation table.
+                        for ( int i = 0; i < pagesPerThread; i++ )
+                        {
+                            long pageId = (long) (i * threads + thread) * MuninnPagedFile.translationTableChunkSize + thread;
+                            assertTrue( cursor.next( pageId ) );
+                            cursor.putLong( pageId );
+                            cursor.putLong( ~pageId );
+                        }
+                    }
+                    return null;
+                } ) );
+            }
+            start.countDown();
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+
+            // A chunk that was lost to a racing expansion would have dropped the dirty pages mapped in it,
+            // and they would be faulted in again from the file, without the writes.
+            long lastChunkId = MuninnPagedFile.computeChunkId( pagedFile.getLastPageId() );
+            assertThat( ((MuninnPagedFile) pagedFile).translationTable.length ).isGreaterThan( (int) lastChunkId );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                for ( int thread = 0; thread < threads; thread++ )
+                {
+                    for ( int i = 0; i < pagesPerThread; i++ )
+                    {
+                        long pageId = (long) (i * threads + thread) * MuninnPagedFile.translationTableChunkSize + thread;
+                        assertTrue( cursor.next( pageId ) );
+                        long first;
+                        long second;
+                        do
+                        {
+                            first = cursor.getLong( 0 );
+                            second = cursor.getLong( Long.BYTES );
+                        }
+                        while ( cursor.shouldRetry() );
+                        assertThat( first ).isEqualTo( pageId );
+                        assertThat( second ).isEqualTo( ~pageId );
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     void closingTheCursorMustUnlockModifiedPage() throws Exception
     {
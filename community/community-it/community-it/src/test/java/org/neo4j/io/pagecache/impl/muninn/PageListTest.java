@@ -2282,6 +2282,7 @@ public class PageListTest
         private boolean flushDone;
         private IOException flushException;
         private int pagesFlushed;
+        private int pagesMerged;
 
         // --- EvictionEvent:
 
@@ -2356,6 +2357,12 @@ public class PageListTest
         {
             this.pagesFlushed += pageCount;
         }
+
+        @Override
+        public void addPagesMerged( int pagesMerged )
+        {
+            this.pagesMerged += pagesMerged;
+        }
     }
 
     @ParameterizedTest( name = "pageRef = {0}" )
@@ -2451,6 +2458,70 @@ public class PageListTest
         assertThat( recorder.pagesFlushed ).isEqualTo( 0 );
     }
 
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void evictBatchedMustFlushAdjacentModifiedPagesWithOneVectoredWrite( int pageId ) throws Exception
+    {
+        init( pageId );
+
+        pageList.unlockExclusive( prevPageRef );
+        pageList.unlockExclusive( pageRef );
+        pageList.unlockExclusive( nextPageRef );
+        int filePageSize = 313;
+        AtomicInteger vectoredWrites = new AtomicInteger();
+        AtomicInteger singleWrites = new AtomicInteger();
+        PageSwapper swapper = new DummyPageSwapper( "a", filePageSize )
+        {
+            @Override
+            public long write( long filePageId, long bufferAddress )
+            {
+                singleWrites.getAndIncrement();
+                return filePageSize;
+            }
+
+            @Override
+            public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length )
+            {
+                assertThat( startFilePageId ).isEqualTo( 41L );
+                assertThat( length ).isEqualTo( 3 );
+                vectoredWrites.getAndIncrement();
+                return filePageSize * length;
+            }
+        };
+        int swapperId = swappers.allocate( swapper );
+        long[] victims = {nextPageRef, pageRef, prevPageRef};
+        for ( int i = 0; i < victims.length; i++ )
+        {
+            long victim = victims[i];
+            assertTrue( pageList.tryExclusiveLock( victim ) );
+            pageList.initBuffer( victim );
+            pageList.fault( victim, DUMMY_SWAPPER, swapperId, 43 - i, PageFaultEvent.NULL );
+            pageList.unlockExclusiveAndTakeWriteLock( victim );
+            pageList.unlockWrite( victim ); // page is now modified
+            assertTrue( pageList.tryExclusiveLock( victim ) );
+        }
+
+        pageList.sortByBinding( victims, victims.length );
+        assertThat( victims ).containsExactly( prevPageRef, pageRef, nextPageRef );
+        long[] bufferAddresses = new long[victims.length];
+        EvictionAndFlushRecorder recorder = new EvictionAndFlushRecorder();
+        for ( int i = 0; i < victims.length; i++ )
+        {
+            pageList.evictBatched( victims, i, victims.length, bufferAddresses, () -> recorder );
+        }
+
+        assertThat( vectoredWrites.get() ).isEqualTo( 1 );
+        assertThat( singleWrites.get() ).isEqualTo( 0 );
+        assertThat( recorder.pagesFlushed ).isEqualTo( 3 );
+        assertThat( recorder.pagesMerged ).isEqualTo( 2 );
+        assertThat( recorder.bytesWritten ).isEqualTo( 3L * filePageSize );
+        for ( long victim : victims )
+        {
+            assertFalse( pageList.isLoaded( victim ) );
+            assertFalse( pageList.isModified( victim ) );
+        }
+    }
+
     @ParameterizedTest( name = "pageRef = {0}" )
     @MethodSource( "argumentsProvider" )
     public void tryEvictThatSucceedsMustNotInterfereWithAdjacentPages( int pageId ) throws Exception
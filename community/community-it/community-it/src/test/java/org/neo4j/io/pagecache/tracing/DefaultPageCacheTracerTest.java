@@ -153,6 +153,26 @@ public class DefaultPageCacheTracerTest
         assertCounts( 0, 0, 0, 0, 0, 0, 6, 0, 0, 0, 0, 0d );
     }
 
+    @Test
+    void mustCountMergedPages()
+    {
+        try ( MajorFlushEvent fileFlush = tracer.beginFileFlush( swapper ) )
+        {
+            var flushEvent1 = fileFlush.flushEventOpportunity().beginFlush( 0, 0, swapper );
+            flushEvent1.addPagesFlushed( 1 );
+            flushEvent1.addPagesMerged( 0 );
+            flushEvent1.done();
+
+            var flushEvent2 = fileFlush.flushEventOpportunity().beginFlush( 4, 0, swapper );
+            flushEvent2.addPagesFlushed( 3 );
+            flushEvent2.addPagesMerged( 2 );
+            flushEvent2.done();
+        }
+
+        assertThat( tracer.flushes() ).isEqualTo( 4 );
+        assertThat( tracer.merges() ).isEqualTo( 2 );
+    }
+
     @Test
     void shouldCalculateHitRatio()
     {
@@ -182,6 +182,60 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.flushes( flushes );
     }
 
+    @Override
+    public void merges( long merges )
+    {
+        delegate.merges( merges );
+    }
+
+    @Override
+    public void retentions( long retentions )
+    {
+        delegate.retentions( retentions );
+    }
+
+    @Override
+    public void reservedResidencyRetentions( long retentions )
+    {
+        delegate.reservedResidencyRetentions( retentions );
+    }
+
+    @Override
+    public void cappedResidencyEvictions( long evictions )
+    {
+        delegate.cappedResidencyEvictions( evictions );
+    }
+
+    @Override
+    public void readAheads( long readAheads )
+    {
+        delegate.readAheads( readAheads );
+    }
+
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+        delegate.readAheadHits( readAheadHits );
+    }
+
+    @Override
+    public void readAheadExceptions( long readAheadExceptions )
+    {
+        delegate.readAheadExceptions( readAheadExceptions );
+    }
+
+    @Override
+    public void flushSkippedPages( long flushSkippedPages )
+    {
+        delegate.flushSkippedPages( flushSkippedPages );
+    }
+
+    @Override
+    public void skippedForces( long skippedForces )
+    {
+        delegate.skippedForces( skippedForces );
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
@@ -200,6 +254,60 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.flushes();
     }
 
+    @Override
+    public long merges()
+    {
+        return delegate.merges();
+    }
+
+    @Override
+    public long retentions()
+    {
+        return delegate.retentions();
+    }
+
+    @Override
+    public long reservedResidencyRetentions()
+    {
+        return delegate.reservedResidencyRetentions();
+    }
+
+    @Override
+    public long cappedResidencyEvictions()
+    {
+        return delegate.cappedResidencyEvictions();
+    }
+
+    @Override
+    public long readAheads()
+    {
+        return delegate.readAheads();
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return delegate.readAheadHits();
+    }
+
+    @Override
+    public long readAheadExceptions()
+    {
+        return delegate.readAheadExceptions();
+    }
+
+    @Override
+    public long flushSkippedPages()
+    {
+        return delegate.flushSkippedPages();
+    }
+
+    @Override
+    public long skippedForces()
+    {
+        return delegate.skippedForces();
+    }
+
     @Override
     public long faults()
     {
@@ -142,6 +142,7 @@ class HEvents
         private long filePageId;
         private long cachePageId;
         private int pageCount;
+        private int pagesMerged;
         private File file;
         private int bytesWritten;
         private IOException exception;
@@ -180,6 +181,12 @@ class HEvents
             this.pageCount = pageCount;
         }
 
+        @Override
+        public void addPagesMerged( int pagesMerged )
+        {
+            this.pagesMerged = pagesMerged;
+        }
+
         @Override
         void printBody( PrintStream out, String exceptionLinePrefix )
         {
@@ -189,6 +196,8 @@ class HEvents
             out.print( cachePageId );
             out.print( ", pageCount:" );
             out.print( pageCount );
+            out.print( ", pagesMerged:" );
+            out.print( pagesMerged );
             print( out, file );
             out.print( ", bytesWritten:" );
             out.print( bytesWritten );
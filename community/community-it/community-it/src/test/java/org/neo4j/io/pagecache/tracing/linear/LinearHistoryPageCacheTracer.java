@@ -121,6 +121,60 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long merges()
+    {
+        return 0;
+    }
+
+    @Override
+    public long retentions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long reservedResidencyRetentions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long cappedResidencyEvictions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheads()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadExceptions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long flushSkippedPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long skippedForces()
+    {
+        return 0;
+    }
+
     @Override
     public long bytesRead()
     {
@@ -208,6 +262,51 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void merges( long merges )
+    {
+    }
+
+    @Override
+    public void retentions( long retentions )
+    {
+    }
+
+    @Override
+    public void reservedResidencyRetentions( long retentions )
+    {
+    }
+
+    @Override
+    public void cappedResidencyEvictions( long evictions )
+    {
+    }
+
+    @Override
+    public void readAheads( long readAheads )
+    {
+    }
+
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+    }
+
+    @Override
+    public void readAheadExceptions( long readAheadExceptions )
+    {
+    }
+
+    @Override
+    public void flushSkippedPages( long flushSkippedPages )
+    {
+    }
+
+    @Override
+    public void skippedForces( long skippedForces )
+    {
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.kernel.impl.api.CommitPipelineStatistics.Stage;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.ImpermanentDbmsExtension;
+import org.neo4j.test.extension.Inject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pipelined_commit;
+
+@ImpermanentDbmsExtension( configurationCallback = "configure" )
+class PipelinedTransactionCommitProcessIT
+{
+    private static final int THREADS = 6;
+    private static final int TRANSACTIONS_PER_THREAD = 200;
+
+    @Inject
+    private GraphDatabaseAPI db;
+    @Inject
+    private CommitPipelineStatistics statistics;
+
+    @ExtensionCallback
+    static void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( pipelined_commit, true );
+    }
+
+    @Test
+    void concurrentTransactionsMustAllBeCommittedThroughThePipeline() throws Exception
+    {
+        long appendedBefore = statistics.transactions( Stage.APPEND );
+        ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0; i < THREADS; i++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    for ( int j = 0; j < TRANSACTIONS_PER_THREAD; j++ )
+                    {
+                        try ( Transaction tx = db.beginTx() )
+                        {
+                            tx.createNode();
+                            tx.commit();
+                        }
+                    }
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( THREADS * TRANSACTIONS_PER_THREAD, Iterables.count( tx.getAllNodes() ) );
+        }
+        long committed = statistics.transactions( Stage.APPEND ) - appendedBefore;
+        assertEquals( THREADS * TRANSACTIONS_PER_THREAD, committed );
+        assertEquals( statistics.transactions( Stage.APPEND ), statistics.transactions( Stage.APPLY ) );
+    }
+}
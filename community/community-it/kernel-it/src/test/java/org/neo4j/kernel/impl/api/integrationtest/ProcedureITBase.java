@@ -148,6 +148,12 @@ public interface ProcedureITBase
                         "Triggers an index resample and waits for it to complete, and after that clears query caches." +
                                 " After this procedure has finished queries will be planned using the latest database " + "statistics.",
                         stringArray( "admin" ), "READ" ),
+                proc( "db.lockContention", "(limit = 10 :: INTEGER?) :: (resourceType :: STRING?, waits :: INTEGER?, " +
+                                "totalWaitTimeMillis :: FLOAT?, p50WaitTimeMillis :: FLOAT?, p99WaitTimeMillis :: FLOAT?, maxWaitTimeMillis :: FLOAT?, " +
+                                "contendedResources :: LIST? OF MAP?)",
+                        "List the lock waits in the database since it was started, per resource type, with wait time percentiles " +
+                                "and the resources that were waited for the most (for example: CALL db.lockContention(5)).",
+                        stringArray( "admin" ), "READ" ),
                 proc( "db.stats.retrieve", "(section :: STRING?, config = {} :: MAP?) :: (section :: STRING?, data :: MAP?)",
                         "Retrieve statistical data about the current database. Valid sections are 'GRAPH COUNTS', 'TOKENS', 'QUERIES', 'META'",
                         stringArray( "admin" ), "READ" ),
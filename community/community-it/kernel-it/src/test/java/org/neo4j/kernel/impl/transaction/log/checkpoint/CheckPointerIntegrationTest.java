@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.neo4j.common.DependencyResolver;
+import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -63,9 +64,12 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.check_point_adaptive_dirty_page_ratio;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.check_point_iops_latency_feedback;
 import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
 import static org.neo4j.configuration.GraphDatabaseSettings.check_point_interval_time;
 import static org.neo4j.configuration.GraphDatabaseSettings.check_point_interval_tx;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_policy;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.io.ByteUnit.gibiBytes;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
@@ -205,6 +209,40 @@ class CheckPointerIntegrationTest
         assertThat( checkPoints.size() ).isGreaterThanOrEqualTo( counter + 1 );
     }
 
+    @Test
+    void shouldCheckPointBasedOnDirtyPagesWithAdaptivePolicy() throws Throwable
+    {
+        // given
+        DatabaseManagementService managementService = builder
+                .setConfig( check_point_policy, GraphDatabaseSettings.CheckpointPolicy.ADAPTIVE )
+                .setConfig( check_point_adaptive_dirty_page_ratio, 0.0 )
+                .setConfig( check_point_iops_latency_feedback, true )
+                .setConfig( check_point_interval_time, Duration.ofHours( 1 ) )
+                .setConfig( check_point_interval_tx, 10000 )
+                .setConfig( logical_log_rotation_threshold, gibiBytes( 1 ) ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try
+        {
+            // when
+            triggerCheckPointAttempt( db );
+            assertThat( checkPointInTxLog( db ) ).isEqualTo( 0 );
+
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.createNode();
+                tx.commit();
+            }
+            triggerCheckPointAttempt( db );
+
+            // then
+            assertThat( checkPointInTxLog( db ) ).isGreaterThan( 0 );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
     @Test
     void shouldNotCheckPointWhenThereAreNoCommits() throws Throwable
     {
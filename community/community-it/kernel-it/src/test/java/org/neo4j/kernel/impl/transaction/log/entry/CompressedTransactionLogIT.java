@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.EphemeralFileSystemExtension;
+import org.neo4j.test.extension.Inject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_compression;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+@ExtendWith( EphemeralFileSystemExtension.class )
+class CompressedTransactionLogIT
+{
+    private static final int NODES = 500;
+
+    @Inject
+    private EphemeralFileSystemAbstraction filesystem;
+    private DatabaseManagementService managementService;
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( managementService != null )
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRecoverCompressedTransactions()
+    {
+        GraphDatabaseService database = startDb( filesystem, true );
+        createNodes( database );
+
+        EphemeralFileSystemAbstraction crashed = filesystem.snapshot();
+        managementService.shutdown();
+        database = startDb( crashed, true );
+
+        assertNodeCount( database, NODES );
+        createNodes( database );
+        assertNodeCount( database, 2 * NODES );
+    }
+
+    @Test
+    void shouldRecoverCompressedTransactionsWithCompressionDisabled()
+    {
+        GraphDatabaseService database = startDb( filesystem, true );
+        createNodes( database );
+
+        EphemeralFileSystemAbstraction crashed = filesystem.snapshot();
+        managementService.shutdown();
+        database = startDb( crashed, false );
+
+        assertNodeCount( database, NODES );
+    }
+
+    private GraphDatabaseService startDb( EphemeralFileSystemAbstraction fs, boolean compression )
+    {
+        managementService = new TestDatabaseManagementServiceBuilder()
+                .setFileSystem( fs )
+                .impermanent()
+                .setConfig( tx_log_compression, compression )
+                .build();
+        return managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    private static void createNodes( GraphDatabaseService database )
+    {
+        for ( int i = 0; i < NODES; i++ )
+        {
+            try ( Transaction tx = database.beginTx() )
+            {
+                tx.createNode().setProperty( "value", "a fairly repetitive string value, a fairly repetitive string value " + i );
+                tx.commit();
+            }
+        }
+    }
+
+    private static void assertNodeCount( GraphDatabaseService database, long expected )
+    {
+        try ( Transaction tx = database.beginTx() )
+        {
+            assertEquals( expected, Iterables.count( tx.getAllNodes() ) );
+        }
+    }
+}
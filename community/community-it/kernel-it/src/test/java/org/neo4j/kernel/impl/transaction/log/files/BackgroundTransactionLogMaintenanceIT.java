@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointer;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.SimpleTriggerInfo;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_prepare_in_background;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_prune_in_background;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.configuration.GraphDatabaseSettings.keep_logical_logs;
+import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
+import static org.neo4j.test.assertion.Assert.assertEventually;
+
+@TestDirectoryExtension
+class BackgroundTransactionLogMaintenanceIT
+{
+    private static final int NODES = 2_000;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseAPI db;
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( managementService != null )
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldPrepareNextLogFileAndPruneInBackground() throws Exception
+    {
+        startDb();
+        LogFiles logFiles = db.getDependencyResolver().resolveDependency( LogFiles.class );
+        TransactionLogFilesHelper fileHelper = new TransactionLogFilesHelper( fileSystem, logFiles.logFilesDirectory() );
+        for ( int i = 0; i < NODES; i++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.createNode().setProperty( "value", "a string long enough to fill up the transaction logs quickly " + i );
+                tx.commit();
+            }
+            if ( i % 500 == 0 )
+            {
+                checkPoint();
+            }
+        }
+        assertThat( logFiles.getHighestLogVersion() ).isGreaterThan( 2L );
+
+        assertEventually( () -> fileSystem.fileExists( fileHelper.getReserveLogFile() ), exists -> exists, 1, MINUTES );
+        checkPoint();
+        assertEventually( logFiles::getLowestLogVersion, lowest -> lowest > 0, 1, MINUTES );
+
+        managementService.shutdown();
+        startDb();
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( NODES, Iterables.count( tx.getAllNodes() ) );
+        }
+    }
+
+    private void checkPoint() throws IOException
+    {
+        db.getDependencyResolver().resolveDependency( CheckPointer.class ).forceCheckPoint( new SimpleTriggerInfo( "test" ) );
+    }
+
+    private void startDb()
+    {
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homeDir() )
+                .setConfig( tx_log_prepare_in_background, true )
+                .setConfig( tx_log_prune_in_background, true )
+                .setConfig( logical_log_rotation_threshold, ByteUnit.kibiBytes( 128 ) )
+                .setConfig( keep_logical_logs, "1 files" )
+                .build();
+        db = (GraphDatabaseAPI) managementService.database( DEFAULT_DATABASE_NAME );
+    }
+}
@@ -27,12 +27,14 @@ import org.junit.jupiter.api.condition.OS;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
@@ -47,7 +49,10 @@ import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
 import org.neo4j.test.rule.TestDirectory;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 
 @TestDirectoryExtension
@@ -99,17 +104,114 @@ class TransactionLogChannelAllocatorIT
         }
     }
 
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void newLogFileMustReuseRecycledLogFileWithDirectIO() throws IOException
+    {
+        TransactionLogChannelAllocator fileAllocator = createLogFileAllocator( true );
+        File prunedFile = fileHelper.getLogFileForVersion( 1 );
+        try ( StoreChannel channel = fileSystem.write( prunedFile ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( new byte[]{1, 2, 3, 4, 5, 6, 7, 8} ) );
+        }
+
+        assertTrue( fileAllocator.recycleLogFile( prunedFile ) );
+        assertFalse( fileSystem.fileExists( prunedFile ) );
+        File reserveFile = fileHelper.getReserveLogFile();
+        assertFalse( fileSystem.fileExists( reserveFile ) );
+
+        fileAllocator.prepareReserveLogFile();
+        assertFalse( fileSystem.fileExists( fileHelper.getRecyclingLogFile() ) );
+        assertFalse( fileSystem.fileExists( fileHelper.getPreparingLogFile() ) );
+        assertEquals( ROTATION_THRESHOLD, fileSystem.getFileSize( reserveFile ) );
+
+        try ( PhysicalLogVersionedStoreChannel channel = fileAllocator.createLogChannel( 12, () -> 1L ) )
+        {
+            assertFalse( fileSystem.fileExists( reserveFile ) );
+            assertEquals( CURRENT_FORMAT_LOG_HEADER_SIZE, channel.position() );
+            assertEquals( ROTATION_THRESHOLD, channel.size() );
+        }
+        try ( StoreChannel channel = fileSystem.read( fileHelper.getLogFileForVersion( 12 ) ) )
+        {
+            ByteBuffer afterHeader = ByteBuffer.allocate( 8 );
+            channel.read( afterHeader, CURRENT_FORMAT_LOG_HEADER_SIZE );
+            assertArrayEquals( new byte[8], afterHeader.array() );
+        }
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void mustKeepOnlyOneRecycledLogFile() throws IOException
+    {
+        TransactionLogChannelAllocator fileAllocator = createLogFileAllocator( true );
+        File firstPrunedFile = fileHelper.getLogFileForVersion( 1 );
+        File secondPrunedFile = fileHelper.getLogFileForVersion( 2 );
+        fileSystem.write( firstPrunedFile ).close();
+        fileSystem.write( secondPrunedFile ).close();
+
+        assertTrue( fileAllocator.recycleLogFile( firstPrunedFile ) );
+        assertFalse( fileAllocator.recycleLogFile( secondPrunedFile ) );
+        assertTrue( fileSystem.fileExists( secondPrunedFile ) );
+    }
+
+    @Test
+    void mustNotRecycleLogFilesWithoutDirectIO() throws IOException
+    {
+        File prunedFile = fileHelper.getLogFileForVersion( 1 );
+        fileSystem.write( prunedFile ).close();
+
+        assertFalse( fileAllocator.recycleLogFile( prunedFile ) );
+        assertTrue( fileSystem.fileExists( prunedFile ) );
+        assertFalse( fileSystem.fileExists( fileHelper.getReserveLogFile() ) );
+    }
+
+    @Test
+    void newLogFileMustReusePreparedLogFile() throws IOException
+    {
+        fileAllocator.prepareReserveLogFile();
+        File reserveFile = fileHelper.getReserveLogFile();
+        assertEquals( ROTATION_THRESHOLD, fileSystem.getFileSize( reserveFile ) );
+        assertFalse( fileSystem.fileExists( fileHelper.getPreparingLogFile() ) );
+
+        try ( PhysicalLogVersionedStoreChannel channel = fileAllocator.createLogChannel( 12, () -> 1L ) )
+        {
+            assertFalse( fileSystem.fileExists( reserveFile ) );
+            assertEquals( CURRENT_FORMAT_LOG_HEADER_SIZE, channel.position() );
+            assertEquals( ROTATION_THRESHOLD, channel.size() );
+        }
+    }
+
+    @Test
+    void mustNotReplaceExistingReserveLogFileWhenPreparing() throws IOException
+    {
+        File reserveFile = fileHelper.getReserveLogFile();
+        try ( StoreChannel channel = fileSystem.write( reserveFile ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( new byte[8] ) );
+        }
+
+        fileAllocator.prepareReserveLogFile();
+
+        assertEquals( 8, fileSystem.getFileSize( reserveFile ) );
+        assertFalse( fileSystem.fileExists( fileHelper.getPreparingLogFile() ) );
+    }
+
     private TransactionLogChannelAllocator createLogFileAllocator()
+    {
+        return createLogFileAllocator( false );
+    }
+
+    private TransactionLogChannelAllocator createLogFileAllocator( boolean directIO )
     {
         LogHeaderCache logHeaderCache = new LogHeaderCache( 10 );
-        var logFileContext = createLogFileContext();
+        var logFileContext = createLogFileContext( directIO );
         var nativeChannelAccessor = new LogFileChannelNativeAccessor( fileSystem, logFileContext );
         return new TransactionLogChannelAllocator( logFileContext, fileHelper, logHeaderCache, nativeChannelAccessor );
     }
 
-    private TransactionLogFilesContext createLogFileContext()
+    private TransactionLogFilesContext createLogFileContext( boolean directIO )
     {
-        return new TransactionLogFilesContext( new AtomicLong( ROTATION_THRESHOLD ), new AtomicBoolean( true ),
+        return new TransactionLogFilesContext( new AtomicLong( ROTATION_THRESHOLD ), new AtomicBoolean( true ), directIO, directIO, false,
                 new VersionAwareLogEntryReader( new TestCommandReaderFactory() ), () -> 1L,
                 () -> 1L, () -> new LogPosition( 0, 1 ),
                 SimpleLogVersionRepository::new, fileSystem,
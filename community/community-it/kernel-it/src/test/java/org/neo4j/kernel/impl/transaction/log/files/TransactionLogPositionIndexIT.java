@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.DelegatingFileSystemAbstraction;
+import org.neo4j.io.fs.DelegatingStoreChannel;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.monitoring.DatabaseHealth;
+import org.neo4j.monitoring.Monitors;
+import org.neo4j.storageengine.api.StorageEngineFactory;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.EphemeralFileSystemExtension;
+import org.neo4j.test.extension.Inject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_position_index;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.configuration.GraphDatabaseSettings.keep_logical_logs;
+import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
+import static org.neo4j.io.ByteUnit.kibiBytes;
+
+@ExtendWith( EphemeralFileSystemExtension.class )
+class TransactionLogPositionIndexIT
+{
+    private static final int TRANSACTIONS = 3_000;
+
+    @Inject
+    private EphemeralFileSystemAbstraction filesystem;
+    private DatabaseManagementService managementService;
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( managementService != null )
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldIndexEveryLogFileAndFindTransactionsInThem() throws IOException
+    {
+        GraphDatabaseAPI database = startDb( filesystem );
+        createNodes( database );
+
+        LogFiles logFiles = database.getDependencyResolver().resolveDependency( LogFiles.class );
+        assertThat( logFiles.getHighestLogVersion() ).isGreaterThan( logFiles.getLowestLogVersion() );
+        for ( long version = logFiles.getLowestLogVersion(); version <= logFiles.getHighestLogVersion(); version++ )
+        {
+            assertThat( filesystem.getFileSize( logFiles.getPositionIndexFileForVersion( version ) ) ).isGreaterThan( 0L );
+        }
+        assertAllTransactionsFound( database );
+    }
+
+    @Test
+    void shouldFindTransactionsAppendedAfterRecovery() throws IOException
+    {
+        GraphDatabaseAPI database = startDb( filesystem );
+        createNodes( database );
+
+        EphemeralFileSystemAbstraction crashed = filesystem.snapshot();
+        managementService.shutdown();
+        database = startDb( crashed );
+        createNodes( database );
+
+        assertAllTransactionsFound( database );
+    }
+
+    @Test
+    void shouldKeepCommittingAndFindTransactionsWhenThePositionIndexFails() throws IOException
+    {
+        AtomicBoolean failIndexWrites = new AtomicBoolean();
+        GraphDatabaseAPI database = startDb( new DelegatingFileSystemAbstraction( filesystem )
+        {
+            @Override
+            public StoreChannel write( File fileName ) throws IOException
+            {
+                StoreChannel channel = super.write( fileName );
+                if ( !fileName.getName().contains( "-position-index" ) )
+                {
+                    return channel;
+                }
+                return new DelegatingStoreChannel<>( channel )
+                {
+                    @Override
+                    public void writeAll( ByteBuffer src ) throws IOException
+                    {
+                        if ( failIndexWrites.get() )
+                        {
+                            throw new IOException( "Simulated position index failure" );
+                        }
+                        super.writeAll( src );
+                    }
+                };
+            }
+        } );
+        createNodes( database );
+
+        failIndexWrites.set( true );
+        createNodes( database );
+
+        assertTrue( database.getDependencyResolver().resolveDependency( DatabaseHealth.class ).isHealthy() );
+        assertAllTransactionsFound( database );
+    }
+
+    private GraphDatabaseAPI startDb( FileSystemAbstraction fs )
+    {
+        managementService = new TestDatabaseManagementServiceBuilder()
+                .setFileSystem( fs )
+                .impermanent()
+                .setConfig( tx_log_position_index, true )
+                .setConfig( logical_log_rotation_threshold, kibiBytes( 128 ) )
+                .setConfig( keep_logical_logs, "true" )
+                .build();
+        return (GraphDatabaseAPI) managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    private static void createNodes( GraphDatabaseAPI database )
+    {
+        for ( int i = 0; i < TRANSACTIONS; i++ )
+        {
+            try ( Transaction tx = database.beginTx() )
+            {
+                tx.createNode().setProperty( "value", "a value to make the transaction a bit larger " + i );
+                tx.commit();
+            }
+        }
+    }
+
+    private static void assertAllTransactionsFound( GraphDatabaseAPI database ) throws IOException
+    {
+        // A transaction store of its own, so that transactions aren't found in the metadata cache of the database
+        LogFiles logFiles = database.getDependencyResolver().resolveDependency( LogFiles.class );
+        LogEntryReader logEntryReader = new VersionAwareLogEntryReader( StorageEngineFactory.selectStorageEngine().commandReaderFactory() );
+        LogicalTransactionStore transactionStore =
+                new PhysicalLogicalTransactionStore( logFiles, new TransactionMetadataCache(), logEntryReader, new Monitors(), true );
+        long lastCommittedTransactionId = database.getDependencyResolver().resolveDependency( TransactionIdStore.class ).getLastCommittedTransactionId();
+        long firstTransactionId = logFiles.extractHeader( logFiles.getLowestLogVersion() ).getLastCommittedTxId() + 1;
+        for ( long transactionId = firstTransactionId; transactionId <= lastCommittedTransactionId; transactionId += 7 )
+        {
+            try ( TransactionCursor cursor = transactionStore.getTransactions( transactionId ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( transactionId, cursor.get().getCommitEntry().getTxId() );
+            }
+        }
+    }
+}
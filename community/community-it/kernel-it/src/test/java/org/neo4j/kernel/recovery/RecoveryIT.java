@@ -21,6 +21,7 @@ package org.neo4j.kernel.recovery;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.Test;
@@ -34,6 +35,7 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.config.Setting;
 import org.neo4j.graphdb.schema.IndexType;
 import org.neo4j.internal.kernel.api.RelationshipIndexCursor;
 import org.neo4j.internal.schema.IndexDescriptor;
@@ -121,6 +123,11 @@ class RecoveryIT
         return false;
     }
 
+    Map<Setting<?>,Object> additionalConfig()
+    {
+        return Map.of();
+    }
+
     @Test
     void recoveryRequiredOnDatabaseWithoutCorrectCheckpoints() throws Throwable
     {
@@ -744,7 +751,7 @@ class RecoveryIT
 
     private void recoverDatabase( DatabaseTracers databaseTracers ) throws Exception
     {
-        Config config = Config.newBuilder().set( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() ).build();
+        Config config = Config.newBuilder().set( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() ).set( additionalConfig() ).build();
         assertTrue( isRecoveryRequired( databaseLayout, config ) );
         performRecovery( fileSystem, pageCache, databaseTracers, config, databaseLayout, INSTANCE );
         assertFalse( isRecoveryRequired( databaseLayout, config ) );
@@ -752,7 +759,7 @@ class RecoveryIT
 
     private boolean isRecoveryRequired( DatabaseLayout layout ) throws Exception
     {
-        Config config = Config.newBuilder().set( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() ).build();
+        Config config = Config.newBuilder().set( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() ).set( additionalConfig() ).build();
         return isRecoveryRequired( layout, config );
     }
 
@@ -913,7 +920,8 @@ class RecoveryIT
     private TestDatabaseManagementServiceBuilder builderWithRelationshipTypeScanStoreSet( Neo4jLayout neo4jLayout )
     {
         return new TestDatabaseManagementServiceBuilder( neo4jLayout )
-                .setConfig( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() );
+                .setConfig( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() )
+                .setConfig( additionalConfig() );
     }
 
     private PageCache getDatabasePageCache( GraphDatabaseAPI databaseAPI )
@@ -25,6 +25,7 @@ import java.util.List;
 
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.graphdb.config.Setting;
+import org.neo4j.io.mem.MemoryPlacement;
 import org.neo4j.logging.FormattedLogFormat;
 
 import static java.time.Duration.ofMillis;
@@ -319,6 +320,65 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> fail_on_corrupted_log_files =
             newBuilder("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOL, true ).build();
 
+    @Internal
+    @Description( "Append to transaction log files with direct I/O, bypassing the OS page cache. With " +
+            "unsupported.dbms.tx_log.prepare_in_background also enabled, pruned log files are zeroed in the background " +
+            "and reused instead of creating new files on rotation. Only supported on Linux, and ignored for read only databases." )
+    public static final Setting<Boolean> tx_log_direct_io =
+            newBuilder( "unsupported.dbms.tx_log.direct_io", BOOL, false ).build();
+
+    @Internal
+    @Description( "Write each transaction to the transaction log as a single zstd compressed frame instead of as plain log entries. " +
+            "Logs with compressed frames can not be read by versions that do not know about them." )
+    public static final Setting<Boolean> tx_log_compression =
+            newBuilder( "unsupported.dbms.tx_log.compression", BOOL, false ).build();
+
+    @Internal
+    @Description( "Keep a sparse index of transaction id to log position next to each transaction log file, and use it to find the " +
+            "position of old transactions, instead of scanning the log file they are in from its start." )
+    public static final Setting<Boolean> tx_log_position_index =
+            newBuilder( "unsupported.dbms.tx_log.position_index", BOOL, false ).build();
+
+    @Internal
+    @Description( "Prepare the next transaction log file on a background job ahead of rotation, by allocating it zeroed up to the " +
+            "rotation threshold, so that rotating the log doesn't have to allocate a new file. With unsupported.dbms.tx_log.direct_io also " +
+            "enabled, a pruned log file is zeroed and used instead of allocating a new one. Ignored for read only databases." )
+    public static final Setting<Boolean> tx_log_prepare_in_background =
+            newBuilder( "unsupported.dbms.tx_log.prepare_in_background", BOOL, false ).build();
+
+    @Internal
+    @Description( "Prune transaction log files on a background job, instead of on the thread that completed the check point " +
+            "that made them prunable." )
+    public static final Setting<Boolean> tx_log_prune_in_background =
+            newBuilder( "unsupported.dbms.tx_log.prune_in_background", BOOL, false ).build();
+
+    @Internal
+    @Description( "The fraction of dirty pages in the page cache at which the 'adaptive' check point policy starts a check point." )
+    public static final Setting<Double> check_point_adaptive_dirty_page_ratio =
+            newBuilder( "unsupported.dbms.checkpoint.adaptive.dirty_page_ratio", DOUBLE, 0.10 ).addConstraint( range( 0.0, 1.0 ) ).build();
+
+    @Internal
+    @Description( "Let the check point IO limiter lower its limit when the time it takes to force the transaction log goes up, " +
+            "and raise it back towards 'dbms.checkpoint.iops.limit' when it comes down again." )
+    public static final Setting<Boolean> check_point_iops_latency_feedback =
+            newBuilder( "unsupported.dbms.checkpoint.iops.latency_feedback", BOOL, false ).build();
+
+    @Internal
+    @Description( "The 99th percentile transaction log force time above which the check point IO limiter backs off, " +
+            "when 'unsupported.dbms.checkpoint.iops.latency_feedback' is enabled." )
+    public static final Setting<Duration> check_point_iops_target_latency =
+            newBuilder( "unsupported.dbms.checkpoint.iops.target_latency", DURATION, ofMillis( 10 ) ).build();
+
+    @Internal
+    @Description( "Read and deserialize the transactions to recover on a separate thread, ahead of the transactions being applied." )
+    public static final Setting<Boolean> recovery_prefetch =
+            newBuilder( "unsupported.dbms.recovery.prefetch_transactions", BOOL, false ).build();
+
+    @Internal
+    @Description( "Maximum number of consecutive transactions to apply to the store as one batch during recovery." )
+    public static final Setting<Integer> recovery_apply_batch_size =
+            newBuilder( "unsupported.dbms.recovery.apply_batch_size", INT, 1 ).addConstraint( min( 1 ) ).build();
+
     @Internal
     @Description( "Specifies if engine should run cypher query based on a snapshot of accessed data. " +
             "Query will be restarted in case if concurrent modification of data will be detected." )
@@ -388,6 +448,66 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> log_queries_heap_dump_enabled =
             newBuilder( "unsupported.dbms.logs.query.heap_dump_enabled", BOOL, false ).dynamic().build();
 
+    @Internal
+    @Description( "Make the page cache eviction retain pages that are accessed more frequently than the pages being " +
+            "faulted in, instead of evicting in plain clock order. Access frequencies are approximated with a small " +
+            "frequency sketch, which makes this useful for workloads with scans that would otherwise flush the hot set." )
+    public static final Setting<Boolean> pagecache_frequency_aware_eviction =
+            newBuilder( "unsupported.dbms.memory.pagecache.eviction.frequency_aware", BOOL, false ).dynamic().build();
+
+    @Internal
+    @Description( "The share of the page cache, in percent, that is reserved for each file on the hot path of most operations, " +
+            "like the counts store. The page cache eviction passes over pages of such a file while it occupies no more than its share." )
+    public static final Setting<Integer> pagecache_reserved_residency_percent =
+            newBuilder( "unsupported.dbms.memory.pagecache.residency.reserved_percent", INT, 10 ).addConstraint( range( 1, 100 ) ).build();
+
+    @Internal
+    @Description( "The share of the page cache, in percent, that each temporary scratch file, like those of the import tool, may occupy. " +
+            "The page cache evicts pages of such a file regardless of their usage, once it occupies more than its share." )
+    public static final Setting<Integer> pagecache_capped_residency_percent =
+            newBuilder( "unsupported.dbms.memory.pagecache.residency.capped_percent", INT, 10 ).addConstraint( range( 1, 100 ) ).build();
+
+    @Internal
+    @Description( "Back the page cache memory with huge pages, to reduce the TLB pressure of random page accesses. 'TRANSPARENT' advises " +
+            "the operating system to use transparent huge pages, and 'EXPLICIT' maps the memory from the pre-configured huge page pool, " +
+            "falling back to transparent huge pages when the pool is exhausted. Ignored on platforms without native access." )
+    public static final Setting<MemoryPlacement.HugePages> pagecache_huge_pages = newBuilder( "unsupported.dbms.memory.pagecache.huge_pages",
+            ofEnum( MemoryPlacement.HugePages.class ), MemoryPlacement.HugePages.NONE ).build();
+
+    @Internal
+    @Description( "How the page cache memory is placed on the NUMA nodes of the machine. 'DEFAULT' leaves it to the operating system, " +
+            "'INTERLEAVE' spreads the memory evenly over the nodes, and 'BIND' only uses memory from the nodes. The nodes are given by " +
+            "'unsupported.dbms.memory.pagecache.numa.nodes'. Ignored on platforms without native access." )
+    public static final Setting<MemoryPlacement.NumaPolicy> pagecache_numa_policy = newBuilder( "unsupported.dbms.memory.pagecache.numa.policy",
+            ofEnum( MemoryPlacement.NumaPolicy.class ), MemoryPlacement.NumaPolicy.DEFAULT ).build();
+
+    @Internal
+    @Description( "The NUMA nodes that 'unsupported.dbms.memory.pagecache.numa.policy' applies to. By default all online nodes are used." )
+    public static final Setting<List<Integer>> pagecache_numa_nodes =
+            newBuilder( "unsupported.dbms.memory.pagecache.numa.nodes", listOf( INT ), List.of() ).build();
+
+    @Internal
+    @Description( "Read the pages of the store files of a database through read-only memory mappings of the files, " +
+            "instead of through read system calls. This can speed up page faults for read-mostly workloads, where the store " +
+            "files are largely cached by the operating system. Writes are not affected by this setting." )
+    public static final Setting<Boolean> pagecache_memory_mapped_reads =
+            newBuilder( "unsupported.dbms.memory.pagecache.memory_mapped_reads", BOOL, false ).build();
+
+    @Internal
+    @Description( "Use io_uring for asynchronous, batched page cache I/O on Linux. Read-ahead and eviction submit their " +
+            "reads and writes in batches, instead of issuing one system call per page. The page cache falls back to " +
+            "synchronous I/O if io_uring is not supported by the platform." )
+    public static final Setting<Boolean> pagecache_io_uring =
+            newBuilder( "unsupported.dbms.memory.pagecache.io_uring", BOOL, false ).build();
+
+    @Internal
+    @Description( "Commit transactions through a pipeline of dedicated threads, which append transactions to the " +
+            "transaction log, force the log and apply transactions to the store as separate stages. Transactions from " +
+            "concurrently committing threads are grouped into batches at each stage, so that one batch can be forced " +
+            "while the next is being appended." )
+    public static final Setting<Boolean> pipelined_commit =
+            newBuilder( "unsupported.dbms.transaction.pipelined_commit", BOOL, false ).build();
+
     @Internal
     @Description( "Specifies number of operations that batch inserter will try to group into one batch before " +
             "flushing data into underlying storage." )
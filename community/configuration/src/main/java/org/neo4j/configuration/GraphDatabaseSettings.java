@@ -378,7 +378,7 @@ public class GraphDatabaseSettings implements SettingsDeclaration
 
     public enum CheckpointPolicy
     {
-        PERIODIC, CONTINUOUS, VOLUMETRIC
+        PERIODIC, CONTINUOUS, VOLUMETRIC, ADAPTIVE
     }
     @Description( "Configures the general policy for when check-points should occur. The default policy is the " +
             "'periodic' check-point policy, as specified by the 'dbms.checkpoint.interval.tx' and " +
@@ -388,7 +388,10 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "check-point process all the time. " +
             "The second is the 'volumetric' check-point policy, which makes a best-effort at check-pointing " +
             "often enough so that the database doesn't get too far behind on deleting old transaction logs in " +
-            "accordance with the 'dbms.tx_log.rotation.retention_policy' setting." )
+            "accordance with the 'dbms.tx_log.rotation.retention_policy' setting. " +
+            "The 'adaptive' check-point policy checks often, and check-points whenever the share of dirty pages in the page " +
+            "cache, or the amount of transaction log written since the last check-point, grows too large, in addition to " +
+            "the 'periodic' thresholds." )
     public static final Setting<CheckpointPolicy> check_point_policy =
             newBuilder( "dbms.checkpoint", ofEnum( CheckpointPolicy.class ), CheckpointPolicy.PERIODIC ).build();
 
@@ -560,15 +563,13 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             .addConstraint( range( 0, 255 ) ).build();
 
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-            "warmup after a restart, reducing the mean time to performance. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "warmup after a restart, reducing the mean time to performance. A profile is also taken when the database shuts down." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             newBuilder( "dbms.memory.pagecache.warmup.profile.interval", DURATION, ofMinutes( 1 ) ).build();
 
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior." )
     public static final Setting<Boolean> pagecache_warmup_enabled =
             newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, true ).build();
 
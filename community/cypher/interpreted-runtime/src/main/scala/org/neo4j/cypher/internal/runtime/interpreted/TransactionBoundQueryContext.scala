@@ -850,12 +850,12 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     reads().countsForRelationship(startLabelId, typeId, endLabelId)
   }
 
+  // Sorted and distinct ids are locked as one batch by the kernel
   override def lockNodes(nodeIds: Long*): Unit =
-    nodeIds.sorted.foreach(transactionalContext.kernelTransaction.locks().acquireExclusiveNodeLock(_))
+    transactionalContext.kernelTransaction.locks().acquireExclusiveNodeLock(nodeIds.sorted.distinct: _*)
 
   override def lockRelationships(relIds: Long*): Unit =
-    relIds.sorted
-      .foreach(transactionalContext.kernelTransaction.locks().acquireExclusiveRelationshipLock(_))
+    transactionalContext.kernelTransaction.locks().acquireExclusiveRelationshipLock(relIds.sorted.distinct: _*)
 
   override def singleShortestPath(left: Long, right: Long, depth: Int, expander: Expander,
                                   pathPredicate: KernelPredicate[Path],
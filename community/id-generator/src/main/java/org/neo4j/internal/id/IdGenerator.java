@@ -38,6 +38,27 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
     long getHighestPossibleIdInUse();
     Marker marker( PageCursorTracer cursorTracer );
 
+    /**
+     * Hands back ids that have been allocated by {@link #nextId(PageCursorTracer)} or {@link #nextIdBatch(int, PageCursorTracer)},
+     * but that were never used, so that they can be allocated again. An id generator may not be able to take back all of them,
+     * in which case they are reclaimed the same way as ids allocated by a transaction that rolled back.
+     *
+     * @param ids the unused ids.
+     * @param cursorTracer underlying page cursor tracer
+     */
+    void releaseUnused( IdRange ids, PageCursorTracer cursorTracer );
+
+    /**
+     * Allocates a free id on the same page as {@code nearId}, if there is one. Unlike {@link #nextId(PageCursorTracer)} this never
+     * allocates from high id, and may also find free ids that are not cached yet.
+     *
+     * @param nearId the id to allocate an id close to.
+     * @param idsPerPage number of ids that fit on one page of the store that this id generator hands out ids for.
+     * @param cursorTracer underlying page cursor tracer
+     * @return the allocated id, or {@code -1} if no free id on that page could be allocated.
+     */
+    long nextIdNear( long nearId, int idsPerPage, PageCursorTracer cursorTracer );
+
     @Override
     void close();
     long getNumberOfIdsInUse();
@@ -98,6 +119,18 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
             return delegate.nextIdBatch( size, cursorTracer );
         }
 
+        @Override
+        public void releaseUnused( IdRange ids, PageCursorTracer cursorTracer )
+        {
+            delegate.releaseUnused( ids, cursorTracer );
+        }
+
+        @Override
+        public long nextIdNear( long nearId, int idsPerPage, PageCursorTracer cursorTracer )
+        {
+            return delegate.nextIdNear( nearId, idsPerPage, cursorTracer );
+        }
+
         @Override
         public void setHighId( long id )
         {
@@ -25,5 +25,19 @@ public interface IdSequence
 {
     long nextId( PageCursorTracer cursorTracer );
 
+    /**
+     * Allocates an id, like {@link #nextId(PageCursorTracer)}, but preferably one that is close to {@code nearId}, so that records
+     * that are read together, e.g. records in the same chain, end up on the same page. This is only a hint, sequences that have no
+     * notion of locality hand out their next id.
+     *
+     * @param nearId id of a record that the allocated id will be linked to.
+     * @param cursorTracer underlying page cursor tracer
+     * @return an allocated id.
+     */
+    default long nextId( long nearId, PageCursorTracer cursorTracer )
+    {
+        return nextId( cursorTracer );
+    }
+
     IdRange nextIdBatch( int size, PageCursorTracer cursorTracer );
 }
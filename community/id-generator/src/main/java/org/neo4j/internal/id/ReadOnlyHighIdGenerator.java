@@ -114,6 +114,18 @@ class ReadOnlyHighIdGenerator implements IdGenerator
         throw new UnsupportedOperationException( "Should not be required" );
     }
 
+    @Override
+    public void releaseUnused( IdRange ids, PageCursorTracer ignored )
+    {
+        throw new UnsupportedOperationException( "Should not be required" );
+    }
+
+    @Override
+    public long nextIdNear( long nearId, int idsPerPage, PageCursorTracer ignored )
+    {
+        throw new UnsupportedOperationException( "Should not be required" );
+    }
+
     @Override
     public void clearCache( PageCursorTracer cursorTracer )
     {
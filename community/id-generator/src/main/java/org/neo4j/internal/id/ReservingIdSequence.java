@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.id;
+
+import java.util.Arrays;
+
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+import static java.lang.Math.toIntExact;
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
+
+/**
+ * {@link IdSequence} which reserves ids from an {@link IdGenerator} in batches, and hands them out one by one w/o any synchronization.
+ * This is meant to be owned by a single transaction, so that creating many entities doesn't contend on the shared id generator once per entity.
+ * <p>
+ * The first id after each {@link #releaseUnused(PageCursorTracer)} is allocated on its own, and every batch after it is twice as big as
+ * the previous one, up to the max batch size. That way, small transactions allocate ids just like they would from the id generator directly,
+ * and the ids that were reserved, but not needed, are never more than the ids that were.
+ * <p>
+ * Reserved ids are only kept in memory, which means that a crash loses nothing more than the reservation: ids that were reused from
+ * the free-list are seen as free after the next restart, and ids that were allocated from high id were never written.
+ * <p>
+ * {@link #nextId(long, PageCursorTracer)} prefers a reserved id on the same page as the hinted id. If there is none, it asks the id generator
+ * for a free id on that page, and only if there is none of those either does it pick the reserved id closest to the hinted one.
+ */
+public class ReservingIdSequence implements IdSequence
+{
+    private static final long NO_ID = -1;
+
+    private final IdGenerator idGenerator;
+    private final int maxBatchSize;
+    private final int idsPerPage;
+    private int nextBatchSize = 1;
+    private long[] reusedIds = EMPTY_LONG_ARRAY;
+    private int reusedPosition;
+    private long rangeNext;
+    private long rangeEnd;
+
+    public ReservingIdSequence( IdGenerator idGenerator, int maxBatchSize, int idsPerPage )
+    {
+        this.idGenerator = idGenerator;
+        this.maxBatchSize = maxBatchSize;
+        this.idsPerPage = idsPerPage;
+    }
+
+    @Override
+    public long nextId( PageCursorTracer cursorTracer )
+    {
+        while ( true )
+        {
+            if ( reusedPosition < reusedIds.length )
+            {
+                return reusedIds[reusedPosition++];
+            }
+            if ( rangeNext < rangeEnd )
+            {
+                long id = rangeNext++;
+                if ( !IdValidator.isReservedId( id ) )
+                {
+                    return id;
+                }
+            }
+            else if ( nextBatchSize == 1 )
+            {
+                nextBatchSize = Math.min( 2, maxBatchSize );
+                return idGenerator.nextId( cursorTracer );
+            }
+            else
+            {
+                reserve( cursorTracer );
+            }
+        }
+    }
+
+    @Override
+    public long nextId( long nearId, PageCursorTracer cursorTracer )
+    {
+        long nearPage = nearId / idsPerPage;
+        if ( skipReservedIdsInRange() && rangeNext / idsPerPage == nearPage )
+        {
+            return rangeNext++;
+        }
+        int closest = closestReusedId( nearId, nearPage );
+        if ( closest != -1 && distance( reusedIds[closest], nearId, nearPage ) == 0 )
+        {
+            return takeReusedId( closest );
+        }
+
+        // None of the reserved ids are on that page, but the id generator may know of free ids there that nobody has reserved
+        long id = idGenerator.nextIdNear( nearId, idsPerPage, cursorTracer );
+        if ( id != NO_ID )
+        {
+            return id;
+        }
+
+        if ( closest == -1 && !skipReservedIdsInRange() )
+        {
+            if ( nextBatchSize == 1 )
+            {
+                return nextId( cursorTracer );
+            }
+            reserve( cursorTracer );
+            closest = closestReusedId( nearId, nearPage );
+        }
+        // Ids in the range are handed out in order, so only the next one of them is a candidate
+        if ( skipReservedIdsInRange() && (closest == -1 || distance( rangeNext, nearId, nearPage ) < distance( reusedIds[closest], nearId, nearPage )) )
+        {
+            return rangeNext++;
+        }
+        if ( closest != -1 )
+        {
+            return takeReusedId( closest );
+        }
+        return nextId( cursorTracer );
+    }
+
+    /**
+     * @return index of the reused id, among those not handed out yet, that is closest to {@code nearId}, or {@code -1} if there are none.
+     */
+    private int closestReusedId( long nearId, long nearPage )
+    {
+        int closest = -1;
+        long closestDistance = Long.MAX_VALUE;
+        for ( int i = reusedPosition; i < reusedIds.length && closestDistance > 0; i++ )
+        {
+            long distance = distance( reusedIds[i], nearId, nearPage );
+            if ( distance < closestDistance )
+            {
+                closest = i;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    private long takeReusedId( int index )
+    {
+        long id = reusedIds[index];
+        reusedIds[index] = reusedIds[reusedPosition];
+        reusedIds[reusedPosition++] = id;
+        return id;
+    }
+
+    private long distance( long id, long nearId, long nearPage )
+    {
+        return id / idsPerPage == nearPage ? 0 : Math.abs( id - nearId );
+    }
+
+    /**
+     * @return whether or not there are ids left in the reserved range, after having skipped past the ones that must not be used.
+     */
+    private boolean skipReservedIdsInRange()
+    {
+        while ( rangeNext < rangeEnd && IdValidator.isReservedId( rangeNext ) )
+        {
+            rangeNext++;
+        }
+        return rangeNext < rangeEnd;
+    }
+
+    @Override
+    public IdRange nextIdBatch( int size, PageCursorTracer cursorTracer )
+    {
+        // Whoever asks for a batch caches it themselves
+        return idGenerator.nextIdBatch( size, cursorTracer );
+    }
+
+    private void reserve( PageCursorTracer cursorTracer )
+    {
+        IdRange batch = idGenerator.nextIdBatch( nextBatchSize, cursorTracer );
+        nextBatchSize = Math.min( nextBatchSize * 2, maxBatchSize );
+        reusedIds = batch.getDefragIds();
+        reusedPosition = 0;
+        rangeNext = batch.getRangeStart();
+        rangeEnd = batch.getRangeStart() + batch.getRangeLength();
+    }
+
+    /**
+     * Hands the ids that have been reserved, but not handed out, back to the id generator, and starts over from allocating single ids.
+     *
+     * @param cursorTracer underlying page cursor tracer
+     */
+    public void releaseUnused( PageCursorTracer cursorTracer )
+    {
+        if ( reusedPosition < reusedIds.length || rangeNext < rangeEnd )
+        {
+            long[] unusedReusedIds = Arrays.copyOfRange( reusedIds, reusedPosition, reusedIds.length );
+            idGenerator.releaseUnused( new IdRange( unusedReusedIds, rangeNext, toIntExact( rangeEnd - rangeNext ) ), cursorTracer );
+        }
+        nextBatchSize = 1;
+        reusedIds = EMPTY_LONG_ARRAY;
+        reusedPosition = 0;
+        rangeNext = 0;
+        rangeEnd = 0;
+    }
+}
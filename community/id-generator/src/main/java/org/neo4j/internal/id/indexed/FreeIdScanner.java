@@ -34,6 +34,7 @@ import static java.lang.Integer.min;
 import static org.neo4j.internal.id.indexed.IdRange.IdState;
 import static org.neo4j.internal.id.indexed.IdRange.IdState.DELETED;
 import static org.neo4j.internal.id.indexed.IdRange.IdState.FREE;
+import static org.neo4j.internal.id.indexed.IndexedIdGenerator.NO_ID;
 
 /**
  * Responsible for starting and managing scans of a {@link GBPTree}, populating a cache with free ids that gets discovered in the scan.
@@ -157,6 +158,104 @@ class FreeIdScanner implements Closeable
         }
     }
 
+    /**
+     * Places ids that were taken from the cache, but never used, back into it. They are still marked as reserved, so the tree needs
+     * no update. The cache only supports a single thread offering ids at a time, which is why this happens under the scan lock.
+     * Ids that don't fit in the cache are marked as free again, like in {@link #clearCache(PageCursorTracer)}, so that a later scan finds them.
+     */
+    void returnToCache( long[] ids, PageCursorTracer cursorTracer )
+    {
+        lock.lock();
+        try
+        {
+            ReservedMarker marker = null;
+            try
+            {
+                for ( long id : ids )
+                {
+                    if ( !cache.offer( id ) )
+                    {
+                        if ( marker == null )
+                        {
+                            marker = markerProvider.getMarker( cursorTracer );
+                        }
+                        marker.markUnreserved( id );
+                    }
+                }
+            }
+            finally
+            {
+                if ( marker != null )
+                {
+                    marker.close();
+                    atLeastOneIdOnFreelist.set( true );
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds a free id between {@code fromId}, inclusive, and {@code toId}, exclusive, and marks it as reserved, like a scan does with the ids
+     * it places in the cache. Ids already in the cache are reserved, so they are never found here. If another thread is scanning, this gives up
+     * rather than waiting for it, just like {@link #tryLoadFreeIdsIntoCache(PageCursorTracer)} does.
+     *
+     * @return the reserved id, or {@link IndexedIdGenerator#NO_ID} if there was no free id in the range, or no way to look for one right now.
+     */
+    long reserveFreeId( long fromId, long toId, PageCursorTracer cursorTracer )
+    {
+        if ( !atLeastOneIdOnFreelist.get() || !lock.tryLock() )
+        {
+            return NO_ID;
+        }
+        try
+        {
+            long id = findFreeId( fromId, toId, cursorTracer );
+            if ( id != NO_ID )
+            {
+                try ( ReservedMarker marker = markerProvider.getMarker( cursorTracer ) )
+                {
+                    marker.markReserved( id );
+                }
+            }
+            return id;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private long findFreeId( long fromId, long toId, PageCursorTracer cursorTracer ) throws IOException
+    {
+        IdRangeKey fromKey = new IdRangeKey( fromId / idsPerEntry );
+        IdRangeKey toKey = new IdRangeKey( (toId - 1) / idsPerEntry + 1 );
+        try ( Seeker<IdRangeKey,IdRange> seeker = tree.seek( fromKey, toKey, cursorTracer ) )
+        {
+            while ( seeker.next() )
+            {
+                long baseId = seeker.key().getIdRangeIdx() * idsPerEntry;
+                IdRange range = seeker.value();
+                boolean differentGeneration = generation != range.getGeneration();
+                for ( long id = Math.max( baseId, fromId ); id < Math.min( baseId + idsPerEntry, toId ); id++ )
+                {
+                    if ( isFree( range.getState( (int) (id - baseId) ), differentGeneration ) )
+                    {
+                        return id;
+                    }
+                }
+            }
+        }
+        return NO_ID;
+    }
+
     private void placeIdsInCache( LinkedChunkLongArray pendingItemsToCache )
     {
         pendingItemsToCache.accept( id ->
@@ -217,14 +316,18 @@ class FreeIdScanner implements Closeable
 
         for ( int i = 0; i < idsPerEntry && pendingItemsToCache.size() < maxItemsToCache; i++ )
         {
-            final IdState state = range.getState( i );
-            if ( state == FREE || (differentGeneration && state == DELETED) )
+            if ( isFree( range.getState( i ), differentGeneration ) )
             {
                 pendingItemsToCache.add( baseId + i );
             }
         }
     }
 
+    private static boolean isFree( IdState state, boolean differentGeneration )
+    {
+        return state == FREE || (differentGeneration && state == DELETED);
+    }
+
     @Override
     public void close() throws IOException
     {   // nothing to close
@@ -430,6 +430,26 @@ public class IndexedIdGenerator implements IdGenerator
         // to prioritise performance and so we don't just sit here waiting for an ongoing scan to find IDs (fast as it may be, although it can be I/O bound)
         // so we allocate from highId instead. This make highId slide a little even if there actually are free ids available,
         // but this should be a fairly rare event.
+        return allocateFromHigh();
+    }
+
+    @Override
+    public long nextIdNear( long nearId, int idsPerPage, PageCursorTracer cursorTracer )
+    {
+        assertNotReadOnly();
+        // The cache holds ids in the order the scanner found them, so rather than going through it, look up the free ids on that page directly
+        long pageStartId = nearId - nearId % idsPerPage;
+        long id = scanner.reserveFreeId( pageStartId, pageStartId + idsPerPage, cursorTracer );
+        if ( id != NO_ID )
+        {
+            monitor.allocatedFromReused( id );
+        }
+        return id;
+    }
+
+    private long allocateFromHigh()
+    {
+        long id;
         do
         {
             id = highId.getAndIncrement();
@@ -443,41 +463,67 @@ public class IndexedIdGenerator implements IdGenerator
     @Override
     public org.neo4j.internal.id.IdRange nextIdBatch( int size, PageCursorTracer cursorTracer )
     {
-        long prev = -1;
-        long startOfRange = -1;
-        int rangeLength = 0;
-        MutableLongList other = null;
-        for ( int i = 0; i < size; i++ )
+        assertNotReadOnly();
+        maintenance( cursorTracer );
+
+        // Take what the cache has to offer first, like nextId does, and then allocate the rest from highId in one go,
+        // rather than contending on the cache and on highId once per id.
+        MutableLongList reused = null;
+        int remaining = size;
+        while ( remaining > 0 )
         {
-            long id = nextId( cursorTracer );
-            if ( other != null )
+            long id = cache.takeOrDefault( NO_ID );
+            if ( id == NO_ID )
             {
-                other.add( id );
+                break;
             }
-            else
+            if ( reused == null )
             {
-                if ( i == 0 )
-                {
-                    prev = id;
-                    startOfRange = id;
-                    rangeLength = 1;
-                }
-                else
-                {
-                    if ( id == prev + 1 )
-                    {
-                        prev = id;
-                        rangeLength++;
-                    }
-                    else
-                    {
-                        other = LongLists.mutable.empty();
-                        other.add( id );
-                    }
-                }
+                reused = LongLists.mutable.empty();
             }
+            reused.add( id );
+            monitor.allocatedFromReused( id );
+            remaining--;
+        }
+        long rangeStart = remaining > 0 ? allocateRangeFromHigh( remaining ) : NO_ID;
+        return new org.neo4j.internal.id.IdRange( reused != null ? reused.toArray() : EMPTY_LONG_ARRAY, rangeStart, remaining );
+    }
+
+    private long allocateRangeFromHigh( int size )
+    {
+        long rangeStart;
+        do
+        {
+            rangeStart = highId.getAndAdd( size );
+            IdValidator.assertIdWithinMaxCapacity( idType, rangeStart + size - 1, maxId );
+        }
+        while ( IdValidator.hasReservedIdInRange( rangeStart, rangeStart + size ) );
+        for ( long id = rangeStart; id < rangeStart + size; id++ )
+        {
+            monitor.allocatedFromHigh( id );
+        }
+        return rangeStart;
+    }
+
+    @Override
+    public void releaseUnused( org.neo4j.internal.id.IdRange ids, PageCursorTracer cursorTracer )
+    {
+        assertNotReadOnly();
+        // Ids allocated from highId can only be taken back if nothing has been allocated after them. Otherwise they are left as a gap,
+        // just like the ids of a transaction that rolled back, which gets bridged when a higher id is marked as used.
+        int rangeLength = ids.getRangeLength();
+        if ( rangeLength > 0 )
+        {
+            long rangeStart = ids.getRangeStart();
+            highId.compareAndSet( rangeStart + rangeLength, rangeStart );
+        }
+        // Ids from the cache are still marked as reserved, so they can go back into the cache as they are. Those that don't fit are marked as free
+        // again, so that they are found by a later scan.
+        long[] reused = ids.getDefragIds();
+        if ( reused.length > 0 )
+        {
+            scanner.returnToCache( reused, cursorTracer );
         }
-        return new org.neo4j.internal.id.IdRange( other != null ? other.toArray() : EMPTY_LONG_ARRAY, startOfRange, rangeLength );
     }
 
     @Override
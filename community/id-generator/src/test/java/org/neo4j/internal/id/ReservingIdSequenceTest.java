@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.id;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+class ReservingIdSequenceTest
+{
+    private final BatchingIdSequence highIds = new BatchingIdSequence();
+    private final IdGenerator idGenerator = mock( IdGenerator.class );
+
+    ReservingIdSequenceTest()
+    {
+        when( idGenerator.nextId( any() ) ).thenAnswer( invocation -> highIds.nextId( NULL ) );
+        when( idGenerator.nextIdBatch( anyInt(), any() ) ).thenAnswer( invocation -> highIds.nextIdBatch( invocation.getArgument( 0 ), NULL ) );
+        when( idGenerator.nextIdNear( anyLong(), anyInt(), any() ) ).thenReturn( -1L );
+    }
+
+    @Test
+    void shouldAllocateFirstIdOnItsOwn()
+    {
+        // given
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 64, 10 );
+
+        // when
+        long id = ids.nextId( NULL );
+        ids.releaseUnused( NULL );
+
+        // then
+        assertEquals( 0, id );
+        verify( idGenerator, never() ).nextIdBatch( anyInt(), any() );
+        verify( idGenerator, never() ).releaseUnused( any(), any() );
+    }
+
+    @Test
+    void shouldReserveDoublingBatchesUpToMaxBatchSize()
+    {
+        // given
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 8, 10 );
+
+        // when
+        for ( long expected = 0; expected < 1 + 2 + 4 + 8 + 8; expected++ )
+        {
+            assertEquals( expected, ids.nextId( NULL ) );
+        }
+
+        // then
+        verify( idGenerator ).nextIdBatch( 2, NULL );
+        verify( idGenerator ).nextIdBatch( 4, NULL );
+        verify( idGenerator, times( 2 ) ).nextIdBatch( 8, NULL );
+    }
+
+    @Test
+    void shouldReleaseIdsThatWereNotHandedOut()
+    {
+        // given
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 8, 10 );
+        ids.nextId( NULL );
+        ids.nextId( NULL );
+
+        // when
+        ids.releaseUnused( NULL );
+
+        // then the second id came from a batch of two, so only one of them was used
+        verify( idGenerator ).releaseUnused( new IdRange( EMPTY_LONG_ARRAY, 2, 1 ), NULL );
+
+        // and the next id is allocated on its own again
+        ids.nextId( NULL );
+        verify( idGenerator, times( 2 ) ).nextId( NULL );
+    }
+
+    @Test
+    void shouldHandOutReusedIdsBeforeTheRange()
+    {
+        // given
+        when( idGenerator.nextIdBatch( anyInt(), any() ) ).thenReturn( new IdRange( new long[]{5, 3}, 10, 2 ) );
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 8, 10 );
+        ids.nextId( NULL );
+
+        // when
+        long[] handedOut = {ids.nextId( NULL ), ids.nextId( NULL ), ids.nextId( NULL )};
+        ids.releaseUnused( NULL );
+
+        // then
+        assertThat( handedOut ).containsExactly( 5, 3, 10 );
+        verify( idGenerator ).releaseUnused( new IdRange( EMPTY_LONG_ARRAY, 11, 1 ), NULL );
+    }
+
+    @Test
+    void shouldSkipReservedId()
+    {
+        // given
+        highIds.set( IdValidator.INTEGER_MINUS_ONE - 1 );
+        when( idGenerator.nextIdBatch( anyInt(), any() ) )
+                .thenReturn( new IdRange( EMPTY_LONG_ARRAY, IdValidator.INTEGER_MINUS_ONE, 2 ) );
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 8, 10 );
+
+        // when
+        ids.nextId( NULL );
+        long id = ids.nextId( NULL );
+
+        // then
+        assertEquals( IdValidator.INTEGER_MINUS_ONE + 1, id );
+    }
+
+    @Test
+    void shouldHandOutReservedIdOnSamePageAsNearId()
+    {
+        // given
+        when( idGenerator.nextIdBatch( anyInt(), any() ) ).thenReturn( new IdRange( new long[]{5, 53, 42}, 100, 2 ) );
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 8, 10 );
+        ids.nextId( NULL );
+
+        // when
+        long id = ids.nextId( 49, NULL );
+        ids.releaseUnused( NULL );
+
+        // then
+        assertEquals( 42, id );
+        verify( idGenerator, never() ).nextIdNear( anyLong(), anyInt(), any() );
+        verify( idGenerator ).releaseUnused( new IdRange( new long[]{53, 5}, 100, 2 ), NULL );
+    }
+
+    @Test
+    void shouldHandOutClosestReservedIdWithoutReservingMoreIds()
+    {
+        // given
+        when( idGenerator.nextIdBatch( anyInt(), any() ) ).thenReturn( new IdRange( new long[]{500}, 10, 2 ) );
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 8, 10 );
+        ids.nextId( NULL );
+
+        // when
+        long[] handedOut = {ids.nextId( 35, NULL ), ids.nextId( 600, NULL ), ids.nextId( 600, NULL )};
+
+        // then
+        assertThat( handedOut ).containsExactly( 10, 500, 11 );
+        verify( idGenerator ).nextIdBatch( anyInt(), any() );
+    }
+
+    @Test
+    void shouldAllocateFreeIdOnSamePageAsNearIdBeforeClosestReservedId()
+    {
+        // given
+        when( idGenerator.nextIdBatch( anyInt(), any() ) ).thenReturn( new IdRange( new long[]{53}, 100, 2 ) );
+        when( idGenerator.nextIdNear( 49, 10, NULL ) ).thenReturn( 47L );
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 8, 10 );
+        ids.nextId( NULL );
+
+        // when
+        long id = ids.nextId( 49, NULL );
+        ids.releaseUnused( NULL );
+
+        // then
+        assertEquals( 47, id );
+        verify( idGenerator ).releaseUnused( new IdRange( new long[]{53}, 100, 2 ), NULL );
+    }
+
+    @Test
+    void shouldAllocateFirstIdNearHint()
+    {
+        // given
+        when( idGenerator.nextIdNear( 49, 10, NULL ) ).thenReturn( 47L );
+        ReservingIdSequence ids = new ReservingIdSequence( idGenerator, 64, 10 );
+
+        // when
+        long near = ids.nextId( 49, NULL );
+        long notNear = ids.nextId( 120, NULL );
+
+        // then the first id with a hint came from the page of the hint, and the one without free ids near it was allocated like any other first id
+        assertEquals( 47, near );
+        assertEquals( 0, notNear );
+        verify( idGenerator ).nextId( NULL );
+        verify( idGenerator, never() ).nextIdBatch( anyInt(), any() );
+    }
+}
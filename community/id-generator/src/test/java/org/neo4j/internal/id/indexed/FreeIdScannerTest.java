@@ -420,6 +420,32 @@ class FreeIdScannerTest
         assertEquals( LongLists.immutable.of( 0, 1, 2, 3, 4 ), reuser.unreservedIds );
     }
 
+    @Test
+    void shouldMarkReturnedIdsThatDoNotFitInCacheAsFree()
+    {
+        // given
+        long generation = 1;
+        ConcurrentLongQueue cache = new SpmcLongQueue( 4 );
+        FreeIdScanner scanner = scanner( IDS_PER_ENTRY, cache, generation );
+        forEachId( generation, range( 0, 5 ) ).accept( ( marker, id ) ->
+        {
+            marker.markDeleted( id );
+            marker.markFree( id );
+        } );
+        scanner.tryLoadFreeIdsIntoCache( NULL );
+        assertCacheHasIds( range( 0, 4 ) );
+        scanner.tryLoadFreeIdsIntoCache( NULL );
+
+        // when
+        scanner.returnToCache( new long[]{0, 1, 2, 3}, NULL );
+
+        // then
+        assertEquals( LongLists.immutable.of( 3 ), reuser.unreservedIds );
+        assertCacheHasIds( range( 4, 5 ), range( 0, 3 ) );
+        scanner.tryLoadFreeIdsIntoCache( NULL );
+        assertCacheHasIds( range( 3, 4 ) );
+    }
+
     @Test
     void shouldNotScanWhenConcurrentClear() throws ExecutionException, InterruptedException
     {
@@ -71,9 +71,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.neo4j.annotations.documented.ReporterFactories.noopReporterFactory;
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.internal.id.FreeIds.NO_FREE_IDS;
 import static org.neo4j.internal.id.indexed.IndexedIdGenerator.IDS_PER_ENTRY;
+import static org.neo4j.internal.id.indexed.IndexedIdGenerator.NO_ID;
 import static org.neo4j.io.pagecache.IOLimiter.UNLIMITED;
 import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.test.Race.throwing;
@@ -219,6 +221,124 @@ class IndexedIdGeneratorTest
         assertThrows( IdCapacityExceededException.class, () -> idGenerator.nextId( NULL ) );
     }
 
+    @Test
+    void shouldAllocateBatchFromCacheBeforeHighId() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        long first = idGenerator.nextId( NULL );
+        long second = idGenerator.nextId( NULL );
+        long third = idGenerator.nextId( NULL );
+        markDeleted( first );
+        markDeleted( second );
+        markReusable( first );
+        markReusable( second );
+
+        // when
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 4, NULL );
+
+        // then
+        assertThat( batch.getDefragIds() ).containsExactlyInAnyOrder( first, second );
+        assertEquals( third + 1, batch.getRangeStart() );
+        assertEquals( 2, batch.getRangeLength() );
+    }
+
+    @Test
+    void shouldNotAllocateReservedMaxIntIdInBatch() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        idGenerator.setHighId( IdValidator.INTEGER_MINUS_ONE - 2 );
+
+        // when
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 5, NULL );
+
+        // then
+        assertEquals( 5, batch.getRangeLength() );
+        assertFalse( IdValidator.hasReservedIdInRange( batch.getRangeStart(), batch.getRangeStart() + batch.getRangeLength() ) );
+    }
+
+    @Test
+    void shouldTakeBackUnusedIdsFromHighIdIfNothingWasAllocatedAfterThem() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 10, NULL );
+        long firstUnused = batch.getRangeStart() + 4;
+
+        // when
+        idGenerator.releaseUnused( new org.neo4j.internal.id.IdRange( EMPTY_LONG_ARRAY, firstUnused, 6 ), NULL );
+
+        // then
+        assertEquals( firstUnused, idGenerator.getHighId() );
+        assertEquals( firstUnused, idGenerator.nextId( NULL ) );
+    }
+
+    @Test
+    void shouldNotTakeBackUnusedIdsFromHighIdIfOtherIdsWereAllocatedAfterThem() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 10, NULL );
+        long otherId = idGenerator.nextId( NULL );
+
+        // when
+        idGenerator.releaseUnused( new org.neo4j.internal.id.IdRange( EMPTY_LONG_ARRAY, batch.getRangeStart() + 4, 6 ), NULL );
+
+        // then
+        assertEquals( otherId + 1, idGenerator.getHighId() );
+        assertEquals( otherId + 1, idGenerator.nextId( NULL ) );
+    }
+
+    @Test
+    void shouldTakeBackUnusedReusedIdsIntoCache() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        long id = idGenerator.nextId( NULL );
+        idGenerator.nextId( NULL );
+        markDeleted( id );
+        markReusable( id );
+        org.neo4j.internal.id.IdRange batch = idGenerator.nextIdBatch( 1, NULL );
+        assertThat( batch.getDefragIds() ).containsExactly( id );
+
+        // when
+        idGenerator.releaseUnused( new org.neo4j.internal.id.IdRange( batch.getDefragIds(), batch.getRangeStart(), 0 ), NULL );
+
+        // then
+        assertEquals( id, idGenerator.nextId( NULL ) );
+    }
+
+    @Test
+    void shouldAllocateFreeIdOnSamePageAsNearId() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        for ( int i = 0; i < 60; i++ )
+        {
+            idGenerator.nextId( NULL );
+        }
+        for ( long id : new long[]{5, 52} )
+        {
+            markDeleted( id );
+            markReusable( id );
+        }
+
+        // when
+        long near = idGenerator.nextIdNear( 55, 10, NULL );
+        long nearAgain = idGenerator.nextIdNear( 58, 10, NULL );
+        long onPageWithoutFreeIds = idGenerator.nextIdNear( 25, 10, NULL );
+
+        // then
+        assertEquals( 52, near );
+        assertEquals( NO_ID, nearAgain );
+        assertEquals( NO_ID, onPageWithoutFreeIds );
+
+        // and the id allocated near the hint is reserved, so it isn't handed out from the cache as well
+        assertEquals( 5, idGenerator.nextId( NULL ) );
+        assertEquals( 60, idGenerator.nextId( NULL ) );
+    }
+
     @Test
     void shouldRebuildFromFreeIdsIfWasCreated() throws IOException
     {
@@ -32,9 +32,11 @@ import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
 import static java.util.Objects.requireNonNull;
 import static org.eclipse.collections.impl.factory.Sets.immutable;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.CAPPED_RESIDENCY;
 
 /**
- * Factory of page cache backed number arrays.
+ * Factory of page cache backed number arrays. The arrays are mapped with {@link org.neo4j.io.pagecache.PageCacheOpenOptions#CAPPED_RESIDENCY},
+ * so that scanning them doesn't push the store files being imported out of the page cache.
  * @see NumberArrayFactory
  */
 public class PageCachedNumberArrayFactory extends NumberArrayFactory.Adapter
@@ -56,7 +58,7 @@ public class PageCachedNumberArrayFactory extends NumberArrayFactory.Adapter
         try
         {
             File tempFile = File.createTempFile( "intArray", ".tmp", storeDir );
-            PagedFile pagedFile = pageCache.map( tempFile, pageCache.pageSize(), immutable.of( DELETE_ON_CLOSE, CREATE ) );
+            PagedFile pagedFile = pageCache.map( tempFile, pageCache.pageSize(), immutable.of( DELETE_ON_CLOSE, CREATE, CAPPED_RESIDENCY ) );
             return new PageCacheIntArray( pagedFile, pageCacheTracer, length, defaultValue, base );
         }
         catch ( IOException e )
@@ -71,7 +73,7 @@ public class PageCachedNumberArrayFactory extends NumberArrayFactory.Adapter
         try
         {
             File tempFile = File.createTempFile( "longArray", ".tmp", storeDir );
-            PagedFile pagedFile = pageCache.map( tempFile, pageCache.pageSize(), immutable.of( DELETE_ON_CLOSE, CREATE ) );
+            PagedFile pagedFile = pageCache.map( tempFile, pageCache.pageSize(), immutable.of( DELETE_ON_CLOSE, CREATE, CAPPED_RESIDENCY ) );
             return new PageCacheLongArray( pagedFile, pageCacheTracer, length, defaultValue, base );
         }
         catch ( IOException e )
@@ -86,7 +88,7 @@ public class PageCachedNumberArrayFactory extends NumberArrayFactory.Adapter
         try
         {
             File tempFile = File.createTempFile( "byteArray", ".tmp", storeDir );
-            PagedFile pagedFile = pageCache.map( tempFile, pageCache.pageSize(), immutable.of( DELETE_ON_CLOSE, CREATE ) );
+            PagedFile pagedFile = pageCache.map( tempFile, pageCache.pageSize(), immutable.of( DELETE_ON_CLOSE, CREATE, CAPPED_RESIDENCY ) );
             return new PageCacheByteArray( pagedFile, pageCacheTracer, length, defaultValue, base );
         }
         catch ( IOException e )
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * The order in which the threads of a benchmark visit the pages of a file.
+ */
+public enum AccessPattern
+{
+    SEQUENTIAL
+    {
+        @Override
+        long next( long previousPageId, long pages, SplittableRandom random )
+        {
+            long pageId = previousPageId + 1;
+            return pageId >= pages ? 0 : pageId;
+        }
+    },
+    RANDOM
+    {
+        @Override
+        long next( long previousPageId, long pages, SplittableRandom random )
+        {
+            return random.nextLong( pages );
+        }
+    };
+
+    /**
+     * @param previousPageId the page id the thread visited before, or -1 if it has not visited any.
+     * @param pages the number of pages to visit.
+     * @param random the random source of the thread.
+     * @return the id of the page to visit next.
+     */
+    abstract long next( long previousPageId, long pages, SplittableRandom random );
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+/**
+ * Measures page accesses to a file that is larger than the page cache, so most accesses fault in a page and make the
+ * page cache evict another.
+ * <p>
+ * With {@code dirty} pages, the accesses are writes, so the evicted pages have to be flushed before they can be reused.
+ * The {@code faults} counter reports how many of the accesses had to fault in their page.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class EvictionBenchmark
+{
+    @Param( "32" )
+    public int cacheMebiBytes;
+
+    @Param( {"2", "8"} )
+    public int filePagesPerCachePage;
+
+    @Param( {"SEQUENTIAL", "RANDOM"} )
+    public AccessPattern access;
+
+    @Param( {"false", "true"} )
+    public boolean dirty;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler scheduler;
+    private DefaultPageCacheTracer cacheTracer;
+    private PageCache pageCache;
+    private File file;
+    private PagedFile pagedFile;
+    private long filePages;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        scheduler = new ThreadPoolJobScheduler();
+        cacheTracer = new DefaultPageCacheTracer();
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( mebiBytes( cacheMebiBytes ), EmptyMemoryTracker.INSTANCE );
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, cacheTracer,
+                EMPTY, scheduler, Clocks.nanoClock(), EmptyMemoryTracker.INSTANCE );
+        file = Files.createTempFile( "eviction", ".db" ).toFile();
+        pagedFile = pageCache.map( file, PageCache.PAGE_SIZE );
+        filePages = mebiBytes( cacheMebiBytes ) / PageCache.PAGE_SIZE * filePagesPerCachePage;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( long pageId = 0; pageId < filePages; pageId++ )
+            {
+                cursor.next( pageId );
+                cursor.putLong( 0, pageId );
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        pagedFile.close();
+        pageCache.close();
+        scheduler.close();
+        fs.deleteFile( file );
+        fs.close();
+    }
+
+    @AuxCounters( AuxCounters.Type.OPERATIONS )
+    @State( Scope.Thread )
+    public static class Accessor
+    {
+        private final SplittableRandom random = new SplittableRandom();
+        private PageCursorTracer cursorTracer;
+        private PageCursor cursor;
+        private long pageId;
+        public long faults;
+
+        @Setup( Level.Iteration )
+        public void setUp( EvictionBenchmark benchmark ) throws IOException
+        {
+            cursorTracer = benchmark.cacheTracer.createPageCursorTracer( "eviction" );
+            cursor = benchmark.pagedFile.io( 0, benchmark.dirty ? PF_SHARED_WRITE_LOCK : PF_SHARED_READ_LOCK, cursorTracer );
+            pageId = random.nextLong( benchmark.filePages );
+            faults = 0;
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            cursor.close();
+            faults = cursorTracer.faults();
+            cursorTracer.close();
+        }
+    }
+
+    @Benchmark
+    public long access( Accessor accessor ) throws IOException
+    {
+        accessor.pageId = access.next( accessor.pageId, filePages, accessor.random );
+        PageCursor cursor = accessor.cursor;
+        cursor.next( accessor.pageId );
+        if ( dirty )
+        {
+            cursor.putLong( 8, accessor.pageId );
+            return accessor.pageId;
+        }
+        long value;
+        do
+        {
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.mem.MemoryPlacement;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+/**
+ * Measures random page accesses against a page cache whose memory is placed with the different {@link MemoryPlacement} options.
+ * <p>
+ * With the {@code RESIDENT} working set the whole file fits in the cache, so the benchmark is dominated by the cost of touching
+ * random cache pages, which is where huge pages save TLB misses. With the {@code FAULTING} working set the file is four times the
+ * size of the cache, so most accesses also fault and evict pages, which shows the effect of NUMA placement on page faults.
+ * <p>
+ * Placements that the platform does not support fall back to ordinary memory, and then measure the same thing as {@code NONE}.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class MemoryPlacementBenchmark
+{
+    public enum WorkingSet
+    {
+        RESIDENT( 1 ),
+        FAULTING( 4 );
+
+        private final int filePagesPerCachePage;
+
+        WorkingSet( int filePagesPerCachePage )
+        {
+            this.filePagesPerCachePage = filePagesPerCachePage;
+        }
+    }
+
+    @Param( {"NONE", "TRANSPARENT", "EXPLICIT"} )
+    public MemoryPlacement.HugePages hugePages;
+
+    @Param( {"DEFAULT", "INTERLEAVE"} )
+    public MemoryPlacement.NumaPolicy numaPolicy;
+
+    @Param( {"RESIDENT", "FAULTING"} )
+    public WorkingSet workingSet;
+
+    @Param( "512" )
+    public int cacheMebiBytes;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler scheduler;
+    private PageCache pageCache;
+    private PagedFile pagedFile;
+    private File file;
+    private long filePages;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        scheduler = new ThreadPoolJobScheduler();
+        MemoryPlacement placement = new MemoryPlacement( hugePages, numaPolicy, new int[0] );
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( mebiBytes( cacheMebiBytes ), EmptyMemoryTracker.INSTANCE, placement );
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, PageCacheTracer.NULL, EMPTY, scheduler,
+                Clocks.nanoClock(), EmptyMemoryTracker.INSTANCE );
+
+        file = Files.createTempFile( "memory-placement", ".db" ).toFile();
+        pagedFile = pageCache.map( file, PageCache.PAGE_SIZE );
+        // Leave some room for the pages the page cache keeps free for faulting.
+        long cachePages = mebiBytes( cacheMebiBytes ) / PageCache.PAGE_SIZE * 9 / 10;
+        filePages = cachePages * workingSet.filePagesPerCachePage;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( long pageId = 0; pageId < filePages; pageId++ )
+            {
+                cursor.next( pageId );
+                cursor.putLong( 0, pageId );
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        pagedFile.close();
+        pageCache.close();
+        scheduler.close();
+        fs.deleteFile( file );
+        fs.close();
+    }
+
+    @State( Scope.Thread )
+    public static class Reader
+    {
+        private final SplittableRandom random = new SplittableRandom();
+        private PageCursor cursor;
+
+        @Setup( Level.Iteration )
+        public void setUp( MemoryPlacementBenchmark benchmark ) throws IOException
+        {
+            cursor = benchmark.pagedFile.io( 0, PF_SHARED_READ_LOCK, PageCursorTracer.NULL );
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            cursor.close();
+        }
+    }
+
+    @Benchmark
+    public long randomRead( Reader reader ) throws IOException
+    {
+        PageCursor cursor = reader.cursor;
+        long pageId = reader.random.nextLong( filePages );
+        long value;
+        cursor.next( pageId );
+        do
+        {
+            value = cursor.getLong( (int) (pageId % (PageCache.PAGE_SIZE / Long.BYTES)) * Long.BYTES );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+}
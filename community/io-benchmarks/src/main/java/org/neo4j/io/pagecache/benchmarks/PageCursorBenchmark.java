@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+/**
+ * Measures the optimistic reads of the read cursors, which read a page without locking it, and then validate with
+ * {@link PageCursor#shouldRetry()} that no writer overlapped the read, and the contention between the write cursors.
+ * <p>
+ * All pages are resident in the page cache. In the {@code read} group only readers read the pages, so no read ever
+ * has to be retried. In the {@code readWrite} group writers modify the same pages, so readers that overlap a writer
+ * have to retry, which is counted by the {@code retries} counter. In the {@code write} group all threads write to the
+ * same few hot pages, which measures the contention on the write locks of those pages.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class PageCursorBenchmark
+{
+    private static final int LONGS_PER_READ = 16;
+
+    @Param( {"64", "4096"} )
+    public int pages;
+
+    @Param( {"SEQUENTIAL", "RANDOM"} )
+    public AccessPattern access;
+
+    @Param( "8" )
+    public int hotPages;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler scheduler;
+    private PageCache pageCache;
+    private File file;
+    private PagedFile pagedFile;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        scheduler = new ThreadPoolJobScheduler();
+        // Room for all pages, and the pages the page cache keeps free for faulting.
+        long cacheBytes = Math.max( mebiBytes( 8 ), (long) pages * PageCache.PAGE_SIZE * 2 );
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( cacheBytes, EmptyMemoryTracker.INSTANCE );
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, PageCacheTracer.NULL,
+                EMPTY, scheduler, Clocks.nanoClock(), EmptyMemoryTracker.INSTANCE );
+        file = Files.createTempFile( "page-cursor", ".db" ).toFile();
+        pagedFile = pageCache.map( file, PageCache.PAGE_SIZE );
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( long pageId = 0; pageId < pages; pageId++ )
+            {
+                cursor.next( pageId );
+                for ( int i = 0; i < LONGS_PER_READ; i++ )
+                {
+                    cursor.putLong( pageId );
+                }
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        pagedFile.close();
+        pageCache.close();
+        scheduler.close();
+        fs.deleteFile( file );
+        fs.close();
+    }
+
+    @State( Scope.Thread )
+    public static class Reader
+    {
+        private final SplittableRandom random = new SplittableRandom();
+        private PageCursor cursor;
+        private long pageId;
+
+        @Setup( Level.Iteration )
+        public void setUp( PageCursorBenchmark benchmark ) throws IOException
+        {
+            cursor = benchmark.pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL );
+            pageId = random.nextLong( benchmark.pages );
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            cursor.close();
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Writer
+    {
+        private final SplittableRandom random = new SplittableRandom();
+        private long pageId;
+
+        @Setup( Level.Iteration )
+        public void setUp( PageCursorBenchmark benchmark )
+        {
+            pageId = random.nextLong( benchmark.pages );
+        }
+    }
+
+    @AuxCounters( AuxCounters.Type.OPERATIONS )
+    @State( Scope.Thread )
+    public static class Retries
+    {
+        public long retries;
+
+        @Setup( Level.Iteration )
+        public void reset()
+        {
+            retries = 0;
+        }
+    }
+
+    @Benchmark
+    @Group( "read" )
+    public long readOnly( Reader reader, Retries retries ) throws IOException
+    {
+        return read( reader, retries );
+    }
+
+    @Benchmark
+    @Group( "readWrite" )
+    @GroupThreads( 3 )
+    public long readWithWriters( Reader reader, Retries retries ) throws IOException
+    {
+        return read( reader, retries );
+    }
+
+    @Benchmark
+    @Group( "readWrite" )
+    @GroupThreads( 1 )
+    public void writeWithReaders( Writer writer ) throws IOException
+    {
+        writer.pageId = access.next( writer.pageId, pages, writer.random );
+        write( writer.pageId );
+    }
+
+    @Benchmark
+    @Group( "write" )
+    @GroupThreads( 4 )
+    public void writeHotPages( Writer writer ) throws IOException
+    {
+        writer.pageId = access.next( writer.pageId, Math.min( hotPages, pages ), writer.random );
+        write( writer.pageId );
+    }
+
+    private long read( Reader reader, Retries retries ) throws IOException
+    {
+        reader.pageId = access.next( reader.pageId, pages, reader.random );
+        PageCursor cursor = reader.cursor;
+        cursor.next( reader.pageId );
+        long sum;
+        for ( ;; )
+        {
+            sum = 0;
+            cursor.setOffset( 0 );
+            for ( int i = 0; i < LONGS_PER_READ; i++ )
+            {
+                sum += cursor.getLong();
+            }
+            if ( !cursor.shouldRetry() )
+            {
+                return sum;
+            }
+            retries.retries++;
+        }
+    }
+
+    private void write( long pageId ) throws IOException
+    {
+        // The write cursor is closed right away, like short writes usually are, because a write cursor that stays
+        // pinned after its write keeps every reader of its page retrying.
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            cursor.next();
+            long value = cursor.getLong( 0 ) + 1;
+            for ( int i = 0; i < LONGS_PER_READ; i++ )
+            {
+                cursor.putLong( value );
+            }
+        }
+    }
+}
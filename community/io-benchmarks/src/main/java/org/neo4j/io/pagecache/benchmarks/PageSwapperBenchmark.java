@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.MemoryMappedPageSwapperFactory;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.memory.EmptyMemoryTracker;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+
+/**
+ * Compares the cost of swapping file pages in with read system calls, against copying them out of a memory mapping of the file.
+ * <p>
+ * The file is written and read once before the measurements start, so it is cached by the OS, and the benchmark measures the
+ * overhead of getting a page from the OS page cache into page cache memory, which is what the page cache pays on every page fault
+ * of a read-mostly workload whose store files fit in memory.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class PageSwapperBenchmark
+{
+    public enum Swapper
+    {
+        READ
+        {
+            @Override
+            PageSwapperFactory factory( FileSystemAbstraction fs )
+            {
+                return new SingleFilePageSwapperFactory( fs );
+            }
+        },
+        MEMORY_MAPPED
+        {
+            @Override
+            PageSwapperFactory factory( FileSystemAbstraction fs )
+            {
+                return new MemoryMappedPageSwapperFactory( fs );
+            }
+        };
+
+        abstract PageSwapperFactory factory( FileSystemAbstraction fs );
+    }
+
+    public enum Access
+    {
+        SEQUENTIAL,
+        RANDOM
+    }
+
+    @Param( {"READ", "MEMORY_MAPPED"} )
+    public Swapper swapper;
+
+    @Param( {"SEQUENTIAL", "RANDOM"} )
+    public Access access;
+
+    @Param( "256" )
+    public int fileMebiBytes;
+
+    private FileSystemAbstraction fs;
+    private PageSwapperFactory swapperFactory;
+    private PageSwapper pageSwapper;
+    private File file;
+    private long filePages;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        file = Files.createTempFile( "page-swapper", ".db" ).toFile();
+        swapperFactory = swapper.factory( fs );
+        pageSwapper = swapperFactory.createPageSwapper( file, PageCache.PAGE_SIZE, filePageId -> {}, false, false );
+        filePages = mebiBytes( fileMebiBytes ) / PageCache.PAGE_SIZE;
+
+        long buffer = UnsafeUtil.allocateMemory( PageCache.PAGE_SIZE, EmptyMemoryTracker.INSTANCE );
+        try
+        {
+            for ( long pageId = 0; pageId < filePages; pageId++ )
+            {
+                UnsafeUtil.putLong( buffer, pageId );
+                pageSwapper.write( pageId, buffer );
+            }
+            pageSwapper.force();
+            for ( long pageId = 0; pageId < filePages; pageId++ )
+            {
+                pageSwapper.read( pageId, buffer );
+            }
+        }
+        finally
+        {
+            UnsafeUtil.free( buffer, PageCache.PAGE_SIZE, EmptyMemoryTracker.INSTANCE );
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        pageSwapper.closeAndDelete();
+        swapperFactory.close();
+        fs.close();
+    }
+
+    @State( Scope.Thread )
+    public static class Reader
+    {
+        private final SplittableRandom random = new SplittableRandom();
+        private long buffer;
+        private long nextPageId;
+
+        @Setup( Level.Iteration )
+        public void setUp()
+        {
+            buffer = UnsafeUtil.allocateMemory( PageCache.PAGE_SIZE, EmptyMemoryTracker.INSTANCE );
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            UnsafeUtil.free( buffer, PageCache.PAGE_SIZE, EmptyMemoryTracker.INSTANCE );
+        }
+
+        long nextPageId( Access access, long filePages )
+        {
+            if ( access == Access.RANDOM )
+            {
+                return random.nextLong( filePages );
+            }
+            long pageId = nextPageId;
+            nextPageId = pageId + 1 == filePages ? 0 : pageId + 1;
+            return pageId;
+        }
+    }
+
+    @Benchmark
+    public long read( Reader reader ) throws IOException
+    {
+        long pageId = reader.nextPageId( access, filePages );
+        pageSwapper.read( pageId, reader.buffer );
+        return UnsafeUtil.getLong( reader.buffer );
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+/**
+ * Measures the cost of pinning pages, which is dominated by the translation from file page ids to cache pages, and the
+ * page locks.
+ * <p>
+ * The pin benchmarks pin pages that are all resident in the page cache, so they measure the pin fast path, without any
+ * page faults. Every thread keeps a number of cursors pinned at the same time, and moves them in turn, so every pin
+ * also unpins the page the cursor was on before. The extend benchmark has all threads append pages to a file that
+ * starts out empty, so the threads keep racing to expand the translation table of the file. Run with {@code -t} to
+ * vary the number of threads.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class PinBenchmark
+{
+    private static final int EXTEND_FILE_PAGE_SIZE = 64;
+
+    @Param( "64" )
+    public int pageCacheMebiBytes;
+
+    @Param( {"1024", "4096"} )
+    public int residentPages;
+
+    @Param( {"1", "4"} )
+    public int cursors;
+
+    @Param( {"SEQUENTIAL", "RANDOM"} )
+    public AccessPattern access;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler scheduler;
+    private PageCache pageCache;
+    private File residentFile;
+    private PagedFile resident;
+    private File extendedFile;
+    private PagedFile extended;
+    private final AtomicLong nextExtendedPageId = new AtomicLong();
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        scheduler = new ThreadPoolJobScheduler();
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( mebiBytes( pageCacheMebiBytes ), EmptyMemoryTracker.INSTANCE );
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, PageCacheTracer.NULL,
+                EMPTY, scheduler, Clocks.nanoClock(), EmptyMemoryTracker.INSTANCE );
+        residentFile = Files.createTempFile( "pin", ".db" ).toFile();
+        resident = pageCache.map( residentFile, PageCache.PAGE_SIZE );
+        try ( PageCursor cursor = resident.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( long pageId = 0; pageId < residentPages; pageId++ )
+            {
+                cursor.next( pageId );
+                cursor.putLong( pageId );
+            }
+        }
+        resident.flushAndForce();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        resident.close();
+        pageCache.close();
+        scheduler.close();
+        fs.deleteFile( residentFile );
+        fs.close();
+    }
+
+    @Setup( Level.Iteration )
+    public void mapExtendedFile() throws IOException
+    {
+        extendedFile = Files.createTempFile( "pin-extend", ".db" ).toFile();
+        extended = pageCache.map( extendedFile, EXTEND_FILE_PAGE_SIZE );
+        nextExtendedPageId.set( 0 );
+    }
+
+    @TearDown( Level.Iteration )
+    public void unmapExtendedFile()
+    {
+        extended.close();
+        fs.deleteFile( extendedFile );
+    }
+
+    @State( Scope.Thread )
+    public static class Pinner
+    {
+        private final SplittableRandom random = new SplittableRandom();
+        private PageCursor[] readers;
+        private PageCursor[] writers;
+        private PageCursor extender;
+        private int nextCursor;
+        private long pageId;
+
+        @Setup( Level.Iteration )
+        public void setUp( PinBenchmark benchmark ) throws IOException
+        {
+            readers = new PageCursor[benchmark.cursors];
+            writers = new PageCursor[benchmark.cursors];
+            for ( int i = 0; i < benchmark.cursors; i++ )
+            {
+                readers[i] = benchmark.resident.io( 0, PF_SHARED_READ_LOCK, NULL );
+                writers[i] = benchmark.resident.io( 0, PF_SHARED_WRITE_LOCK, NULL );
+            }
+            extender = benchmark.extended.io( 0, PF_SHARED_WRITE_LOCK, NULL );
+            pageId = random.nextLong( benchmark.residentPages );
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            for ( int i = 0; i < readers.length; i++ )
+            {
+                readers[i].close();
+                writers[i].close();
+            }
+            extender.close();
+        }
+
+        private PageCursor next( PageCursor[] cursors )
+        {
+            PageCursor cursor = cursors[nextCursor];
+            nextCursor = nextCursor + 1 == cursors.length ? 0 : nextCursor + 1;
+            return cursor;
+        }
+
+        private long nextPageId( PinBenchmark benchmark )
+        {
+            pageId = benchmark.access.next( pageId, benchmark.residentPages, random );
+            return pageId;
+        }
+    }
+
+    @Benchmark
+    public long pinForRead( Pinner pinner ) throws IOException
+    {
+        PageCursor cursor = pinner.next( pinner.readers );
+        cursor.next( pinner.nextPageId( this ) );
+        long value;
+        do
+        {
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+
+    @Benchmark
+    public void pinForWrite( Pinner pinner ) throws IOException
+    {
+        PageCursor cursor = pinner.next( pinner.writers );
+        long pageId = pinner.nextPageId( this );
+        cursor.next( pageId );
+        cursor.putLong( 0, pageId );
+    }
+
+    @Benchmark
+    public void extend( Pinner pinner ) throws IOException
+    {
+        PageCursor cursor = pinner.extender;
+        long pageId = nextExtendedPageId.getAndIncrement();
+        cursor.next( pageId );
+        cursor.putLong( 0, pageId );
+    }
+}
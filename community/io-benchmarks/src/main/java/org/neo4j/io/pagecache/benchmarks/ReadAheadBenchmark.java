@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+/**
+ * Measures how effectively the read-ahead engine pages in file pages ahead of scanning cursors.
+ * <p>
+ * Every thread scans the file from a page of its own, with the given stride, and wraps around at the end of the file.
+ * The file is four times the size of the page cache, so a scan without read-ahead faults on every page. The
+ * {@code faults} counter reports the page faults the scanning threads still had to take themselves, and the
+ * {@code readAheads} counter reports the pages the engine faulted in for them.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class ReadAheadBenchmark
+{
+    private static final int FILE_PAGES_PER_CACHE_PAGE = 4;
+
+    @Param( "64" )
+    public int cacheMebiBytes;
+
+    @Param( {"false", "true"} )
+    public boolean readAhead;
+
+    @Param( {"1", "3"} )
+    public int stride;
+
+    @Param( {"1", "128"} )
+    public int longsReadPerPage;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler scheduler;
+    private DefaultPageCacheTracer cacheTracer;
+    private PageCache pageCache;
+    private File file;
+    private PagedFile pagedFile;
+    private long filePages;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        scheduler = new ThreadPoolJobScheduler();
+        cacheTracer = new DefaultPageCacheTracer();
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( mebiBytes( cacheMebiBytes ), EmptyMemoryTracker.INSTANCE );
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, cacheTracer,
+                EMPTY, scheduler, Clocks.nanoClock(), EmptyMemoryTracker.INSTANCE );
+        file = Files.createTempFile( "read-ahead", ".db" ).toFile();
+        pagedFile = pageCache.map( file, PageCache.PAGE_SIZE );
+        filePages = mebiBytes( cacheMebiBytes ) / PageCache.PAGE_SIZE * FILE_PAGES_PER_CACHE_PAGE;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( long pageId = 0; pageId < filePages; pageId++ )
+            {
+                cursor.next( pageId );
+                cursor.putLong( 0, pageId );
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        pagedFile.close();
+        pageCache.close();
+        scheduler.close();
+        fs.deleteFile( file );
+        fs.close();
+    }
+
+    @AuxCounters( AuxCounters.Type.OPERATIONS )
+    @State( Scope.Thread )
+    public static class Scanner
+    {
+        private PageCursorTracer cursorTracer;
+        private PageCursor cursor;
+        private long pageId;
+        private DefaultPageCacheTracer cacheTracer;
+        private long readAheadsBefore;
+        public long faults;
+        public long readAheads;
+
+        @Setup( Level.Iteration )
+        public void setUp( ReadAheadBenchmark benchmark ) throws IOException
+        {
+            cacheTracer = benchmark.cacheTracer;
+            cursorTracer = cacheTracer.createPageCursorTracer( "scanner" );
+            int pfFlags = PF_SHARED_READ_LOCK | (benchmark.readAhead ? PF_READ_AHEAD : 0);
+            cursor = benchmark.pagedFile.io( 0, pfFlags, cursorTracer );
+            pageId = Thread.currentThread().getId() * 7919 % benchmark.filePages;
+            readAheadsBefore = cacheTracer.readAheads();
+            faults = 0;
+            readAheads = 0;
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            cursor.close();
+            faults = cursorTracer.faults();
+            readAheads = cacheTracer.readAheads() - readAheadsBefore;
+            cursorTracer.close();
+        }
+    }
+
+    @Benchmark
+    public long scan( Scanner scanner ) throws IOException
+    {
+        long pageId = scanner.pageId + stride;
+        scanner.pageId = pageId >= filePages ? pageId - filePages : pageId;
+        PageCursor cursor = scanner.cursor;
+        cursor.next( scanner.pageId );
+        long sum;
+        do
+        {
+            sum = 0;
+            cursor.setOffset( 0 );
+            for ( int i = 0; i < longsReadPerPage; i++ )
+            {
+                sum += cursor.getLong();
+            }
+        }
+        while ( cursor.shouldRetry() );
+        return sum;
+    }
+}
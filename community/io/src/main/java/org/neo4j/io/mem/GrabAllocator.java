@@ -19,17 +19,24 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.memory.MemoryTracker;
 
 import java.lang.ref.Cleaner;
 
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
 import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
  * This memory allocator is allocating memory in large segments, called "grabs", and the memory returned by the memory
  * manager is page aligned, and plays well with transparent huge pages and other operating system optimisations.
+ * <p>
+ * The {@link MemoryPlacement} decides if the grabs are backed by huge pages, and how they are spread over NUMA nodes. The placement is
+ * applied to every grab before it is handed out, so that the memory has not yet been touched, and any part of it that the platform
+ * does not support is silently skipped.
  */
 public final class GrabAllocator implements MemoryAllocator
 {
@@ -48,7 +55,20 @@ public final class GrabAllocator implements MemoryAllocator
      */
     GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this( expectedMaxMemory, memoryTracker, MemoryPlacement.DEFAULT, NativeAccessProvider.getNativeAccess() );
+    }
+
+    /**
+     * Create a new GrabAllocator that will place its memory according to the given {@link MemoryPlacement}.
+     *
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate.
+     * @param memoryTracker memory usage tracker
+     * @param placement how the allocated memory should be placed by the operating system.
+     * @param nativeAccess native access used to apply the placement.
+     */
+    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker, MemoryPlacement placement, NativeAccess nativeAccess )
+    {
+        this.grabs = new Grabs( expectedMaxMemory, memoryTracker, placement, nativeAccess );
         this.cleanable = globalCleaner.register( this, new GrabsDeallocator( grabs ) );
     }
 
@@ -78,28 +98,73 @@ public final class GrabAllocator implements MemoryAllocator
 
     private static class Grab
     {
+        private static final long HUGE_PAGE_SIZE = mebiBytes( 2 );
+
         public final Grab next;
         private final long address;
         private final long limit;
         private final MemoryTracker memoryTracker;
+        private final NativeAccess mappedBy;
         private long nextPointer;
 
         Grab( Grab next, long size, MemoryTracker memoryTracker )
         {
-            this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
-            this.limit = address + size;
-            this.memoryTracker = memoryTracker;
-            nextPointer = address;
+            this( next, UnsafeUtil.allocateMemory( size, memoryTracker ), size, memoryTracker, null );
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker )
+        private Grab( Grab next, long address, long size, MemoryTracker memoryTracker, NativeAccess mappedBy )
+        {
+            this( next, address, address + size, address, memoryTracker, mappedBy );
+        }
+
+        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker, NativeAccess mappedBy )
         {
             this.next = next;
             this.address = address;
             this.limit = limit;
             this.nextPointer = nextPointer;
             this.memoryTracker = memoryTracker;
+            this.mappedBy = mappedBy;
+        }
+
+        static Grab allocate( Grab next, long size, MemoryTracker memoryTracker, MemoryPlacement placement, NativeAccess nativeAccess )
+        {
+            Grab grab = null;
+            if ( placement.hugePages() == MemoryPlacement.HugePages.EXPLICIT )
+            {
+                long mappedSize = roundUp( size, HUGE_PAGE_SIZE );
+                long address = nativeAccess.tryMapHugePages( mappedSize );
+                if ( address != 0 )
+                {
+                    memoryTracker.allocateNative( mappedSize );
+                    grab = new Grab( next, address, mappedSize, memoryTracker, nativeAccess );
+                }
+            }
+            if ( grab == null )
+            {
+                grab = new Grab( next, size, memoryTracker );
+                if ( placement.hugePages() != MemoryPlacement.HugePages.NONE )
+                {
+                    nativeAccess.tryAdviseHugePages( grab.address, size );
+                }
+            }
+            switch ( placement.numaPolicy() )
+            {
+            case INTERLEAVE:
+                nativeAccess.tryInterleaveMemory( grab.address, grab.limit - grab.address, placement.numaNodes() );
+                break;
+            case BIND:
+                nativeAccess.tryBindMemory( grab.address, grab.limit - grab.address, placement.numaNodes() );
+                break;
+            default:
+                break;
+            }
+            return grab;
+        }
+
+        private static long roundUp( long size, long multiple )
+        {
+            return (size + multiple - 1) / multiple * multiple;
         }
 
         private static long nextAligned( long pointer, long alignment )
@@ -125,7 +190,15 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            if ( mappedBy != null )
+            {
+                mappedBy.tryUnmapMemory( address, limit - address );
+                memoryTracker.releaseNative( limit - address );
+            }
+            else
+            {
+                UnsafeUtil.free( address, limit - address, memoryTracker );
+            }
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -135,7 +208,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, address, limit, nextPointer, memoryTracker, mappedBy );
         }
 
         @Override
@@ -155,14 +228,26 @@ public final class GrabAllocator implements MemoryAllocator
          */
         private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
 
+        /**
+         * The amount of memory, in bytes, to grab in each Grab when the memory is backed by huge pages. This must span a good number
+         * of huge pages, since only the huge page aligned parts of a grab can be backed by them.
+         */
+        private static final long HUGE_PAGE_GRAB_SIZE = getInteger( GrabAllocator.class, "HUGE_PAGE_GRAB_SIZE", (int) mebiBytes( 32 ) );
+
         private final MemoryTracker memoryTracker;
+        private final MemoryPlacement placement;
+        private final NativeAccess nativeAccess;
+        private final long defaultGrabSize;
         private long expectedMaxMemory;
         private Grab head;
 
-        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker )
+        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker, MemoryPlacement placement, NativeAccess nativeAccess )
         {
             this.expectedMaxMemory = expectedMaxMemory;
             this.memoryTracker = memoryTracker;
+            this.placement = placement;
+            this.nativeAccess = nativeAccess;
+            this.defaultGrabSize = placement.hugePages() == MemoryPlacement.HugePages.NONE ? GRAB_SIZE : HUGE_PAGE_GRAB_SIZE;
         }
 
         long usedMemory()
@@ -206,19 +291,19 @@ public final class GrabAllocator implements MemoryAllocator
             {
                 throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
             }
-            long grabSize = Math.min( GRAB_SIZE, expectedMaxMemory );
+            long grabSize = Math.min( defaultGrabSize, expectedMaxMemory );
             long maxAllocationSize = bytes + alignment - 1;
-            if ( maxAllocationSize > GRAB_SIZE )
+            if ( maxAllocationSize > defaultGrabSize )
             {
                 // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
                 grabSize = bytes;
                 Grab nextGrab = head == null ? null : head.next;
-                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                Grab allocationGrab = newGrab( nextGrab, grabSize );
                 if ( !allocationGrab.canAllocate( bytes, alignment ) )
                 {
                     allocationGrab.free();
                     grabSize = maxAllocationSize;
-                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    allocationGrab = newGrab( nextGrab, grabSize );
                 }
                 long allocation = allocationGrab.allocate( bytes, alignment );
                 head = head == null ? allocationGrab : head.setNext( allocationGrab );
@@ -231,7 +316,7 @@ public final class GrabAllocator implements MemoryAllocator
                 if ( grabSize < bytes )
                 {
                     grabSize = bytes;
-                    Grab grab = new Grab( head, grabSize, memoryTracker );
+                    Grab grab = newGrab( head, grabSize );
                     if ( grab.canAllocate( bytes, alignment ) )
                     {
                         expectedMaxMemory -= grabSize;
@@ -241,11 +326,16 @@ public final class GrabAllocator implements MemoryAllocator
                     grab.free();
                     grabSize = maxAllocationSize;
                 }
-                head = new Grab( head, grabSize, memoryTracker );
+                head = newGrab( head, grabSize );
                 expectedMaxMemory -= grabSize;
             }
             return head.allocate( bytes, alignment );
         }
+
+        private Grab newGrab( Grab next, long size )
+        {
+            return Grab.allocate( next, size, memoryTracker, placement, nativeAccess );
+        }
     }
 
     private static Cleaner globalCleaner()
@@ -19,6 +19,7 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.memory.MemoryTracker;
 
 /**
@@ -31,6 +32,11 @@ public interface MemoryAllocator
         return new GrabAllocator( expectedMemory, memoryTracker );
     }
 
+    static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker, MemoryPlacement placement )
+    {
+        return new GrabAllocator( expectedMemory, memoryTracker, placement, NativeAccessProvider.getNativeAccess() );
+    }
+
     /**
      * @return The sum, in bytes, of all the memory currently allocating through this allocator.
      */
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Describes how the native memory of a {@link MemoryAllocator} should be placed by the operating system: whether it should be backed by
+ * huge pages, and how it should be distributed over the NUMA nodes of the machine.
+ * <p>
+ * The placement is a request, not a guarantee. Where the platform, or the configuration of the operating system, does not support
+ * the requested placement, the memory is allocated as ordinary anonymous memory instead.
+ */
+public final class MemoryPlacement
+{
+    public static final MemoryPlacement DEFAULT = new MemoryPlacement( HugePages.NONE, NumaPolicy.DEFAULT, new int[0] );
+
+    public enum HugePages
+    {
+        /**
+         * Use whatever page size the operating system picks by default.
+         */
+        NONE,
+        /**
+         * Advise the operating system to back the memory with transparent huge pages.
+         */
+        TRANSPARENT,
+        /**
+         * Map the memory from the pre-configured huge page pool, and fall back to transparent huge pages if the pool is exhausted.
+         */
+        EXPLICIT
+    }
+
+    public enum NumaPolicy
+    {
+        /**
+         * Let the operating system place memory on the node of the thread that first touches it.
+         */
+        DEFAULT,
+        /**
+         * Spread the memory in a round robin fashion over the given nodes.
+         */
+        INTERLEAVE,
+        /**
+         * Only place memory on the given nodes.
+         */
+        BIND
+    }
+
+    private final HugePages hugePages;
+    private final NumaPolicy numaPolicy;
+    private final int[] numaNodes;
+
+    /**
+     * @param hugePages the kind of huge pages to back the memory with.
+     * @param numaPolicy the policy for distributing the memory over NUMA nodes.
+     * @param numaNodes the NUMA nodes the policy applies to, or an empty array for all online nodes.
+     */
+    public MemoryPlacement( HugePages hugePages, NumaPolicy numaPolicy, int[] numaNodes )
+    {
+        this.hugePages = requireNonNull( hugePages );
+        this.numaPolicy = requireNonNull( numaPolicy );
+        this.numaNodes = numaNodes.clone();
+    }
+
+    public HugePages hugePages()
+    {
+        return hugePages;
+    }
+
+    public NumaPolicy numaPolicy()
+    {
+        return numaPolicy;
+    }
+
+    public int[] numaNodes()
+    {
+        return numaNodes.clone();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MemoryPlacement[hugePages=" + hugePages + ", numaPolicy=" + numaPolicy + ", numaNodes=" + Arrays.toString( numaNodes ) + "]";
+    }
+}
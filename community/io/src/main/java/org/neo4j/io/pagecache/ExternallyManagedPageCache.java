@@ -98,6 +98,12 @@ public class ExternallyManagedPageCache implements PageCache
         return delegate.maxCachedPages();
     }
 
+    @Override
+    public long dirtyPages()
+    {
+        return delegate.dirtyPages();
+    }
+
     @Override
     public VersionContextSupplier versionContextSupplier()
     {
@@ -184,6 +184,17 @@ public interface PageCache extends AutoCloseable
      */
     long maxCachedPages();
 
+    /**
+     * An estimate of the number of dirty pages of the files mapped through this page cache, i.e. pages that have been
+     * modified since they were last flushed. The count is kept up to date as pages are modified and flushed, and is read
+     * without locking, so it can be slightly off while pages are being written to or flushed. Implementations that do
+     * not track dirty pages return zero.
+     */
+    default long dirtyPages()
+    {
+        return 0;
+    }
+
     /**
      * Default supplier of thread local (transaction local) version context for current page cache instance that will be used
      * on page file mapping.
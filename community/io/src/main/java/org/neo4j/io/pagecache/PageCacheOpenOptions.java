@@ -44,5 +44,37 @@ public enum PageCacheOpenOptions implements OpenOption
      * Please check that your platform is supported before providing this option.
      * @see ExtendedOpenOption for details.
      */
-    DIRECT
+    DIRECT,
+
+    /**
+     * Reserve a share of the page cache for the pages of this file.
+     * The page cache will not evict pages of the file, for as long as the file occupies no more than its reserved
+     * share of the cache, unless the cache cannot make room any other way.
+     * Use this for files that are on the hot path of most operations, and must not be pushed out by bulk operations
+     * on other files.
+     * This option only has an effect when the file is first mapped, and cannot be combined with
+     * {@link #CAPPED_RESIDENCY}.
+     */
+    RESERVED_RESIDENCY,
+
+    /**
+     * Cap the share of the page cache that the pages of this file may occupy.
+     * When the file occupies more than its share of the cache, its pages will be evicted ahead of the pages of other
+     * files, regardless of how recently they have been used.
+     * Use this for temporary or scan-heavy files, that would otherwise push the working set of other files out of
+     * the cache.
+     * This option only has an effect when the file is first mapped, and cannot be combined with
+     * {@link #RESERVED_RESIDENCY}.
+     */
+    CAPPED_RESIDENCY,
+
+    /**
+     * Read the pages of the file through a read-only memory mapping of the file, instead of through read system calls.
+     * Page faults then become memory copies out of the OS page cache, which avoids the system call overhead for
+     * read-mostly workloads where the file is largely cached by the OS. Writes are not affected by this option.
+     * The option is ignored for file systems that cannot be memory mapped, and for files that are mapped with
+     * {@link #DIRECT} I/O. This option only has an effect when the file is first mapped.
+     * @see PageSwapperFactory#memoryMappedReads()
+     */
+    MEMORY_MAPPED
 }
@@ -95,6 +95,52 @@ public interface PageSwapper
      */
     long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException;
 
+    /**
+     * Read the given file pages, which need not be consecutive, into the buffers at the given addresses.
+     * Like {@link #read(long, long)}, pages that are beyond the end of the file are zero-filled.
+     * <p>
+     * Swappers that {@link #supportsBatchedIO() support batched IO} submit all the reads to the file system together, in a single
+     * round trip. Other swappers read the pages one at a time.
+     * <p>
+     * Returns the total number of bytes read from the file.
+     */
+    default long readPages( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        long bytesRead = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytesRead += read( filePageIds[i], bufferAddresses[i] );
+        }
+        return bytesRead;
+    }
+
+    /**
+     * Write the contents of the buffers at the given addresses to the given file pages, which need not be consecutive.
+     * <p>
+     * Swappers that {@link #supportsBatchedIO() support batched IO} submit all the writes to the file system together, in a single
+     * round trip. Other swappers write the pages one at a time.
+     * <p>
+     * Returns the total number of bytes written to the file.
+     */
+    default long writePages( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        long bytesWritten = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytesWritten += write( filePageIds[i], bufferAddresses[i] );
+        }
+        return bytesWritten;
+    }
+
+    /**
+     * @return {@code true} if {@link #readPages(long[], long[], int)} and {@link #writePages(long[], long[], int)} complete a whole batch of
+     * pages in one round trip to the file system, such that it pays off for the page cache to gather pages into batches.
+     */
+    default boolean supportsBatchedIO()
+    {
+        return false;
+    }
+
     /**
      * Notification that a page has been evicted, used to clean up state in structures
      * outside the page table.
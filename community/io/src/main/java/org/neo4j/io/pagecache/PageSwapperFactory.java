@@ -63,6 +63,20 @@ public interface PageSwapperFactory
             boolean createIfNotExist,
             boolean useDirectIO ) throws IOException;
 
+    /**
+     * Get a PageSwapperFactory for the same file system as this one, whose page swappers read file pages through
+     * memory mappings of the files, rather than through read system calls.
+     * <p>
+     * This is used for files that are mapped with the {@link PageCacheOpenOptions#MEMORY_MAPPED} option.
+     * Factories that cannot memory map their files return themselves, which is also the default.
+     *
+     * @return A PageSwapperFactory that memory maps the files it creates PageSwappers for, or this factory.
+     */
+    default PageSwapperFactory memoryMappedReads()
+    {
+        return this;
+    }
+
     /**
      * Close and release any resources associated with this PageSwapperFactory, that it may have opened or acquired
      * during its construction or use.
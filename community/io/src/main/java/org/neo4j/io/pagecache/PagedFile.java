@@ -203,4 +203,16 @@ public interface PagedFile extends AutoCloseable
      * @return true if file can be deleted on close, false otherwise.
      */
     boolean isDeleteOnClose();
+
+    /**
+     * Get the number of pages of this file that are currently resident in the page cache.
+     * @return the number of resident pages of this file.
+     */
+    long residentPages();
+
+    /**
+     * Get the number of pages of this file that have been modified since they were last flushed.
+     * @return the number of dirty pages of this file.
+     */
+    long dirtyPages();
 }
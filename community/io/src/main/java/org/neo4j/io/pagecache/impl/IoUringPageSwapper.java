@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.internal.nativeimpl.NativeIoQueue;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+
+/**
+ * A {@link SingleFilePageSwapper} that submits batches of page reads and writes to the kernel together, through a native IO queue
+ * such as io_uring, so that a batch of pages costs a single round trip instead of one system call per page.
+ * <p>
+ * Only {@link #readPages(long[], long[], int)} and {@link #writePages(long[], long[], int)} go through the queue. Single page and vectored
+ * IO are already a single system call, and are inherited from the parent class.
+ * <p>
+ * Any page in a batch that does not transfer completely through the queue is redone synchronously by the parent class. This covers pages
+ * beyond the end of the file, which must be zero-filled, short transfers, and failures such as the channel having been closed by an
+ * interrupt, so those pages get exactly the error handling and channel reopening of the parent class. If no queue is available, because
+ * all queues of the pool are in use, the whole batch is done synchronously.
+ */
+public class IoUringPageSwapper extends SingleFilePageSwapper
+{
+    private final NativeIoQueuePool queues;
+    private final int filePageSize;
+
+    IoUringPageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, boolean useDirectIO,
+            NativeIoQueuePool queues ) throws IOException
+    {
+        super( file, fs, filePageSize, onEviction, useDirectIO );
+        this.queues = queues;
+        this.filePageSize = filePageSize;
+    }
+
+    @Override
+    public long readPages( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        return transferPages( filePageIds, bufferAddresses, length, false );
+    }
+
+    @Override
+    public long writePages( long[] filePageIds, long[] bufferAddresses, int length ) throws IOException
+    {
+        return transferPages( filePageIds, bufferAddresses, length, true );
+    }
+
+    @Override
+    public boolean supportsBatchedIO()
+    {
+        return true;
+    }
+
+    private long transferPages( long[] filePageIds, long[] bufferAddresses, int length, boolean write ) throws IOException
+    {
+        NativeIoQueue queue = length > 1 ? queues.acquire() : null;
+        if ( queue == null )
+        {
+            return transferPagesSynchronously( filePageIds, bufferAddresses, 0, length, write );
+        }
+
+        int[] results = new int[length];
+        NativeIoQueue.CompletionHandler completions = ( userData, result ) -> results[(int) userData] = result;
+        try
+        {
+            int fd = getFileDescriptor();
+            long fileSize = getCurrentFileSize();
+            for ( int i = 0; i < length; i++ )
+            {
+                long filePageId = filePageIds[i];
+                long fileOffset = filePageId * filePageSize;
+                if ( filePageId < 0 || (!write && fileOffset >= fileSize) )
+                {
+                    // Left for the synchronous path, which zero-fills or throws.
+                    continue;
+                }
+                if ( !prepare( queue, write, fd, fileOffset, bufferAddresses[i], i ) )
+                {
+                    // The queue is full, so we complete what we have, before we continue with the rest of the batch.
+                    queue.submitAndAwait( completions );
+                    prepare( queue, write, fd, fileOffset, bufferAddresses[i], i );
+                }
+            }
+            queue.submitAndAwait( completions );
+        }
+        catch ( IOException e )
+        {
+            // Whatever the queue managed to submit has completed by now, so no buffer of the batch is still in use by the kernel.
+            // The queue is in an unknown state though, so we do not give it back to the pool, and redo the whole batch synchronously.
+            queues.discard( queue );
+            return transferPagesSynchronously( filePageIds, bufferAddresses, 0, length, write );
+        }
+        queues.release( queue );
+
+        long bytesTransferred = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            if ( results[i] == filePageSize )
+            {
+                if ( write )
+                {
+                    increaseFileSizeTo( (filePageIds[i] + 1) * filePageSize );
+                }
+                bytesTransferred += filePageSize;
+            }
+            else
+            {
+                bytesTransferred += transferPagesSynchronously( filePageIds, bufferAddresses, i, 1, write );
+            }
+        }
+        return bytesTransferred;
+    }
+
+    private boolean prepare( NativeIoQueue queue, boolean write, int fd, long fileOffset, long bufferAddress, int index )
+    {
+        return write ? queue.prepareWrite( fd, fileOffset, bufferAddress, filePageSize, index )
+                     : queue.prepareRead( fd, fileOffset, bufferAddress, filePageSize, index );
+    }
+
+    private long transferPagesSynchronously( long[] filePageIds, long[] bufferAddresses, int offset, int length, boolean write ) throws IOException
+    {
+        long bytesTransferred = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            bytesTransferred += write ? write( filePageIds[i], bufferAddresses[i] ) : read( filePageIds[i], bufferAddresses[i] );
+        }
+        return bytesTransferred;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
+import org.neo4j.internal.nativeimpl.NativeIoQueue;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * A factory for IoUringPageSwapper instances.
+ * <p>
+ * The factory probes for support of native IO queues when it is created. If the platform, the kernel, or the file system does not support
+ * them, then the factory falls back to creating plain {@link SingleFilePageSwapper} instances, which can be checked with
+ * {@link #isSupported()}.
+ *
+ * @see org.neo4j.io.pagecache.impl.IoUringPageSwapper
+ */
+public class IoUringPageSwapperFactory implements PageSwapperFactory
+{
+    private static final int QUEUE_DEPTH = FeatureToggles.getInteger( IoUringPageSwapperFactory.class, "QUEUE_DEPTH", 64 );
+    private static final int MAX_QUEUES = FeatureToggles.getInteger( IoUringPageSwapperFactory.class, "MAX_QUEUES",
+            Runtime.getRuntime().availableProcessors() );
+
+    private final FileSystemAbstraction fs;
+    private final NativeIoQueuePool queues;
+    private final boolean supported;
+
+    public IoUringPageSwapperFactory( FileSystemAbstraction fs )
+    {
+        this( fs, NativeAccessProvider.getNativeAccess() );
+    }
+
+    IoUringPageSwapperFactory( FileSystemAbstraction fs, NativeAccess nativeAccess )
+    {
+        this.fs = fs;
+        this.queues = new NativeIoQueuePool( nativeAccess, QUEUE_DEPTH, MAX_QUEUES );
+        this.supported = fs instanceof DefaultFileSystemAbstraction && probe( queues );
+    }
+
+    private static boolean probe( NativeIoQueuePool queues )
+    {
+        NativeIoQueue queue = queues.acquire();
+        if ( queue == null )
+        {
+            return false;
+        }
+        queues.release( queue );
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the swappers created by this factory use native IO queues, or {@code false} if the factory falls back to
+     * synchronous swappers.
+     */
+    public boolean isSupported()
+    {
+        return supported;
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean useDirectIO ) throws IOException
+    {
+        if ( !createIfNotExist && !fs.fileExists( file ) )
+        {
+            throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
+        }
+        if ( !supported )
+        {
+            return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, useDirectIO );
+        }
+        return new IoUringPageSwapper( file, fs, filePageSize, onEviction, useDirectIO, queues );
+    }
+
+    @Override
+    public PageSwapperFactory memoryMappedReads()
+    {
+        // Only files on the real file system can be memory mapped.
+        return fs instanceof DefaultFileSystemAbstraction ? new MemoryMappedPageSwapperFactory( fs ) : this;
+    }
+
+    @Override
+    public void close()
+    {
+        queues.close();
+    }
+}
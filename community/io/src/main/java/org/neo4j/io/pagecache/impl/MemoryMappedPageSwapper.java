@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * A {@link SingleFilePageSwapper} that serves page reads from a read-only memory mapping of the file, instead of
+ * issuing a read system call for every page fault.
+ * <p>
+ * The file is mapped in segments of a whole number of file pages, so no file page ever straddles two segments.
+ * A segment is mapped lazily by the first read that touches it, and is remapped when the file has grown beyond the
+ * end of the current mapping of the segment. Reads beyond the end of the file are zero-filled, just like in the
+ * parent class.
+ * <p>
+ * Writes, forces and preallocation all go through the file channel of the parent class. The mappings are shared with
+ * the OS page cache, so they observe those writes without any further coordination. The mappings are dropped before
+ * the file is truncated or closed, because touching a mapping beyond the end of the file would crash the JVM.
+ * <p>
+ * Any read the mappings cannot serve, for instance because the mapping channel was closed by an interrupt, is
+ * delegated to the parent class, which also takes care of the error handling.
+ */
+public class MemoryMappedPageSwapper extends SingleFilePageSwapper
+{
+    private static final long SEGMENT_SIZE = FeatureToggles.getLong( MemoryMappedPageSwapper.class, "SEGMENT_SIZE", 1L << 30 );
+    private static final MappedByteBuffer[] NO_SEGMENTS = new MappedByteBuffer[0];
+
+    private final File file;
+    private final int filePageSize;
+    private final long segmentSize;
+    private final Lock mappingReadLock;
+    private final Lock mappingWriteLock;
+
+    // Guarded by mappingWriteLock, and read under mappingReadLock.
+    private FileChannel mappingChannel;
+    private MappedByteBuffer[] segments = NO_SEGMENTS;
+    private boolean closed;
+
+    MemoryMappedPageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction ) throws IOException
+    {
+        super( file, fs, filePageSize, onEviction, false );
+        this.file = file;
+        this.filePageSize = filePageSize;
+        this.segmentSize = filePageSize * Math.max( 1, SEGMENT_SIZE / filePageSize );
+        ReadWriteLock mappingLock = new ReentrantReadWriteLock();
+        this.mappingReadLock = mappingLock.readLock();
+        this.mappingWriteLock = mappingLock.writeLock();
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress ) throws IOException
+    {
+        long fileOffset = filePageId * filePageSize;
+        long fileSize = getCurrentFileSize();
+        if ( filePageId < 0 || fileOffset >= fileSize )
+        {
+            return super.read( filePageId, bufferAddress );
+        }
+
+        int bytes = (int) Math.min( filePageSize, fileSize - fileOffset );
+        if ( !readMapped( fileOffset, bytes, bufferAddress ) )
+        {
+            return super.read( filePageId, bufferAddress );
+        }
+        if ( bytes < filePageSize )
+        {
+            UnsafeUtil.setMemory( bufferAddress + bytes, filePageSize - bytes, MuninnPageCache.ZERO_BYTE );
+        }
+        return bytes;
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        if ( length == 0 )
+        {
+            return 0;
+        }
+        if ( startFilePageId < 0 || arrayOffset < 0 || arrayOffset + length > bufferAddresses.length )
+        {
+            return super.read( startFilePageId, bufferAddresses, arrayOffset, length );
+        }
+
+        long bytesRead = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytesRead += read( startFilePageId + i, bufferAddresses[arrayOffset + i] );
+        }
+        return bytesRead;
+    }
+
+    private boolean readMapped( long fileOffset, int bytes, long bufferAddress ) throws IOException
+    {
+        int segmentId = (int) (fileOffset / segmentSize);
+        long segmentOffset = fileOffset % segmentSize;
+        mappingReadLock.lock();
+        try
+        {
+            MappedByteBuffer segment = segmentId < segments.length ? segments[segmentId] : null;
+            if ( segment == null || segment.capacity() < segmentOffset + bytes )
+            {
+                mappingReadLock.unlock();
+                mappingWriteLock.lock();
+                try
+                {
+                    segment = mapSegment( segmentId, segmentOffset + bytes );
+                }
+                finally
+                {
+                    // Downgrade to the read lock, so the segment cannot be unmapped while we copy from it.
+                    mappingReadLock.lock();
+                    mappingWriteLock.unlock();
+                }
+                if ( segment == null )
+                {
+                    return false;
+                }
+            }
+            long segmentAddress = UnsafeUtil.getDirectByteBufferAddress( segment );
+            UnsafeUtil.copyMemory( null, segmentAddress + segmentOffset, null, bufferAddress, bytes );
+            return true;
+        }
+        finally
+        {
+            mappingReadLock.unlock();
+        }
+    }
+
+    /**
+     * Map, or remap, the given segment such that at least the given number of bytes are mapped.
+     * Must be called while holding the mapping write lock.
+     *
+     * @return the mapped segment, or {@code null} if the segment could not be mapped.
+     */
+    private MappedByteBuffer mapSegment( int segmentId, long requiredBytes ) throws IOException
+    {
+        if ( segmentId < segments.length )
+        {
+            MappedByteBuffer segment = segments[segmentId];
+            if ( segment != null && segment.capacity() >= requiredBytes )
+            {
+                // Another thread mapped the segment while we were waiting for the lock.
+                return segment;
+            }
+        }
+        if ( closed )
+        {
+            return null;
+        }
+
+        try
+        {
+            if ( mappingChannel == null || !mappingChannel.isOpen() )
+            {
+                mappingChannel = FileChannel.open( file.toPath(), StandardOpenOption.READ );
+            }
+            long segmentStart = segmentId * segmentSize;
+            long mappingSize = Math.min( segmentSize, mappingChannel.size() - segmentStart );
+            if ( mappingSize < requiredBytes )
+            {
+                return null;
+            }
+            MappedByteBuffer segment = mappingChannel.map( FileChannel.MapMode.READ_ONLY, segmentStart, mappingSize );
+            if ( segmentId >= segments.length )
+            {
+                segments = Arrays.copyOf( segments, segmentId + 1 );
+            }
+            unmap( segments[segmentId] );
+            segments[segmentId] = segment;
+            return segment;
+        }
+        catch ( IOException e )
+        {
+            // Most likely the mapping channel was closed by an interrupt. We leave it to the parent class to do the read
+            // and deal with the interrupt, and reopen the mapping channel on the next read.
+            return null;
+        }
+    }
+
+    /**
+     * Must be called while holding the mapping write lock.
+     */
+    private void unmapAll()
+    {
+        for ( MappedByteBuffer segment : segments )
+        {
+            unmap( segment );
+        }
+        segments = NO_SEGMENTS;
+    }
+
+    private static void unmap( MappedByteBuffer segment )
+    {
+        if ( segment != null )
+        {
+            UnsafeUtil.invokeCleaner( segment );
+        }
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        // The write lock is held until the file has been truncated, so no read can map the old end of the file in between.
+        mappingWriteLock.lock();
+        try
+        {
+            unmapAll();
+            super.truncate();
+        }
+        finally
+        {
+            mappingWriteLock.unlock();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        mappingWriteLock.lock();
+        try
+        {
+            closed = true;
+            unmapAll();
+            if ( mappingChannel != null )
+            {
+                mappingChannel.close();
+            }
+        }
+        finally
+        {
+            mappingWriteLock.unlock();
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+/**
+ * A factory for MemoryMappedPageSwapper instances.
+ * <p>
+ * Memory mapping only works for files on the real file system, so this factory must only be used together with the
+ * {@link org.neo4j.io.fs.DefaultFileSystemAbstraction}. Files that are mapped with direct I/O bypass the OS page
+ * cache, and therefore get a plain {@link SingleFilePageSwapper} instead.
+ *
+ * @see org.neo4j.io.pagecache.impl.MemoryMappedPageSwapper
+ */
+public class MemoryMappedPageSwapperFactory implements PageSwapperFactory
+{
+    private final FileSystemAbstraction fs;
+
+    public MemoryMappedPageSwapperFactory( FileSystemAbstraction fs )
+    {
+        this.fs = fs;
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean useDirectIO ) throws IOException
+    {
+        if ( !createIfNotExist && !fs.fileExists( file ) )
+        {
+            throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
+        }
+        if ( useDirectIO )
+        {
+            return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, true );
+        }
+        return new MemoryMappedPageSwapper( file, fs, filePageSize, onEviction );
+    }
+
+    @Override
+    public PageSwapperFactory memoryMappedReads()
+    {
+        return this;
+    }
+
+    @Override
+    public void close()
+    {
+        // We have nothing to close
+    }
+}
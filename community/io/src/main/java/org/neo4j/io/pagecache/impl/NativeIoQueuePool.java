@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeIoQueue;
+
+/**
+ * A pool of {@link NativeIoQueue native IO queues}, shared by all the page swappers of a page swapper factory.
+ * <p>
+ * A queue can only be used by one thread at a time, and it is too expensive to set up a queue for every batch of IO, so threads borrow
+ * queues from the pool for the duration of a batch. The pool creates queues on demand, up to a limit, after which threads that cannot
+ * borrow a queue have to do their IO synchronously instead.
+ */
+final class NativeIoQueuePool implements AutoCloseable
+{
+    private final NativeAccess nativeAccess;
+    private final int depth;
+    private final int maxQueues;
+    private final ConcurrentLinkedQueue<NativeIoQueue> idleQueues = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    NativeIoQueuePool( NativeAccess nativeAccess, int depth, int maxQueues )
+    {
+        this.nativeAccess = nativeAccess;
+        this.depth = depth;
+        this.maxQueues = maxQueues;
+    }
+
+    /**
+     * Borrow a queue from the pool. The queue must be given back with {@link #release(NativeIoQueue)}, or {@link #discard(NativeIoQueue)}.
+     * @return a queue, or {@code null} if all queues are in use, or no queue could be created.
+     */
+    NativeIoQueue acquire()
+    {
+        NativeIoQueue queue = idleQueues.poll();
+        if ( queue != null || closed )
+        {
+            return queue;
+        }
+        int count;
+        do
+        {
+            count = queueCount.get();
+            if ( count >= maxQueues )
+            {
+                return null;
+            }
+        }
+        while ( !queueCount.compareAndSet( count, count + 1 ) );
+
+        queue = nativeAccess.tryCreateIoQueue( depth );
+        if ( queue == null )
+        {
+            queueCount.decrementAndGet();
+        }
+        return queue;
+    }
+
+    /**
+     * Give a queue that is in a good state back to the pool.
+     */
+    void release( NativeIoQueue queue )
+    {
+        idleQueues.offer( queue );
+        if ( closed )
+        {
+            closeIdleQueues();
+        }
+    }
+
+    /**
+     * Close a queue that has failed, and is in an unknown state, instead of giving it back to the pool.
+     */
+    void discard( NativeIoQueue queue )
+    {
+        queue.close();
+        queueCount.decrementAndGet();
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        closeIdleQueues();
+    }
+
+    private void closeIdleQueues()
+    {
+        NativeIoQueue queue;
+        while ( (queue = idleQueues.poll()) != null )
+        {
+            queue.close();
+        }
+    }
+}
@@ -160,7 +160,15 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
-    private void increaseFileSizeTo( long newFileSize )
+    /**
+     * @return the file descriptor of the current channel, which changes if the channel is reopened.
+     */
+    int getFileDescriptor()
+    {
+        return channel.getFileDescriptor();
+    }
+
+    void increaseFileSizeTo( long newFileSize )
     {
         long currentFileSize;
         do
@@ -171,7 +179,7 @@ public class SingleFilePageSwapper implements PageSwapper
                 this, FILE_SIZE_OFFSET, currentFileSize, newFileSize ) );
     }
 
-    private long getCurrentFileSize()
+    long getCurrentFileSize()
     {
         return UnsafeUtil.getLongVolatile( this, FILE_SIZE_OFFSET );
     }
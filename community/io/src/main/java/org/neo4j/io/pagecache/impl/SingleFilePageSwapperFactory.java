@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.NoSuchFileException;
 
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
@@ -57,6 +58,13 @@ public class SingleFilePageSwapperFactory implements PageSwapperFactory
         return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, useDirectIO );
     }
 
+    @Override
+    public PageSwapperFactory memoryMappedReads()
+    {
+        // Only files on the real file system can be memory mapped.
+        return fs instanceof DefaultFileSystemAbstraction ? new MemoryMappedPageSwapperFactory( fs ) : this;
+    }
+
     @Override
     public void close()
     {
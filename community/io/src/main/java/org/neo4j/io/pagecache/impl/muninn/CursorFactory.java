@@ -40,6 +40,11 @@ final class CursorFactory
         this.versionContextSupplier = versionContextSupplier;
     }
 
+    MuninnPagedFile pagedFile()
+    {
+        return pagedFile;
+    }
+
     MuninnReadPageCursor takeReadCursor( long pageId, int pf_flags, PageCursorTracer pageCursorTracer )
     {
         MuninnReadPageCursor cursor = new MuninnReadPageCursor( victimPage, pageCursorTracer, versionContextSupplier );
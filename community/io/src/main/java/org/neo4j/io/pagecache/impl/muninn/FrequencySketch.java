@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The FrequencySketch estimates how often file pages are accessed, for the frequency-aware eviction policy of the
+ * {@link MuninnPageCache}.
+ * <p>
+ * It is a count-min sketch of 4-bit counters, in the style of TinyLFU. Every page is counted in four counters, picked
+ * by four different hashes of its binding, and its estimated frequency is the smallest of those counters. Because the
+ * counters saturate at 15, and are all halved once the number of recorded accesses reaches a sample size proportional
+ * to the number of pages in the cache, the sketch forgets old history and only tracks the recent popularity of pages.
+ * <p>
+ * The sketch also keeps a moving average of the frequencies of the pages that are faulted in. Eviction candidates
+ * whose estimated frequency is higher than this average are retained for another lap of the eviction clock, since
+ * evicting them in favour of the pages that are currently being faulted in would likely lower the hit ratio. This is
+ * what makes the policy resistant to large scans: the pages of a scan are faulted in once, and are then the first to
+ * go again.
+ * <p>
+ * The sketch is intentionally not thread-safe. Increments can race and get lost, which only makes the estimates a
+ * little less precise, and is much cheaper than coordinating the page faulting threads.
+ */
+final class FrequencySketch
+{
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    // The fault frequency average is kept with 4 bits of fractional precision.
+    private static final int AVERAGE_SHIFT = 4;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+    private int faultFrequencyAverage;
+
+    FrequencySketch( int maxPages )
+    {
+        // Eight 4-bit counters per page, which is four bytes of heap memory per page in the cache.
+        long pagesPowerOfTwo = maxPages <= 1 ? 1 : Long.highestOneBit( maxPages - 1L ) << 1;
+        int length = (int) Math.min( 1L << 30, Math.max( 32L, pagesPowerOfTwo / 2 ) );
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = (int) Math.min( Integer.MAX_VALUE, 10L * Math.max( 1, maxPages ) );
+    }
+
+    /**
+     * Record that the page with the given binding key has been faulted in, and update the fault frequency average.
+     */
+    void recordFault( long key )
+    {
+        increment( key );
+        int frequency = frequency( key ) << AVERAGE_SHIFT;
+        // Round the increments up, or the integer average would stop short of the frequencies it is approaching from below.
+        faultFrequencyAverage += (frequency - faultFrequencyAverage + 7) >> 3;
+    }
+
+    /**
+     * Record that the page with the given binding key has been accessed while it was resident.
+     */
+    void recordAccess( long key )
+    {
+        increment( key );
+    }
+
+    /**
+     * @return {@code true} if the page with the given binding key is estimated to be accessed more frequently than the
+     * pages that have recently been faulted in, and should therefore be spared from eviction for now.
+     */
+    boolean shouldRetain( long key )
+    {
+        return (frequency( key ) << AVERAGE_SHIFT) > faultFrequencyAverage;
+    }
+
+    /**
+     * @return the estimated number of recent accesses to the page with the given binding key, at most 15.
+     */
+    int frequency( long key )
+    {
+        long hash = spread( key );
+        int frequency = Integer.MAX_VALUE;
+        for ( int i = 0; i < DEPTH; i++ )
+        {
+            long h = rehash( hash, i );
+            long value = table[(int) h & tableMask];
+            int shift = counterShift( h );
+            frequency = Math.min( frequency, (int) ((value >>> shift) & COUNTER_MASK) );
+        }
+        return frequency;
+    }
+
+    private void increment( long key )
+    {
+        long hash = spread( key );
+        boolean added = false;
+        for ( int i = 0; i < DEPTH; i++ )
+        {
+            long h = rehash( hash, i );
+            int index = (int) h & tableMask;
+            int shift = counterShift( h );
+            long value = table[index];
+            if ( ((value >>> shift) & COUNTER_MASK) != COUNTER_MASK )
+            {
+                table[index] = value + (1L << shift);
+                added = true;
+            }
+        }
+        if ( added && ++size >= sampleSize )
+        {
+            reset();
+        }
+    }
+
+    private void reset()
+    {
+        for ( int i = 0; i < table.length; i++ )
+        {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = sampleSize >>> 1;
+        faultFrequencyAverage >>>= 1;
+    }
+
+    private static int counterShift( long h )
+    {
+        // Pick one of the 16 counters in the long, and turn it into a bit offset.
+        return (int) ((h >>> 32) & 15) << 2;
+    }
+
+    private static long spread( long key )
+    {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static long rehash( long hash, int i )
+    {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        return h ^ (h >>> 29);
+    }
+}
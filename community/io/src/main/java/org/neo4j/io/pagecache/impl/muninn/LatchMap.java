@@ -104,6 +104,26 @@ final class LatchMap
         return null;
     }
 
+    /**
+     * Like {@link #takeOrAwaitLatch(long)}, except a latch that is already installed for the given (or any colliding)
+     * identifier is not waited upon. This is for threads that take several latches at once, which could otherwise end
+     * up waiting for a latch they have installed themselves.
+     *
+     * @return the newly installed latch, or {@code null} if a latch was already installed.
+     */
+    Latch tryTakeLatch( long identifier )
+    {
+        int index = index( identifier );
+        Latch latch = new Latch();
+        if ( getLatch( index ) == null && compareAndSetLatch( index, null, latch ) )
+        {
+            latch.latchMap = this;
+            latch.index = index;
+            return latch;
+        }
+        return null;
+    }
+
     private int index( long identifier )
     {
         return (int) (mix( identifier ) & faultLockMask);
@@ -126,6 +126,15 @@ public class MuninnPageCache implements PageCache
     private static final int pagesToKeepFree = getInteger(
             MuninnPageCache.class, "pagesToKeepFree", 30 );
 
+    // The maximum number of victim pages that the background eviction thread collects before evicting them as a batch.
+    // Dirty victims in a batch that are adjacent in their file are flushed with a single vectored write.
+    private static final int evictionBatchSize = getInteger(
+            MuninnPageCache.class, "evictionBatchSize", 32 );
+
+    // The default share of the page cache, in percent, that is reserved for, or that is the cap of, each file mapped
+    // with RESERVED_RESIDENCY or CAPPED_RESIDENCY respectively. See setResidencyShares.
+    private static final int DEFAULT_RESIDENCY_PERCENT = 10;
+
     // This is how many times that, during cooperative eviction, we'll iterate through the entire set of pages looking
     // for a page to evict, before we give up and throw CacheLiveLockException. This MUST be greater than 1.
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
@@ -152,6 +161,7 @@ public class MuninnPageCache implements PageCache
     // Scheduler that runs all the background jobs for page cache.
     private final JobScheduler scheduler;
     private final SystemNanoClock clock;
+    private final ReadAhead readAhead;
 
     private static final List<OpenOption> ignoredOpenOptions = Arrays.asList( StandardOpenOption.APPEND,
             StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.SPARSE );
@@ -194,6 +204,19 @@ public class MuninnPageCache implements PageCache
     private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
+    // The access frequency estimates used by the frequency-aware eviction policy, or null if the plain clock policy
+    // is in use.
+    private volatile FrequencySketch frequencySketch;
+
+    // The number of mapped files that have a residency quota - writes guarded by synchronized(this), reads can be
+    // unsynchronized. The eviction sweep only looks up the residency of its candidates when this is non-zero.
+    private volatile int residencyQuotas;
+
+    // The shares of the page cache, in percent, that files mapped with RESERVED_RESIDENCY or CAPPED_RESIDENCY get.
+    // Only read when a file is first mapped.
+    private volatile int reservedResidencyPercent = DEFAULT_RESIDENCY_PERCENT;
+    private volatile int cappedResidencyPercent = DEFAULT_RESIDENCY_PERCENT;
+
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
@@ -274,10 +297,67 @@ public class MuninnPageCache implements PageCache
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize() );
         this.scheduler = jobScheduler;
         this.clock = clock;
+        this.readAhead = new ReadAhead( jobScheduler, pageCacheTracer, clock, pages.getPageCount() );
 
         setFreelistHead( new AtomicInteger() );
     }
 
+    /**
+     * Select the policy that the background eviction thread uses for picking its victims. This can be changed at any
+     * time, also while the page cache is in use.
+     * <p>
+     * By default, the page cache uses a clock policy, where pages are evicted once their usage counter has been swept
+     * down to zero. With the frequency-aware policy, the page cache additionally keeps an estimate of how often every
+     * file page has been accessed recently, and retains eviction candidates that are accessed more frequently than the
+     * pages that are currently being faulted in. This makes the page cache resistant to large scans, that would
+     * otherwise push out the frequently used pages. The number of retained candidates is reported through
+     * {@link PageCacheTracer#retentions(long)}.
+     *
+     * @param enabled {@code true} to use the frequency-aware eviction policy, or {@code false} to use the plain clock
+     * policy.
+     */
+    public void setFrequencyAwareEviction( boolean enabled )
+    {
+        if ( enabled && frequencySketch == null )
+        {
+            frequencySketch = new FrequencySketch( pages.getPageCount() );
+        }
+        else if ( !enabled )
+        {
+            frequencySketch = null;
+        }
+    }
+
+    /**
+     * Set the shares of the page cache that files mapped with {@link PageCacheOpenOptions#RESERVED_RESIDENCY} and
+     * {@link PageCacheOpenOptions#CAPPED_RESIDENCY} get. The shares only apply to files that are mapped after this
+     * call, since the residency quota of a file is fixed when it is first mapped.
+     *
+     * @param reservedPercent the share of the page cache, in percent, reserved for each file mapped with
+     * {@link PageCacheOpenOptions#RESERVED_RESIDENCY}.
+     * @param cappedPercent the share of the page cache, in percent, that each file mapped with
+     * {@link PageCacheOpenOptions#CAPPED_RESIDENCY} may occupy.
+     */
+    public void setResidencyShares( int reservedPercent, int cappedPercent )
+    {
+        if ( reservedPercent < 1 || reservedPercent > 100 || cappedPercent < 1 || cappedPercent > 100 )
+        {
+            throw new IllegalArgumentException( "Residency shares must be between 1 and 100 percent, but were " + reservedPercent +
+                    " and " + cappedPercent );
+        }
+        this.reservedResidencyPercent = reservedPercent;
+        this.cappedResidencyPercent = cappedPercent;
+    }
+
+    void recordPageFault( int swapperId, long filePageId )
+    {
+        FrequencySketch sketch = frequencySketch;
+        if ( sketch != null )
+        {
+            sketch.recordFault( PageList.bindingKey( swapperId, filePageId ) );
+        }
+    }
+
     private static void verifyHacks()
     {
         // Make sure that we have access to theUnsafe.
@@ -326,6 +406,9 @@ public class MuninnPageCache implements PageCache
         boolean deleteOnClose = false;
         boolean anyPageSize = false;
         boolean useDirectIO = false;
+        boolean reservedResidency = false;
+        boolean cappedResidency = false;
+        boolean memoryMapped = false;
         for ( OpenOption option : openOptions )
         {
             if ( option.equals( StandardOpenOption.CREATE ) )
@@ -348,12 +431,30 @@ public class MuninnPageCache implements PageCache
             {
                 useDirectIO = true;
             }
+            else if ( option.equals( PageCacheOpenOptions.RESERVED_RESIDENCY ) )
+            {
+                reservedResidency = true;
+            }
+            else if ( option.equals( PageCacheOpenOptions.CAPPED_RESIDENCY ) )
+            {
+                cappedResidency = true;
+            }
+            else if ( option.equals( PageCacheOpenOptions.MEMORY_MAPPED ) )
+            {
+                memoryMapped = true;
+            }
             else if ( !ignoredOpenOptions.contains( option ) )
             {
                 throw new UnsupportedOperationException( "Unsupported OpenOption: " + option );
             }
         }
 
+        if ( reservedResidency && cappedResidency )
+        {
+            throw new IllegalArgumentException( "Cannot map file " + file + " with both " + PageCacheOpenOptions.RESERVED_RESIDENCY +
+                    " and " + PageCacheOpenOptions.CAPPED_RESIDENCY + " options" );
+        }
+
         FileMapping current = mappedFiles;
 
         // find an existing mapping
@@ -394,10 +495,15 @@ public class MuninnPageCache implements PageCache
                 file,
                 this,
                 filePageSize,
-                swapperFactory,
+                memoryMapped ? swapperFactory.memoryMappedReads() : swapperFactory,
                 pageCacheTracer, versionContextSupplier,
                 createIfNotExists,
-                truncateExisting, useDirectIO );
+                truncateExisting, useDirectIO,
+                createPageResidency( reservedResidency, cappedResidency ) );
+        if ( pagedFile.residency.hasQuota() )
+        {
+            residencyQuotas++;
+        }
         pagedFile.incrementRefCount();
         pagedFile.setDeleteOnClose( deleteOnClose );
         current = new FileMapping( file, pagedFile );
@@ -423,6 +529,14 @@ public class MuninnPageCache implements PageCache
         return Optional.empty();
     }
 
+    private PageResidency createPageResidency( boolean reservedResidency, boolean cappedResidency )
+    {
+        long pageCount = pages.getPageCount();
+        long reservedPages = reservedResidency ? Math.max( 1, pageCount * reservedResidencyPercent / 100 ) : PageResidency.NO_RESERVATION;
+        long maxPages = cappedResidency ? Math.max( 1, pageCount * cappedResidencyPercent / 100 ) : PageResidency.NO_CAP;
+        return new PageResidency( reservedPages, maxPages );
+    }
+
     private MuninnPagedFile tryGetMappingOrNull( File file )
     {
         FileMapping current = mappedFiles;
@@ -513,6 +627,10 @@ public class MuninnPageCache implements PageCache
                         prev.next = current.next;
                     }
                     pageCacheTracer.unmappedFile( current.file );
+                    if ( file.residency.hasQuota() )
+                    {
+                        residencyQuotas--;
+                    }
                     flushAndCloseWithoutFail( file );
                     break;
                 }
@@ -601,6 +719,12 @@ public class MuninnPageCache implements PageCache
         // Submit all flushes to the background thread
         for ( PagedFile file : files )
         {
+            if ( !((MuninnPagedFile) file).hasDirtyChunks() )
+            {
+                // Nothing to write and nothing to force, so there's no point in handing the file to another thread.
+                flushFile( (MuninnPagedFile) file, limiter );
+                continue;
+            }
             flushes.add( scheduler.schedule( Group.FILE_IO_HELPER, () ->
             {
                 try
@@ -666,6 +790,7 @@ public class MuninnPageCache implements PageCache
 
         interrupt( evictionThread );
         evictionThread = null;
+        readAhead.shutdown();
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -709,6 +834,19 @@ public class MuninnPageCache implements PageCache
         return pages.getPageCount();
     }
 
+    @Override
+    public long dirtyPages()
+    {
+        long dirtyPages = 0;
+        FileMapping current = mappedFiles;
+        while ( current != null )
+        {
+            dirtyPages += current.pagedFile.dirtyPages();
+            current = current.next;
+        }
+        return dirtyPages;
+    }
+
     @Override
     public VersionContextSupplier versionContextSupplier()
     {
@@ -947,6 +1085,21 @@ public class MuninnPageCache implements PageCache
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
+        // Victims are collected into small batches, so that dirty victims that are adjacent in their file can be
+        // flushed together with a single vectored write, instead of with one write per page.
+        long[] victims = new long[Math.max( 1, Math.min( pageCountToEvict, evictionBatchSize ) )];
+        long[] bufferAddresses = new long[victims.length];
+        int victimCount = 0;
+        // With the frequency-aware policy, or with reserved file residencies, we spare at most one lap worth of
+        // candidates per run. Otherwise we could be sweeping forever if all pages in the cache are more frequently
+        // used than the pages being faulted in, or belong to files that are within their reservation.
+        FrequencySketch sketch = frequencySketch;
+        boolean checkResidency = residencyQuotas > 0;
+        int retentionBudget = pages.getPageCount();
+        int spared = 0;
+        int retentions = 0;
+        int reservationRetentions = 0;
+        int capEvictions = 0;
         while ( pageCountToEvict > 0 && !closed )
         {
             if ( clockArm == pages.getPageCount() )
@@ -957,42 +1110,136 @@ public class MuninnPageCache implements PageCache
             if ( closed )
             {
                 // The page cache has been shut down.
-                return 0;
+                clockArm = 0;
+                break;
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) )
             {
-                try
+                PageResidency residency = checkResidency ? residencyOf( pageRef ) : null;
+                if ( residency != null && residency.isOverCap() )
                 {
+                    // The file is occupying more than its share of the cache, so we evict its pages right away.
                     pageCountToEvict--;
-                    if ( pages.tryEvict( pageRef, evictionRunEvent ) )
+                    capEvictions++;
+                    victimCount = tryAddVictim( pageRef, victims, victimCount );
+                }
+                else if ( !pages.decrementUsage( pageRef ) )
+                {
+                    if ( sketch != null )
                     {
-                        clearEvictorException();
-                        addFreePageToFreelist( pageRef );
+                        // The page has been used since the clock arm last came by.
+                        sketch.recordAccess( pages.getBindingKey( pageRef ) );
                     }
                 }
-                catch ( IOException e )
+                else if ( residency != null && spared < retentionBudget && residency.isWithinReservation() )
                 {
-                    evictorException = e;
+                    // The file is within its reserved share of the cache, so give the page another lap of the clock.
+                    pages.incrementUsage( pageRef );
+                    spared++;
+                    reservationRetentions++;
                 }
-                catch ( OutOfMemoryError oom )
+                else if ( sketch != null && spared < retentionBudget && sketch.shouldRetain( pages.getBindingKey( pageRef ) ) )
                 {
-                    evictorException = oomException;
+                    // Give the page another lap of the clock.
+                    pages.incrementUsage( pageRef );
+                    spared++;
+                    retentions++;
                 }
-                catch ( Throwable th )
+                else
                 {
-                    evictorException = new IOException(
-                            "Eviction thread encountered a problem", th );
+                    pageCountToEvict--;
+                    victimCount = tryAddVictim( pageRef, victims, victimCount );
                 }
             }
 
             clockArm++;
+
+            if ( victimCount == victims.length )
+            {
+                evictVictims( victims, victimCount, bufferAddresses, evictionRunEvent );
+                victimCount = 0;
+            }
+        }
+
+        if ( victimCount > 0 )
+        {
+            // We always evict the victims we have locked, even if the page cache was closed in the meantime,
+            // since we would otherwise leave them exclusively locked.
+            evictVictims( victims, victimCount, bufferAddresses, evictionRunEvent );
+        }
+        if ( retentions > 0 )
+        {
+            pageCacheTracer.retentions( retentions );
+        }
+        if ( reservationRetentions > 0 )
+        {
+            pageCacheTracer.reservedResidencyRetentions( reservationRetentions );
+        }
+        if ( capEvictions > 0 )
+        {
+            pageCacheTracer.cappedResidencyEvictions( capEvictions );
         }
 
         return clockArm;
     }
 
+    private int tryAddVictim( long pageRef, long[] victims, int victimCount )
+    {
+        if ( pages.tryExclusiveLock( pageRef ) )
+        {
+            if ( pages.isLoaded( pageRef ) )
+            {
+                victims[victimCount++] = pageRef;
+            }
+            else
+            {
+                pages.unlockExclusive( pageRef );
+            }
+        }
+        return victimCount;
+    }
+
+    private PageResidency residencyOf( long pageRef )
+    {
+        int swapperId = pages.getSwapperId( pageRef );
+        if ( swapperId == 0 )
+        {
+            return null;
+        }
+        SwapperSet.SwapperMapping swapperMapping = pages.getSwappers().getAllocation( swapperId );
+        return swapperMapping == null ? null : swapperMapping.residency;
+    }
+
+    private void evictVictims( long[] victims, int victimCount, long[] bufferAddresses, EvictionRunEvent evictionRunEvent )
+    {
+        pages.sortByBinding( victims, victimCount );
+        for ( int i = 0; i < victimCount; i++ )
+        {
+            long pageRef = victims[i];
+            try
+            {
+                pages.evictBatched( victims, i, victimCount, bufferAddresses, evictionRunEvent );
+                clearEvictorException();
+                addFreePageToFreelist( pageRef );
+            }
+            catch ( IOException e )
+            {
+                evictorException = e;
+            }
+            catch ( OutOfMemoryError oom )
+            {
+                evictorException = oomException;
+            }
+            catch ( Throwable th )
+            {
+                evictorException = new IOException(
+                        "Eviction thread encountered a problem", th );
+            }
+        }
+    }
+
     void addFreePageToFreelist( long pageRef )
     {
         Object current;
@@ -1056,10 +1303,9 @@ public class MuninnPageCache implements PageCache
         } );
     }
 
-    void startPreFetching( MuninnPageCursor cursor, CursorFactory cursorFactory )
+    void startReadAhead( MuninnPageCursor cursor, CursorFactory cursorFactory )
     {
-        PreFetcher preFetcher = new PreFetcher( cursor, cursorFactory, pageCacheTracer, clock );
-        cursor.preFetcher = scheduler.schedule( Group.PAGE_CACHE_PRE_FETCHER, preFetcher );
+        cursor.readAheadStream = readAhead.register( cursor, cursorFactory );
     }
 
     void allocateFileAsync( PageSwapper swapper, long newFileSize )
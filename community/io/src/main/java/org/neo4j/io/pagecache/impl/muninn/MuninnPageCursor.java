@@ -35,7 +35,6 @@ import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
-import org.neo4j.scheduler.JobHandle;
 import org.neo4j.util.Preconditions;
 import org.neo4j.util.VisibleForTesting;
 
@@ -78,7 +77,7 @@ public abstract class MuninnPageCursor extends PageCursor
     private long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
-    protected JobHandle<?> preFetcher;
+    protected ReadAhead.Stream readAheadStream;
     private long pointer;
     private int pageSize;
     private int filePageSize;
@@ -208,12 +207,12 @@ public abstract class MuninnPageCursor extends PageCursor
             // We null out the pagedFile field to allow it and its (potentially big) translation table to be garbage
             // collected when the file is unmapped, since the cursors can stick around in thread local caches, etc.
             cursor.pagedFile = null;
-            // Signal to any pre-fetchers that the cursor is closed.
+            // Signal to the read-ahead engine that the cursor is closed.
             cursor.storeCurrentPageId( UNBOUND_PAGE_ID );
-            if ( preFetcher != null )
+            if ( cursor.readAheadStream != null )
             {
-                preFetcher.cancel();
-                preFetcher = null;
+                cursor.readAheadStream.close();
+                cursor.readAheadStream = null;
             }
             cursor = cursor.linkedCursor;
         }
@@ -418,6 +417,7 @@ public abstract class MuninnPageCursor extends PageCursor
             assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
             pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            pagedFile.recordPageFault( filePageId );
         }
         catch ( Throwable throwable )
         {
@@ -435,6 +435,12 @@ public abstract class MuninnPageCursor extends PageCursor
         convertPageFaultLock( pageRef );
         latch.release();
         faultEvent.done();
+        ReadAhead.Stream stream = readAheadStream;
+        if ( stream != null )
+        {
+            // We had to fault this page in ourselves, so the read-ahead engine did not get to it in time.
+            stream.scannerFaulted( filePageId );
+        }
         return pageRef;
     }
 
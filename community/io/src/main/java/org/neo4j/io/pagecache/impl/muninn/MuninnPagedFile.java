@@ -38,6 +38,7 @@ import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
@@ -48,12 +49,17 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     static final int UNMAPPED_TTE = -1;
     private static final int maxChunkGrowth = getInteger( MuninnPagedFile.class, "maxChunkGrowth", 16 ); // One chunk is 32 MiB, by default.
     private static final int translationTableChunkSizePower = getInteger( MuninnPagedFile.class, "translationTableChunkSizePower", 12 );
-    private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
+    static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( int[].class );
     private static final int translationTableChunkArrayScale = UnsafeUtil.arrayIndexScale( int[].class );
+    private static final long chunkDirtyMarkOffset =
+            UnsafeUtil.arrayOffset( translationTableChunkSize, translationTableChunkArrayBase, translationTableChunkArrayScale );
+    private static final int CHUNK_CLEAN = 0;
+    private static final int CHUNK_DIRTY = 1;
 
     private static final long headerStateOffset = UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "headerState" );
+    private static final long translationTableOffset = UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "translationTable" );
     private static final int headerStateRefCountShift = 48;
     private static final int headerStateRefCountMax = 0x7FFF;
     private static final long headerStateRefCountMask = 0x7FFF_0000_0000_0000L;
@@ -65,12 +71,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private final PageCacheTracer pageCacheTracer;
     final LatchMap pageFaultLatches;
 
-    // This is the table where we translate file-page-ids to cache-page-ids. Only one thread can perform a resize at
-    // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
+    // This is the table where we translate file-page-ids to cache-page-ids. It is resized with a compare-and-set of
+    // this field, without any locking, so any number of threads can race to resize it.
     volatile int[][] translationTable;
 
     final PageSwapper swapper;
     final int swapperId;
+    final PageResidency residency;
     private final CursorFactory cursorFactory;
 
     private volatile boolean deleteOnClose;
@@ -111,11 +118,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * access to thread local version context
      * @param createIfNotExists should create file if it does not exists
      * @param truncateExisting should truncate file if it exists
+     * @param useDirectIo should use direct I/O for the file
+     * @param residency the resident page count and residency quota of the file
      * @throws IOException If the {@link PageSwapper} could not be created.
      */
     MuninnPagedFile( File file, MuninnPageCache pageCache, int filePageSize, PageSwapperFactory swapperFactory, PageCacheTracer pageCacheTracer,
-            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo )
-            throws IOException
+            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo,
+            PageResidency residency ) throws IOException
     {
         super( pageCache.pages );
         this.pageCache = pageCache;
@@ -123,6 +132,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.cursorFactory = new CursorFactory( this, versionContextSupplier );
         this.pageCacheTracer = pageCacheTracer;
         this.pageFaultLatches = new LatchMap();
+        this.residency = residency;
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -135,11 +145,18 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         // slots. If a look-up finds UNMAPPED_TTE, it will attempt to page fault. If the LatchMap returns null, then
         // someone else might already be faulting in that page. The LatchMap will wait for the existing latch to be
         // released, before returning null. Thus the thread can retry the lookup immediately. If a look-up finds that it
-        // is out of bounds of the translation table, it resizes the table by first taking the resize lock, then
-        // verifying that the given filePageId is still out of bounds, then creates a new and larger outer array, then
-        // copies over the existing inner arrays, fills the remaining outer array slots with more inner arrays, in turn
-        // filled with UNMAPPED_TTE values, and then finally assigns the new outer array to the translationTable field
-        // and releases the resize lock.
+        // is out of bounds of the translation table, it resizes the table by creating a new and larger outer array,
+        // copying over the existing inner arrays, filling the remaining outer array slots with more inner arrays, in
+        // turn filled with UNMAPPED_TTE values, and then finally installing the new outer array in the translationTable
+        // field with a compare-and-set. If the compare-and-set fails, then another thread resized the table first, and
+        // the resize is retried from the table that thread installed, unless it is already big enough. Since the inner
+        // arrays are always copied from the currently installed table, a chunk is never replaced once it is published.
+        // Every chunk has one extra slot at the end, past the page ids, which is a dirty mark. Write cursors raise the
+        // mark after they have unlocked a page in the chunk, and thereby marked the page as modified. Flushes lower the
+        // mark before they look at the pages in the chunk, and skip chunks where the mark is already lowered, because
+        // no page in them has been modified since the last flush. If no chunk was marked, the flush does not have to
+        // force the file either. The chunks we start out with are marked, since we don't know what's been written to
+        // the file before it was mapped.
         PageEvictionCallback onEviction = this::evictPage;
         swapper = swapperFactory.createPageSwapper( file, filePageSize, onEviction, createIfNotExists, useDirectIo );
         if ( truncateExisting )
@@ -152,12 +169,12 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         int[][] tt = new int[initialChunks][];
         for ( int i = 0; i < initialChunks; i++ )
         {
-            tt[i] = newChunk();
+            tt[i] = newChunk( CHUNK_DIRTY );
         }
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
-        this.swapperId = getSwappers().allocate( swapper );
+        this.swapperId = getSwappers().allocate( swapper, residency );
     }
 
     @Override
@@ -187,7 +204,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         cursor.rewind();
         if ( ( pf_flags & PF_READ_AHEAD ) == PF_READ_AHEAD && ( pf_flags & PF_NO_FAULT ) != PF_NO_FAULT )
         {
-            pageCache.startPreFetching( cursor, cursorFactory );
+            pageCache.startReadAhead( cursor, cursorFactory );
         }
         return cursor;
     }
@@ -259,7 +276,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         int[][] tt = this.translationTable;
         for ( int[] chunk : tt )
         {
-            for ( int i = 0; i < chunk.length; i++ )
+            for ( int i = 0; i < translationTableChunkSize; i++ )
             {
                 filePageId++;
                 long offset = computeChunkOffset( filePageId );
@@ -312,7 +329,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         for ( int[] chunk : tt )
         {
             chunkLoop:
-            for ( int i = 0; i < chunk.length; i++ )
+            for ( int i = 0; i < translationTableChunkSize; i++ )
             {
                 filePageId++;
                 long offset = computeChunkOffset( filePageId );
@@ -377,6 +394,26 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
             throws IOException
+    {
+        boolean success = false;
+        try
+        {
+            flushDirtyChunksAndForce( flushes, forClosing, limiter );
+            success = true;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                // We may have lowered the dirty marks of chunks that we didn't get to flush, or that we flushed but
+                // didn't get to force, so the next flush has to look at all of them again.
+                markAllChunksDirty();
+            }
+        }
+    }
+
+    private void flushDirtyChunksAndForce( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
+            throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
         long[] pages = new long[translationTableChunkSize];
@@ -385,14 +422,36 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
         long limiterStamp = IOLimiter.INITIAL_STAMP;
         int[][] tt = this.translationTable;
+        // Runs of adjacent dirty pages are allowed to continue across chunk boundaries, so the vector is only
+        // flushed early when it is full, or when the run of dirty pages is broken.
+        int pagesGrabbed = 0;
+        long skippedPages = 0;
+        boolean anyChunkDirty = false;
         for ( int[] chunk : tt )
         {
+            // When closing we look at every page, regardless of the dirty marks, since nothing will flush them later.
+            if ( !forClosing && UnsafeUtil.getIntVolatile( chunk, chunkDirtyMarkOffset ) == CHUNK_CLEAN )
+            {
+                if ( pagesGrabbed > 0 )
+                {
+                    // The run of dirty pages cannot continue into a chunk that we skip.
+                    vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
+                    limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                    pagesGrabbed = 0;
+                }
+                filePageId += translationTableChunkSize;
+                skippedPages += translationTableChunkSize;
+                continue;
+            }
+            // Lower the mark before we look at the pages, so that pages modified while we flush will mark it again.
+            UnsafeUtil.putIntVolatile( chunk, chunkDirtyMarkOffset, CHUNK_CLEAN );
+            anyChunkDirty = true;
+
             // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
             // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
             // TODO garbage to the file.
-            int pagesGrabbed = 0;
             chunkLoop:
-            for ( int i = 0; i < chunk.length; i++ )
+            for ( int i = 0; i < translationTableChunkSize; i++ )
             {
                 filePageId++;
                 long offset = computeChunkOffset( filePageId );
@@ -428,6 +487,12 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                             }
                             bufferAddresses[pagesGrabbed] = getAddress( pageRef );
                             pagesGrabbed++;
+                            if ( pagesGrabbed == pages.length )
+                            {
+                                vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
+                                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                                pagesGrabbed = 0;
+                            }
                             continue chunkLoop;
                         }
                         else if ( forClosing )
@@ -448,14 +513,27 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                     pagesGrabbed = 0;
                 }
             }
-            if ( pagesGrabbed > 0 )
-            {
-                vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
-                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
-            }
+        }
+        if ( pagesGrabbed > 0 )
+        {
+            vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
+            limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
         }
 
-        swapper.force();
+        if ( skippedPages > 0 )
+        {
+            pageCacheTracer.flushSkippedPages( skippedPages );
+        }
+        if ( anyChunkDirty )
+        {
+            swapper.force();
+        }
+        else
+        {
+            // Nothing has been written to the file since it was last forced, not even by eviction, since eviction only
+            // writes pages that have been modified, and thereby marked their chunk.
+            pageCacheTracer.skippedForces( 1 );
+        }
     }
 
     private void vectoredFlush(
@@ -475,6 +553,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             // Update the flush event
             flush.addBytesWritten( bytesWritten );
             flush.addPagesFlushed( pagesGrabbed );
+            flush.addPagesMerged( pagesGrabbed - 1 );
             flush.done();
             successful = true;
 
@@ -672,6 +751,18 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return deleteOnClose;
     }
 
+    @Override
+    public long residentPages()
+    {
+        return residency.residentPages();
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return residency.modifiedPages();
+    }
+
     /**
      * Grab a free page for the purpose of page faulting. Possibly blocking if
      * none are immediately available.
@@ -682,6 +773,146 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Record that the given file page has been faulted into the cache, for the benefit of the eviction policy.
+     * @param filePageId The id of the file page that was faulted in.
+     */
+    void recordPageFault( long filePageId )
+    {
+        residency.pageFaulted();
+        pageCache.recordPageFault( swapperId, filePageId );
+    }
+
+    /**
+     * Fault the given file pages into the cache, without pinning them, and with a single
+     * {@link PageSwapper#readPages(long[], long[], int) batched read} from the swapper.
+     * <p>
+     * Pages that are beyond the end of the file, that are already in the cache, or that are concurrently being faulted
+     * in by some other thread, are skipped. Unlike the page cursors, this method never waits for page fault latches,
+     * since it could otherwise end up waiting for a latch that it has itself taken for an earlier page in the batch.
+     * <p>
+     * The ids of the file pages that were faulted in are moved to the front of the given array, in their given order.
+     *
+     * @param filePageIds the ids of the file pages to fault in.
+     * @param count the number of file page ids in the given array.
+     * @param cursorTracer the tracer to report the page faults to.
+     * @return the number of pages that were faulted in.
+     */
+    int faultPages( long[] filePageIds, int count, PageCursorTracer cursorTracer ) throws IOException
+    {
+        long lastPageId = getLastPageId();
+        int[][] tt = translationTable;
+        LatchMap.Latch[] latches = new LatchMap.Latch[count];
+        long[] pageRefs = new long[count];
+        long[] bufferAddresses = new long[count];
+        PinEvent[] pinEvents = new PinEvent[count];
+        PageFaultEvent[] faultEvents = new PageFaultEvent[count];
+        int faults = 0;
+        try
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                long filePageId = filePageIds[i];
+                int chunkId = computeChunkId( filePageId );
+                if ( filePageId < 0 || filePageId > lastPageId || chunkId >= tt.length )
+                {
+                    continue;
+                }
+                int[] chunk = tt[chunkId];
+                long chunkOffset = computeChunkOffset( filePageId );
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    continue;
+                }
+                LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+                if ( latch == null )
+                {
+                    continue;
+                }
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    // Someone else faulted the page in between our first look and taking the latch.
+                    latch.release();
+                    continue;
+                }
+                PinEvent pinEvent = cursorTracer.beginPin( false, filePageId, swapper );
+                PageFaultEvent faultEvent = pinEvent.beginPageFault();
+                long pageRef;
+                try
+                {
+                    pageRef = grabFreeAndExclusivelyLockedPage( faultEvent );
+                }
+                catch ( Throwable throwable )
+                {
+                    latch.release();
+                    faultEvent.done( throwable );
+                    pinEvent.done();
+                    throw throwable;
+                }
+                long bufferAddress;
+                try
+                {
+                    initBuffer( pageRef );
+                    bufferAddress = beginBatchedFault( pageRef, swapper, swapperId, filePageId );
+                }
+                catch ( Throwable throwable )
+                {
+                    unlockExclusive( pageRef );
+                    latch.release();
+                    faultEvent.done( throwable );
+                    pinEvent.done();
+                    throw throwable;
+                }
+                filePageIds[faults] = filePageId;
+                latches[faults] = latch;
+                pageRefs[faults] = pageRef;
+                bufferAddresses[faults] = bufferAddress;
+                pinEvents[faults] = pinEvent;
+                faultEvents[faults] = faultEvent;
+                faults++;
+            }
+            if ( faults == 0 )
+            {
+                return 0;
+            }
+            // Check if we're racing with unmapping, before the swapper gets a chance to reopen the file channel.
+            getLastPageId();
+            long bytesRead = swapper.readPages( filePageIds, bufferAddresses, faults );
+            for ( int i = 0; i < faults; i++ )
+            {
+                faultEvents[i].addBytesRead( bytesRead / faults );
+            }
+        }
+        catch ( Throwable throwable )
+        {
+            // Unlock the pages, so the eviction thread can pick up our trash, and release the page fault latches.
+            for ( int i = 0; i < faults; i++ )
+            {
+                unlockExclusive( pageRefs[i] );
+                latches[i].release();
+                faultEvents[i].done( throwable );
+                pinEvents[i].done();
+            }
+            throw throwable;
+        }
+        tt = translationTable;
+        for ( int i = 0; i < faults; i++ )
+        {
+            long filePageId = filePageIds[i];
+            long pageRef = pageRefs[i];
+            completeBatchedFault( pageRef, swapperId );
+            // Publish the page in the translation table before we undo the exclusive lock, like the page cursors do.
+            UnsafeUtil.putIntVolatile( tt[computeChunkId( filePageId )], computeChunkOffset( filePageId ), toId( pageRef ) );
+            unlockExclusive( pageRef );
+            latches[i].release();
+            recordPageFault( filePageId );
+            faultEvents[i].setCachePageId( toId( pageRef ) );
+            faultEvents[i].done();
+            pinEvents[i].done();
+        }
+        return faults;
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -696,6 +927,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        residency.pageEvicted();
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
@@ -710,43 +942,95 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     /**
      * Expand the translation table such that it can include at least the given chunkId.
+     * This does not block, but threads that race to expand the table may have to retry the expansion.
      * @param maxChunkId The new translation table must be big enough to include at least this chunkId.
      * @return A reference to the expanded transaction table.
      */
-    synchronized int[][] expandCapacity( int maxChunkId )
+    int[][] expandCapacity( int maxChunkId )
     {
-        int[][] tt = translationTable;
-        if ( tt.length <= maxChunkId )
+        int[][] unpublished = null;
+        int unpublishedFrom = 0;
+        for ( ;; )
         {
+            int[][] tt = translationTable;
+            if ( tt.length > maxChunkId )
+            {
+                return tt;
+            }
             int newLength = computeNewRootTableLength( maxChunkId );
             int[][] ntt = new int[newLength][];
             System.arraycopy( tt, 0, ntt, 0, tt.length );
             for ( int i = tt.length; i < ntt.length; i++ )
             {
-                ntt[i] = newChunk();
+                // Chunks from a failed attempt have never been seen by any other thread, so we can reuse them.
+                boolean reusable = unpublished != null && i >= unpublishedFrom && i < unpublished.length;
+                ntt[i] = reusable ? unpublished[i] : newChunk( CHUNK_CLEAN );
             }
-            tt = ntt;
-            translationTable = tt;
-            if ( swapper.canAllocate() )
+            if ( UnsafeUtil.compareAndSwapObject( this, translationTableOffset, tt, ntt ) )
             {
-                // Hint to the file system that we've grown our file.
-                // This should reduce our tendency to fragment files.
-                long newFileSize = tt.length; // New number of chunks.
-                newFileSize *= translationTableChunkSize; // Pages per chunk.
-                newFileSize *= filePageSize; // Bytes per page.
-                pageCache.allocateFileAsync( swapper, newFileSize );
+                if ( swapper.canAllocate() )
+                {
+                    // Hint to the file system that we've grown our file.
+                    // This should reduce our tendency to fragment files.
+                    long newFileSize = ntt.length; // New number of chunks.
+                    newFileSize *= translationTableChunkSize; // Pages per chunk.
+                    newFileSize *= filePageSize; // Bytes per page.
+                    pageCache.allocateFileAsync( swapper, newFileSize );
+                }
+                return ntt;
             }
+            unpublished = ntt;
+            unpublishedFrom = tt.length;
         }
-        return tt;
     }
 
-    private static int[] newChunk()
+    private static int[] newChunk( int dirtyMark )
     {
-        int[] chunk = new int[translationTableChunkSize];
-        Arrays.fill( chunk, UNMAPPED_TTE );
+        int[] chunk = new int[translationTableChunkSize + 1];
+        Arrays.fill( chunk, 0, translationTableChunkSize, UNMAPPED_TTE );
+        chunk[translationTableChunkSize] = dirtyMark;
         return chunk;
     }
 
+    /**
+     * Raise the dirty mark of the translation table chunk of the given file page. This must be called <em>after</em>
+     * the page has been marked as modified, so that a concurrent flush that lowers the mark before we raise it again
+     * is sure to see the page as modified, or else we raise the mark for the next flush.
+     * @param filePageId The id of the file page that has been modified.
+     */
+    void markChunkDirty( long filePageId )
+    {
+        int[] chunk = translationTable[computeChunkId( filePageId )];
+        // Most writes go to chunks that are already marked, so we read before we write, to keep the cache line shared.
+        if ( UnsafeUtil.getIntVolatile( chunk, chunkDirtyMarkOffset ) == CHUNK_CLEAN )
+        {
+            UnsafeUtil.putIntVolatile( chunk, chunkDirtyMarkOffset, CHUNK_DIRTY );
+        }
+    }
+
+    /**
+     * @return {@code true} if any page in this file may have been modified since the file was last flushed and forced.
+     */
+    boolean hasDirtyChunks()
+    {
+        for ( int[] chunk : translationTable )
+        {
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkDirtyMarkOffset ) != CHUNK_CLEAN )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markAllChunksDirty()
+    {
+        for ( int[] chunk : translationTable )
+        {
+            UnsafeUtil.putIntVolatile( chunk, chunkDirtyMarkOffset, CHUNK_DIRTY );
+        }
+    }
+
     private int computeNewRootTableLength( int maxChunkId )
     {
         // Grow by approximate 10% but always by at least one full chunk, and no more than maxChunkGrowth (16 by default, equivalent to 512 MiB).
@@ -51,6 +51,8 @@ final class MuninnWritePageCursor extends MuninnPageCursor
             {
                 pagedFile.unlockWrite( pageRef );
             }
+            // Only now that the page is marked as modified can we mark its chunk, for the next flush to look at.
+            pagedFile.markChunkDirty( loadPlainCurrentPageId() );
         }
         clearPageCursorState();
     }
@@ -111,6 +113,8 @@ final class MuninnWritePageCursor extends MuninnPageCursor
     @Override
     protected void unlockPage( long pageRef )
     {
+        // Pages are only unlocked here when they turned out to be bound to some other file page, and we did not write
+        // to them, so there is no chunk to mark as dirty.
         pagedFile.unlockWrite( pageRef );
     }
 
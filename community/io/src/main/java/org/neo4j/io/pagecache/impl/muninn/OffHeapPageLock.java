@@ -101,6 +101,11 @@ public final class OffHeapPageLock
     // Unlocked mask:
     private static final long UNL_MASK = 0b11011111_11111111_11110000_00000000_00000000_00000000_00000000_00000000L;
 
+    // Results of tryWriteLockAndReportModification:
+    public static final int WRITE_LOCK_FAILED = 0;
+    public static final int WRITE_LOCKED = 1;
+    public static final int WRITE_LOCKED_AND_MODIFIED = 2;
+
     private OffHeapPageLock()
     {
         // The static version keeps all state externally.
@@ -174,6 +179,19 @@ public final class OffHeapPageLock
      * @return {@code true} if the write lock was taken, {@code false} otherwise.
      */
     public static boolean tryWriteLock( long address )
+    {
+        return tryWriteLockAndReportModification( address ) != WRITE_LOCK_FAILED;
+    }
+
+    /**
+     * Try taking a concurrent write lock, exactly like {@link #tryWriteLock(long)} does, and tell if it was this write
+     * lock that raised the <em>modified</em> bit, which means that the page went from being clean to being modified.
+     *
+     * @return {@link #WRITE_LOCK_FAILED} if the write lock was not taken, {@link #WRITE_LOCKED} if it was taken and the
+     * <em>modified</em> bit was already raised, or {@link #WRITE_LOCKED_AND_MODIFIED} if it was taken and raised the
+     * <em>modified</em> bit.
+     */
+    public static int tryWriteLockAndReportModification( long address )
     {
         long s;
         long n;
@@ -185,14 +203,15 @@ public final class OffHeapPageLock
 
             if ( unwritablyLocked || writeCountOverflow )
             {
-                return failWriteLock( s, writeCountOverflow );
+                failWriteLock( s, writeCountOverflow );
+                return WRITE_LOCK_FAILED;
             }
 
             n = s + CNT_UNIT | MOD_MASK;
             if ( compareAndSetState( address, s, n ) )
             {
                 UnsafeUtil.storeFence();
-                return true;
+                return (s & MOD_MASK) == MOD_MASK ? WRITE_LOCKED : WRITE_LOCKED_AND_MODIFIED;
             }
         }
     }
@@ -300,12 +319,16 @@ public final class OffHeapPageLock
 
     /**
      * Atomically unlock the currently held exclusive lock, and take a write lock.
+     *
+     * @return {@code true} if taking the write lock raised the <em>modified</em> bit, {@code false} if it was already
+     * raised.
      */
-    public static void unlockExclusiveAndTakeWriteLock( long address )
+    public static boolean unlockExclusiveAndTakeWriteLock( long address )
     {
         long s = initiateExclusiveLockRelease( address );
         long n = (nextSeq( s ) - EXL_MASK + CNT_UNIT) | MOD_MASK;
         unconditionallySetState( address, n );
+        return (s & MOD_MASK) == 0;
     }
 
     private static long initiateExclusiveLockRelease( long address )
@@ -329,17 +352,18 @@ public final class OffHeapPageLock
      * <p>
      * If the <em>modified</em> flag is currently not raised, then this method does nothing.
      *
+     * @return {@code true} if the <em>modified</em> flag was lowered, {@code false} if it was not raised.
      * @throws IllegalStateException if the lock at the given address is not in the exclusively locked state.
      */
-    public static void explicitlyMarkPageUnmodifiedUnderExclusiveLock( long address )
+    public static boolean explicitlyMarkPageUnmodifiedUnderExclusiveLock( long address )
     {
         long s = getState( address );
         if ( (s & EXL_MASK) != EXL_MASK )
         {
             throw new IllegalStateException( "Page must be exclusively locked to explicitly lower modified bit" );
         }
-        s = s & (~MOD_MASK);
-        unconditionallySetState( address, s );
+        unconditionallySetState( address, s & (~MOD_MASK) );
+        return (s & MOD_MASK) == MOD_MASK;
     }
 
     /**
@@ -370,8 +394,10 @@ public final class OffHeapPageLock
 
     /**
      * Unlock the currently held flush lock.
+     *
+     * @return {@code true} if unlocking the flush lock lowered the <em>modified</em> bit, {@code false} otherwise.
      */
-    public static void unlockFlush( long address, long stamp, boolean success )
+    public static boolean unlockFlush( long address, long stamp, boolean success )
     {
         long s;
         long n;
@@ -391,6 +417,7 @@ public final class OffHeapPageLock
             }
         }
         while ( !compareAndSetState( address, s, n ) );
+        return (s & MOD_MASK) == MOD_MASK && (n & MOD_MASK) == 0;
     }
 
     private static void throwUnmatchedUnlockFlush( long s )
@@ -239,7 +239,13 @@ class PageList
 
     boolean tryWriteLock( long pageRef )
     {
-        return OffHeapPageLock.tryWriteLock( offLock( pageRef ) );
+        int result = OffHeapPageLock.tryWriteLockAndReportModification( offLock( pageRef ) );
+        if ( result == OffHeapPageLock.WRITE_LOCKED_AND_MODIFIED )
+        {
+            // The write lock keeps the page from being evicted or faulted, so the binding we read is the current one.
+            pageModified( getSwapperId( pageRef ) );
+        }
+        return result != OffHeapPageLock.WRITE_LOCK_FAILED;
     }
 
     void unlockWrite( long pageRef )
@@ -264,7 +270,11 @@ class PageList
 
     void unlockExclusiveAndTakeWriteLock( long pageRef )
     {
-        OffHeapPageLock.unlockExclusiveAndTakeWriteLock( offLock( pageRef ) );
+        int swapperId = getSwapperId( pageRef );
+        if ( OffHeapPageLock.unlockExclusiveAndTakeWriteLock( offLock( pageRef ) ) )
+        {
+            pageModified( swapperId );
+        }
     }
 
     long tryFlushLock( long pageRef )
@@ -274,12 +284,52 @@ class PageList
 
     void unlockFlush( long pageRef, long stamp, boolean success )
     {
-        OffHeapPageLock.unlockFlush( offLock( pageRef ), stamp, success );
+        // The binding cannot change while we hold the flush lock, but it can as soon as we have released it.
+        int swapperId = getSwapperId( pageRef );
+        if ( OffHeapPageLock.unlockFlush( offLock( pageRef ), stamp, success ) )
+        {
+            pageFlushed( swapperId );
+        }
     }
 
     void explicitlyMarkPageUnmodifiedUnderExclusiveLock( long pageRef )
     {
-        OffHeapPageLock.explicitlyMarkPageUnmodifiedUnderExclusiveLock( offLock( pageRef ) );
+        if ( OffHeapPageLock.explicitlyMarkPageUnmodifiedUnderExclusiveLock( offLock( pageRef ) ) )
+        {
+            pageFlushed( getSwapperId( pageRef ) );
+        }
+    }
+
+    /**
+     * Count a page that went from clean to modified towards the modified pages of the file it is bound to. Pages that are
+     * not bound to any file, or only to a file that has since been unmapped, are counted when they are next faulted in.
+     */
+    private void pageModified( int swapperId )
+    {
+        PageResidency residency = residencyOf( swapperId );
+        if ( residency != null )
+        {
+            residency.pageModified();
+        }
+    }
+
+    private void pageFlushed( int swapperId )
+    {
+        PageResidency residency = residencyOf( swapperId );
+        if ( residency != null )
+        {
+            residency.pageFlushed();
+        }
+    }
+
+    private PageResidency residencyOf( int swapperId )
+    {
+        if ( swapperId == 0 )
+        {
+            return null;
+        }
+        SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+        return swapperMapping == null ? null : swapperMapping.residency;
     }
 
     int getCachePageSize()
@@ -435,6 +485,54 @@ class PageList
         event.addBytesRead( bytesRead );
         event.setCachePageId( toId( pageRef ) );
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        countLeftoverModification( pageRef, swapperId );
+    }
+
+    /**
+     * The first half of {@link #fault(long, PageSwapper, int, long, PageFaultEvent)}, for page faults that are read in
+     * batches with {@link PageSwapper#readPages(long[], long[], int)}. The page is considered loaded, but not bound,
+     * once this method returns, so a failed batch leaves the page for eviction to return to the freelist.
+     *
+     * @return the address of the page buffer that the file page should be read into.
+     */
+    long beginBatchedFault( long pageRef, PageSwapper swapper, int swapperId, long filePageId )
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        int currentSwapper = getSwapperId( pageRef );
+        long currentFilePageId = getFilePageId( pageRef );
+        if ( filePageId == PageCursor.UNBOUND_PAGE_ID || !isExclusivelyLocked( pageRef )
+             || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+        {
+            throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+        }
+        setFilePageId( pageRef, filePageId ); // Page now considered isLoaded()
+        return getAddress( pageRef );
+    }
+
+    /**
+     * The second half of a batched page fault, to be called once the batch has been read successfully.
+     */
+    void completeBatchedFault( long pageRef, int swapperId )
+    {
+        setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        countLeftoverModification( pageRef, swapperId );
+    }
+
+    /**
+     * A write cursor that raced with eviction can raise the <em>modified</em> bit of a page that is not bound to any
+     * mapped file, such as a page left behind by a failed page fault. Eviction frees such pages without flushing them,
+     * so the page is still modified when it is faulted in again. It will be flushed like any other modified page of its
+     * new file, so we count it as such.
+     */
+    private void countLeftoverModification( long pageRef, int swapperId )
+    {
+        if ( isModified( pageRef ) )
+        {
+            pageModified( swapperId );
+        }
     }
 
     private static IllegalArgumentException swapperCannotBeNull()
@@ -471,6 +569,196 @@ class PageList
         return false;
     }
 
+    /**
+     * Sort the given exclusively locked and loaded victim pages by their binding, such that pages that are bound to
+     * the same swapper, and to adjacent file page ids, end up next to each other in the array.
+     * This is an insertion sort, since eviction batches are small.
+     */
+    void sortByBinding( long[] pageRefs, int count )
+    {
+        for ( int i = 1; i < count; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long key = getBindingKey( pageRef );
+            int j = i - 1;
+            while ( j >= 0 && getBindingKey( pageRefs[j] ) > key )
+            {
+                pageRefs[j + 1] = pageRefs[j];
+                j--;
+            }
+            pageRefs[j + 1] = pageRef;
+        }
+    }
+
+    /**
+     * @return a key that uniquely identifies the file page that the given page is bound to.
+     */
+    long getBindingKey( long pageRef )
+    {
+        return bindingKey( getSwapperId( pageRef ), getFilePageId( pageRef ) );
+    }
+
+    /**
+     * @return a key that uniquely identifies the given file page, among all mapped files.
+     */
+    static long bindingKey( int swapperId, long filePageId )
+    {
+        // The swapper id goes into the high bits, and the 40 bit file page id into the low bits.
+        return (((long) swapperId) << (Long.SIZE - SHIFT_FILE_PAGE_ID)) + filePageId;
+    }
+
+    /**
+     * Evict the page at the given index in the given array of exclusively locked and loaded victim pages, which must
+     * have been sorted with {@link #sortByBinding(long[], int)}.
+     * <p>
+     * If the page is modified, then the directly following pages in the array that are also modified, and bound to
+     * the same swapper and to consecutive file page ids, are flushed together with it in a single vectored write.
+     * Those pages are then clean, and will not cause any IO when their own turn comes to be evicted.
+     * <p>
+     * If the flush fails, then only the page at the given index is unlocked, and the exception is rethrown. The other
+     * pages in the vector are left locked and modified, so their own eviction will retry the flush.
+     */
+    void evictBatched( long[] pageRefs, int index, int count, long[] bufferAddresses, EvictionEventOpportunity evictionOpportunity )
+            throws IOException
+    {
+        try ( EvictionEvent evictionEvent = evictionOpportunity.beginEviction() )
+        {
+            long pageRef = pageRefs[index];
+            int swapperId = getSwapperId( pageRef );
+            if ( swapperId != 0 && isModified( pageRef ) )
+            {
+                SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+                if ( swapperMapping != null && swapperMapping.swapper.supportsBatchedIO() )
+                {
+                    // The victims are sorted by binding, so all the victims of this swapper follow this one.
+                    // They do not need to be adjacent in the file to be written with a single batch.
+                    int batchLength = countModifiedPagesOfSwapper( pageRefs, index, count, bufferAddresses.length );
+                    if ( batchLength > 1 )
+                    {
+                        evictionEvent.setFilePageId( getFilePageId( pageRef ) );
+                        evictionEvent.setCachePageId( pageRef );
+                        evictionEvent.setSwapper( swapperMapping.swapper );
+                        flushModifiedPagesBatched( pageRefs, index, count, batchLength, bufferAddresses, evictionEvent, swapperMapping.swapper );
+                    }
+                }
+                else
+                {
+                    int vectorLength = countAdjacentModifiedPages( pageRefs, index, count, bufferAddresses.length );
+                    if ( swapperMapping != null && vectorLength > 1 )
+                    {
+                        long filePageId = getFilePageId( pageRef );
+                        evictionEvent.setFilePageId( filePageId );
+                        evictionEvent.setCachePageId( pageRef );
+                        evictionEvent.setSwapper( swapperMapping.swapper );
+                        flushModifiedPages( pageRefs, index, vectorLength, bufferAddresses, evictionEvent, filePageId, swapperMapping.swapper );
+                    }
+                }
+            }
+            evict( pageRef, evictionEvent );
+        }
+    }
+
+    private int countAdjacentModifiedPages( long[] pageRefs, int index, int count, int maxLength )
+    {
+        long pageRef = pageRefs[index];
+        int swapperId = getSwapperId( pageRef );
+        long filePageId = getFilePageId( pageRef );
+        int length = 1;
+        while ( index + length < count && length < maxLength )
+        {
+            long nextPageRef = pageRefs[index + length];
+            if ( !isBoundTo( nextPageRef, swapperId, filePageId + length ) || !isModified( nextPageRef ) )
+            {
+                break;
+            }
+            length++;
+        }
+        return length;
+    }
+
+    private void flushModifiedPages( long[] pageRefs, int index, int length, long[] bufferAddresses, EvictionEvent evictionEvent,
+            long startFilePageId, PageSwapper swapper ) throws IOException
+    {
+        FlushEvent flushEvent = evictionEvent.flushEventOpportunity().beginFlush( startFilePageId, pageRefs[index], swapper );
+        try
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                bufferAddresses[i] = getAddress( pageRefs[index + i] );
+            }
+            long bytesWritten = swapper.write( startFilePageId, bufferAddresses, 0, length );
+            for ( int i = 0; i < length; i++ )
+            {
+                explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRefs[index + i] );
+            }
+            flushEvent.addBytesWritten( bytesWritten );
+            flushEvent.addPagesFlushed( length );
+            flushEvent.addPagesMerged( length - 1 );
+            flushEvent.done();
+        }
+        catch ( IOException e )
+        {
+            unlockExclusive( pageRefs[index] );
+            flushEvent.done( e );
+            evictionEvent.threwException( e );
+            throw e;
+        }
+    }
+
+    private int countModifiedPagesOfSwapper( long[] pageRefs, int index, int count, int maxLength )
+    {
+        int swapperId = getSwapperId( pageRefs[index] );
+        int length = 0;
+        for ( int i = index; i < count && length < maxLength && getSwapperId( pageRefs[i] ) == swapperId; i++ )
+        {
+            if ( isModified( pageRefs[i] ) )
+            {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private void flushModifiedPagesBatched( long[] pageRefs, int index, int count, int length, long[] bufferAddresses,
+            EvictionEvent evictionEvent, PageSwapper swapper ) throws IOException
+    {
+        long[] batchPageRefs = new long[length];
+        long[] filePageIds = new long[length];
+        int swapperId = getSwapperId( pageRefs[index] );
+        int batched = 0;
+        for ( int i = index; i < count && batched < length && getSwapperId( pageRefs[i] ) == swapperId; i++ )
+        {
+            long pageRef = pageRefs[i];
+            if ( isModified( pageRef ) )
+            {
+                batchPageRefs[batched] = pageRef;
+                filePageIds[batched] = getFilePageId( pageRef );
+                bufferAddresses[batched] = getAddress( pageRef );
+                batched++;
+            }
+        }
+        FlushEvent flushEvent = evictionEvent.flushEventOpportunity().beginFlush( filePageIds[0], pageRefs[index], swapper );
+        try
+        {
+            long bytesWritten = swapper.writePages( filePageIds, bufferAddresses, batched );
+            for ( int i = 0; i < batched; i++ )
+            {
+                explicitlyMarkPageUnmodifiedUnderExclusiveLock( batchPageRefs[i] );
+            }
+            flushEvent.addBytesWritten( bytesWritten );
+            flushEvent.addPagesFlushed( batched );
+            flushEvent.addPagesMerged( batched - 1 );
+            flushEvent.done();
+        }
+        catch ( IOException e )
+        {
+            unlockExclusive( pageRefs[index] );
+            flushEvent.done( e );
+            evictionEvent.threwException( e );
+            throw e;
+        }
+    }
+
     private void evict( long pageRef, EvictionEvent evictionEvent ) throws IOException
     {
         long filePageId = getFilePageId( pageRef );
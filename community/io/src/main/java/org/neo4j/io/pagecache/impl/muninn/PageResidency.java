@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+
+/**
+ * The PageResidency keeps track of how many pages of a mapped file are currently resident in the page cache, and of
+ * the residency quota the file was mapped with, if any.
+ * <p>
+ * Files mapped with {@link PageCacheOpenOptions#RESERVED_RESIDENCY} have a number of pages reserved for them, and the
+ * eviction sweep will pass over their pages for as long as no more than the reserved number of pages are resident.
+ * Files mapped with {@link PageCacheOpenOptions#CAPPED_RESIDENCY} may only occupy a limited number of pages, and the
+ * eviction sweep will evict their pages regardless of their usage counters, for as long as more pages than that are
+ * resident. Files without a quota compete for pages on equal terms, as usual.
+ * <p>
+ * The resident page count is incremented when a page fault binds a page to the file, and decremented when such a page
+ * is evicted. Pages that are left behind in the cache when the file is unmapped are not counted.
+ * <p>
+ * The modified page count is incremented when a page of the file goes from being clean to being modified, and
+ * decremented when the page is flushed, either by a flush of the file or by eviction. This is what lets us tell how
+ * many dirty pages a file, or all the files of a database, have without looking at every page in the cache.
+ */
+final class PageResidency
+{
+    static final long NO_RESERVATION = 0;
+    static final long NO_CAP = Long.MAX_VALUE;
+
+    private final AtomicLong residentPages = new AtomicLong();
+    private final AtomicLong modifiedPages = new AtomicLong();
+    private final long reservedPages;
+    private final long maxPages;
+
+    PageResidency( long reservedPages, long maxPages )
+    {
+        this.reservedPages = reservedPages;
+        this.maxPages = maxPages;
+    }
+
+    void pageFaulted()
+    {
+        residentPages.incrementAndGet();
+    }
+
+    void pageEvicted()
+    {
+        residentPages.decrementAndGet();
+    }
+
+    long residentPages()
+    {
+        return residentPages.get();
+    }
+
+    void pageModified()
+    {
+        modifiedPages.incrementAndGet();
+    }
+
+    void pageFlushed()
+    {
+        modifiedPages.decrementAndGet();
+    }
+
+    long modifiedPages()
+    {
+        return modifiedPages.get();
+    }
+
+    /**
+     * @return {@code true} if the file has a residency quota, and the eviction sweep needs to take this file into
+     * account.
+     */
+    boolean hasQuota()
+    {
+        return reservedPages != NO_RESERVATION || maxPages != NO_CAP;
+    }
+
+    /**
+     * @return {@code true} if the pages of the file should currently be spared from eviction, because the file does
+     * not occupy more than its reserved number of pages.
+     */
+    boolean isWithinReservation()
+    {
+        return reservedPages != NO_RESERVATION && residentPages.get() <= reservedPages;
+    }
+
+    /**
+     * @return {@code true} if the pages of the file should currently be evicted regardless of their usage, because
+     * the file occupies more than its maximum number of pages.
+     */
+    boolean isOverCap()
+    {
+        return residentPages.get() > maxPages;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageResidency[residentPages = " + residentPages.get() + ", modifiedPages = " + modifiedPages.get() +
+                ", reservedPages = " + reservedPages +
+                ", maxPages = " + (maxPages == NO_CAP ? "unlimited" : String.valueOf( maxPages )) + "]";
+    }
+}
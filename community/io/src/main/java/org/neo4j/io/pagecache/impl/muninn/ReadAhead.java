@@ -0,0 +1,544 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.time.SystemNanoClock;
+
+import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * The read-ahead engine pages in file pages ahead of scanning cursors, in order to move page fault overhead from the
+ * scanning threads to a background thread.
+ * <p>
+ * Cursors opened with the {@link PagedFile#PF_READ_AHEAD} flag are registered as read-ahead {@link Stream streams}.
+ * A single background thread observes all streams, across all mapped files, and for each of them works out the
+ * direction of the scan from how the observed cursor moves, and the stride of the scan from the page ids of the page
+ * faults that the cursor itself takes. It then pages in a window of pages ahead of the cursor, with a read cursor of
+ * its own. The cursors are observed "weakly" through the ordered stores of their current page id, just like
+ * {@link MuninnPageCursor#loadVolatileCurrentPageId()} describes.
+ * <p>
+ * The windows adapt to the measured outcome: every page fault the scanning cursor still takes is a miss, and doubles
+ * the window of its stream, up to a maximum. Every page that the engine faulted in, and that the scanning cursor then
+ * reached, is a hit, and a page fault avoided. The total number of pages that have been faulted in ahead of the
+ * scanning cursors, and not yet reached by them, is bounded by an in-flight budget, and streams that run into the
+ * budget get their windows halved, so read-ahead cannot flood the page cache with pages that nobody will use soon.
+ * <p>
+ * The engine thread is only running while there are streams to observe. Streams that have not moved for a while are
+ * detached, and are attached again the next time their cursor takes a page fault.
+ */
+final class ReadAhead implements Runnable
+{
+    private static final String TRACER_READ_AHEAD_TAG = "Read-ahead";
+
+    // The maximum number of pages a single stream can read ahead of its cursor.
+    private static final int maxWindow = getInteger( ReadAhead.class, "maxWindow", 256 );
+
+    // The maximum number of pages that can be faulted in ahead of all cursors, before the cursors reach them.
+    // This is further limited to a quarter of the pages in the page cache.
+    private static final int maxPagesInFlight = getInteger( ReadAhead.class, "maxPagesInFlight", 4096 );
+
+    // The maximum number of streams that can be waiting to be picked up by the engine thread.
+    private static final int maxPendingStreams = getInteger( ReadAhead.class, "maxPendingStreams", 128 );
+
+    private static final long MIN_PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos( 50 );
+    private static final long MAX_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+    private static final long STREAM_IDLE_NANOS = TimeUnit.SECONDS.toNanos( 10 );
+    private static final long ENGINE_IDLE_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+
+    private final JobScheduler scheduler;
+    private final PageCacheTracer tracer;
+    private final SystemNanoClock clock;
+    private final int pagesInFlightBudget;
+    private final Queue<Stream> pendingStreams = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingStreamCount = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean shutdown;
+
+    ReadAhead( JobScheduler scheduler, PageCacheTracer tracer, SystemNanoClock clock, int cachePages )
+    {
+        this.scheduler = scheduler;
+        this.tracer = tracer;
+        this.clock = clock;
+        this.pagesInFlightBudget = Math.max( 1, Math.min( maxPagesInFlight, cachePages / 4 ) );
+    }
+
+    /**
+     * Start reading ahead of the given cursor.
+     * @return the read-ahead stream of the cursor, which must be {@link Stream#close() closed} when the cursor is closed.
+     */
+    Stream register( MuninnPageCursor cursor, CursorFactory cursorFactory )
+    {
+        Stream stream = new Stream( this, cursor, cursorFactory );
+        attach( stream );
+        return stream;
+    }
+
+    /**
+     * Stop the engine thread, if it is running. Streams that are registered after this will not be observed.
+     */
+    void shutdown()
+    {
+        shutdown = true;
+    }
+
+    private void attach( Stream stream )
+    {
+        if ( shutdown || pendingStreamCount.get() >= maxPendingStreams )
+        {
+            // Either we are shutting down, or the engine is not keeping up, or the scheduler is not running our job
+            // at all. In any case, we don't read ahead of this cursor for now, but will try again on its next fault.
+            stream.detached = true;
+            return;
+        }
+        pendingStreamCount.incrementAndGet();
+        pendingStreams.offer( stream );
+        if ( running.compareAndSet( false, true ) )
+        {
+            scheduler.schedule( Group.PAGE_CACHE_PRE_FETCHER, this );
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        List<Stream> streams = new ArrayList<>();
+        boolean stopped = false;
+        try ( PageCursorTracer cursorTracer = tracer.createPageCursorTracer( TRACER_READ_AHEAD_TAG ) )
+        {
+            long pauseNanos = MIN_PAUSE_NANOS;
+            long idleSince = clock.nanos();
+            while ( !shutdown )
+            {
+                Stream pending;
+                while ( (pending = pendingStreams.poll()) != null )
+                {
+                    pendingStreamCount.decrementAndGet();
+                    streams.add( pending );
+                }
+                if ( streams.isEmpty() )
+                {
+                    if ( clock.nanos() - idleSince > ENGINE_IDLE_NANOS && stopRunning() )
+                    {
+                        stopped = true;
+                        return;
+                    }
+                    LockSupport.parkNanos( this, MAX_PAUSE_NANOS );
+                    continue;
+                }
+                idleSince = clock.nanos();
+
+                if ( readAhead( streams, cursorTracer ) )
+                {
+                    pauseNanos = MIN_PAUSE_NANOS;
+                    cursorTracer.reportEvents();
+                }
+                else
+                {
+                    // Let the scanners catch up, backing off for longer and longer if they don't.
+                    LockSupport.parkNanos( this, pauseNanos );
+                    pauseNanos = Math.min( pauseNanos * 2, MAX_PAUSE_NANOS );
+                }
+            }
+        }
+        catch ( Throwable t )
+        {
+            // The scheduler does not report failed jobs, so count the failure like eviction exceptions are counted.
+            // The next stream that is attached starts a new engine job.
+            tracer.readAheadExceptions( 1 );
+            throw t;
+        }
+        finally
+        {
+            for ( Stream stream : streams )
+            {
+                stream.detach();
+            }
+            if ( !stopped )
+            {
+                // Unless we gave up running already when going idle, in which case another engine job may have
+                // started since, we must let the next attached stream start a new engine job.
+                running.set( false );
+            }
+        }
+    }
+
+    private boolean stopRunning()
+    {
+        running.set( false );
+        // A stream may have been attached after we last looked, but before we stopped running, in which case its
+        // attach call would not have started a new engine job. If so, we have to keep running ourselves.
+        return pendingStreams.isEmpty() || !running.compareAndSet( false, true );
+    }
+
+    /**
+     * Perform one round of read-ahead for all streams.
+     * @return {@code true} if any of the streams made progress, or {@code false} if the engine can take a break.
+     */
+    private boolean readAhead( List<Stream> streams, PageCursorTracer cursorTracer )
+    {
+        long now = clock.nanos();
+        int pagesInFlight = 0;
+        for ( Stream stream : streams )
+        {
+            pagesInFlight += stream.pagesInFlight();
+        }
+
+        boolean progress = false;
+        long pagesReadAhead = 0;
+        long hits = 0;
+        Iterator<Stream> iterator = streams.iterator();
+        while ( iterator.hasNext() )
+        {
+            Stream stream = iterator.next();
+            int inFlightBefore = stream.pagesInFlight();
+            int pages = 0;
+            try
+            {
+                pages = stream.readAhead( pagesInFlightBudget - pagesInFlight, cursorTracer, now );
+            }
+            catch ( IOException e )
+            {
+                // Most likely the file was unmapped underneath us. Either way, this stream is not going anywhere.
+                stream.finish();
+            }
+            pagesReadAhead += pages;
+            hits += stream.takeHits();
+            pagesInFlight += stream.pagesInFlight() - inFlightBefore;
+            progress |= stream.moved() || pages > 0;
+            if ( stream.isFinished() || now - stream.lastMovedNanos > STREAM_IDLE_NANOS )
+            {
+                iterator.remove();
+                stream.detach();
+            }
+        }
+        if ( pagesReadAhead > 0 )
+        {
+            tracer.readAheads( pagesReadAhead );
+        }
+        if ( hits > 0 )
+        {
+            tracer.readAheadHits( hits );
+        }
+        return progress;
+    }
+
+    /**
+     * A read-ahead stream follows a single scanning cursor. All fields are only accessed by the engine thread, except
+     * for those that are explicitly noted to be written by the scanning thread.
+     */
+    static final class Stream
+    {
+        private final ReadAhead engine;
+        private final MuninnPageCursor observedCursor;
+        private final CursorFactory cursorFactory;
+        // Page ids of the pages we have faulted in ahead of the cursor, in scan order, that the cursor has not reached.
+        private final long[] inFlight = new long[maxWindow];
+        private int inFlightHead;
+        private int inFlightSize;
+        private PageCursor readAheadCursor;
+        private long[] batch;
+        private long lastPosition = UNBOUND_PAGE_ID;
+        private long frontier = UNBOUND_PAGE_ID;
+        private int direction;
+        private int window = 1;
+        private long seenMisses;
+        private long hits;
+        private boolean moved;
+        private boolean endOfFile;
+        private long lastMovedNanos;
+
+        // Written by the scanning thread.
+        private volatile boolean closed;
+        private volatile boolean detached;
+        private volatile long misses;
+        private volatile long stride;
+        private long lastMissPageId = UNBOUND_PAGE_ID;
+        private long lastMissStride;
+
+        private Stream( ReadAhead engine, MuninnPageCursor observedCursor, CursorFactory cursorFactory )
+        {
+            this.engine = engine;
+            this.observedCursor = observedCursor;
+            this.cursorFactory = cursorFactory;
+            this.lastMovedNanos = engine.clock.nanos();
+        }
+
+        /**
+         * Called by the scanning thread when its cursor had to fault in a page, because we did not get to it first.
+         * Two consecutive misses the same distance apart establish the stride of the scan.
+         */
+        void scannerFaulted( long filePageId )
+        {
+            misses++;
+            if ( lastMissPageId != UNBOUND_PAGE_ID )
+            {
+                long missStride = filePageId - lastMissPageId;
+                if ( missStride == lastMissStride && missStride != stride )
+                {
+                    stride = missStride;
+                }
+                lastMissStride = missStride;
+            }
+            lastMissPageId = filePageId;
+            if ( detached && !closed )
+            {
+                // The cursor is moving again after the engine gave up on it.
+                detached = false;
+                engine.attach( this );
+            }
+        }
+
+        /**
+         * Called by the scanning thread when its cursor is closed.
+         */
+        void close()
+        {
+            closed = true;
+        }
+
+        private int readAhead( int budget, PageCursorTracer cursorTracer, long now ) throws IOException
+        {
+            moved = false;
+            long position = observedCursor.loadVolatileCurrentPageId();
+            if ( closed )
+            {
+                finish();
+                return 0;
+            }
+            if ( position == UNBOUND_PAGE_ID || position == lastPosition )
+            {
+                return 0;
+            }
+            moved = true;
+            lastMovedNanos = now;
+            if ( lastPosition == UNBOUND_PAGE_ID )
+            {
+                lastPosition = position;
+                return 0;
+            }
+
+            long delta = position - lastPosition;
+            lastPosition = position;
+            int newDirection = Long.signum( delta );
+            long step = step( newDirection );
+            if ( newDirection != direction || Math.abs( delta ) > (long) maxWindow * Math.abs( step ) )
+            {
+                // The cursor turned around or jumped, so whatever we read ahead is probably not going to be used.
+                direction = newDirection;
+                resetWindow( position );
+                return 0;
+            }
+            collectHits( position );
+
+            long currentMisses = misses;
+            if ( currentMisses != seenMisses )
+            {
+                seenMisses = currentMisses;
+                window = Math.min( window * 2, maxWindow );
+            }
+            if ( endOfFile )
+            {
+                return 0;
+            }
+
+            long target = position + step * window;
+            long pageId = isAhead( frontier, position ) ? frontier : position + step;
+            MuninnPagedFile pagedFile = cursorFactory.pagedFile();
+            if ( pagedFile.swapper.supportsBatchedIO() )
+            {
+                return readAheadBatched( pagedFile, budget, cursorTracer, target, pageId, step );
+            }
+            int pages = 0;
+            while ( isAhead( target + step, pageId ) && pageId >= 0 && inFlightSize < inFlight.length )
+            {
+                if ( pages >= budget )
+                {
+                    // Back off, so other streams get their share of the budget.
+                    window = Math.max( 1, window / 2 );
+                    break;
+                }
+                PageCursor cursor = readAheadCursor( cursorTracer );
+                long faultsBefore = cursorTracer.faults();
+                if ( !cursor.next( pageId ) )
+                {
+                    endOfFile = true;
+                    break;
+                }
+                if ( cursorTracer.faults() != faultsBefore )
+                {
+                    addInFlight( pageId );
+                    pages++;
+                }
+                pageId += step;
+            }
+            frontier = pageId;
+            return pages;
+        }
+
+        /**
+         * Like the page-by-page read-ahead, except the window is faulted in with a single batched read from the
+         * swapper. Pages that are already in the cache, or that are concurrently being faulted in, are skipped.
+         */
+        private int readAheadBatched( MuninnPagedFile pagedFile, int budget, PageCursorTracer cursorTracer,
+                long target, long pageId, long step ) throws IOException
+        {
+            long lastPageId = pagedFile.getLastPageId();
+            int capacity = Math.min( budget, inFlight.length - inFlightSize );
+            long[] batch = batch( capacity );
+            int count = 0;
+            while ( isAhead( target + step, pageId ) && pageId >= 0 && count < capacity )
+            {
+                if ( pageId > lastPageId )
+                {
+                    endOfFile = true;
+                    break;
+                }
+                batch[count++] = pageId;
+                pageId += step;
+            }
+            if ( count >= budget && isAhead( target + step, pageId ) )
+            {
+                // Back off, so other streams get their share of the budget.
+                window = Math.max( 1, window / 2 );
+            }
+            frontier = pageId;
+            int pages = count == 0 ? 0 : pagedFile.faultPages( batch, count, cursorTracer );
+            for ( int i = 0; i < pages; i++ )
+            {
+                addInFlight( batch[i] );
+            }
+            return pages;
+        }
+
+        private long[] batch( int capacity )
+        {
+            if ( batch == null || batch.length < capacity )
+            {
+                batch = new long[Math.max( capacity, 1 )];
+            }
+            return batch;
+        }
+
+        private long step( int direction )
+        {
+            long stride = this.stride;
+            return stride != 0 && Long.signum( stride ) == direction ? stride : direction;
+        }
+
+        private boolean isAhead( long pageId, long position )
+        {
+            return pageId != UNBOUND_PAGE_ID && (direction > 0 ? pageId > position : pageId < position);
+        }
+
+        private void resetWindow( long position )
+        {
+            inFlightHead = 0;
+            inFlightSize = 0;
+            window = 1;
+            frontier = position;
+            endOfFile = false;
+        }
+
+        private void addInFlight( long pageId )
+        {
+            inFlight[(inFlightHead + inFlightSize) % inFlight.length] = pageId;
+            inFlightSize++;
+        }
+
+        private void collectHits( long position )
+        {
+            while ( inFlightSize > 0 && !isAhead( inFlight[inFlightHead], position ) )
+            {
+                inFlightHead = (inFlightHead + 1) % inFlight.length;
+                inFlightSize--;
+                hits++;
+            }
+        }
+
+        private PageCursor readAheadCursor( PageCursorTracer cursorTracer )
+        {
+            if ( readAheadCursor == null )
+            {
+                readAheadCursor = cursorFactory.takeReadCursor( 0, PF_SHARED_READ_LOCK | PF_NO_GROW, cursorTracer );
+            }
+            return readAheadCursor;
+        }
+
+        private int pagesInFlight()
+        {
+            return inFlightSize;
+        }
+
+        private long takeHits()
+        {
+            long taken = hits;
+            hits = 0;
+            return taken;
+        }
+
+        private boolean moved()
+        {
+            return moved;
+        }
+
+        private void finish()
+        {
+            closed = true;
+        }
+
+        private boolean isFinished()
+        {
+            return closed;
+        }
+
+        private void detach()
+        {
+            if ( readAheadCursor != null )
+            {
+                readAheadCursor.close();
+                readAheadCursor = null;
+            }
+            lastPosition = UNBOUND_PAGE_ID;
+            direction = 0;
+            resetWindow( UNBOUND_PAGE_ID );
+            detached = true;
+        }
+    }
+}
@@ -55,6 +55,60 @@ public interface PageCacheCounters
      */
     long flushes();
 
+    /**
+     * @return The number of page flushes that were merged into a preceding flush of an adjacent page, as part of a
+     * vectored write, thus far. The average number of pages per flush IO is
+     * {@code flushes() / (flushes() - merges())}.
+     */
+    long merges();
+
+    /**
+     * @return The number of times the frequency-aware eviction policy has retained an eviction candidate, because it
+     * was used more frequently than the pages being faulted in, thus far.
+     */
+    long retentions();
+
+    /**
+     * @return The number of times the eviction sweep has passed over a page, because its file was within its reserved
+     * residency, thus far.
+     */
+    long reservedResidencyRetentions();
+
+    /**
+     * @return The number of pages evicted regardless of their usage, because their file was over its capped
+     * residency, thus far.
+     */
+    long cappedResidencyEvictions();
+
+    /**
+     * @return The number of pages the read-ahead engine has faulted in ahead of scanning cursors, thus far.
+     */
+    long readAheads();
+
+    /**
+     * @return The number of pages faulted in by the read-ahead engine, that a scanning cursor subsequently reached,
+     * thus far. Each of these is a page fault the scanning cursor did not have to take itself.
+     */
+    long readAheadHits();
+
+    /**
+     * @return The number of times the read-ahead engine has been stopped by an unexpected failure, thus far.
+     * The engine is started again by the next scanning cursor that takes a page fault.
+     */
+    long readAheadExceptions();
+
+    /**
+     * @return The number of file pages that flushes have not had to look at, because no page near them had been
+     * modified since the file was last flushed, thus far.
+     */
+    long flushSkippedPages();
+
+    /**
+     * @return The number of times a flush has not had to force a file, because none of its pages had been modified
+     * since the file was last forced, thus far.
+     */
+    long skippedForces();
+
     /**
      * @return The sum total of bytes read in through page faults thus far.
      */
@@ -40,6 +40,15 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder unpins = new LongAdder();
     protected final LongAdder hits = new LongAdder();
     protected final LongAdder flushes = new LongAdder();
+    protected final LongAdder merges = new LongAdder();
+    protected final LongAdder retentions = new LongAdder();
+    protected final LongAdder reservedResidencyRetentions = new LongAdder();
+    protected final LongAdder cappedResidencyEvictions = new LongAdder();
+    protected final LongAdder readAheads = new LongAdder();
+    protected final LongAdder readAheadHits = new LongAdder();
+    protected final LongAdder readAheadExceptions = new LongAdder();
+    protected final LongAdder flushSkippedPages = new LongAdder();
+    protected final LongAdder skippedForces = new LongAdder();
     protected final LongAdder bytesRead = new LongAdder();
     protected final LongAdder bytesWritten = new LongAdder();
     protected final LongAdder filesMapped = new LongAdder();
@@ -71,6 +80,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         {
             flushes.add( pageCount );
         }
+
+        @Override
+        public void addPagesMerged( int pagesMerged )
+        {
+            merges.add( pagesMerged );
+        }
     };
 
     private final FlushEventOpportunity flushEventOpportunity = ( filePageId, cachePageId, swapper ) -> flushEvent;
@@ -211,6 +226,60 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return flushes.sum();
     }
 
+    @Override
+    public long merges()
+    {
+        return merges.sum();
+    }
+
+    @Override
+    public long retentions()
+    {
+        return retentions.sum();
+    }
+
+    @Override
+    public long reservedResidencyRetentions()
+    {
+        return reservedResidencyRetentions.sum();
+    }
+
+    @Override
+    public long cappedResidencyEvictions()
+    {
+        return cappedResidencyEvictions.sum();
+    }
+
+    @Override
+    public long readAheads()
+    {
+        return readAheads.sum();
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return readAheadHits.sum();
+    }
+
+    @Override
+    public long readAheadExceptions()
+    {
+        return readAheadExceptions.sum();
+    }
+
+    @Override
+    public long flushSkippedPages()
+    {
+        return flushSkippedPages.sum();
+    }
+
+    @Override
+    public long skippedForces()
+    {
+        return skippedForces.sum();
+    }
+
     @Override
     public long bytesRead()
     {
@@ -312,6 +381,60 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.flushes.add( flushes );
     }
 
+    @Override
+    public void merges( long merges )
+    {
+        this.merges.add( merges );
+    }
+
+    @Override
+    public void retentions( long retentions )
+    {
+        this.retentions.add( retentions );
+    }
+
+    @Override
+    public void reservedResidencyRetentions( long retentions )
+    {
+        this.reservedResidencyRetentions.add( retentions );
+    }
+
+    @Override
+    public void cappedResidencyEvictions( long evictions )
+    {
+        this.cappedResidencyEvictions.add( evictions );
+    }
+
+    @Override
+    public void readAheads( long readAheads )
+    {
+        this.readAheads.add( readAheads );
+    }
+
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+        this.readAheadHits.add( readAheadHits );
+    }
+
+    @Override
+    public void readAheadExceptions( long readAheadExceptions )
+    {
+        this.readAheadExceptions.add( readAheadExceptions );
+    }
+
+    @Override
+    public void flushSkippedPages( long flushSkippedPages )
+    {
+        this.flushSkippedPages.add( flushSkippedPages );
+    }
+
+    @Override
+    public void skippedForces( long skippedForces )
+    {
+        this.skippedForces.add( skippedForces );
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
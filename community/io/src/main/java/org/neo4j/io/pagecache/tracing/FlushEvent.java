@@ -50,6 +50,11 @@ public interface FlushEvent
         public void addPagesFlushed( int pageCount )
         {
         }
+
+        @Override
+        public void addPagesMerged( int pagesMerged )
+        {
+        }
     };
 
     /**
@@ -68,4 +73,10 @@ public interface FlushEvent
     void done( IOException exception );
 
     void addPagesFlushed( int pageCount );
+
+    /**
+     * Add up a number of pages that were written as part of a vectored write, in addition to the first page of that
+     * write. A flush of {@code n} adjacent pages in a single IO thus merges {@code n - 1} pages.
+     */
+    void addPagesMerged( int pagesMerged );
 }
@@ -107,6 +107,60 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long merges()
+        {
+            return 0;
+        }
+
+        @Override
+        public long retentions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long reservedResidencyRetentions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long cappedResidencyEvictions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheads()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadExceptions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long flushSkippedPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long skippedForces()
+        {
+            return 0;
+        }
+
         @Override
         public long bytesRead()
         {
@@ -194,6 +248,51 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void merges( long merges )
+        {
+        }
+
+        @Override
+        public void retentions( long retentions )
+        {
+        }
+
+        @Override
+        public void reservedResidencyRetentions( long retentions )
+        {
+        }
+
+        @Override
+        public void cappedResidencyEvictions( long evictions )
+        {
+        }
+
+        @Override
+        public void readAheads( long readAheads )
+        {
+        }
+
+        @Override
+        public void readAheadHits( long readAheadHits )
+        {
+        }
+
+        @Override
+        public void readAheadExceptions( long readAheadExceptions )
+        {
+        }
+
+        @Override
+        public void flushSkippedPages( long flushSkippedPages )
+        {
+        }
+
+        @Override
+        public void skippedForces( long skippedForces )
+        {
+        }
+
         @Override
         public void maxPages( long maxPages )
         {
@@ -296,6 +395,60 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void flushes( long flushes );
 
+    /**
+     * Report number of flushed pages that were merged into vectored writes
+     * @param merges number of merged pages
+     */
+    void merges( long merges );
+
+    /**
+     * Report number of eviction candidates retained by the frequency-aware eviction policy
+     * @param retentions number of retained eviction candidates
+     */
+    void retentions( long retentions );
+
+    /**
+     * Report number of eviction candidates passed over, because their file was within its reserved residency
+     * @param retentions number of retained eviction candidates
+     */
+    void reservedResidencyRetentions( long retentions );
+
+    /**
+     * Report number of pages evicted regardless of their usage, because their file was over its capped residency
+     * @param evictions number of evicted pages
+     */
+    void cappedResidencyEvictions( long evictions );
+
+    /**
+     * Report number of pages faulted in by the read-ahead engine
+     * @param readAheads number of pages faulted in ahead of scanning cursors
+     */
+    void readAheads( long readAheads );
+
+    /**
+     * Report number of pages faulted in by the read-ahead engine, that scanning cursors then reached
+     * @param readAheadHits number of read-ahead pages reached by scanning cursors
+     */
+    void readAheadHits( long readAheadHits );
+
+    /**
+     * Report unexpected failures that stopped the read-ahead engine
+     * @param readAheadExceptions number of read-ahead engine failures
+     */
+    void readAheadExceptions( long readAheadExceptions );
+
+    /**
+     * Report number of file pages that a flush did not have to look at
+     * @param flushSkippedPages number of file pages skipped by a flush
+     */
+    void flushSkippedPages( long flushSkippedPages );
+
+    /**
+     * Report number of file forces that a flush did not have to do
+     * @param skippedForces number of skipped file forces
+     */
+    void skippedForces( long skippedForces );
+
     /**
      * Sets the number of available pages.
      * @param maxPages the total number of available pages.
@@ -22,6 +22,8 @@ package org.neo4j.io.mem;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import org.neo4j.internal.nativeimpl.AbsentNativeAccess;
+import org.neo4j.internal.nativeimpl.NativeCallResult;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageCache;
@@ -203,6 +205,54 @@ class MemoryAllocatorTest
         }
     }
 
+    @Test
+    void placementMustBeAppliedToEveryGrab()
+    {
+        RecordingNativeAccess nativeAccess = new RecordingNativeAccess( false );
+        MemoryPlacement placement = new MemoryPlacement( MemoryPlacement.HugePages.TRANSPARENT, MemoryPlacement.NumaPolicy.INTERLEAVE, new int[]{1} );
+        allocator = new GrabAllocator( MebiByte.toBytes( 2 ), new LocalMemoryTracker(), placement, nativeAccess );
+
+        allocator.allocateAligned( ONE_PAGE, 1 );
+
+        assertEquals( 1, nativeAccess.adviseHugePagesCalls );
+        assertEquals( 1, nativeAccess.interleaveCalls );
+        assertEquals( 0, nativeAccess.bindCalls );
+        assertThat( nativeAccess.lastNodes ).containsExactly( 1 );
+    }
+
+    @Test
+    void explicitHugePagesMustFallBackToTransparentHugePagesWhenPoolIsExhausted()
+    {
+        RecordingNativeAccess nativeAccess = new RecordingNativeAccess( false );
+        MemoryPlacement placement = new MemoryPlacement( MemoryPlacement.HugePages.EXPLICIT, MemoryPlacement.NumaPolicy.BIND, new int[0] );
+        allocator = new GrabAllocator( MebiByte.toBytes( 2 ), new LocalMemoryTracker(), placement, nativeAccess );
+
+        long address = allocator.allocateAligned( ONE_PAGE, 1 );
+        UnsafeUtil.putLong( address, 42 );
+
+        assertEquals( 1, nativeAccess.mapHugePagesCalls );
+        assertEquals( 1, nativeAccess.adviseHugePagesCalls );
+        assertEquals( 1, nativeAccess.bindCalls );
+    }
+
+    @Test
+    void explicitHugePagesMustBeUnmappedOnClose()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        RecordingNativeAccess nativeAccess = new RecordingNativeAccess( true );
+        MemoryPlacement placement = new MemoryPlacement( MemoryPlacement.HugePages.EXPLICIT, MemoryPlacement.NumaPolicy.DEFAULT, new int[0] );
+        allocator = new GrabAllocator( MebiByte.toBytes( 2 ), memoryTracker, placement, nativeAccess );
+
+        allocator.allocateAligned( ONE_PAGE, 1 );
+        assertEquals( 1, nativeAccess.mapHugePagesCalls );
+        assertEquals( 0, nativeAccess.adviseHugePagesCalls );
+        assertEquals( MebiByte.toBytes( 2 ), memoryTracker.usedNativeMemory() );
+
+        closeAllocator();
+        assertEquals( 1, nativeAccess.unmapCalls );
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
     private void closeAllocator()
     {
         if ( allocator != null )
@@ -218,4 +268,59 @@ class MemoryAllocatorTest
         allocator = MemoryAllocator.createAllocator( expectedMaxMemory, new LocalMemoryTracker() );
         return allocator;
     }
+
+    private static class RecordingNativeAccess extends AbsentNativeAccess
+    {
+        private final boolean hugePagePoolAvailable;
+        private final LocalMemoryTracker mappingTracker = new LocalMemoryTracker();
+        private int adviseHugePagesCalls;
+        private int mapHugePagesCalls;
+        private int unmapCalls;
+        private int interleaveCalls;
+        private int bindCalls;
+        private int[] lastNodes;
+
+        RecordingNativeAccess( boolean hugePagePoolAvailable )
+        {
+            this.hugePagePoolAvailable = hugePagePoolAvailable;
+        }
+
+        @Override
+        public NativeCallResult tryAdviseHugePages( long address, long bytes )
+        {
+            adviseHugePagesCalls++;
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public long tryMapHugePages( long bytes )
+        {
+            mapHugePagesCalls++;
+            return hugePagePoolAvailable ? UnsafeUtil.allocateMemory( bytes, mappingTracker ) : 0;
+        }
+
+        @Override
+        public NativeCallResult tryUnmapMemory( long address, long bytes )
+        {
+            unmapCalls++;
+            UnsafeUtil.free( address, bytes, mappingTracker );
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeCallResult tryInterleaveMemory( long address, long bytes, int[] nodes )
+        {
+            interleaveCalls++;
+            lastNodes = nodes;
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeCallResult tryBindMemory( long address, long bytes, int[] nodes )
+        {
+            bindCalls++;
+            lastNodes = nodes;
+            return NativeCallResult.SUCCESS;
+        }
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures committing write transactions end to end, from the core API through the commit process, the transaction
+ * appender and the storage engine.
+ * <p>
+ * Every transaction creates {@code txSize} nodes, with {@code indexes} indexed properties each. Without
+ * {@code forceLog}, forcing files is a no-op, and with {@code pipelinedCommit}, the transactions are committed through
+ * the pipelined commit process. Run with {@code -t} to commit from several threads, and with {@code -bm sample} for a
+ * latency histogram. The time spent in each stage of the commits is printed after every iteration.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class CommitBenchmark
+{
+    @Param( {"1", "10", "100"} )
+    public int txSize;
+
+    @Param( {"0", "2"} )
+    public int indexes;
+
+    @Param( {"true", "false"} )
+    public boolean forceLog;
+
+    @Param( {"false", "true"} )
+    public boolean pipelinedCommit;
+
+    private CommitWorkload workload;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        workload = new CommitWorkload( txSize, indexes, forceLog, pipelinedCommit );
+    }
+
+    @Setup( Level.Iteration )
+    public void resetStages()
+    {
+        workload.stageTracer().resetStages();
+    }
+
+    @TearDown( Level.Iteration )
+    public void printStages()
+    {
+        System.out.println();
+        System.out.print( workload.describeStages() );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws IOException
+    {
+        workload.close();
+    }
+
+    @State( Scope.Thread )
+    public static class Committer
+    {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public void commit( Committer committer )
+    {
+        workload.commitOne( committer.random );
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.benchmarks;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.helpers.Args;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * A closed loop load generator for the commit path: a number of threads commit transactions back to back for a given
+ * duration, after a warmup, and the throughput, the latency distribution and the time spent in each stage of the
+ * commits are printed at the end.
+ * <p>
+ * Options, with their defaults:
+ * <pre>
+ * --threads=1 --txSize=10 --indexes=0 --forceLog=true --pipelinedCommit=false --warmup=10s --duration=60s
+ * </pre>
+ */
+public class CommitLoadGenerator
+{
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos( 1 );
+
+    private final int threads;
+    private final long warmupMillis;
+    private final long durationMillis;
+    private final CommitWorkload workload;
+    private final Recorder recorder = new Recorder( HIGHEST_TRACKABLE_NANOS, 3 );
+
+    private CommitLoadGenerator( int threads, long warmupMillis, long durationMillis, CommitWorkload workload )
+    {
+        this.threads = threads;
+        this.warmupMillis = warmupMillis;
+        this.durationMillis = durationMillis;
+        this.workload = workload;
+    }
+
+    public static void main( String[] argv ) throws Exception
+    {
+        Args args = Args.parse( argv );
+        int threads = args.getNumber( "threads", 1 ).intValue();
+        int txSize = args.getNumber( "txSize", 10 ).intValue();
+        int indexes = args.getNumber( "indexes", 0 ).intValue();
+        boolean forceLog = args.getBoolean( "forceLog", true );
+        boolean pipelinedCommit = args.getBoolean( "pipelinedCommit", false );
+        long warmupMillis = args.getDuration( "warmup", TimeUnit.SECONDS.toMillis( 10 ) );
+        long durationMillis = args.getDuration( "duration", TimeUnit.SECONDS.toMillis( 60 ) );
+
+        System.out.printf( "threads=%d txSize=%d indexes=%d forceLog=%b pipelinedCommit=%b warmup=%dms duration=%dms%n",
+                threads, txSize, indexes, forceLog, pipelinedCommit, warmupMillis, durationMillis );
+        try ( CommitWorkload workload = new CommitWorkload( txSize, indexes, forceLog, pipelinedCommit ) )
+        {
+            new CommitLoadGenerator( threads, warmupMillis, durationMillis, workload ).run();
+        }
+    }
+
+    private void run() throws Exception
+    {
+        AtomicBoolean stopped = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<?>> committers = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                committers.add( executor.submit( () -> commitUntilStopped( stopped ) ) );
+            }
+
+            Thread.sleep( warmupMillis );
+            workload.stageTracer().resetStages();
+            recorder.reset();
+            long startNanos = nanoTime();
+            Thread.sleep( durationMillis );
+            Histogram latencies = recorder.getIntervalHistogram();
+            long elapsedNanos = nanoTime() - startNanos;
+            String stages = workload.describeStages();
+            stopped.set( true );
+            for ( Future<?> committer : committers )
+            {
+                committer.get();
+            }
+
+            report( latencies, elapsedNanos, stages );
+        }
+        finally
+        {
+            stopped.set( true );
+            executor.shutdown();
+            executor.awaitTermination( 1, TimeUnit.MINUTES );
+        }
+    }
+
+    private void commitUntilStopped( AtomicBoolean stopped )
+    {
+        SplittableRandom random = new SplittableRandom();
+        while ( !stopped.get() )
+        {
+            long startNanos = nanoTime();
+            workload.commitOne( random );
+            recorder.recordValue( Math.min( nanoTime() - startNanos, HIGHEST_TRACKABLE_NANOS ) );
+        }
+    }
+
+    private static void report( Histogram latencies, long elapsedNanos, String stages )
+    {
+        long commits = latencies.getTotalCount();
+        System.out.printf( "%ncommits=%d throughput=%.1f tx/s%n", commits, commits / (elapsedNanos / 1_000_000_000.0) );
+        System.out.printf( "latency us: mean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                latencies.getMean() / 1_000,
+                latencies.getValueAtPercentile( 50 ) / 1_000.0,
+                latencies.getValueAtPercentile( 90 ) / 1_000.0,
+                latencies.getValueAtPercentile( 99 ) / 1_000.0,
+                latencies.getValueAtPercentile( 99.9 ) / 1_000.0,
+                latencies.getMaxValue() / 1_000.0 );
+        System.out.printf( "%nlatency distribution (us):%n" );
+        latencies.outputPercentileDistribution( System.out, 5, 1_000.0 );
+        System.out.printf( "%nstages:%n%s", stages );
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.benchmarks;
+
+/**
+ * The stages of a transaction commit that the {@link CommitStageTracer} times.
+ */
+public enum CommitStage
+{
+    /**
+     * The whole commit, from handing the transaction over to the commit process until it has been applied to the store.
+     */
+    COMMIT,
+    /**
+     * Appending the transaction to the transaction log, including waiting for and doing the log force.
+     */
+    LOG_APPEND,
+    /**
+     * Serializing the commands of the transaction and writing them into the log buffer.
+     */
+    SERIALIZE,
+    /**
+     * Waiting for another thread to force the log, with the appended transaction in its batch.
+     */
+    LOG_FORCE_WAIT,
+    /**
+     * Forcing the transaction log.
+     */
+    LOG_FORCE,
+    /**
+     * Applying the transaction to the store and its indexes.
+     */
+    STORE_APPLY
+}
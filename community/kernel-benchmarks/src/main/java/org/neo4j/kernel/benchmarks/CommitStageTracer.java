@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.benchmarks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
+
+/**
+ * A {@link DefaultTracer} that also times the {@link CommitStage stages} of every commit, by wrapping the events of
+ * the default tracer in events that measure how long they were open.
+ * <p>
+ * Unlike the default tracer, this allocates events for every transaction, so it is only meant for benchmarking.
+ */
+public class CommitStageTracer extends DefaultTracer
+{
+    private final Map<CommitStage,StageCounters> stages = new EnumMap<>( CommitStage.class );
+
+    public CommitStageTracer()
+    {
+        for ( CommitStage stage : CommitStage.values() )
+        {
+            stages.put( stage, new StageCounters() );
+        }
+    }
+
+    @Override
+    public TransactionEvent beginTransaction( PageCursorTracer cursorTracer )
+    {
+        return new TimedTransactionEvent( super.beginTransaction( cursorTracer ) );
+    }
+
+    /**
+     * @return number of times the given stage has completed.
+     */
+    public long count( CommitStage stage )
+    {
+        return stages.get( stage ).count.sum();
+    }
+
+    /**
+     * @return total time, in nanoseconds, spent in the given stage.
+     */
+    public long nanos( CommitStage stage )
+    {
+        return stages.get( stage ).nanos.sum();
+    }
+
+    /**
+     * @return the average time, in nanoseconds, of the given stage, or {@code 0} if it has not completed yet.
+     */
+    public double averageNanos( CommitStage stage )
+    {
+        long count = count( stage );
+        return count == 0 ? 0 : (double) nanos( stage ) / count;
+    }
+
+    /**
+     * Reset the stage timings, e.g. between benchmark iterations. The counters of the default tracer are kept.
+     */
+    public void resetStages()
+    {
+        for ( StageCounters counters : stages.values() )
+        {
+            counters.count.reset();
+            counters.nanos.reset();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        for ( CommitStage stage : CommitStage.values() )
+        {
+            sb.append( String.format( "%-15s count=%-10d avg=%12.1f us  total=%10.1f ms%n", stage, count( stage ),
+                    averageNanos( stage ) / 1_000, nanos( stage ) / 1_000_000.0 ) );
+        }
+        return sb.toString();
+    }
+
+    private void record( CommitStage stage, long startNanos )
+    {
+        StageCounters counters = stages.get( stage );
+        counters.count.increment();
+        counters.nanos.add( System.nanoTime() - startNanos );
+    }
+
+    private static class StageCounters
+    {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+
+    private class StageEvent implements SerializeTransactionEvent, LogForceWaitEvent, LogForceEvent, StoreApplyEvent
+    {
+        private final CommitStage stage;
+        private final Runnable delegateClose;
+        private final long startNanos = System.nanoTime();
+
+        StageEvent( CommitStage stage, Runnable delegateClose )
+        {
+            this.stage = stage;
+            this.delegateClose = delegateClose;
+        }
+
+        @Override
+        public void close()
+        {
+            delegateClose.run();
+            record( stage, startNanos );
+        }
+    }
+
+    private class TimedTransactionEvent implements TransactionEvent
+    {
+        private final TransactionEvent delegate;
+
+        TimedTransactionEvent( TransactionEvent delegate )
+        {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void setSuccess( boolean success )
+        {
+            delegate.setSuccess( success );
+        }
+
+        @Override
+        public void setFailure( boolean failure )
+        {
+            delegate.setFailure( failure );
+        }
+
+        @Override
+        public CommitEvent beginCommitEvent()
+        {
+            return new TimedCommitEvent( delegate.beginCommitEvent() );
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+        }
+
+        @Override
+        public void setTransactionWriteState( String transactionWriteState )
+        {
+            delegate.setTransactionWriteState( transactionWriteState );
+        }
+
+        @Override
+        public void setReadOnly( boolean wasReadOnly )
+        {
+            delegate.setReadOnly( wasReadOnly );
+        }
+    }
+
+    private class TimedCommitEvent implements CommitEvent
+    {
+        private final CommitEvent delegate;
+        private final long startNanos = System.nanoTime();
+
+        TimedCommitEvent( CommitEvent delegate )
+        {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+            record( CommitStage.COMMIT, startNanos );
+        }
+
+        @Override
+        public LogAppendEvent beginLogAppend()
+        {
+            return new TimedLogAppendEvent( delegate.beginLogAppend() );
+        }
+
+        @Override
+        public StoreApplyEvent beginStoreApply()
+        {
+            return new StageEvent( CommitStage.STORE_APPLY, delegate.beginStoreApply()::close );
+        }
+    }
+
+    private class TimedLogAppendEvent implements LogAppendEvent
+    {
+        private final LogAppendEvent delegate;
+        private final long startNanos = System.nanoTime();
+
+        TimedLogAppendEvent( LogAppendEvent delegate )
+        {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void appendToLogFile( LogPosition logPositionBeforeAppend, LogPosition logPositionAfterAppend )
+        {
+            delegate.appendToLogFile( logPositionBeforeAppend, logPositionAfterAppend );
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+            record( CommitStage.LOG_APPEND, startNanos );
+        }
+
+        @Override
+        public void setLogRotated( boolean logRotated )
+        {
+            delegate.setLogRotated( logRotated );
+        }
+
+        @Override
+        public LogRotateEvent beginLogRotate()
+        {
+            return delegate.beginLogRotate();
+        }
+
+        @Override
+        public SerializeTransactionEvent beginSerializeTransaction()
+        {
+            return new StageEvent( CommitStage.SERIALIZE, delegate.beginSerializeTransaction()::close );
+        }
+
+        @Override
+        public LogForceWaitEvent beginLogForceWait()
+        {
+            return new StageEvent( CommitStage.LOG_FORCE_WAIT, delegate.beginLogForceWait()::close );
+        }
+
+        @Override
+        public LogForceEvent beginLogForce()
+        {
+            return new StageEvent( CommitStage.LOG_FORCE, delegate.beginLogForce()::close );
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.schema.IndexCreator;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.DelegatingFileSystemAbstraction;
+import org.neo4j.io.fs.DelegatingStoreChannel;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.api.CommitPipelineStatistics;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pipelined_commit;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tracer;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+/**
+ * A database on local disk, and a write transaction shape to commit against it. Shared by the {@link CommitBenchmark}
+ * and the {@link CommitLoadGenerator}.
+ * <p>
+ * Every transaction creates {@code txSize} nodes with a label and {@code indexes} properties, each of which is covered
+ * by an index, so the commit goes through the whole path of appending to the transaction log, forcing it and applying
+ * the transaction to the store and the indexes. Without {@code forceLog}, forcing files is a no-op, so the workload
+ * measures the commit path itself rather than the fsync latency of the disk.
+ */
+public class CommitWorkload implements AutoCloseable
+{
+    private static final Label LABEL = Label.label( "Commit" );
+
+    private final int txSize;
+    private final String[] propertyKeys;
+    private final File homeDirectory;
+    private final FileSystemAbstraction fs;
+    private final DatabaseManagementService managementService;
+    private final GraphDatabaseAPI db;
+    private final CommitStageTracer stageTracer;
+    private final CommitPipelineStatistics pipelineStatistics;
+
+    public CommitWorkload( int txSize, int indexes, boolean forceLog, boolean pipelinedCommit ) throws IOException
+    {
+        this.txSize = txSize;
+        this.propertyKeys = new String[indexes];
+        for ( int i = 0; i < indexes; i++ )
+        {
+            propertyKeys[i] = "p" + i;
+        }
+        homeDirectory = Files.createTempDirectory( "commit-benchmark" ).toFile();
+        fs = forceLog ? new DefaultFileSystemAbstraction() : new NoForceFileSystemAbstraction( new DefaultFileSystemAbstraction() );
+        managementService = new TestDatabaseManagementServiceBuilder( homeDirectory )
+                .setFileSystem( fs )
+                .setConfig( tracer, CommitStageTracerFactory.NAME )
+                .setConfig( pipelined_commit, pipelinedCommit )
+                .build();
+        db = (GraphDatabaseAPI) managementService.database( DEFAULT_DATABASE_NAME );
+        createIndexes();
+        stageTracer = db.getDependencyResolver().resolveDependency( CommitStageTracer.class );
+        pipelineStatistics = pipelinedCommit ? db.getDependencyResolver().resolveDependency( CommitPipelineStatistics.class ) : null;
+    }
+
+    private void createIndexes()
+    {
+        if ( propertyKeys.length == 0 )
+        {
+            return;
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( String propertyKey : propertyKeys )
+            {
+                IndexCreator creator = tx.schema().indexFor( LABEL ).on( propertyKey );
+                creator.create();
+            }
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 10, TimeUnit.MINUTES );
+            tx.commit();
+        }
+    }
+
+    /**
+     * Create and commit one transaction.
+     */
+    public void commitOne( SplittableRandom random )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < txSize; i++ )
+            {
+                Node node = tx.createNode( LABEL );
+                for ( String propertyKey : propertyKeys )
+                {
+                    node.setProperty( propertyKey, random.nextLong() );
+                }
+            }
+            tx.commit();
+        }
+    }
+
+    /**
+     * @return the tracer timing the stages of the commits of this workload.
+     */
+    public CommitStageTracer stageTracer()
+    {
+        return stageTracer;
+    }
+
+    /**
+     * @return the statistics of the commit pipeline, or {@code null} if the commits are not pipelined.
+     */
+    public CommitPipelineStatistics pipelineStatistics()
+    {
+        return pipelineStatistics;
+    }
+
+    /**
+     * @return a description of where the time of the commits has been spent, since the stages were last reset.
+     */
+    public String describeStages()
+    {
+        StringBuilder sb = new StringBuilder( stageTracer.toString() );
+        if ( pipelineStatistics != null )
+        {
+            for ( CommitPipelineStatistics.Stage stage : CommitPipelineStatistics.Stage.values() )
+            {
+                sb.append( String.format( "PIPELINE_%-6s batches=%-8d avg batch=%8.1f  total=%10.1f ms%n", stage,
+                        pipelineStatistics.batches( stage ), pipelineStatistics.averageBatchSize( stage ),
+                        pipelineStatistics.nanos( stage ) / 1_000_000.0 ) );
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        managementService.shutdown();
+        fs.deleteRecursively( homeDirectory );
+        fs.close();
+    }
+
+    private static class NoForceFileSystemAbstraction extends DelegatingFileSystemAbstraction
+    {
+        NoForceFileSystemAbstraction( FileSystemAbstraction delegate )
+        {
+            super( delegate );
+        }
+
+        @Override
+        public StoreChannel open( File fileName, Set<OpenOption> options ) throws IOException
+        {
+            return new NoForceStoreChannel( super.open( fileName, options ) );
+        }
+
+        @Override
+        public StoreChannel write( File fileName ) throws IOException
+        {
+            return new NoForceStoreChannel( super.write( fileName ) );
+        }
+    }
+
+    private static class NoForceStoreChannel extends DelegatingStoreChannel<StoreChannel>
+    {
+        NoForceStoreChannel( StoreChannel delegate )
+        {
+            super( delegate );
+        }
+
+        @Override
+        public void force( boolean metaData )
+        {
+        }
+    }
+}
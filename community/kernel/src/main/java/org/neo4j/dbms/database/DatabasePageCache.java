@@ -20,6 +20,7 @@
 package org.neo4j.dbms.database;
 
 import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.impl.factory.Sets;
 
 import java.io.File;
 import java.io.IOException;
@@ -50,20 +51,32 @@ public class DatabasePageCache implements PageCache
     private final PageCache globalPageCache;
     private final CopyOnWriteArrayList<PagedFile> databasePagedFiles = new CopyOnWriteArrayList<>();
     private final VersionContextSupplier versionContextSupplier;
+    private final ImmutableSet<OpenOption> defaultOpenOptions;
     private boolean closed;
 
     public DatabasePageCache( PageCache globalPageCache, VersionContextSupplier versionContextSupplier )
+    {
+        this( globalPageCache, versionContextSupplier, Sets.immutable.empty() );
+    }
+
+    /**
+     * @param defaultOpenOptions open options that are added to every file mapped by the database, e.g.
+     * {@link org.neo4j.io.pagecache.PageCacheOpenOptions#MEMORY_MAPPED}.
+     */
+    public DatabasePageCache( PageCache globalPageCache, VersionContextSupplier versionContextSupplier, ImmutableSet<OpenOption> defaultOpenOptions )
     {
         requireNonNull( globalPageCache );
         requireNonNull( versionContextSupplier );
+        requireNonNull( defaultOpenOptions );
         this.globalPageCache = globalPageCache;
         this.versionContextSupplier = versionContextSupplier;
+        this.defaultOpenOptions = defaultOpenOptions;
     }
 
     @Override
     public PagedFile map( File file, VersionContextSupplier versionContextSupplier, int pageSize, ImmutableSet<OpenOption> openOptions ) throws IOException
     {
-        PagedFile pagedFile = globalPageCache.map( file, versionContextSupplier, pageSize, openOptions );
+        PagedFile pagedFile = globalPageCache.map( file, versionContextSupplier, pageSize, openOptions.newWithAll( defaultOpenOptions ) );
         DatabasePageFile databasePageFile = new DatabasePageFile( pagedFile, databasePagedFiles );
         databasePagedFiles.add( databasePageFile );
         return databasePageFile;
@@ -128,6 +141,21 @@ public class DatabasePageCache implements PageCache
         return globalPageCache.maxCachedPages();
     }
 
+    /**
+     * Only the dirty pages of the files mapped by this database are counted, so a database can tell how much it has
+     * dirtied the page cache that it shares with other databases.
+     */
+    @Override
+    public long dirtyPages()
+    {
+        long dirtyPages = 0;
+        for ( PagedFile pagedFile : databasePagedFiles )
+        {
+            dirtyPages += pagedFile.dirtyPages();
+        }
+        return dirtyPages;
+    }
+
     @Override
     public VersionContextSupplier versionContextSupplier()
     {
@@ -206,6 +234,18 @@ public class DatabasePageCache implements PageCache
             return delegate.isDeleteOnClose();
         }
 
+        @Override
+        public long residentPages()
+        {
+            return delegate.residentPages();
+        }
+
+        @Override
+        public long dirtyPages()
+        {
+            return delegate.dirtyPages();
+        }
+
         @Override
         public boolean equals( Object o )
         {
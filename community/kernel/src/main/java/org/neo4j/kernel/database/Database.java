@@ -19,11 +19,16 @@
  */
 package org.neo4j.kernel.database;
 
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.impl.factory.Sets;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.OpenOption;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
@@ -58,6 +63,7 @@ import org.neo4j.io.fs.watcher.DatabaseLayoutWatcher;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
@@ -75,6 +81,7 @@ import org.neo4j.kernel.impl.api.DatabaseSchemaState;
 import org.neo4j.kernel.impl.api.KernelImpl;
 import org.neo4j.kernel.impl.api.KernelTransactions;
 import org.neo4j.kernel.impl.api.LeaseService;
+import org.neo4j.kernel.impl.api.PipelinedTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.index.IndexProviderMap;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
@@ -96,16 +103,19 @@ import org.neo4j.kernel.impl.factory.KernelTransactionFactory;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.store.stats.DatabaseEntityCounters;
 import org.neo4j.kernel.impl.storemigration.DatabaseMigratorFactory;
 import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.LogForceMonitor;
 import org.neo4j.kernel.impl.transaction.log.LoggingLogFileMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointPressure;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
@@ -116,6 +126,7 @@ import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFilesHelper;
+import org.neo4j.kernel.impl.transaction.log.pruning.BackgroundLogPruning;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruneStrategyFactory;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruningImpl;
@@ -153,6 +164,7 @@ import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Health;
 import org.neo4j.monitoring.Monitors;
 import org.neo4j.resources.CpuClock;
+import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StorageEngineFactory;
@@ -166,6 +178,11 @@ import org.neo4j.util.VisibleForTesting;
 
 import static java.lang.String.format;
 import static org.neo4j.configuration.GraphDatabaseInternalSettings.fail_on_corrupted_log_files;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_memory_mapped_reads;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_compression;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_prepare_in_background;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_prune_in_background;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
 import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
 import static org.neo4j.function.Predicates.alwaysTrue;
 import static org.neo4j.function.ThrowingAction.executeAll;
@@ -308,7 +325,7 @@ public class Database extends LifecycleAdapter
         try
         {
             databaseDependencies = new Dependencies( globalDependencies );
-            databasePageCache = new DatabasePageCache( globalPageCache, versionContextSupplier );
+            databasePageCache = new DatabasePageCache( globalPageCache, versionContextSupplier, databasePageCacheOpenOptions() );
             databaseMonitors = new Monitors( parentMonitors );
 
             life = new LifeSupport();
@@ -340,6 +357,7 @@ public class Database extends LifecycleAdapter
             databaseDependencies.satisfyDependency( lockService );
             databaseDependencies.satisfyDependency( versionContextSupplier );
             databaseDependencies.satisfyDependency( tracers.getDatabaseTracer() );
+            databaseDependencies.satisfyDependency( tracers.getLockTracer() );
 
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector = RecoveryCleanupWorkCollector.immediate();
             databaseDependencies.satisfyDependency( recoveryCleanupWorkCollector );
@@ -471,6 +489,13 @@ public class Database extends LifecycleAdapter
             this.executionEngine = QueryEngineProvider.initialize( databaseDependencies, databaseFacade, engineProvider, isSystem(), providerSpi );
 
             this.checkpointerLifecycle = new CheckpointerLifecycle( transactionLogModule.checkPointer(), databaseHealth );
+            if ( databaseConfig.get( pagecache_warmup_enabled ) )
+            {
+                // Life cycles shut down in reverse order. The check pointer is set last, so the final check point comes before
+                // the profile taken on shutdown, and the storage engine and page cache were added earlier, so they are still open.
+                life.add( new PageCacheWarmer( fs, databasePageCache, scheduler, databaseLayout.databaseDirectory(), databaseConfig,
+                        internalLogProvider.getLog( PageCacheWarmer.class ), tracers.getPageCacheTracer() ) );
+            }
 
             life.add( databaseHealth );
             life.add( databaseAvailabilityGuard );
@@ -514,6 +539,11 @@ public class Database extends LifecycleAdapter
         }
     }
 
+    private ImmutableSet<OpenOption> databasePageCacheOpenOptions()
+    {
+        return databaseConfig.get( pagecache_memory_mapped_reads ) ? Sets.immutable.of( PageCacheOpenOptions.MEMORY_MAPPED ) : Sets.immutable.empty();
+    }
+
     private LifeSupport initializeExtensions( Dependencies dependencies )
     {
         LifeSupport extensionsLife = new LifeSupport();
@@ -663,18 +693,26 @@ public class Database extends LifecycleAdapter
     {
         TransactionMetadataCache transactionMetadataCache = new TransactionMetadataCache();
 
-        final LogPruning logPruning =
+        LogPruning logPruning =
                 new LogPruningImpl( fs, logFiles, logProvider, new LogPruneStrategyFactory(), clock, config );
+        if ( config.get( tx_log_prune_in_background ) )
+        {
+            logPruning = life.add( new BackgroundLogPruning( logPruning, scheduler, logProvider ) );
+        }
 
+        Executor logPreparationExecutor =
+                config.get( tx_log_prepare_in_background ) && !readOnly ? scheduler.executor( Group.TRANSACTION_LOG_PREPARATION ) : null;
         final LogRotation logRotation =
-                new LogRotationImpl( logFiles, clock, databaseHealth, monitors.newMonitor( LogRotationMonitor.class ) );
+                new LogRotationImpl( logFiles, clock, databaseHealth, monitors.newMonitor( LogRotationMonitor.class ), logPreparationExecutor );
 
         final TransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth ) );
+                logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, config.get( tx_log_compression ),
+                monitors.newMonitor( LogForceMonitor.class ) ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors, true );
 
-        CheckPointThreshold threshold = CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider );
+        CheckPointThreshold threshold = CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider,
+                CheckPointPressure.of( databasePageCache, transactionIdStore ) );
 
         final CheckPointerImpl checkPointer =
                 new CheckPointerImpl( transactionIdStore, threshold, forceOperation, logPruning, appender, databaseHealth, logProvider,
@@ -700,6 +738,12 @@ public class Database extends LifecycleAdapter
         AtomicReference<CpuClock> cpuClockRef = setupCpuClockAtomicReference();
 
         TransactionCommitProcess transactionCommitProcess = commitProcessFactory.create( appender, storageEngine, databaseConfig );
+        if ( transactionCommitProcess instanceof PipelinedTransactionCommitProcess )
+        {
+            // Added before the kernel transactions, so that the pipeline is stopped after all transactions are done committing
+            PipelinedTransactionCommitProcess commitPipeline = life.add( (PipelinedTransactionCommitProcess) transactionCommitProcess );
+            databaseDependencies.satisfyDependency( commitPipeline.statistics() );
+        }
 
         /*
          * This is used by explicit indexes and constraint indexes whenever a transaction is to be spawned
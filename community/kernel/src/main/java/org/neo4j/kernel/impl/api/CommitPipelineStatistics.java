@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the stages of a {@link PipelinedTransactionCommitProcess}: how many batches each stage has processed,
+ * how many transactions those batches contained, and how much time the stage spent processing them.
+ */
+public class CommitPipelineStatistics
+{
+    public enum Stage
+    {
+        APPEND,
+        FORCE,
+        APPLY
+    }
+
+    private final Map<Stage,StageCounters> stages = new EnumMap<>( Stage.class );
+
+    CommitPipelineStatistics()
+    {
+        for ( Stage stage : Stage.values() )
+        {
+            stages.put( stage, new StageCounters() );
+        }
+    }
+
+    void processed( Stage stage, int transactions, long nanos )
+    {
+        StageCounters counters = stages.get( stage );
+        counters.batches.increment();
+        counters.transactions.add( transactions );
+        counters.nanos.add( nanos );
+    }
+
+    /**
+     * @return number of batches the given stage has processed.
+     */
+    public long batches( Stage stage )
+    {
+        return stages.get( stage ).batches.sum();
+    }
+
+    /**
+     * @return number of transactions the given stage has processed, over all batches.
+     */
+    public long transactions( Stage stage )
+    {
+        return stages.get( stage ).transactions.sum();
+    }
+
+    /**
+     * @return total time, in nanoseconds, the given stage has spent processing batches.
+     */
+    public long nanos( Stage stage )
+    {
+        return stages.get( stage ).nanos.sum();
+    }
+
+    /**
+     * @return the average number of transactions per batch in the given stage, or {@code 0} if nothing has been processed.
+     */
+    public double averageBatchSize( Stage stage )
+    {
+        long batches = batches( stage );
+        return batches == 0 ? 0 : (double) transactions( stage ) / batches;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder( "CommitPipelineStatistics{" );
+        for ( Stage stage : Stage.values() )
+        {
+            sb.append( stage ).append( "=[batches=" ).append( batches( stage ) )
+              .append( ", transactions=" ).append( transactions( stage ) )
+              .append( ", nanos=" ).append( nanos( stage ) ).append( "]" );
+            if ( stage.ordinal() < Stage.values().length - 1 )
+            {
+                sb.append( ", " );
+            }
+        }
+        return sb.append( "}" ).toString();
+    }
+
+    private static class StageCounters
+    {
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder transactions = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -1026,6 +1026,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             statistics.reset();
             releaseStatementResources();
             operations.release();
+            commandCreationContext.releaseUnusedIds();
             pageCursorTracer.reportEvents();
             initializationTrace = null;
             pool.release( this );
@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.api.CommitPipelineStatistics.Stage;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionLogError;
+
+/**
+ * A {@link TransactionCommitProcess} that commits transactions through a pipeline of three stages, each running as
+ * its own job in the {@link Group#COMMIT_PIPELINE commit pipeline group}: appending transactions to the log, forcing
+ * the log, and applying transactions to the store.
+ * <p>
+ * A committing thread hands its batch of transactions to the append stage, and then waits for the batch to come out
+ * of the apply stage. Every stage takes all batches that are waiting for it, up to a limit, and processes them as one,
+ * so the log is forced once for many concurrently committing threads, and the log for one group of transactions can
+ * be forced while the next group is appended. Every batch keeps its own trace events: it is appended and applied
+ * with its own events, and waits for the shared force of its group in its own event, while the force itself is
+ * traced by the first batch of the group, like the committing thread that gets to force the log in
+ * {@link TransactionRepresentationCommitProcess}.
+ * <p>
+ * Transactions are appended, forced and applied in the order they were handed to the pipeline. Commits made while
+ * the pipeline is not running are committed synchronously in the committing thread, like
+ * {@link TransactionRepresentationCommitProcess} does.
+ */
+public class PipelinedTransactionCommitProcess extends LifecycleAdapter implements TransactionCommitProcess
+{
+    private static final int MAX_BATCHES_PER_STAGE =
+            FeatureToggles.getInteger( PipelinedTransactionCommitProcess.class, "maxBatchesPerStage", 256 );
+    private static final Submission END = new Submission( null, null, null );
+
+    private final TransactionAppender appender;
+    private final StorageEngine storageEngine;
+    private final JobScheduler scheduler;
+    private final TransactionCommitProcess synchronousCommitProcess;
+    private final CommitPipelineStatistics statistics = new CommitPipelineStatistics();
+    private final BlockingQueue<Submission> appendQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Submission> forceQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Submission> applyQueue = new LinkedBlockingQueue<>();
+    // Read locked while handing batches to the pipeline, write locked while starting and stopping it,
+    // so that no batch can be handed to the pipeline after it has been told to stop.
+    private final ReadWriteLock pipelineLock = new ReentrantReadWriteLock();
+    private boolean running;
+    private List<JobHandle<?>> stageJobs;
+
+    public PipelinedTransactionCommitProcess( TransactionAppender appender, StorageEngine storageEngine, JobScheduler scheduler )
+    {
+        this.appender = appender;
+        this.storageEngine = storageEngine;
+        this.scheduler = scheduler;
+        this.synchronousCommitProcess = new TransactionRepresentationCommitProcess( appender, storageEngine );
+    }
+
+    public CommitPipelineStatistics statistics()
+    {
+        return statistics;
+    }
+
+    @Override
+    public void start()
+    {
+        Lock lock = pipelineLock.writeLock();
+        lock.lock();
+        try
+        {
+            stageJobs = new ArrayList<>();
+            stageJobs.add( scheduler.schedule( Group.COMMIT_PIPELINE, new AppendStage() ) );
+            stageJobs.add( scheduler.schedule( Group.COMMIT_PIPELINE, new ForceStage() ) );
+            stageJobs.add( scheduler.schedule( Group.COMMIT_PIPELINE, new ApplyStage() ) );
+            running = true;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException, ExecutionException
+    {
+        Lock lock = pipelineLock.writeLock();
+        lock.lock();
+        try
+        {
+            if ( !running )
+            {
+                return;
+            }
+            running = false;
+            // The end marker travels through all stages after every batch handed to the pipeline before it.
+            appendQueue.add( END );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        for ( JobHandle<?> stageJob : stageJobs )
+        {
+            stageJob.waitTermination();
+        }
+        stageJobs = null;
+    }
+
+    @Override
+    public long commit( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode ) throws TransactionFailureException
+    {
+        Submission submission = new Submission( batch, commitEvent, mode );
+        Lock lock = pipelineLock.readLock();
+        lock.lock();
+        try
+        {
+            if ( running )
+            {
+                appendQueue.add( submission );
+            }
+            else
+            {
+                submission = null;
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return submission != null ? submission.await() : synchronousCommitProcess.commit( batch, commitEvent, mode );
+    }
+
+    /**
+     * Links the transactions of the given submissions into one chain of transactions, in order.
+     * The chain must be {@link #unlink(List) unlinked} again before the submissions are passed on to the next stage.
+     */
+    private static TransactionToApply link( List<Submission> submissions )
+    {
+        for ( int i = 1; i < submissions.size(); i++ )
+        {
+            submissions.get( i - 1 ).last.next( submissions.get( i ).first );
+        }
+        return submissions.get( 0 ).first;
+    }
+
+    private static void unlink( List<Submission> submissions )
+    {
+        for ( Submission submission : submissions )
+        {
+            submission.last.next( null );
+        }
+    }
+
+    private static int countTransactions( List<Submission> submissions )
+    {
+        int transactions = 0;
+        for ( Submission submission : submissions )
+        {
+            transactions += submission.transactions;
+        }
+        return transactions;
+    }
+
+    private static void close( TransactionToApply batch )
+    {
+        while ( batch != null )
+        {
+            batch.publishAsClosed();
+            batch.close();
+            batch = batch.next();
+        }
+    }
+
+    /**
+     * A batch of transactions handed to the pipeline by one committing thread.
+     */
+    private static class Submission
+    {
+        private final TransactionToApply first;
+        private final TransactionToApply last;
+        private final int transactions;
+        private final CommitEvent commitEvent;
+        private final TransactionApplicationMode mode;
+        private final CompletableFuture<Long> completion = new CompletableFuture<>();
+        // Begun by the append stage, and closed by the force stage.
+        private LogAppendEvent logAppendEvent;
+
+        Submission( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+        {
+            TransactionToApply last = batch;
+            int transactions = batch == null ? 0 : 1;
+            while ( last != null && last.next() != null )
+            {
+                last = last.next();
+                transactions++;
+            }
+            this.first = batch;
+            this.last = last;
+            this.transactions = transactions;
+            this.commitEvent = commitEvent;
+            this.mode = mode;
+        }
+
+        void fail( TransactionFailureException failure )
+        {
+            if ( logAppendEvent != null )
+            {
+                logAppendEvent.close();
+                logAppendEvent = null;
+            }
+            completion.completeExceptionally( failure );
+        }
+
+        long await() throws TransactionFailureException
+        {
+            try
+            {
+                // Waits uninterruptibly, since the transactions may already be in the log at this point.
+                return completion.join();
+            }
+            catch ( CompletionException e )
+            {
+                Throwable cause = e.getCause();
+                if ( cause instanceof TransactionFailureException )
+                {
+                    throw (TransactionFailureException) cause;
+                }
+                throw new TransactionFailureException( TransactionCommitFailed, cause, "Commit pipeline failed" );
+            }
+        }
+    }
+
+    private abstract class PipelineStage implements Runnable
+    {
+        private final Stage stage;
+        private final BlockingQueue<Submission> input;
+
+        PipelineStage( Stage stage, BlockingQueue<Submission> input )
+        {
+            this.stage = stage;
+            this.input = input;
+        }
+
+        @Override
+        public void run()
+        {
+            List<Submission> submissions = new ArrayList<>();
+            boolean end = false;
+            while ( !end )
+            {
+                try
+                {
+                    submissions.add( input.take() );
+                }
+                catch ( InterruptedException e )
+                {
+                    // Stages are only stopped by the end marker, since the transactions in them must be completed.
+                    continue;
+                }
+                input.drainTo( submissions, MAX_BATCHES_PER_STAGE - 1 );
+                // Nothing is handed to the pipeline after the end marker, so it can only be last.
+                end = submissions.get( submissions.size() - 1 ) == END;
+                if ( end )
+                {
+                    submissions.remove( submissions.size() - 1 );
+                }
+                if ( !submissions.isEmpty() )
+                {
+                    long startTime = System.nanoTime();
+                    try
+                    {
+                        process( submissions );
+                    }
+                    catch ( Throwable t )
+                    {
+                        // The stages complete submissions that fail themselves, so this only catches the unexpected.
+                        // Submissions that this stage already completed keep their outcome.
+                        TransactionFailureException failure = new TransactionFailureException( TransactionCommitFailed, t, "Commit pipeline failed" );
+                        for ( Submission submission : submissions )
+                        {
+                            if ( !submission.completion.isDone() )
+                            {
+                                submission.fail( failure );
+                            }
+                        }
+                    }
+                    statistics.processed( stage, countTransactions( submissions ), System.nanoTime() - startTime );
+                    // Submissions that failed in this stage have already been completed
+                    submissions.removeIf( submission -> submission.completion.isDone() );
+                    if ( !submissions.isEmpty() )
+                    {
+                        passOn( submissions );
+                    }
+                    submissions.clear();
+                }
+            }
+            passOnEnd();
+        }
+
+        /**
+         * Processes the given submissions. Submissions that fail are completed exceptionally, the rest are passed on.
+         */
+        abstract void process( List<Submission> submissions );
+
+        /**
+         * Passes processed submissions on to the next stage.
+         */
+        abstract void passOn( List<Submission> submissions );
+
+        void passOnEnd()
+        {
+            passOn( List.of( END ) );
+        }
+    }
+
+    private class AppendStage extends PipelineStage
+    {
+        AppendStage()
+        {
+            super( Stage.APPEND, appendQueue );
+        }
+
+        @Override
+        void process( List<Submission> submissions )
+        {
+            // Appending is cheap compared to forcing, so every submission is appended on its own, with its own event.
+            for ( Submission submission : submissions )
+            {
+                LogAppendEvent logAppendEvent = submission.commitEvent.beginLogAppend();
+                submission.logAppendEvent = logAppendEvent;
+                try
+                {
+                    appender.appendWithoutForce( submission.first, logAppendEvent );
+                }
+                catch ( Throwable cause )
+                {
+                    submission.fail( new TransactionFailureException( TransactionLogError, cause,
+                            "Could not append transaction representation to log" ) );
+                }
+            }
+        }
+
+        @Override
+        void passOn( List<Submission> submissions )
+        {
+            forceQueue.addAll( submissions );
+        }
+    }
+
+    private class ForceStage extends PipelineStage
+    {
+        ForceStage()
+        {
+            super( Stage.FORCE, forceQueue );
+        }
+
+        @Override
+        void process( List<Submission> submissions )
+        {
+            // The first submission forces the log on behalf of the whole group, while the others wait for it.
+            List<LogForceWaitEvent> forceWaits = new ArrayList<>( submissions.size() - 1 );
+            for ( int i = 1; i < submissions.size(); i++ )
+            {
+                forceWaits.add( submissions.get( i ).logAppendEvent.beginLogForceWait() );
+            }
+            TransactionFailureException failure = null;
+            try
+            {
+                appender.forceAndPublishAsCommitted( link( submissions ), submissions.get( 0 ).logAppendEvent );
+            }
+            catch ( Throwable cause )
+            {
+                failure = new TransactionFailureException( TransactionLogError, cause, "Could not append transaction representation to log" );
+            }
+            finally
+            {
+                unlink( submissions );
+                forceWaits.forEach( LogForceWaitEvent::close );
+            }
+            for ( Submission submission : submissions )
+            {
+                if ( failure != null )
+                {
+                    submission.fail( failure );
+                }
+                else
+                {
+                    submission.logAppendEvent.close();
+                    submission.logAppendEvent = null;
+                }
+            }
+        }
+
+        @Override
+        void passOn( List<Submission> submissions )
+        {
+            applyQueue.addAll( submissions );
+        }
+    }
+
+    private class ApplyStage extends PipelineStage
+    {
+        ApplyStage()
+        {
+            super( Stage.APPLY, applyQueue );
+        }
+
+        @Override
+        void process( List<Submission> submissions )
+        {
+            // The storage engine applies a chain of transactions in one mode, so apply runs of submissions with the same mode.
+            int from = 0;
+            while ( from < submissions.size() )
+            {
+                TransactionApplicationMode mode = submissions.get( from ).mode;
+                int to = from + 1;
+                while ( to < submissions.size() && submissions.get( to ).mode == mode )
+                {
+                    to++;
+                }
+                apply( submissions.subList( from, to ), mode );
+                from = to;
+            }
+        }
+
+        /**
+         * Applies the given submissions, and completes them, so that a failure further on cannot fail submissions that have been applied.
+         */
+        private void apply( List<Submission> submissions, TransactionApplicationMode mode )
+        {
+            List<StoreApplyEvent> storeApplyEvents = new ArrayList<>( submissions.size() );
+            for ( Submission submission : submissions )
+            {
+                storeApplyEvents.add( submission.commitEvent.beginStoreApply() );
+            }
+            TransactionFailureException failure = null;
+            try
+            {
+                storageEngine.apply( link( submissions ), mode );
+            }
+            catch ( Throwable cause )
+            {
+                failure = new TransactionFailureException( TransactionCommitFailed, cause,
+                        "Could not apply the transaction to the store after written to log" );
+            }
+            finally
+            {
+                unlink( submissions );
+                storeApplyEvents.forEach( StoreApplyEvent::close );
+            }
+            for ( Submission submission : submissions )
+            {
+                close( submission.first );
+                if ( failure != null )
+                {
+                    submission.fail( failure );
+                }
+                else
+                {
+                    submission.completion.complete( submission.last.transactionId() );
+                }
+            }
+        }
+
+        @Override
+        void passOn( List<Submission> submissions )
+        {
+            // Submissions are completed as soon as they have been applied, so there is nothing left to pass on.
+        }
+
+        @Override
+        void passOnEnd()
+        {
+            // The end of the pipeline
+        }
+    }
+}
@@ -29,12 +29,14 @@ import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 
 /**
  * Log checkpoint event that counts number of checkpoint that occurred and amount of time elapsed
- * for all of them and for the last one.
+ * for all of them and for the last one, as well as the flushing they did not have to do.
  */
 class CountingLogCheckPointEvent implements LogCheckPointEvent
 {
     private final AtomicLong checkpointCounter = new AtomicLong();
     private final AtomicLong accumulatedCheckpointTotalTimeMillis = new AtomicLong();
+    private final AtomicLong accumulatedSkippedPages = new AtomicLong();
+    private final AtomicLong accumulatedSkippedForces = new AtomicLong();
     private final BiConsumer<LogPosition,LogPosition> logFileAppendConsumer;
     private volatile long lastCheckpointTimeMillis;
 
@@ -51,6 +53,13 @@ class CountingLogCheckPointEvent implements LogCheckPointEvent
         lastCheckpointTimeMillis = checkpointMillis;
     }
 
+    @Override
+    public void flushSkipped( long skippedPages, long skippedForces )
+    {
+        accumulatedSkippedPages.addAndGet( skippedPages );
+        accumulatedSkippedForces.addAndGet( skippedForces );
+    }
+
     @Override
     public void close()
     {
@@ -89,4 +98,14 @@ class CountingLogCheckPointEvent implements LogCheckPointEvent
     {
         return lastCheckpointTimeMillis;
     }
+
+    long checkPointAccumulatedSkippedPages()
+    {
+        return accumulatedSkippedPages.get();
+    }
+
+    long checkPointAccumulatedSkippedForces()
+    {
+        return accumulatedSkippedForces.get();
+    }
 }
@@ -104,6 +104,18 @@ public class DefaultTracer implements DatabaseTracer
         return logCheckPointEvent.lastCheckpointTimeMillis();
     }
 
+    @Override
+    public long checkPointAccumulatedSkippedPages()
+    {
+        return logCheckPointEvent.checkPointAccumulatedSkippedPages();
+    }
+
+    @Override
+    public long checkPointAccumulatedSkippedForces()
+    {
+        return logCheckPointEvent.checkPointAccumulatedSkippedForces();
+    }
+
     @Override
     public LogCheckPointEvent beginCheckPoint()
     {
@@ -22,14 +22,25 @@ package org.neo4j.kernel.impl.factory;
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.kernel.impl.api.CommitProcessFactory;
+import org.neo4j.kernel.impl.api.PipelinedTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pipelined_commit;
+
 public class CommunityCommitProcessFactory implements CommitProcessFactory
 {
+    private final JobScheduler jobScheduler;
+
+    public CommunityCommitProcessFactory( JobScheduler jobScheduler )
+    {
+        this.jobScheduler = jobScheduler;
+    }
+
     @Override
     public TransactionCommitProcess create( TransactionAppender appender, StorageEngine storageEngine, Config config )
     {
@@ -37,6 +48,10 @@ public class CommunityCommitProcessFactory implements CommitProcessFactory
         {
             return new ReadOnlyTransactionCommitProcess();
         }
+        if ( config.get( pipelined_commit ) )
+        {
+            return new PipelinedTransactionCommitProcess( appender, storageEngine, jobScheduler );
+        }
         return new TransactionRepresentationCommitProcess( appender, storageEngine );
     }
 }
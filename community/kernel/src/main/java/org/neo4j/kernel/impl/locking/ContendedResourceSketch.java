@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.neo4j.kernel.impl.locking.ResourceTypeContention.ContendedResource;
+
+/**
+ * A lock-free, fixed size sketch of the resources that are waited for the most.
+ * <p>
+ * The number of waits per resource is counted in a count-min sketch: a few rows of counters, each indexed by its own
+ * hash of the resource id, where the smallest of the counters of a resource is its estimated count. Counts can only be
+ * overestimated, by collisions with other resources. Next to that, a small table of candidates remembers which
+ * resources to report. A resource that is not a candidate replaces the candidate with the lowest count among the few
+ * slots it hashes to, if its own count is higher, so the heavy hitters stay in the table over time.
+ */
+class ContendedResourceSketch
+{
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 256;
+    private static final int CANDIDATES = 64;
+    private static final int CANDIDATE_PROBES = 4;
+
+    private final AtomicLongArray counts = new AtomicLongArray( DEPTH * WIDTH );
+    private final AtomicReferenceArray<Long> candidates = new AtomicReferenceArray<>( CANDIDATES );
+
+    void add( long resourceId )
+    {
+        long estimate = Long.MAX_VALUE;
+        for ( int row = 0; row < DEPTH; row++ )
+        {
+            estimate = Math.min( estimate, counts.incrementAndGet( row * WIDTH + index( resourceId, row, WIDTH ) ) );
+        }
+        offerCandidate( resourceId, estimate );
+    }
+
+    long estimate( long resourceId )
+    {
+        long estimate = Long.MAX_VALUE;
+        for ( int row = 0; row < DEPTH; row++ )
+        {
+            estimate = Math.min( estimate, counts.get( row * WIDTH + index( resourceId, row, WIDTH ) ) );
+        }
+        return estimate;
+    }
+
+    List<ContendedResource> top( int limit )
+    {
+        MutableLongSet seen = new LongHashSet();
+        List<ContendedResource> result = new ArrayList<>();
+        for ( int slot = 0; slot < CANDIDATES; slot++ )
+        {
+            Long candidate = candidates.get( slot );
+            // Racing inserts may put the same resource in two slots.
+            if ( candidate != null && seen.add( candidate ) )
+            {
+                result.add( new ContendedResource( candidate, estimate( candidate ) ) );
+            }
+        }
+        result.sort( Comparator.comparingLong( ContendedResource::waits ).reversed() );
+        return result.size() > limit ? new ArrayList<>( result.subList( 0, Math.max( 0, limit ) ) ) : result;
+    }
+
+    private void offerCandidate( long resourceId, long estimate )
+    {
+        int start = index( resourceId, DEPTH, CANDIDATES );
+        int victimSlot = -1;
+        Long victim = null;
+        long victimEstimate = Long.MAX_VALUE;
+        for ( int probe = 0; probe < CANDIDATE_PROBES; probe++ )
+        {
+            int slot = (start + probe) & (CANDIDATES - 1);
+            Long candidate = candidates.get( slot );
+            if ( candidate == null )
+            {
+                if ( candidates.compareAndSet( slot, null, resourceId ) )
+                {
+                    return;
+                }
+                candidate = candidates.get( slot );
+            }
+            if ( candidate == resourceId )
+            {
+                return;
+            }
+            long candidateEstimate = estimate( candidate );
+            if ( candidateEstimate < victimEstimate )
+            {
+                victimSlot = slot;
+                victim = candidate;
+                victimEstimate = candidateEstimate;
+            }
+        }
+        if ( estimate > victimEstimate )
+        {
+            // If someone else replaced the victim in the meantime, then we simply lose this round.
+            candidates.compareAndSet( victimSlot, victim, resourceId );
+        }
+    }
+
+    private static int index( long resourceId, int row, int size )
+    {
+        // A different seed per row, through the finalizer of MurmurHash3, to spread all bits of the id.
+        long hash = resourceId + (row + 1) * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) hash & (size - 1);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+
+/**
+ * A {@link LockTracer} that aggregates lock waits per {@link ResourceType}: how many waits there have been, a histogram
+ * of how long they took, and which resources were waited for the most.
+ * <p>
+ * Lock clients only call the tracer when they actually have to wait for a lock, and the aggregation is lock-free and
+ * bounded in size, so the profiler is cheap enough to always be on.
+ */
+public class LockContentionProfiler implements LockTracer
+{
+    // Resource type ids are small, and this is only a safety net for the tracer not to throw on an unexpected one.
+    private static final int MAX_RESOURCE_TYPES = 64;
+
+    private final AtomicReferenceArray<ResourceTypeContention> contentionByTypeId = new AtomicReferenceArray<>( MAX_RESOURCE_TYPES );
+
+    @Override
+    public LockWaitEvent waitForLock( boolean exclusive, ResourceType resourceType, long... resourceIds )
+    {
+        ResourceTypeContention contention = contention( resourceType );
+        if ( contention == null )
+        {
+            return LockWaitEvent.NONE;
+        }
+        return new ContentionWaitEvent( contention, resourceIds );
+    }
+
+    /**
+     * @return the contention of every resource type that has been waited for, the most waited for first.
+     */
+    public List<ResourceTypeContention> contention()
+    {
+        List<ResourceTypeContention> result = new ArrayList<>();
+        for ( int typeId = 0; typeId < MAX_RESOURCE_TYPES; typeId++ )
+        {
+            ResourceTypeContention contention = contentionByTypeId.get( typeId );
+            if ( contention != null )
+            {
+                result.add( contention );
+            }
+        }
+        result.sort( Comparator.comparingLong( ResourceTypeContention::waits ).reversed() );
+        return result;
+    }
+
+    private ResourceTypeContention contention( ResourceType resourceType )
+    {
+        int typeId = resourceType.typeId();
+        if ( typeId < 0 || typeId >= MAX_RESOURCE_TYPES )
+        {
+            return null;
+        }
+        ResourceTypeContention contention = contentionByTypeId.get( typeId );
+        if ( contention == null )
+        {
+            contentionByTypeId.compareAndSet( typeId, null, new ResourceTypeContention( resourceType ) );
+            contention = contentionByTypeId.get( typeId );
+        }
+        return contention;
+    }
+
+    private static class ContentionWaitEvent implements LockWaitEvent
+    {
+        private final ResourceTypeContention contention;
+        private final long[] resourceIds;
+        private final long startNanos = System.nanoTime();
+
+        ContentionWaitEvent( ResourceTypeContention contention, long[] resourceIds )
+        {
+            this.contention = contention;
+            this.resourceIds = resourceIds;
+        }
+
+        @Override
+        public void close()
+        {
+            contention.waited( System.nanoTime() - startNanos, resourceIds );
+        }
+    }
+}
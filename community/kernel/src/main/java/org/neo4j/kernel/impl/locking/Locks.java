@@ -84,6 +84,22 @@ public interface Locks
         @Override
         void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds ) throws AcquireLockTimeoutException;
 
+        /**
+         * Grab exclusive locks on a batch of resources of the same type, in one pass. Unlike
+         * {@link #acquireExclusive(LockTracer, ResourceType, long...)}, the ids must be distinct and sorted in ascending order,
+         * which is the order that all callers of this method agree on, and which lets the client look up, or create, the locks
+         * of the whole batch with a single synchronization on its shared state, rather than one per resource.
+         *
+         * @param tracer a tracer for listening on lock events.
+         * @param resourceType type of the resources to lock.
+         * @param sortedResourceIds distinct ids of the resources to lock, in ascending order.
+         */
+        default void acquireExclusiveSorted( LockTracer tracer, ResourceType resourceType, long[] sortedResourceIds )
+                throws AcquireLockTimeoutException
+        {
+            acquireExclusive( tracer, resourceType, sortedResourceIds );
+        }
+
         /** Try grabbing exclusive lock, not waiting and returning a boolean indicating if we got the lock. */
         boolean tryExclusiveLock( ResourceType resourceType, long resourceId );
 
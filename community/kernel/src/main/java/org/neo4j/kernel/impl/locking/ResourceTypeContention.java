@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.lock.ResourceType;
+
+/**
+ * The lock waits on one {@link ResourceType}, as aggregated by the {@link LockContentionProfiler}.
+ * <p>
+ * Wait times go into a histogram with a bucket per power of two nanoseconds, so percentiles are reported as the upper
+ * bound of the bucket they fall in, which is at most twice the actual wait time. The waited for resources go into a
+ * {@link ContendedResourceSketch}, whose counts may be overestimated, but never underestimated.
+ */
+public class ResourceTypeContention
+{
+    private static final int BUCKETS = Long.SIZE;
+
+    private final ResourceType resourceType;
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLongArray waitNanosHistogram = new AtomicLongArray( BUCKETS );
+    private final ContendedResourceSketch resources = new ContendedResourceSketch();
+
+    ResourceTypeContention( ResourceType resourceType )
+    {
+        this.resourceType = resourceType;
+    }
+
+    void waited( long waitNanos, long... resourceIds )
+    {
+        long nanos = Math.max( 0, waitNanos );
+        waits.increment();
+        totalWaitNanos.add( nanos );
+        maxWaitNanos.accumulateAndGet( nanos, Math::max );
+        waitNanosHistogram.incrementAndGet( bucket( nanos ) );
+        for ( long resourceId : resourceIds )
+        {
+            resources.add( resourceId );
+        }
+    }
+
+    public ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    /**
+     * @return number of times a lock on this resource type has been waited for.
+     */
+    public long waits()
+    {
+        return waits.sum();
+    }
+
+    /**
+     * @return total time, in nanoseconds, spent waiting for locks on this resource type.
+     */
+    public long totalWaitNanos()
+    {
+        return totalWaitNanos.sum();
+    }
+
+    /**
+     * @return the longest time, in nanoseconds, spent waiting for a lock on this resource type.
+     */
+    public long maxWaitNanos()
+    {
+        return maxWaitNanos.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100.
+     * @return the wait time, in nanoseconds, that the given percentage of the waits did not exceed, rounded up to the
+     * next power of two, or {@code 0} if there have been no waits.
+     */
+    public long waitNanosAtPercentile( double percentile )
+    {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for ( int bucket = 0; bucket < BUCKETS; bucket++ )
+        {
+            counts[bucket] = waitNanosHistogram.get( bucket );
+            total += counts[bucket];
+        }
+        if ( total == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, (long) Math.ceil( total * Math.min( 100, Math.max( 0, percentile ) ) / 100 ) );
+        long seen = 0;
+        for ( int bucket = 0; bucket < BUCKETS; bucket++ )
+        {
+            seen += counts[bucket];
+            if ( seen >= rank )
+            {
+                return Math.min( upperBound( bucket ), maxWaitNanos() );
+            }
+        }
+        return maxWaitNanos();
+    }
+
+    /**
+     * @return up to {@code limit} of the resources that have been waited for the most, the most waited for first.
+     */
+    public List<ContendedResource> mostContended( int limit )
+    {
+        return resources.top( limit );
+    }
+
+    private static int bucket( long nanos )
+    {
+        return nanos == 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros( nanos ) - 1;
+    }
+
+    private static long upperBound( int bucket )
+    {
+        return bucket >= BUCKETS - 2 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+    }
+
+    /**
+     * A resource and the estimated number of times it has been waited for.
+     */
+    public static class ContendedResource
+    {
+        private final long resourceId;
+        private final long waits;
+
+        ContendedResource( long resourceId, long waits )
+        {
+            this.resourceId = resourceId;
+            this.waits = waits;
+        }
+
+        public long resourceId()
+        {
+            return resourceId;
+        }
+
+        public long waits()
+        {
+            return waits;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "ContendedResource{resourceId=" + resourceId + ", waits=" + waits + "}";
+        }
+    }
+}
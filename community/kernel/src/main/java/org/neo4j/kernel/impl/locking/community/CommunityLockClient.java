@@ -153,6 +153,64 @@ public class CommunityLockClient implements Locks.Client
         }
     }
 
+    @Override
+    public void acquireExclusiveSorted( LockTracer tracer, ResourceType resourceType, long[] sortedResourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            // Re-entering a lock never waits, so it does not matter for the order that the other locks are acquired in.
+            MutableLongObjectMap<LockResource> localLocks = localExclusive( resourceType );
+            LockResource[] resources = new LockResource[sortedResourceIds.length];
+            int count = 0;
+            for ( long resourceId : sortedResourceIds )
+            {
+                LockResource resource = localLocks.get( resourceId );
+                if ( resource != null )
+                {
+                    resource.acquireReference();
+                }
+                else
+                {
+                    resources[count++] = new LockResource( resourceType, resourceId );
+                }
+            }
+            if ( count == 0 )
+            {
+                return;
+            }
+
+            RWLock[] locks = manager.getRWLocksForAcquiring( resources, count, lockTransaction );
+            int attempted = 0;
+            try
+            {
+                while ( attempted < count )
+                {
+                    LockResource resource = resources[attempted];
+                    RWLock lock = locks[attempted];
+                    attempted++;
+                    if ( !manager.getWriteLock( tracer, resource, lock, lockTransaction ) )
+                    {
+                        throw new LockClientStoppedException( this );
+                    }
+                    localLocks.put( resource.resourceId(), resource );
+                }
+            }
+            finally
+            {
+                // The locks after a failed one have been looked up, but will not be acquired.
+                for ( int i = attempted; i < count; i++ )
+                {
+                    manager.abandonLock( resources[i], locks[i], lockTransaction );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
     @Override
     public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
     {
@@ -67,6 +67,15 @@ public class LockManagerImpl
         return unusedResourceGuard( resource, tx, getRWLockForAcquiring( resource, tx ).acquireWriteLock( tracer, tx ) );
     }
 
+    /**
+     * Acquire the write lock of a resource, that has been looked up by {@link #getRWLocksForAcquiring(LockResource[], int, Object)}.
+     */
+    boolean getWriteLock( LockTracer tracer, LockResource resource, RWLock lock, Object tx )
+            throws DeadlockDetectedException
+    {
+        return unusedResourceGuard( resource, tx, lock.acquireWriteLock( tracer, tx ) );
+    }
+
     boolean tryWriteLock( LockResource resource, Object tx )
     {
         return unusedResourceGuard( resource, tx, getRWLockForAcquiring( resource, tx ).tryAcquireWriteLock( tx ) );
@@ -140,6 +149,39 @@ public class LockManagerImpl
         }
     }
 
+    /**
+     * Look up, or create, the locks of the first {@code count} of the given resources, with a single synchronization on
+     * the lock map for the whole batch. Every returned lock is marked, and so stays in the map, until it is either
+     * {@link #getWriteLock(LockTracer, LockResource, RWLock, Object) acquired}, or
+     * {@link #abandonLock(LockResource, RWLock, Object) abandoned}.
+     */
+    RWLock[] getRWLocksForAcquiring( LockResource[] resources, int count, Object tx )
+    {
+        RWLock[] locks = new RWLock[count];
+        synchronized ( resourceLockMap )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                LockResource resource = resources[i];
+                assertValidArguments( resource, tx );
+                RWLock lock = resourceLockMap.computeIfAbsent( resource, k -> createLock( resource ) );
+                lock.mark();
+                locks[i] = lock;
+            }
+        }
+        return locks;
+    }
+
+    /**
+     * Give up on acquiring a lock that has been looked up by {@link #getRWLocksForAcquiring(LockResource[], int, Object)},
+     * removing it from the lock map if nobody else uses it.
+     */
+    void abandonLock( LockResource resource, RWLock lock, Object tx )
+    {
+        lock.abandonMark();
+        getRWLockForReleasing( resource, tx, 0, 0, false );
+    }
+
     @VisibleForTesting
     protected RWLock createLock( LockResource resource )
     {
@@ -172,6 +172,15 @@ public class RWLock
         marked = MathUtil.decrementExactNotPastZero( marked );
     }
 
+    /**
+     * Remove the mark of a lock that was looked up to be acquired, but that will not be acquired after all, for example
+     * because an earlier lock in the same batch could not be acquired.
+     */
+    synchronized void abandonMark()
+    {
+        unmark();
+    }
+
     synchronized boolean isMarked()
     {
         return marked > 0;
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.lock.ResourceType;
+
+import static java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater;
+
+/**
+ * The lock on a single resource, shared by all clients of a {@link StripedLockManager}.
+ * <p>
+ * The whole lock state is kept in one {@code long}, which is only ever changed with compare-and-set: the number of
+ * clients holding the lock shared in the low 32 bits, and flags for it being held exclusively, and for it being dead.
+ * A lock is dead once it has been removed from its lock table, after it was released by all clients and nobody was
+ * waiting for it; clients that find a dead lock look it up again. Re-entrance is tracked by the clients themselves, so
+ * every client counts at most once here.
+ * <p>
+ * The holders and waiters of the lock are also tracked, but only for waking up waiters and detecting deadlocks, which
+ * only happens once someone has to wait.
+ */
+final class StripedLock
+{
+    private static final long SHARED_COUNT_MASK = 0xFFFF_FFFFL;
+    private static final long EXCLUSIVE = 1L << 32;
+    private static final long DEAD = 1L << 33;
+    private static final long FREE = 0;
+
+    private static final AtomicLongFieldUpdater<StripedLock> STATE = newUpdater( StripedLock.class, "state" );
+
+    enum Attempt
+    {
+        ACQUIRED,
+        BLOCKED,
+        DEAD
+    }
+
+    private final ResourceType resourceType;
+    private final long resourceId;
+    private final Set<StripedLockClient> sharedHolders = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<StripedLockClient> waiters = new ConcurrentLinkedQueue<>();
+    @SuppressWarnings( "unused" ) // accessed through the STATE updater
+    private volatile long state;
+    private volatile StripedLockClient exclusiveOwner;
+
+    StripedLock( ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    long resourceId()
+    {
+        return resourceId;
+    }
+
+    Attempt tryAcquireShared( StripedLockClient client )
+    {
+        long current;
+        do
+        {
+            current = state;
+            if ( (current & DEAD) != 0 )
+            {
+                return Attempt.DEAD;
+            }
+            if ( (current & EXCLUSIVE) != 0 && exclusiveOwner != client )
+            {
+                return Attempt.BLOCKED;
+            }
+        }
+        while ( !STATE.compareAndSet( this, current, current + 1 ) );
+        sharedHolders.add( client );
+        return Attempt.ACQUIRED;
+    }
+
+    /**
+     * @param holdsShared whether the client already holds this lock shared, in which case it may upgrade once it is
+     * the only shared holder left.
+     */
+    Attempt tryAcquireExclusive( StripedLockClient client, boolean holdsShared )
+    {
+        long current;
+        do
+        {
+            current = state;
+            if ( (current & DEAD) != 0 )
+            {
+                return Attempt.DEAD;
+            }
+            long sharedCount = current & SHARED_COUNT_MASK;
+            if ( (current & EXCLUSIVE) != 0 || sharedCount > (holdsShared ? 1 : 0) )
+            {
+                return Attempt.BLOCKED;
+            }
+        }
+        while ( !STATE.compareAndSet( this, current, current | EXCLUSIVE ) );
+        exclusiveOwner = client;
+        return Attempt.ACQUIRED;
+    }
+
+    /**
+     * @return {@code true} if the lock is no longer held by anyone.
+     */
+    boolean releaseShared( StripedLockClient client )
+    {
+        sharedHolders.remove( client );
+        return STATE.decrementAndGet( this ) == FREE;
+    }
+
+    /**
+     * @return {@code true} if the lock is no longer held by anyone.
+     */
+    boolean releaseExclusive()
+    {
+        exclusiveOwner = null;
+        return STATE.addAndGet( this, -EXCLUSIVE ) == FREE;
+    }
+
+    /**
+     * Mark this lock as dead, so it can be removed from its lock table, if it is not held and nobody waits for it.
+     */
+    boolean markDeadIfUnused()
+    {
+        return waiters.isEmpty() && STATE.compareAndSet( this, FREE, DEAD );
+    }
+
+    boolean isHeld()
+    {
+        long current = state;
+        return (current & DEAD) == 0 && current != FREE;
+    }
+
+    StripedLockClient exclusiveOwner()
+    {
+        return exclusiveOwner;
+    }
+
+    Set<StripedLockClient> sharedHolders()
+    {
+        return sharedHolders;
+    }
+
+    void addWaiter( StripedLockClient client )
+    {
+        waiters.add( client );
+    }
+
+    void removeWaiter( StripedLockClient client )
+    {
+        waiters.remove( client );
+    }
+
+    boolean hasWaiters()
+    {
+        return !waiters.isEmpty();
+    }
+
+    /**
+     * Wake up everyone waiting for this lock, to let them retry acquiring it.
+     */
+    void wakeWaiters()
+    {
+        for ( StripedLockClient waiter : waiters )
+        {
+            Thread thread = waiter.waitingThread();
+            if ( thread != null )
+            {
+                LockSupport.unpark( thread );
+            }
+        }
+    }
+
+    long estimatedWaitTime( long nowMillis )
+    {
+        long longestWait = 0;
+        for ( StripedLockClient waiter : waiters )
+        {
+            longestWait = Math.max( longestWait, waiter.waitTime( nowMillis ) );
+        }
+        return longestWait;
+    }
+
+    String describe()
+    {
+        long current = state;
+        StripedLockClient owner = exclusiveOwner;
+        if ( (current & EXCLUSIVE) != 0 )
+        {
+            return String.format( "ExclusiveLock[%s(%d), owner=%s, sharedHolders=%s]", resourceType, resourceId, owner, sharedHolders );
+        }
+        return String.format( "SharedLock[%s(%d), sharedHolders=%s]", resourceType, resourceId, sharedHolders );
+    }
+
+    @Override
+    public String toString()
+    {
+        return describe();
+    }
+}
@@ -0,0 +1,648 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.ResourceTypes;
+
+import static java.lang.String.format;
+
+/**
+ * A client of the {@link StripedLockManager}. The locks it holds, and how many times it holds each of them, are kept
+ * in primitive maps per resource type, which only the thread using the client touches, so re-entering and releasing
+ * a lock that is held more than once never touches shared state.
+ * <p>
+ * Only when a lock cannot be acquired right away does the client register itself as a waiter of the lock, and follow
+ * the locks that the holders of that lock are waiting for, to see if waiting would deadlock.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    /**
+     * Waiters are woken up when the lock they wait for is released, but also wake up on their own this often, to check
+     * for deadlocks that formed while they were waiting, and to notice timeouts of a clock that does not tick in real
+     * time.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+
+    private final StripedLockManager manager;
+    private final int id;
+    private final MutableLongObjectMap<Hold>[] sharedLocks;
+    private final MutableLongObjectMap<Hold>[] exclusiveLocks;
+    // See CommunityLockClient for how this lets the client be stopped and closed while other threads use it.
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    // Only set while the thread using this client waits for a lock, and read by other clients to wake it up, or to
+    // detect deadlocks.
+    private volatile StripedLock waitingFor;
+    private volatile Thread waitingThread;
+    private volatile long waitStartMillis;
+
+    @SuppressWarnings( "unchecked" )
+    StripedLockClient( StripedLockManager manager, int id, int maxTypeId )
+    {
+        this.manager = manager;
+        this.id = id;
+        this.sharedLocks = new MutableLongObjectMap[maxTypeId + 1];
+        this.exclusiveLocks = new MutableLongObjectMap[maxTypeId + 1];
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient )
+    {
+        // we don't need lease here
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<Hold> localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                Hold hold = localLocks.get( resourceId );
+                if ( hold != null )
+                {
+                    hold.reEnter();
+                }
+                else
+                {
+                    localLocks.put( resourceId, new Hold( acquire( tracer, resourceType, resourceId, false ) ) );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<Hold> localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                Hold hold = localLocks.get( resourceId );
+                if ( hold != null )
+                {
+                    hold.reEnter();
+                }
+                else
+                {
+                    localLocks.put( resourceId, new Hold( acquire( tracer, resourceType, resourceId, true ) ) );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return tryLock( localExclusive( resourceType ), resourceType, resourceId, true );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return tryLock( localShared( resourceType ), resourceType, resourceId, false );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private boolean tryLock( MutableLongObjectMap<Hold> localLocks, ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        Hold hold = localLocks.get( resourceId );
+        if ( hold != null )
+        {
+            hold.reEnter();
+            return true;
+        }
+        while ( true )
+        {
+            StripedLock lock = manager.lock( resourceType, resourceId );
+            switch ( tryAcquire( lock, exclusive ) )
+            {
+            case ACQUIRED:
+                localLocks.put( resourceId, new Hold( lock ) );
+                return true;
+            case BLOCKED:
+                return false;
+            default:
+                // The lock died under us, look it up again.
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localShared( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localExclusive( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private static boolean reEnter( MutableLongObjectMap<Hold> localLocks, long resourceId )
+    {
+        Hold hold = localLocks.get( resourceId );
+        if ( hold != null )
+        {
+            hold.reEnter();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            release( localShared( resourceType ), resourceType, resourceIds, false );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            release( localExclusive( resourceType ), resourceType, resourceIds, true );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private void release( MutableLongObjectMap<Hold> localLocks, ResourceType resourceType, long[] resourceIds, boolean exclusive )
+    {
+        for ( long resourceId : resourceIds )
+        {
+            Hold hold = localLocks.get( resourceId );
+            if ( hold == null )
+            {
+                throw new IllegalStateException( format( "%s cannot release %s lock on %s(%d), since it does not hold it.",
+                        this, exclusive ? ActiveLock.EXCLUSIVE_MODE : ActiveLock.SHARED_MODE, resourceType, resourceId ) );
+            }
+            if ( hold.release() )
+            {
+                localLocks.remove( resourceId );
+                unlock( hold.lock, exclusive );
+            }
+        }
+    }
+
+    private void unlock( StripedLock lock, boolean exclusive )
+    {
+        boolean free = exclusive ? lock.releaseExclusive() : lock.releaseShared( this );
+        manager.released( lock, free );
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // closing client to prevent any new client to come
+        if ( stateHolder.stopClient() )
+        {
+            // wake up and terminate waiters
+            wakeWaitingThreadAndWaitForClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        wakeWaitingThreadAndWaitForClientsToLeave();
+        releaseLocks();
+    }
+
+    private void wakeWaitingThreadAndWaitForClientsToLeave()
+    {
+        // A waiting thread notices that the client is stopped once it wakes up. Keep waking it, in case it started
+        // waiting after we first looked.
+        while ( stateHolder.hasActiveClients() )
+        {
+            Thread thread = waitingThread;
+            if ( thread != null )
+            {
+                LockSupport.unpark( thread );
+            }
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        }
+    }
+
+    private synchronized void releaseLocks()
+    {
+        releaseLocks( exclusiveLocks, true );
+        releaseLocks( sharedLocks, false );
+    }
+
+    private void releaseLocks( MutableLongObjectMap<Hold>[] locksByType, boolean exclusive )
+    {
+        for ( MutableLongObjectMap<Hold> localLocks : locksByType )
+        {
+            if ( localLocks != null )
+            {
+                localLocks.forEachValue( hold -> unlock( hold.lock, exclusive ) );
+                localLocks.clear();
+            }
+        }
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return id;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( locks, exclusiveLocks, ActiveLock.Factory.EXCLUSIVE_LOCK );
+        collectActiveLocks( locks, sharedLocks, ActiveLock.Factory.SHARED_LOCK );
+        return locks.stream();
+    }
+
+    private static void collectActiveLocks( List<ActiveLock> locks, MutableLongObjectMap<Hold>[] locksByType, ActiveLock.Factory activeLock )
+    {
+        for ( int typeId = 0; typeId < locksByType.length; typeId++ )
+        {
+            MutableLongObjectMap<Hold> localLocks = locksByType[typeId];
+            if ( localLocks != null )
+            {
+                ResourceType resourceType = ResourceTypes.fromId( typeId );
+                localLocks.forEachKey( resourceId -> locks.add( activeLock.create( resourceType, resourceId ) ) );
+            }
+        }
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        return countLocks( exclusiveLocks ) + countLocks( sharedLocks );
+    }
+
+    private static long countLocks( MutableLongObjectMap<Hold>[] locksByType )
+    {
+        long count = 0;
+        for ( MutableLongObjectMap<Hold> localLocks : locksByType )
+        {
+            if ( localLocks != null )
+            {
+                count += localLocks.size();
+            }
+        }
+        return count;
+    }
+
+    Thread waitingThread()
+    {
+        return waitingThread;
+    }
+
+    long waitTime( long nowMillis )
+    {
+        return waitingFor != null ? Math.max( 0, nowMillis - waitStartMillis ) : 0;
+    }
+
+    private StripedLock acquire( LockTracer tracer, ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        LockWaitEvent waitEvent = null;
+        long deadline = 0;
+        try
+        {
+            while ( true )
+            {
+                StripedLock lock = manager.lock( resourceType, resourceId );
+                StripedLock.Attempt attempt = tryAcquire( lock, exclusive );
+                if ( attempt == StripedLock.Attempt.ACQUIRED )
+                {
+                    return lock;
+                }
+                if ( attempt == StripedLock.Attempt.BLOCKED )
+                {
+                    if ( waitEvent == null )
+                    {
+                        waitEvent = tracer.waitForLock( exclusive, resourceType, resourceId );
+                        waitStartMillis = manager.clock().millis();
+                        long timeoutMillis = manager.lockAcquisitionTimeoutMillis();
+                        deadline = timeoutMillis > 0 ? waitStartMillis + timeoutMillis : 0;
+                    }
+                    if ( waitFor( lock, exclusive, deadline ) )
+                    {
+                        return lock;
+                    }
+                }
+                // The lock died under us, look it up again.
+                Thread.onSpinWait();
+            }
+        }
+        finally
+        {
+            if ( waitEvent != null )
+            {
+                waitEvent.close();
+            }
+        }
+    }
+
+    private StripedLock.Attempt tryAcquire( StripedLock lock, boolean exclusive )
+    {
+        if ( exclusive )
+        {
+            MutableLongObjectMap<Hold> shared = sharedLocks[lock.resourceType().typeId()];
+            return lock.tryAcquireExclusive( this, shared != null && shared.containsKey( lock.resourceId() ) );
+        }
+        return lock.tryAcquireShared( this );
+    }
+
+    /**
+     * Wait for the given lock to be released by the clients that are in the way.
+     *
+     * @return {@code true} if the lock was acquired, or {@code false} if it died and has to be looked up again.
+     */
+    private boolean waitFor( StripedLock lock, boolean exclusive, long deadline )
+    {
+        boolean acquired = false;
+        boolean interrupted = false;
+        waitingThread = Thread.currentThread();
+        waitingFor = lock;
+        // Register as a waiter before trying again, so that a release that happens in between will wake us up.
+        lock.addWaiter( this );
+        try
+        {
+            while ( true )
+            {
+                StripedLock.Attempt attempt = tryAcquire( lock, exclusive );
+                if ( attempt != StripedLock.Attempt.BLOCKED )
+                {
+                    acquired = attempt == StripedLock.Attempt.ACQUIRED;
+                    return acquired;
+                }
+                if ( stateHolder.isStopped() )
+                {
+                    throw new LockClientStoppedException( this );
+                }
+                assertNotExpired( lock, deadline );
+                assertNoDeadlock( lock );
+                parkUntilWokenUp( deadline );
+                // We are woken up by unpark, not by interrupts, so do not let an interrupt make the parking spin.
+                interrupted |= Thread.interrupted();
+            }
+        }
+        finally
+        {
+            waitingFor = null;
+            waitingThread = null;
+            lock.removeWaiter( this );
+            if ( !acquired )
+            {
+                manager.removeIfUnused( lock );
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void parkUntilWokenUp( long deadline )
+    {
+        long parkNanos = MAX_PARK_NANOS;
+        if ( deadline > 0 )
+        {
+            long remainingMillis = Math.max( 1, deadline - manager.clock().millis() );
+            parkNanos = Math.min( parkNanos, TimeUnit.MILLISECONDS.toNanos( remainingMillis ) );
+        }
+        LockSupport.parkNanos( this, parkNanos );
+    }
+
+    private void assertNotExpired( StripedLock lock, long deadline )
+    {
+        if ( deadline > 0 && manager.clock().millis() > deadline )
+        {
+            throw new LockAcquisitionTimeoutException( lock.resourceType(), lock.resourceId(), manager.lockAcquisitionTimeoutMillis() );
+        }
+    }
+
+    /**
+     * Follow the wait-for graph from the holders of the given lock: the locks they wait for, the holders of those
+     * locks, and so on. If that leads back to this client, then waiting would be a deadlock. This client may itself be
+     * among the holders of the given lock, if it is upgrading its shared lock, which is not a deadlock on its own.
+     */
+    private void assertNoDeadlock( StripedLock lock )
+    {
+        Set<StripedLockClient> visited = new HashSet<>();
+        Deque<StripedLock> locks = new ArrayDeque<>();
+        visited.add( this );
+        if ( visitHolders( lock, visited, locks ) )
+        {
+            throw deadlock( lock );
+        }
+        visited.remove( this );
+        while ( !locks.isEmpty() )
+        {
+            if ( visitHolders( locks.pop(), visited, locks ) )
+            {
+                throw deadlock( lock );
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if this client is among the holders of the given lock, that have not been visited yet.
+     */
+    private boolean visitHolders( StripedLock lock, Set<StripedLockClient> visited, Deque<StripedLock> locks )
+    {
+        StripedLockClient owner = lock.exclusiveOwner();
+        if ( owner != null && visit( owner, visited, locks ) )
+        {
+            return true;
+        }
+        for ( StripedLockClient holder : lock.sharedHolders() )
+        {
+            if ( visit( holder, visited, locks ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean visit( StripedLockClient holder, Set<StripedLockClient> visited, Deque<StripedLock> locks )
+    {
+        if ( !visited.add( holder ) )
+        {
+            return false;
+        }
+        if ( holder == this )
+        {
+            return true;
+        }
+        StripedLock awaited = holder.waitingFor;
+        if ( awaited != null )
+        {
+            locks.push( awaited );
+        }
+        return false;
+    }
+
+    private DeadlockDetectedException deadlock( StripedLock lock )
+    {
+        return new DeadlockDetectedException( format( "%s can't wait on resource %s(%d), since that would be a deadlock: " +
+                "the clients holding it are, directly or indirectly, waiting for locks held by %s.", this, lock.resourceType(),
+                lock.resourceId(), this ) );
+    }
+
+    private MutableLongObjectMap<Hold> localShared( ResourceType resourceType )
+    {
+        return local( sharedLocks, resourceType );
+    }
+
+    private MutableLongObjectMap<Hold> localExclusive( ResourceType resourceType )
+    {
+        return local( exclusiveLocks, resourceType );
+    }
+
+    private static MutableLongObjectMap<Hold> local( MutableLongObjectMap<Hold>[] locksByType, ResourceType resourceType )
+    {
+        MutableLongObjectMap<Hold> localLocks = locksByType[resourceType.typeId()];
+        if ( localLocks == null )
+        {
+            localLocks = new LongObjectHashMap<>();
+            locksByType[resourceType.typeId()] = localLocks;
+        }
+        return localLocks;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), getLockSessionId() );
+    }
+
+    /**
+     * A lock held by this client, and the number of times it has been acquired without being released.
+     */
+    private static class Hold
+    {
+        private final StripedLock lock;
+        private int count = 1;
+
+        Hold( StripedLock lock )
+        {
+            this.lock = lock;
+        }
+
+        void reEnter()
+        {
+            count = Math.incrementExact( count );
+        }
+
+        /**
+         * @return {@code true} if this was the last hold of the lock.
+         */
+        boolean release()
+        {
+            return --count == 0;
+        }
+    }
+}
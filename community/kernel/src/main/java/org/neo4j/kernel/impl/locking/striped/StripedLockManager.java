@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.ResourceType;
+
+/**
+ * A {@link Locks} implementation without any global monitor. The locks of each resource type live in their own
+ * {@link ConcurrentHashMap}, which stripes its updates over its bins, and every {@link StripedLock} is acquired and
+ * released with compare-and-set on its own state. Clients keep the locks they hold in primitive maps of their own, and
+ * only look for deadlocks when they actually have to wait for a lock.
+ */
+public class StripedLockManager implements Locks
+{
+    private final ResourceType[] resourceTypes;
+    private final ConcurrentHashMap<Long,StripedLock>[] lockTables;
+    private final Clock clock;
+    private final long lockAcquisitionTimeoutMillis;
+    private final AtomicInteger clientIds = new AtomicInteger();
+    private volatile boolean closed;
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLockManager( Config config, Clock clock, ResourceType... resourceTypes )
+    {
+        this.resourceTypes = resourceTypes;
+        this.clock = clock;
+        this.lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toMillis();
+        int maxTypeId = 0;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, resourceType.typeId() );
+        }
+        lockTables = new ConcurrentHashMap[maxTypeId + 1];
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            lockTables[resourceType.typeId()] = new ConcurrentHashMap<>();
+        }
+    }
+
+    @Override
+    public Client newClient()
+    {
+        // Like for the community lock manager, lock clients are pooled with their transactions, so checking this
+        // volatile flag here happens very rarely.
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( this, clientIds.incrementAndGet(), maxTypeId() );
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        long now = clock.millis();
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            for ( StripedLock lock : lockTables[resourceType.typeId()].values() )
+            {
+                if ( lock.isHeld() )
+                {
+                    visitor.visit( resourceType, lock.resourceId(), lock.describe(), lock.estimatedWaitTime( now ),
+                            System.identityHashCode( lock ) );
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    /**
+     * @return the current lock on the given resource, which may be dead by the time the caller tries to acquire it.
+     */
+    StripedLock lock( ResourceType resourceType, long resourceId )
+    {
+        return lockTables[resourceType.typeId()].computeIfAbsent( resourceId, id -> new StripedLock( resourceType, id ) );
+    }
+
+    /**
+     * Called after a client released its hold of the given lock, to let any waiters retry, or to remove the lock from
+     * its table if nobody holds or wants it anymore.
+     */
+    void released( StripedLock lock, boolean free )
+    {
+        if ( lock.hasWaiters() )
+        {
+            lock.wakeWaiters();
+        }
+        else if ( free )
+        {
+            removeIfUnused( lock );
+        }
+    }
+
+    /**
+     * Remove the given lock from its table, if nobody holds or waits for it. Also called by waiters that gave up, since
+     * the last release may have left the lock in the table for them.
+     */
+    void removeIfUnused( StripedLock lock )
+    {
+        if ( lock.markDeadIfUnused() )
+        {
+            lockTables[lock.resourceType().typeId()].remove( lock.resourceId(), lock );
+        }
+    }
+
+    Clock clock()
+    {
+        return clock;
+    }
+
+    long lockAcquisitionTimeoutMillis()
+    {
+        return lockAcquisitionTimeoutMillis;
+    }
+
+    private int maxTypeId()
+    {
+        return lockTables.length - 1;
+    }
+}
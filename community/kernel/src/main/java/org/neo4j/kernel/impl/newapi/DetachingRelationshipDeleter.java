@@ -76,7 +76,7 @@ class DetachingRelationshipDeleter
             }
 
             // Lock all the nodes involved by following the node id ordering.
-            locks.acquireExclusive( lockTracer, ResourceTypes.NODE, nodeIds.toSortedArray() );
+            locks.acquireExclusiveSorted( lockTracer, ResourceTypes.NODE, nodeIds.toSortedArray() );
 
             // After locking all involved parties, verify that we've collected the right sets.
             ktx.dataRead().singleNode( nodeId, nodes );
@@ -108,11 +108,15 @@ class DetachingRelationshipDeleter
         }
         while ( retry );
 
-        // Then finally remove all relationships incident on our node.
+        // Then finally lock, in one batch, and remove all relationships incident on our node.
         int relationshipsDeleted = 0;
-        for ( long relId : relIds.toSortedArray() )
+        long[] sortedRelIds = relIds.toSortedArray();
+        if ( sortedRelIds.length > 0 )
+        {
+            locks.acquireExclusiveSorted( lockTracer, ResourceTypes.RELATIONSHIP, sortedRelIds );
+        }
+        for ( long relId : sortedRelIds )
         {
-            locks.acquireExclusive( lockTracer, ResourceTypes.RELATIONSHIP, relId );
             if ( relationshipDeleter.test( relId ) )
             {
                 relationshipsDeleted++;
@@ -1336,6 +1336,34 @@ public class Operations implements Write, SchemaWrite
         }
     }
 
+    /**
+     * Lock the given nodes in one batch, except the ones that have been created in this transaction.
+     *
+     * @param sortedNodes distinct node ids, in ascending order.
+     */
+    private void acquireExclusiveNodeLocks( long... sortedNodes )
+    {
+        long[] nodesToLock = sortedNodes;
+        if ( ktx.hasTxStateWithChanges() )
+        {
+            TransactionState txState = ktx.txState();
+            int count = 0;
+            nodesToLock = new long[sortedNodes.length];
+            for ( long node : sortedNodes )
+            {
+                if ( !txState.nodeIsAddedInThisTx( node ) )
+                {
+                    nodesToLock[count++] = node;
+                }
+            }
+            nodesToLock = count == sortedNodes.length ? sortedNodes : Arrays.copyOf( nodesToLock, count );
+        }
+        if ( nodesToLock.length > 0 )
+        {
+            ktx.statementLocks().optimistic().acquireExclusiveSorted( ktx.lockTracer(), ResourceTypes.NODE, nodesToLock );
+        }
+    }
+
     private void acquireExclusiveRelationshipLock( long relationshipId )
     {
         if ( !ktx.hasTxStateWithChanges() || !ktx.txState().relationshipIsAddedInThisTx( relationshipId ) )
@@ -1371,10 +1399,13 @@ public class Operations implements Write, SchemaWrite
     private void lockRelationshipNodes( long startNodeId, long endNodeId )
     {
         // Order the locks to lower the risk of deadlocks with other threads creating/deleting rels concurrently
-        acquireExclusiveNodeLock( min( startNodeId, endNodeId ) );
-        if ( startNodeId != endNodeId )
+        if ( startNodeId == endNodeId )
+        {
+            acquireExclusiveNodeLock( startNodeId );
+        }
+        else
         {
-            acquireExclusiveNodeLock( max( startNodeId, endNodeId ) );
+            acquireExclusiveNodeLocks( min( startNodeId, endNodeId ), max( startNodeId, endNodeId ) );
         }
     }
 
@@ -478,7 +478,28 @@ abstract class Read implements TxStateHolder,
 
     private void acquireExclusiveLock( ResourceTypes types, long... ids )
     {
-        ktx.statementLocks().pessimistic().acquireExclusive( ktx.lockTracer(), types, ids );
+        Locks.Client locks = ktx.statementLocks().pessimistic();
+        if ( ids.length > 1 && isSortedAndDistinct( ids ) )
+        {
+            // Callers that lock many entities at once, like the locking of MERGE, hand them to us sorted, so they can be locked in one pass.
+            locks.acquireExclusiveSorted( ktx.lockTracer(), types, ids );
+        }
+        else
+        {
+            locks.acquireExclusive( ktx.lockTracer(), types, ids );
+        }
+    }
+
+    private static boolean isSortedAndDistinct( long[] ids )
+    {
+        for ( int i = 1; i < ids.length; i++ )
+        {
+            if ( ids[i - 1] >= ids[i] )
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     private void releaseExclusiveLock( ResourceTypes types, long... ids )
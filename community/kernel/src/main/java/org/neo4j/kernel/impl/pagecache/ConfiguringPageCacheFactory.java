@@ -20,12 +20,17 @@
 package org.neo4j.kernel.impl.pagecache;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.SettingChangeListener;
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.mem.MemoryPlacement;
 import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.IoUringPageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
@@ -36,6 +41,13 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.SystemNanoClock;
 
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_capped_residency_percent;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_frequency_aware_eviction;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_huge_pages;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_io_uring;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_numa_nodes;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_numa_policy;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_reserved_residency_percent;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
 import static org.neo4j.io.mem.MemoryAllocator.createAllocator;
@@ -81,7 +93,7 @@ public class ConfiguringPageCacheFactory
     {
         if ( pageCache == null )
         {
-            this.swapperFactory = createAndConfigureSwapperFactory( fs );
+            this.swapperFactory = createAndConfigureSwapperFactory();
             this.pageCache = createPageCache();
         }
         return pageCache;
@@ -93,12 +105,29 @@ public class ConfiguringPageCacheFactory
         var memoryPool = memoryPools.pool( PAGE_CACHE, pageCacheMaxMemory, false, null );
         var memoryTracker = memoryPool.getPoolMemoryTracker();
         MemoryAllocator memoryAllocator = buildMemoryAllocator( pageCacheMaxMemory, memoryTracker );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker );
+        MuninnPageCache muninnPageCache =
+                new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker );
+        SettingChangeListener<Boolean> evictionPolicyUpdater = ( before, after ) -> muninnPageCache.setFrequencyAwareEviction( after );
+        evictionPolicyUpdater.accept( null, config.get( pagecache_frequency_aware_eviction ) );
+        config.addListener( pagecache_frequency_aware_eviction, evictionPolicyUpdater );
+        muninnPageCache.setResidencyShares( config.get( pagecache_reserved_residency_percent ), config.get( pagecache_capped_residency_percent ) );
+        return muninnPageCache;
     }
 
     private MemoryAllocator buildMemoryAllocator( long pageCacheMaxMemory, MemoryTracker memoryTracker )
     {
-        return createAllocator( pageCacheMaxMemory, memoryTracker );
+        MemoryPlacement placement = new MemoryPlacement( config.get( pagecache_huge_pages ), config.get( pagecache_numa_policy ),
+                config.get( pagecache_numa_nodes ).stream().mapToInt( Integer::intValue ).toArray() );
+        if ( placement.hugePages() != MemoryPlacement.HugePages.NONE || placement.numaPolicy() != MemoryPlacement.NumaPolicy.DEFAULT )
+        {
+            NativeAccess nativeAccess = NativeAccessProvider.getNativeAccess();
+            if ( !nativeAccess.isAvailable() )
+            {
+                log.warn( "Page cache memory placement " + placement + " was requested, but is not supported on this platform. " +
+                        nativeAccess.describe() );
+            }
+        }
+        return createAllocator( pageCacheMaxMemory, memoryTracker, placement );
     }
 
     private long getPageCacheMaxMemory( Config config )
@@ -176,8 +205,18 @@ public class ConfiguringPageCacheFactory
         log.info( msg );
     }
 
-    private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs )
+    private PageSwapperFactory createAndConfigureSwapperFactory()
     {
+        if ( config.get( pagecache_io_uring ) )
+        {
+            IoUringPageSwapperFactory ioUringSwapperFactory = new IoUringPageSwapperFactory( fs );
+            if ( !ioUringSwapperFactory.isSupported() )
+            {
+                log.warn( "Page cache I/O through io_uring was requested, but is not supported on this platform. " +
+                        "Falling back to synchronous page cache I/O." );
+            }
+            return ioUringSwapperFactory;
+        }
         return new SingleFilePageSwapperFactory( fs );
     }
 }
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Keeps a profile of which pages of the database files are resident in the page cache, and reloads those pages
+ * when the database starts again.
+ * <p>
+ * A profile is a gzip compressed bitmap of resident pages, one per mapped file, kept in the {@value #PROFILES_DIRECTORY}
+ * directory of the database. Profiles are taken periodically on their own job group, and once more on shutdown,
+ * after the final check point has flushed the store. On start, the pages of every profile are reloaded in the
+ * background, one job per file and in file offset order, so that the database can serve requests while it warms up.
+ * <p>
+ * When {@link GraphDatabaseSettings#pagecache_warmup_prefetch} is enabled, the profiles are ignored and all files
+ * matching {@link GraphDatabaseSettings#pagecache_warmup_prefetch_whitelist} are loaded in full instead.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String PROFILES_DIRECTORY = "profiles";
+    static final String PROFILE_SUFFIX = ".cacheprof";
+    private static final String PROFILE_TAG = "pageCacheProfiler";
+    private static final String WARMUP_TAG = "pageCacheWarmer";
+    private static final int PROGRESS_STEPS = 10;
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final File databaseDirectory;
+    private final File profilesDirectory;
+    private final Config config;
+    private final Log log;
+    private final PageCacheTracer pageCacheTracer;
+    private final boolean readOnly;
+    private final List<JobHandle<?>> warmupJobs = new ArrayList<>();
+    private final AtomicLong pagesToLoad = new AtomicLong();
+    private final AtomicLong pagesLoaded = new AtomicLong();
+    private final AtomicLong filesRemaining = new AtomicLong();
+    private volatile boolean stopped;
+    private JobHandle<?> profileJob;
+    private long reportedProgressStep;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory, Config config, Log log,
+            PageCacheTracer pageCacheTracer )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.profilesDirectory = new File( databaseDirectory, PROFILES_DIRECTORY );
+        this.config = config;
+        this.log = log;
+        this.pageCacheTracer = pageCacheTracer;
+        this.readOnly = config.get( GraphDatabaseSettings.read_only );
+    }
+
+    @Override
+    public synchronized void start() throws IOException
+    {
+        stopped = false;
+        pagesToLoad.set( 0 );
+        pagesLoaded.set( 0 );
+        filesRemaining.set( 0 );
+        reportedProgressStep = 0;
+        if ( config.get( GraphDatabaseSettings.pagecache_warmup_prefetch ) )
+        {
+            Pattern whitelist = Pattern.compile( config.get( GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist ) );
+            for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+            {
+                if ( whitelist.matcher( pagedFile.file().getName() ).matches() )
+                {
+                    scheduleWarmup( pagedFile, null );
+                }
+            }
+        }
+        else
+        {
+            for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+            {
+                File profile = profileFile( pagedFile );
+                if ( profile != null && fs.fileExists( profile ) )
+                {
+                    long[] bitmap = readProfile( profile );
+                    if ( bitmap != null )
+                    {
+                        scheduleWarmup( pagedFile, bitmap );
+                    }
+                }
+            }
+        }
+        if ( !warmupJobs.isEmpty() )
+        {
+            log.info( "Page cache warmup started, loading %d pages from %d files.", pagesToLoad.get(), warmupJobs.size() );
+        }
+
+        if ( readOnly )
+        {
+            return;
+        }
+        long interval = config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ).toMillis();
+        profileJob = scheduler.scheduleRecurring( Group.PAGE_CACHE_PROFILER, this::profileQuietly, interval, interval, MILLISECONDS );
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+        stopped = true;
+        if ( profileJob != null )
+        {
+            profileJob.cancel();
+            profileJob = null;
+        }
+        for ( JobHandle<?> warmupJob : warmupJobs )
+        {
+            warmupJob.cancel();
+            try
+            {
+                warmupJob.waitTermination();
+            }
+            catch ( Exception ignore )
+            {
+                // The warmup is best effort, and any failure has already been logged by the job itself.
+            }
+        }
+        warmupJobs.clear();
+    }
+
+    @Override
+    public void shutdown()
+    {
+        if ( readOnly )
+        {
+            return;
+        }
+        // We are placed in the life cycle such that the final check point has completed before we get here,
+        // and the store files are still mapped, so this profile reflects the page cache as the database left it.
+        profileQuietly();
+    }
+
+    /**
+     * Wait for the warmup that was started by {@link #start()} to finish loading pages.
+     */
+    void awaitWarmup() throws InterruptedException, ExecutionException
+    {
+        List<JobHandle<?>> jobs;
+        synchronized ( this )
+        {
+            jobs = new ArrayList<>( warmupJobs );
+        }
+        for ( JobHandle<?> job : jobs )
+        {
+            job.waitTermination();
+        }
+    }
+
+    /**
+     * Take a profile of the resident pages of all files that are mapped by the database, and write them to disk.
+     *
+     * @throws IOException if the profiles could not be written.
+     */
+    public synchronized void profile() throws IOException
+    {
+        fs.mkdirs( profilesDirectory );
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PROFILE_TAG ) )
+        {
+            for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+            {
+                File profile = profileFile( pagedFile );
+                if ( profile != null )
+                {
+                    writeProfile( profile, residentPages( pagedFile, cursorTracer ) );
+                }
+            }
+        }
+    }
+
+    private void profileQuietly()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache profiling failed.", e );
+        }
+    }
+
+    private static long[] residentPages( PagedFile pagedFile, PageCursorTracer cursorTracer ) throws IOException
+    {
+        long lastPageId = pagedFile.getLastPageId();
+        long[] bitmap = new long[lastPageId < 0 ? 0 : (int) ((lastPageId >>> 6) + 1)];
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, cursorTracer ) )
+        {
+            while ( cursor.next() )
+            {
+                long pageId = cursor.getCurrentPageId();
+                if ( pageId != PageCursor.UNBOUND_PAGE_ID && pageId <= lastPageId )
+                {
+                    bitmap[(int) (pageId >>> 6)] |= 1L << (pageId & 63);
+                }
+            }
+        }
+        return bitmap;
+    }
+
+    private void scheduleWarmup( PagedFile pagedFile, long[] bitmap ) throws IOException
+    {
+        long pages = bitmap == null ? pagedFile.getLastPageId() + 1 : countBits( bitmap );
+        if ( pages <= 0 )
+        {
+            return;
+        }
+        pagesToLoad.addAndGet( pages );
+        filesRemaining.incrementAndGet();
+        warmupJobs.add( scheduler.schedule( Group.FILE_IO_HELPER, () -> warmup( pagedFile, bitmap ) ) );
+    }
+
+    private void warmup( PagedFile pagedFile, long[] bitmap )
+    {
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( WARMUP_TAG );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            long lastPageId = pagedFile.getLastPageId();
+            for ( long pageId = nextPage( bitmap, 0 ); pageId != -1 && pageId <= lastPageId && !stopped; pageId = nextPage( bitmap, pageId + 1 ) )
+            {
+                if ( cursor.next( pageId ) )
+                {
+                    reportProgress( pagesLoaded.incrementAndGet() );
+                }
+            }
+        }
+        catch ( Exception e )
+        {
+            if ( !stopped )
+            {
+                log.warn( "Page cache warmup of " + pagedFile.file() + " failed.", e );
+            }
+        }
+        finally
+        {
+            if ( filesRemaining.decrementAndGet() == 0 && !stopped )
+            {
+                log.info( "Page cache warmup completed, %d of %d pages loaded.", pagesLoaded.get(), pagesToLoad.get() );
+            }
+        }
+    }
+
+    /**
+     * @return the first page id at or after {@code from} to load, or -1 if there are none left. A {@code null} bitmap
+     * means that every page should be loaded.
+     */
+    private static long nextPage( long[] bitmap, long from )
+    {
+        if ( bitmap == null )
+        {
+            return from;
+        }
+        int word = (int) (from >>> 6);
+        if ( word >= bitmap.length )
+        {
+            return -1;
+        }
+        long bits = bitmap[word] & (-1L << (from & 63));
+        while ( bits == 0 )
+        {
+            if ( ++word == bitmap.length )
+            {
+                return -1;
+            }
+            bits = bitmap[word];
+        }
+        return ((long) word << 6) + Long.numberOfTrailingZeros( bits );
+    }
+
+    private void reportProgress( long loaded )
+    {
+        long step = loaded * PROGRESS_STEPS / pagesToLoad.get();
+        synchronized ( pagesLoaded )
+        {
+            if ( step > reportedProgressStep && step < PROGRESS_STEPS )
+            {
+                reportedProgressStep = step;
+                log.info( "Page cache warmup %d%% complete.", step * 100 / PROGRESS_STEPS );
+            }
+        }
+    }
+
+    private static long countBits( long[] bitmap )
+    {
+        long count = 0;
+        for ( long word : bitmap )
+        {
+            count += Long.bitCount( word );
+        }
+        return count;
+    }
+
+    private File profileFile( PagedFile pagedFile )
+    {
+        Path databasePath = databaseDirectory.toPath().toAbsolutePath().normalize();
+        Path filePath = pagedFile.file().toPath().toAbsolutePath().normalize();
+        if ( !filePath.startsWith( databasePath ) )
+        {
+            return null;
+        }
+        return new File( profilesDirectory, databasePath.relativize( filePath ) + PROFILE_SUFFIX );
+    }
+
+    private void writeProfile( File profile, long[] bitmap ) throws IOException
+    {
+        fs.mkdirs( profile.getParentFile() );
+        File tmp = new File( profile.getParentFile(), profile.getName() + ".tmp" );
+        try ( DataOutputStream out = new DataOutputStream( new GZIPOutputStream( fs.openAsOutputStream( tmp, false ) ) ) )
+        {
+            out.writeInt( bitmap.length );
+            for ( long word : bitmap )
+            {
+                out.writeLong( word );
+            }
+        }
+        fs.renameFile( tmp, profile, REPLACE_EXISTING, ATOMIC_MOVE );
+    }
+
+    private long[] readProfile( File profile )
+    {
+        try ( DataInputStream in = new DataInputStream( new GZIPInputStream( fs.openAsInputStream( profile ) ) ) )
+        {
+            long[] bitmap = new long[in.readInt()];
+            for ( int i = 0; i < bitmap.length; i++ )
+            {
+                bitmap[i] = in.readLong();
+            }
+            return bitmap;
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Ignoring unreadable page cache profile " + profile + ".", e );
+            return null;
+        }
+    }
+}
@@ -61,6 +61,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final Health databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final boolean compressEntries;
+    private final LogForceMonitor forceMonitor;
 
     private FlushablePositionAwareChecksumChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -69,6 +71,20 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
             TransactionIdStore transactionIdStore, Health databaseHealth )
     {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, false );
+    }
+
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, boolean compressEntries )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, compressEntries, LogForceMonitor.NO_MONITOR );
+    }
+
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, boolean compressEntries, LogForceMonitor forceMonitor )
+    {
+        this.compressEntries = compressEntries;
+        this.forceMonitor = forceMonitor;
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
         this.transactionIdStore = transactionIdStore;
@@ -87,17 +103,27 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
         this.previousChecksum = previousChecksum;
+        this.compressEntries = false;
+        this.forceMonitor = LogForceMonitor.NO_MONITOR;
     }
 
     @Override
     public void start()
     {
         this.writer = logFile.getWriter();
-        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ), compressEntries );
     }
 
     @Override
     public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        long lastTransactionId = appendWithoutForce( batch, logAppendEvent );
+        forceAndPublishAsCommitted( batch, logAppendEvent );
+        return lastTransactionId;
+    }
+
+    @Override
+    public long appendWithoutForce( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
     {
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
@@ -129,7 +155,12 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                 }
             }
         }
+        return lastTransactionId;
+    }
 
+    @Override
+    public void forceAndPublishAsCommitted( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
         // At this point we've appended all transactions in this batch, but we can't mark any of them
         // as committed since they haven't been forced to disk yet. So here we force, or potentially
         // piggy-back on another force, but anyway after this call below we can be sure that all our transactions
@@ -144,8 +175,6 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
 
         // Mark all transactions as committed
         publishAsCommitted( batch );
-
-        return lastTransactionId;
     }
 
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
@@ -217,6 +246,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
 
             transactionMetadataCache.cacheTransactionMetadata( transactionId, logPositionBeforeCommit, checksum, transaction.getTimeCommitted() );
+            logFile.transactionAppended( transactionId, logPositionBeforeCommit );
 
             return new TransactionCommitment( transactionId, checksum, transaction.getTimeCommitted(), logPositionAfterCommit,
                     transactionIdStore );
@@ -289,7 +319,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
         try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
         {
+            long startNanos = System.nanoTime();
             force();
+            forceMonitor.logForced( System.nanoTime() - startNanos );
         }
         catch ( final Throwable panic )
         {
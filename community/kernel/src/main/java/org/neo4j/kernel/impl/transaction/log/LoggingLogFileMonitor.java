@@ -47,6 +47,13 @@ public class LoggingLogFileMonitor implements RecoveryMonitor, RecoveryStartInfo
         log.info( "Recovery required from position " + startPosition );
     }
 
+    @Override
+    public void recoveryProgress( long recoveredTransactions, long lastRecoveredTxId, long transactionsPerSecond )
+    {
+        log.info( format( "Recovery in progress. %d transactions recovered, last:%d, %d transactions/s", recoveredTransactions, lastRecoveredTxId,
+                transactionsPerSecond ) );
+    }
+
     @Override
     public void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
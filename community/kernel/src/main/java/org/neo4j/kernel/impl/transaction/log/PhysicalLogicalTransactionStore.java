@@ -32,10 +32,13 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogHeaderVisitor;
 import org.neo4j.kernel.impl.transaction.log.reverse.ReversedMultiFileTransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.reverse.ReversedTransactionCursorMonitor;
+import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.Monitors;
 
+import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
 
 public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
 {
@@ -45,12 +48,22 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     private final Monitors monitors;
     private final boolean failOnCorruptedLogFiles;
     private final LogFiles logFiles;
+    private final MemoryTracker memoryTracker;
 
     public PhysicalLogicalTransactionStore( LogFiles logFiles,
             TransactionMetadataCache transactionMetadataCache,
             LogEntryReader logEntryReader, Monitors monitors,
             boolean failOnCorruptedLogFiles )
     {
+        this( logFiles, transactionMetadataCache, logEntryReader, monitors, failOnCorruptedLogFiles, INSTANCE );
+    }
+
+    public PhysicalLogicalTransactionStore( LogFiles logFiles,
+            TransactionMetadataCache transactionMetadataCache,
+            LogEntryReader logEntryReader, Monitors monitors,
+            boolean failOnCorruptedLogFiles, MemoryTracker memoryTracker )
+    {
+        this.memoryTracker = memoryTracker;
         this.logFiles = logFiles;
         this.logFile = logFiles.getLogFile();
         this.transactionMetadataCache = transactionMetadataCache;
@@ -70,7 +83,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     {
         return ReversedMultiFileTransactionCursor
                 .fromLogFile( logFiles, logFile, backToPosition, logEntryReader, failOnCorruptedLogFiles,
-                        monitors.newMonitor( ReversedTransactionCursorMonitor.class ) );
+                        monitors.newMonitor( ReversedTransactionCursorMonitor.class ), memoryTracker );
     }
 
     @Override
@@ -92,9 +105,14 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             LogVersionLocator headerVisitor = new LogVersionLocator( transactionIdToStartFrom );
             logFiles.accept( headerVisitor );
 
-            // ask LogFile
-            TransactionPositionLocator transactionPositionLocator = new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
-            logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
+            // ask LogFile, starting from the indexed position closest to the transaction if there is one
+            LogPosition versionStartPosition = headerVisitor.getLogPosition();
+            TransactionPositionLocator transactionPositionLocator = locateFromPositionHint( transactionIdToStartFrom, versionStartPosition );
+            if ( transactionPositionLocator == null )
+            {
+                transactionPositionLocator = new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
+                logFile.accept( transactionPositionLocator, versionStartPosition );
+            }
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
             return new PhysicalTransactionCursor( logFile.getReader( position ), logEntryReader );
         }
@@ -108,6 +126,34 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         }
     }
 
+    /**
+     * The position hint is only trusted if the transaction is found reading forward from it, otherwise the caller falls back to
+     * reading the whole log file.
+     *
+     * @return locator which found the transaction reading from the position hint, or {@code null} if it wasn't found that way.
+     */
+    private TransactionPositionLocator locateFromPositionHint( long transactionId, LogPosition versionStartPosition )
+    {
+        try
+        {
+            LogPosition hint = logFile.findPositionHint( versionStartPosition.getLogVersion(), transactionId );
+            if ( hint == null || hint.getByteOffset() < versionStartPosition.getByteOffset() )
+            {
+                return null;
+            }
+            TransactionPositionLocator locator = new TransactionPositionLocator( transactionId, logEntryReader );
+            try ( ReadableLogChannel channel = logFile.getReader( hint, NO_MORE_CHANNELS ) )
+            {
+                locator.visit( channel );
+            }
+            return locator.hasFoundTransaction() ? locator : null;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            return null;
+        }
+    }
+
     public static class TransactionPositionLocator implements LogFile.LogFileVisitor
     {
         private final long startTransactionId;
@@ -151,6 +197,11 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             return true;
         }
 
+        boolean hasFoundTransaction()
+        {
+            return startEntryForFoundTransaction != null;
+        }
+
         LogPosition getAndCacheFoundLogPosition( TransactionMetadataCache transactionMetadataCache ) throws NoSuchTransactionException
         {
             if ( startEntryForFoundTransaction == null )
@@ -25,6 +25,7 @@ import org.neo4j.io.fs.ReadAheadChannel;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.memory.NativeScopedBuffer;
 import org.neo4j.io.memory.ScopedBuffer;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryFrameChannel;
 import org.neo4j.memory.MemoryTracker;
 
 /**
@@ -33,6 +34,7 @@ import org.neo4j.memory.MemoryTracker;
 public class ReadAheadLogChannel extends ReadAheadChannel<LogVersionedStoreChannel> implements ReadableLogChannel
 {
     private final LogVersionBridge bridge;
+    private LogEntryFrameChannel frame;
 
     public ReadAheadLogChannel( LogVersionedStoreChannel startingChannel, MemoryTracker memoryTracker )
     {
@@ -72,6 +74,16 @@ public class ReadAheadLogChannel extends ReadAheadChannel<LogVersionedStoreChann
         return positionMarker;
     }
 
+    @Override
+    public LogEntryFrameChannel logEntryFrame()
+    {
+        if ( frame == null )
+        {
+            frame = new LogEntryFrameChannel();
+        }
+        return frame;
+    }
+
     @Override
     protected LogVersionedStoreChannel next( LogVersionedStoreChannel channel ) throws IOException
     {
@@ -56,6 +56,39 @@ public interface TransactionAppender
      */
     long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException;
 
+    /**
+     * Appends a batch of transactions to a log, like {@link #append(TransactionToApply, LogAppendEvent)}, except the
+     * log is not forced, and the transactions are not marked as committed. The batch must then be passed to
+     * {@link #forceAndPublishAsCommitted(TransactionToApply, LogAppendEvent)}, after which it is in the same state as
+     * after {@link #append(TransactionToApply, LogAppendEvent)}. This lets a caller append the next batch while the
+     * previous one is being forced.
+     * <p>
+     * Appenders that cannot separate the two steps append and force the batch in this method, and do nothing in
+     * {@link #forceAndPublishAsCommitted(TransactionToApply, LogAppendEvent)}.
+     *
+     * @param batch transactions to append to the log.
+     * @param logAppendEvent A trace event for the given log append operation.
+     * @return last appended transaction in this batch.
+     * @throws IOException if there was a problem appending the transaction.
+     */
+    default long appendWithoutForce( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        return append( batch, logAppendEvent );
+    }
+
+    /**
+     * Forces the log, so that the given batch, which was appended with
+     * {@link #appendWithoutForce(TransactionToApply, LogAppendEvent)}, is durable, and then marks the transactions in
+     * the batch as committed.
+     *
+     * @param batch transactions that have been appended to the log.
+     * @param logAppendEvent A trace event for the given log append operation.
+     * @throws IOException if there was a problem forcing the log.
+     */
+    default void forceAndPublishAsCommitted( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+    }
+
     /**
      * Appends a check point to a log which marks a starting point for recovery in the event of failure.
      * After this method have returned the check point mark must have been flushed to disk.
@@ -22,15 +22,28 @@ package org.neo4j.kernel.impl.transaction.log;
 import java.io.IOException;
 
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryFrameChannel;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 
 public class TransactionLogWriter
 {
     private final LogEntryWriter writer;
+    private final LogEntryFrameChannel frame;
+    private final LogEntryWriter frameWriter;
 
     public TransactionLogWriter( LogEntryWriter writer )
+    {
+        this( writer, false );
+    }
+
+    /**
+     * @param compressEntries whether or not to write each transaction as a compressed frame instead of as plain entries.
+     */
+    public TransactionLogWriter( LogEntryWriter writer, boolean compressEntries )
     {
         this.writer = writer;
+        this.frame = compressEntries ? new LogEntryFrameChannel() : null;
+        this.frameWriter = compressEntries ? new LogEntryWriter( frame ) : null;
     }
 
     /**
@@ -38,6 +51,23 @@ public class TransactionLogWriter
      * @return checksum of the transaction
      */
     public int append( TransactionRepresentation transaction, long transactionId, int previousChecksum ) throws IOException
+    {
+        if ( frame != null )
+        {
+            frame.clear();
+            int checksum = append( frameWriter, transaction, transactionId, previousChecksum );
+            if ( frame.uncompressedLength() <= LogEntryFrameChannel.MAX_FRAME_SIZE )
+            {
+                writer.writeCompressedFrame( frame );
+                return checksum;
+            }
+            // Too big to be read back as a frame, but the entries checksum the same either way
+        }
+        return append( writer, transaction, transactionId, previousChecksum );
+    }
+
+    private static int append( LogEntryWriter writer, TransactionRepresentation transaction, long transactionId, int previousChecksum )
+            throws IOException
     {
         writer.writeStartEntry( transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(), previousChecksum, transaction.additionalHeader() );
 
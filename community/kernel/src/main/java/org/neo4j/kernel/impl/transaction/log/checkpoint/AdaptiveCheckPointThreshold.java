@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * Triggers a check point when the share of dirty pages in the page cache, or the amount of transaction log written
+ * since the last check point, passes a limit. The threshold is checked often, so that under a steady write load the
+ * database check points in small, frequent steps instead of flushing a large backlog of dirty pages at once.
+ */
+class AdaptiveCheckPointThreshold extends AbstractCheckPointThreshold
+{
+    static final long CHECK_FREQUENCY_MILLIS = FeatureToggles.getLong( AdaptiveCheckPointThreshold.class, "check_frequency_millis", 1_000 );
+
+    private final CheckPointPressure pressure;
+    private final double dirtyPageRatioThreshold;
+    private final long logGrowthThreshold;
+    private final long logFileSize;
+
+    private volatile long lastCheckPointedTransactionId;
+    private volatile LogPosition lastCheckPointedPosition = LogPosition.UNSPECIFIED;
+    private volatile String reason;
+
+    /**
+     * @param pressure where to read the dirty page ratio and the current log position from.
+     * @param dirtyPageRatioThreshold the fraction of dirty pages at which to check point.
+     * @param logGrowthThreshold the number of transaction log bytes written since the last check point at which to check point.
+     * @param logFileSize the size of a rotated transaction log file, used to estimate the log growth across rotations.
+     */
+    AdaptiveCheckPointThreshold( CheckPointPressure pressure, double dirtyPageRatioThreshold, long logGrowthThreshold, long logFileSize )
+    {
+        super( "adaptive threshold" );
+        this.pressure = pressure;
+        this.dirtyPageRatioThreshold = dirtyPageRatioThreshold;
+        this.logGrowthThreshold = logGrowthThreshold;
+        this.logFileSize = logFileSize;
+    }
+
+    @Override
+    public void initialize( long transactionId )
+    {
+        checkPointHappened( transactionId );
+    }
+
+    @Override
+    protected boolean thresholdReached( long lastCommittedTransactionId )
+    {
+        if ( lastCommittedTransactionId <= lastCheckPointedTransactionId )
+        {
+            return false;
+        }
+        double dirtyPageRatio = pressure.dirtyPageRatio();
+        if ( dirtyPageRatio >= dirtyPageRatioThreshold )
+        {
+            reason = String.format( "%.1f%% dirty pages threshold", dirtyPageRatio * 100 );
+            return true;
+        }
+        long logGrowth = logGrowthSince( lastCheckPointedPosition, pressure.lastClosedTransactionPosition() );
+        if ( logGrowth >= logGrowthThreshold )
+        {
+            reason = ByteUnit.bytesToString( logGrowth ) + " of transaction log threshold";
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected String createCheckpointThresholdDescription( String description )
+    {
+        return description + " (" + reason + ")";
+    }
+
+    @Override
+    public void checkPointHappened( long transactionId )
+    {
+        lastCheckPointedTransactionId = transactionId;
+        lastCheckPointedPosition = pressure.lastClosedTransactionPosition();
+    }
+
+    @Override
+    public long checkFrequencyMillis()
+    {
+        return CHECK_FREQUENCY_MILLIS;
+    }
+
+    private long logGrowthSince( LogPosition from, LogPosition to )
+    {
+        if ( from.getLogVersion() < 0 || to.getLogVersion() < 0 )
+        {
+            return 0;
+        }
+        // Log files are rotated when they grow past the rotation threshold, so for positions in different files
+        // this is an estimate that will be slightly on the low side.
+        return (to.getLogVersion() - from.getLogVersion()) * logFileSize + to.getByteOffset() - from.getByteOffset();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.time.SystemNanoClock;
+
+import static org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold.or;
+
+/**
+ * The {@code adaptive} check point threshold policy check points when the page cache has too many dirty pages, as given by
+ * {@link GraphDatabaseInternalSettings#check_point_adaptive_dirty_page_ratio}, or when a
+ * {@link GraphDatabaseSettings#logical_log_rotation_threshold log file} worth of transactions has been written since the last
+ * check point. The {@code periodic} thresholds still apply, as an upper bound on the time and transactions between check points.
+ */
+@ServiceProvider
+public class AdaptiveThresholdPolicy implements CheckPointThresholdPolicy
+{
+    @Override
+    public String getName()
+    {
+        return "adaptive";
+    }
+
+    /**
+     * Without a measure of the load of the database, only the {@code periodic} thresholds can trigger.
+     */
+    @Override
+    public CheckPointThreshold createThreshold( Config config, SystemNanoClock clock, LogPruning logPruning, LogProvider logProvider )
+    {
+        return createThreshold( config, clock, logPruning, logProvider, CheckPointPressure.NONE );
+    }
+
+    @Override
+    public CheckPointThreshold createThreshold(
+            Config config, SystemNanoClock clock, LogPruning logPruning, LogProvider logProvider, CheckPointPressure pressure )
+    {
+        long logFileSize = config.get( GraphDatabaseSettings.logical_log_rotation_threshold );
+        AdaptiveCheckPointThreshold adaptiveThreshold = new AdaptiveCheckPointThreshold( pressure,
+                config.get( GraphDatabaseInternalSettings.check_point_adaptive_dirty_page_ratio ), logFileSize, logFileSize );
+        CheckPointThreshold periodicThreshold = new PeriodicThresholdPolicy().createThreshold( config, clock, logPruning, logProvider );
+        return or( adaptiveThreshold, periodicThreshold );
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.storageengine.api.TransactionIdStore;
+
+/**
+ * Measures of how much work has piled up for the next check point. Used by check point thresholds that adapt to
+ * the load of the database, rather than check point at fixed intervals.
+ */
+public interface CheckPointPressure
+{
+    CheckPointPressure NONE = new CheckPointPressure()
+    {
+        @Override
+        public double dirtyPageRatio()
+        {
+            return 0;
+        }
+
+        @Override
+        public LogPosition lastClosedTransactionPosition()
+        {
+            return LogPosition.UNSPECIFIED;
+        }
+    };
+
+    /**
+     * @return the fraction, between 0 and 1, of the pages in the page cache that the database has modified since they were last flushed.
+     */
+    double dirtyPageRatio();
+
+    /**
+     * @return the position in the transaction log just after the last closed transaction.
+     */
+    LogPosition lastClosedTransactionPosition();
+
+    static CheckPointPressure of( PageCache pageCache, TransactionIdStore transactionIdStore )
+    {
+        return new CheckPointPressure()
+        {
+            @Override
+            public double dirtyPageRatio()
+            {
+                long maxCachedPages = pageCache.maxCachedPages();
+                return maxCachedPages > 0 ? (double) pageCache.dirtyPages() / maxCachedPages : 0;
+            }
+
+            @Override
+            public LogPosition lastClosedTransactionPosition()
+            {
+                long[] lastClosedTransaction = transactionIdStore.getLastClosedTransaction();
+                return new LogPosition( lastClosedTransaction[1], lastClosedTransaction[2] );
+            }
+        };
+    }
+}
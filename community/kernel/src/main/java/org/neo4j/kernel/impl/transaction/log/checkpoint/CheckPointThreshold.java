@@ -76,8 +76,17 @@ public interface CheckPointThreshold
     /**
      * Create and configure a {@link CheckPointThreshold} based on the given configurations.
      */
+    static CheckPointThreshold createThreshold( Config config, SystemNanoClock clock, LogPruning logPruning, LogProvider logProvider )
+    {
+        return createThreshold( config, clock, logPruning, logProvider, CheckPointPressure.NONE );
+    }
+
+    /**
+     * Create and configure a {@link CheckPointThreshold} based on the given configurations, for a policy that may adapt to the
+     * given {@link CheckPointPressure}.
+     */
     static CheckPointThreshold createThreshold(
-            Config config, SystemNanoClock clock, LogPruning logPruning, LogProvider logProvider )
+            Config config, SystemNanoClock clock, LogPruning logPruning, LogProvider logProvider, CheckPointPressure pressure )
     {
         String policyName = config.get( check_point_policy ).name().toLowerCase();
         CheckPointThresholdPolicy policy;
@@ -92,7 +101,7 @@ public interface CheckPointThreshold
                     "Using default policy instead.", e );
             policy = new PeriodicThresholdPolicy();
         }
-        return policy.createThreshold( config, clock, logPruning, logProvider );
+        return policy.createThreshold( config, clock, logPruning, logProvider, pressure );
     }
 
     /**
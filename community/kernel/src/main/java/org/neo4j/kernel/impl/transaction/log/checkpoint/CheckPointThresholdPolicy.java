@@ -56,4 +56,15 @@ public interface CheckPointThresholdPolicy extends NamedService
      * Create a {@link CheckPointThreshold} instance based on this policy and the given configurations.
      */
     CheckPointThreshold createThreshold( Config config, SystemNanoClock clock, LogPruning logPruning, LogProvider logProvider );
+
+    /**
+     * Create a {@link CheckPointThreshold} instance based on this policy and the given configurations.
+     * Policies that adapt to the load of the database can override this method and use the given {@link CheckPointPressure}
+     * to measure it. By default the pressure is ignored.
+     */
+    default CheckPointThreshold createThreshold( Config config, SystemNanoClock clock, LogPruning logPruning, LogProvider logProvider,
+            CheckPointPressure pressure )
+    {
+        return createThreshold( config, clock, logPruning, logProvider );
+    }
 }
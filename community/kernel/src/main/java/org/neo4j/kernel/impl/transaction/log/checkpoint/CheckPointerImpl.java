@@ -187,7 +187,13 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
              */
             msgLog.info( prefix + " checkpoint started..." );
             Stopwatch startTime = Stopwatch.start();
+            // The page cache tracer is shared by all databases, so this also counts the skipped flushing of any
+            // other database that happens to flush at the same time.
+            long skippedPagesBefore = pageCacheTracer.flushSkippedPages();
+            long skippedForcesBefore = pageCacheTracer.skippedForces();
             forceOperation.flushAndForce( ioLimiter, cursorTracer );
+            event.flushSkipped( pageCacheTracer.flushSkippedPages() - skippedPagesBefore,
+                    pageCacheTracer.skippedForces() - skippedForcesBefore );
             /*
              * Check kernel health before going to write the next check point.  In case of a panic this check point
              * will be aborted, which is the safest alternative so that the next recovery will have a chance to
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.impl.transaction.log.LogForceMonitor;
+import org.neo4j.time.SystemNanoClock;
+import org.neo4j.util.FeatureToggles;
+import org.neo4j.util.VisibleForTesting;
+
+/**
+ * An {@link IOLimiter} that lowers the rate of check point IO when committing transactions start to suffer from it.
+ * <p>
+ * The limiter is told how long each force of the transaction log takes, through the {@link LogForceMonitor} interface.
+ * Every {@link #ADJUST_INTERVAL_MILLIS adjustment interval} it looks at the 99th percentile of the force times seen in
+ * that interval. If it is above the {@link GraphDatabaseInternalSettings#check_point_iops_target_latency target}, the
+ * limit is halved. Otherwise it is raised by a quarter, back up to the {@link GraphDatabaseSettings#check_point_iops_limit
+ * configured limit}, or to no limit at all if no limit is configured.
+ * <p>
+ * IO is limited in quanta of 100 milliseconds. The stamp passed between calls to
+ * {@link #maybeLimitIO(long, int, Flushable)} holds the start time of the current quantum in its lower 32 bits, and the
+ * number of IOs done in the quantum so far in its upper 32 bits.
+ */
+public class LatencyAwareIOLimiter implements IOLimiter, LogForceMonitor
+{
+    static final long ADJUST_INTERVAL_MILLIS = FeatureToggles.getLong( LatencyAwareIOLimiter.class, "adjust_interval_millis", 1_000 );
+    static final int MIN_IOPS = FeatureToggles.getInteger( LatencyAwareIOLimiter.class, "min_iops", 100 );
+
+    private static final int SAMPLES = 1024;
+    private static final long QUANTUM_MILLIS = 100;
+    private static final int QUANTA_PER_SECOND = (int) (TimeUnit.SECONDS.toMillis( 1 ) / QUANTUM_MILLIS);
+    private static final int TIME_BITS = 32;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private final Config config;
+    private final SystemNanoClock clock;
+    private final long targetLatencyNanos;
+    private final AtomicLongArray forceNanosSamples = new AtomicLongArray( SAMPLES );
+    private final AtomicLong forceCount = new AtomicLong();
+    private final AtomicInteger disableCounter = new AtomicInteger();
+
+    private long samplesSeen;
+    private volatile long lastAdjustmentMillis;
+    private volatile long iopsLimit;
+
+    public LatencyAwareIOLimiter( Config config, SystemNanoClock clock )
+    {
+        this.config = config;
+        this.clock = clock;
+        this.targetLatencyNanos = config.get( GraphDatabaseInternalSettings.check_point_iops_target_latency ).toNanos();
+        this.iopsLimit = configuredLimit();
+        this.lastAdjustmentMillis = clock.millis();
+    }
+
+    @Override
+    public void logForced( long forceNanos )
+    {
+        forceNanosSamples.set( (int) (forceCount.getAndIncrement() & (SAMPLES - 1)), forceNanos );
+    }
+
+    @Override
+    public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        long now = clock.millis();
+        if ( now - lastAdjustmentMillis >= ADJUST_INTERVAL_MILLIS )
+        {
+            adjustLimit( now );
+        }
+
+        long limit = iopsLimit;
+        if ( limit == NO_LIMIT || disableCounter.get() > 0 )
+        {
+            return previousStamp;
+        }
+
+        long quantumStart = previousStamp & TIME_MASK;
+        long quantumTime = (now & TIME_MASK) - quantumStart;
+        if ( previousStamp == INITIAL_STAMP || quantumTime < 0 || quantumTime >= QUANTUM_MILLIS )
+        {
+            return stamp( now, recentlyCompletedIOs );
+        }
+
+        long ioSum = (previousStamp >>> TIME_BITS) + recentlyCompletedIOs;
+        if ( ioSum >= Math.max( 1, limit / QUANTA_PER_SECOND ) )
+        {
+            LockSupport.parkNanos( this, TimeUnit.MILLISECONDS.toNanos( QUANTUM_MILLIS - quantumTime ) );
+            return stamp( clock.millis(), 0 );
+        }
+        return (ioSum << TIME_BITS) | quantumStart;
+    }
+
+    @Override
+    public void disableLimit()
+    {
+        disableCounter.getAndIncrement();
+    }
+
+    @Override
+    public void enableLimit()
+    {
+        disableCounter.getAndDecrement();
+    }
+
+    @Override
+    public boolean isLimited()
+    {
+        return iopsLimit != NO_LIMIT && disableCounter.get() == 0;
+    }
+
+    /**
+     * @return the current IO limit, in IOs per second, or {@link Long#MAX_VALUE} if IO is not limited.
+     */
+    @VisibleForTesting
+    long currentLimit()
+    {
+        return iopsLimit;
+    }
+
+    private synchronized void adjustLimit( long now )
+    {
+        if ( now - lastAdjustmentMillis < ADJUST_INTERVAL_MILLIS )
+        {
+            // Someone else adjusted the limit while we were waiting for the monitor.
+            return;
+        }
+        lastAdjustmentMillis = now;
+
+        long configuredLimit = configuredLimit();
+        long limit = Math.min( iopsLimit, configuredLimit );
+        if ( percentileForceNanos( 0.99 ) > targetLatencyNanos )
+        {
+            // When there is no limit yet, start from the configured one, or from the top of what we'd consider reasonable.
+            long base = limit == NO_LIMIT ? MIN_IOPS * 1024L : limit;
+            iopsLimit = Math.max( MIN_IOPS, base / 2 );
+        }
+        else if ( limit != NO_LIMIT )
+        {
+            long raised = limit + Math.max( MIN_IOPS, limit / 4 );
+            iopsLimit = configuredLimit == NO_LIMIT && raised >= MIN_IOPS * 1024L ? NO_LIMIT : Math.min( raised, configuredLimit );
+        }
+    }
+
+    private long percentileForceNanos( double percentile )
+    {
+        long seen = forceCount.get();
+        int count = (int) Math.min( seen - samplesSeen, SAMPLES );
+        samplesSeen = seen;
+        if ( count <= 0 )
+        {
+            return 0;
+        }
+        long[] samples = new long[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            samples[i] = forceNanosSamples.get( (int) ((seen - 1 - i) & (SAMPLES - 1)) );
+        }
+        Arrays.sort( samples );
+        return samples[(int) Math.min( count - 1, Math.ceil( count * percentile ) - 1 )];
+    }
+
+    private long configuredLimit()
+    {
+        int configured = config.get( GraphDatabaseSettings.check_point_iops_limit );
+        return configured > 0 ? configured : NO_LIMIT;
+    }
+
+    private static long stamp( long millis, long ios )
+    {
+        return (ios << TIME_BITS) | (millis & TIME_MASK);
+    }
+
+    @Override
+    public String toString()
+    {
+        long limit = iopsLimit;
+        return "LatencyAwareIOLimiter{limit=" + (limit == NO_LIMIT ? "unlimited" : limit + " IOPS") +
+                ", targetLatency=" + Duration.ofNanos( targetLatencyNanos ) + "}";
+    }
+}
@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.CHECK_POINT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMPRESSED_FRAME;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.LATEST;
@@ -106,6 +107,21 @@ public class LogEntryWriter
         }
     }
 
+    /**
+     * Compresses the entries written to {@code frame} and writes them as a single {@link LogEntryTypeCodes#COMPRESSED_FRAME} entry.
+     * The entries keep their own checksums inside the frame, the frame has a checksum of its own over the compressed bytes.
+     */
+    public void writeCompressedFrame( LogEntryFrameChannel frame ) throws IOException
+    {
+        int compressedLength = frame.compress();
+        channel.beginChecksum();
+        writeLogEntryHeader( COMPRESSED_FRAME, channel );
+        channel.putInt( frame.uncompressedLength() )
+                .putInt( compressedLength )
+                .put( frame.compressedBytes(), compressedLength );
+        channel.putChecksum();
+    }
+
     public void writeCheckPointEntry( LogPosition logPosition ) throws IOException
     {
         channel.beginChecksum();
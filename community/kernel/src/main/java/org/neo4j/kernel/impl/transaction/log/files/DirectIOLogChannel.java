@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import com.sun.nio.file.ExtendedOpenOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.OpenOption;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.io.fs.DelegatingStoreChannel;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.NativeScopedBuffer;
+import org.neo4j.memory.MemoryTracker;
+
+import static java.lang.Math.min;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A {@link StoreChannel} for appending to a transaction log file with direct I/O, bypassing the OS page cache.
+ * <p>
+ * Direct I/O requires that file offsets, lengths and memory addresses of all writes are aligned to the block size of
+ * the device. Appended bytes are therefore copied into one of two aligned off-heap buffers, and written from there in
+ * whole blocks when the channel is flushed or the buffer fills up. The last, partially filled, block of a write is
+ * padded with zeros, and is written again, completed, by the next write.
+ * <p>
+ * The two buffers let appends continue into one buffer while the other is written and forced: {@link #force(boolean)}
+ * swaps the buffers under a short critical section, and does the I/O outside of it. Writes of the two buffers never
+ * overlap in time, so a block is never written out of order.
+ * <p>
+ * Reads, size and truncation go through a regular channel to the same file. The bytes read are those that have been
+ * written out, so reads should only happen when nothing is buffered, e.g. when scanning a log before appending to it.
+ * <p>
+ * Positional writes write out what has been appended first, and then rewrite the blocks they touch through the spare
+ * buffer. Bytes written past the end of the log, in its last block, are zeroed again by the next write of that block.
+ */
+class DirectIOLogChannel extends DelegatingStoreChannel<StoreChannel>
+{
+    /**
+     * Alignment of writes. 4 KiB is a multiple of the logical block size of all common devices.
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    private final StoreChannel directChannel;
+    private final NativeScopedBuffer[] scopedBuffers;
+    // Serializes the writes of the buffers, so that they reach the file in order.
+    private final Lock ioLock = new ReentrantLock();
+    // Guarded by this. The buffer being appended to, holding the bytes from bufferFileOffset onwards.
+    private ByteBuffer activeBuffer;
+    // Guarded by this. The buffer that is free, or being written out.
+    private ByteBuffer spareBuffer;
+    // Guarded by this. Block aligned file offset of the first byte in the active buffer.
+    private long bufferFileOffset;
+    // Guarded by this. File offset up to which appended bytes have been handed to a write.
+    private long writtenPosition;
+
+    private DirectIOLogChannel( StoreChannel channel, StoreChannel directChannel, int bufferSize, MemoryTracker memoryTracker ) throws IOException
+    {
+        super( channel );
+        this.directChannel = directChannel;
+        this.scopedBuffers = new NativeScopedBuffer[]{allocateAligned( bufferSize, memoryTracker ), allocateAligned( bufferSize, memoryTracker )};
+        this.activeBuffer = alignedSlice( scopedBuffers[0], bufferSize );
+        this.spareBuffer = alignedSlice( scopedBuffers[1], bufferSize );
+        loadPosition( channel.position() );
+    }
+
+    /**
+     * Opens a direct I/O channel to the given file, for appending at the position of the given channel to the same file.
+     * The given channel is used for all other operations, and is closed when the returned channel is closed.
+     *
+     * @param fileSystem file system of the file.
+     * @param file the log file.
+     * @param channel a regular channel to the file, positioned where appending should start.
+     * @param bufferSize size of each of the two write buffers. Rounded up to a whole number of blocks.
+     * @param memoryTracker tracker of the native memory of the buffers.
+     * @return a channel appending to the given file with direct I/O.
+     * @throws IOException if the file could not be opened with direct I/O.
+     */
+    static DirectIOLogChannel open( FileSystemAbstraction fileSystem, File file, StoreChannel channel, int bufferSize, MemoryTracker memoryTracker )
+            throws IOException
+    {
+        Set<OpenOption> options = Set.of( READ, WRITE, ExtendedOpenOption.DIRECT );
+        StoreChannel directChannel = fileSystem.open( file, options );
+        try
+        {
+            directChannel.tryMakeUninterruptible();
+            return new DirectIOLogChannel( channel, directChannel, alignUp( bufferSize ), memoryTracker );
+        }
+        catch ( Throwable t )
+        {
+            directChannel.close();
+            throw t;
+        }
+    }
+
+    @Override
+    public synchronized long position()
+    {
+        return bufferFileOffset + activeBuffer.position();
+    }
+
+    @Override
+    public StoreChannel position( long newPosition ) throws IOException
+    {
+        writeOut( false );
+        loadPosition( newPosition );
+        return this;
+    }
+
+    @Override
+    public void writeAll( ByteBuffer src ) throws IOException
+    {
+        while ( append( src ) )
+        {
+            // The active buffer is full, write it out to make room for the rest
+            writeOut( false );
+        }
+    }
+
+    @Override
+    public int write( ByteBuffer src ) throws IOException
+    {
+        int bytes = src.remaining();
+        writeAll( src );
+        return bytes;
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length ) throws IOException
+    {
+        long bytes = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            bytes += write( srcs[i] );
+        }
+        return bytes;
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs ) throws IOException
+    {
+        return write( srcs, 0, srcs.length );
+    }
+
+    @Override
+    public void writeAll( ByteBuffer src, long position ) throws IOException
+    {
+        ioLock.lock();
+        try
+        {
+            writeOut( false );
+            // Nothing is being written out while we hold the I/O lock, so the spare buffer is free to use
+            ByteBuffer scratch;
+            synchronized ( this )
+            {
+                scratch = spareBuffer;
+            }
+            while ( src.hasRemaining() )
+            {
+                long blockStart = alignDown( position );
+                int offsetInBlock = (int) (position - blockStart);
+                int bytes = min( src.remaining(), scratch.capacity() - offsetInBlock );
+                int end = offsetInBlock + bytes;
+                int alignedEnd = alignUp( end );
+
+                // The first and last blocks keep the bytes around the ones being written
+                scratch.clear();
+                if ( offsetInBlock != 0 )
+                {
+                    readBlock( scratch, 0, blockStart );
+                }
+                if ( end != alignedEnd )
+                {
+                    readBlock( scratch, alignedEnd - BLOCK_SIZE, blockStart + alignedEnd - BLOCK_SIZE );
+                }
+                ByteBuffer chunk = src.slice().limit( bytes );
+                scratch.position( offsetInBlock ).put( chunk.duplicate() );
+                scratch.position( 0 ).limit( alignedEnd );
+                directChannel.writeAll( scratch, blockStart );
+
+                copyIntoActiveBuffer( chunk, position );
+                src.position( src.position() + bytes );
+                position += bytes;
+            }
+        }
+        finally
+        {
+            ioLock.unlock();
+        }
+    }
+
+    @Override
+    public int read( ByteBuffer dst ) throws IOException
+    {
+        writeOut( false );
+        long position = position();
+        int read = delegate.read( dst, position );
+        if ( read > 0 )
+        {
+            loadPosition( position + read );
+        }
+        return read;
+    }
+
+    @Override
+    public void readAll( ByteBuffer dst ) throws IOException
+    {
+        while ( dst.hasRemaining() )
+        {
+            if ( read( dst ) == -1 )
+            {
+                throw new IOException( "Channel has reached end-of-stream." );
+            }
+        }
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts, int offset, int length ) throws IOException
+    {
+        long bytes = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            while ( dsts[i].hasRemaining() )
+            {
+                int read = read( dsts[i] );
+                if ( read == -1 )
+                {
+                    return bytes == 0 ? -1 : bytes;
+                }
+                bytes += read;
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts ) throws IOException
+    {
+        return read( dsts, 0, dsts.length );
+    }
+
+    @Override
+    public long size() throws IOException
+    {
+        return Math.max( delegate.size(), position() );
+    }
+
+    @Override
+    public StoreChannel truncate( long size ) throws IOException
+    {
+        writeOut( false );
+        delegate.truncate( size );
+        if ( size < position() )
+        {
+            loadPosition( size );
+        }
+        return this;
+    }
+
+    @Override
+    public void force( boolean metaData ) throws IOException
+    {
+        writeOut( true );
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        force( false );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            writeOut( true );
+        }
+        finally
+        {
+            try
+            {
+                directChannel.close();
+                delegate.close();
+            }
+            finally
+            {
+                for ( NativeScopedBuffer scopedBuffer : scopedBuffers )
+                {
+                    scopedBuffer.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies as much of the given bytes as fits into the active buffer.
+     *
+     * @return {@code true} if the active buffer is full and there are still bytes left to append.
+     */
+    private synchronized boolean append( ByteBuffer src )
+    {
+        int bytes = min( src.remaining(), activeBuffer.remaining() );
+        int limit = src.limit();
+        src.limit( src.position() + bytes );
+        activeBuffer.put( src );
+        src.limit( limit );
+        return src.hasRemaining();
+    }
+
+    /**
+     * Writes the appended bytes out to the file, and optionally forces the file. The active buffer is swapped for the
+     * spare one before writing, so that appending can continue while the write is in progress.
+     */
+    private void writeOut( boolean force ) throws IOException
+    {
+        ioLock.lock();
+        try
+        {
+            ByteBuffer buffer = null;
+            long fileOffset = 0;
+            synchronized ( this )
+            {
+                int end = activeBuffer.position();
+                if ( bufferFileOffset + end != writtenPosition )
+                {
+                    buffer = activeBuffer;
+                    fileOffset = bufferFileOffset;
+                    writtenPosition = fileOffset + end;
+                    swapBuffers( end );
+                }
+            }
+            if ( buffer != null )
+            {
+                directChannel.writeAll( buffer, fileOffset );
+            }
+            if ( force )
+            {
+                directChannel.force( false );
+            }
+        }
+        finally
+        {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Makes the spare buffer the active one, starting with the partial last block of the active buffer, and prepares
+     * the active buffer for being written out.
+     */
+    private void swapBuffers( int end )
+    {
+        ByteBuffer buffer = activeBuffer;
+        int completeBlocksEnd = alignDown( end );
+
+        // The partial last block is written now, and again when it's complete, so it starts off the next buffer
+        spareBuffer.clear();
+        spareBuffer.put( buffer.duplicate().position( completeBlocksEnd ).limit( end ) );
+        activeBuffer = spareBuffer;
+        spareBuffer = buffer;
+        bufferFileOffset += completeBlocksEnd;
+
+        // Pad the partial last block with zeros, so that nothing but zeros follows the end of the log
+        int alignedEnd = alignUp( end );
+        while ( buffer.position() < alignedEnd )
+        {
+            buffer.put( (byte) 0 );
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Positions the channel at the given file offset, with nothing buffered, by loading the bytes of the partial block
+     * before it into the active buffer.
+     */
+    private synchronized void loadPosition( long position ) throws IOException
+    {
+        long blockStart = alignDown( position );
+        int partialBlockBytes = (int) (position - blockStart);
+        activeBuffer.clear();
+        activeBuffer.limit( partialBlockBytes );
+        while ( activeBuffer.hasRemaining() )
+        {
+            if ( delegate.read( activeBuffer, blockStart + activeBuffer.position() ) == -1 )
+            {
+                // The file is shorter than the position, which reads as zeros
+                while ( activeBuffer.hasRemaining() )
+                {
+                    activeBuffer.put( (byte) 0 );
+                }
+            }
+        }
+        activeBuffer.limit( activeBuffer.capacity() );
+        bufferFileOffset = blockStart;
+        writtenPosition = position;
+    }
+
+    /**
+     * Reads the block at the given file offset into the given buffer, at the given index, as it is in the file.
+     */
+    private void readBlock( ByteBuffer buffer, int index, long fileOffset ) throws IOException
+    {
+        ByteBuffer block = buffer.duplicate().position( index ).limit( index + BLOCK_SIZE );
+        while ( block.hasRemaining() )
+        {
+            if ( delegate.read( block, fileOffset + block.position() - index ) == -1 )
+            {
+                // Past the end of the file, which reads as zeros
+                while ( block.hasRemaining() )
+                {
+                    block.put( (byte) 0 );
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the bytes of a positional write that overlap the appended bytes in the active buffer into it, so that
+     * writing the active buffer out doesn't undo the positional write.
+     */
+    private synchronized void copyIntoActiveBuffer( ByteBuffer bytes, long fileOffset )
+    {
+        long start = Math.max( fileOffset, bufferFileOffset );
+        long end = min( fileOffset + bytes.remaining(), bufferFileOffset + activeBuffer.position() );
+        if ( start < end )
+        {
+            ByteBuffer overlap = bytes.duplicate().position( (int) (start - fileOffset) ).limit( (int) (end - fileOffset) );
+            activeBuffer.duplicate().position( (int) (start - bufferFileOffset) ).put( overlap );
+        }
+    }
+
+    private static NativeScopedBuffer allocateAligned( int bufferSize, MemoryTracker memoryTracker )
+    {
+        return new NativeScopedBuffer( bufferSize + BLOCK_SIZE, memoryTracker );
+    }
+
+    private static ByteBuffer alignedSlice( NativeScopedBuffer scopedBuffer, int bufferSize )
+    {
+        ByteBuffer aligned = scopedBuffer.getBuffer().clear().alignedSlice( BLOCK_SIZE );
+        return aligned.limit( bufferSize ).slice().order( ByteOrder.BIG_ENDIAN );
+    }
+
+    private static int alignDown( int value )
+    {
+        return value & -BLOCK_SIZE;
+    }
+
+    private static long alignDown( long value )
+    {
+        return value & -BLOCK_SIZE;
+    }
+
+    private static int alignUp( int value )
+    {
+        return alignDown( value + BLOCK_SIZE - 1 );
+    }
+}
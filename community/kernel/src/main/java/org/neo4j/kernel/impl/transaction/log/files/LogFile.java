@@ -69,6 +69,28 @@ public interface LogFile
 
     void accept( LogFileVisitor visitor, LogPosition startingFromPosition ) throws IOException;
 
+    /**
+     * Called for every transaction appended to this log, in order, with the position the transaction starts at.
+     * The appended transaction is already in the log at this point, so this method must not fail: a position index
+     * that cannot be maintained is logged and disabled, and transactions are then located by scanning the log files.
+     *
+     * @param transactionId id of the appended transaction.
+     * @param position {@link LogPosition} of the start of the appended transaction.
+     */
+    void transactionAppended( long transactionId, LogPosition position );
+
+    /**
+     * Finds a position in the log file of the given version to start reading from, to find the given transaction
+     * without reading the log file from its start. The position may not point to the start of the given transaction,
+     * and the given transaction may not even be found from it, so callers must be prepared to read from the start of the log file.
+     *
+     * @param logVersion version of the log file the transaction is in.
+     * @param transactionId id of the transaction to find.
+     * @return {@link LogPosition} at or before the start of the given transaction, or {@code null} if no such position is known.
+     * @throws IOException on I/O error.
+     */
+    LogPosition findPositionHint( long logVersion, long transactionId ) throws IOException;
+
     /**
      * @return {@code true} if a rotation is needed.
      */
@@ -44,6 +44,12 @@ public interface LogFiles extends Lifecycle
 
     File getLogFileForVersion( long version );
 
+    /**
+     * @param version log version.
+     * @return the file with the sparse index of transaction positions in the log file of the given version. The file may not exist.
+     */
+    File getPositionIndexFileForVersion( long version );
+
     File getHighestLogFile();
 
     long getHighestLogVersion();
@@ -69,4 +75,18 @@ public interface LogFiles extends Lifecycle
     LogFileChannelNativeAccessor getChannelNativeAccessor();
 
     PhysicalLogVersionedStoreChannel createLogChannelForVersion( long versionUsed, LongSupplier lastCommittedTransactionId ) throws IOException;
+
+    /**
+     * Offers a log file that is being pruned for reuse by a later log version.
+     *
+     * @param logFile the log file being pruned.
+     * @return {@code true} if the log file has been taken for reuse, {@code false} if it should be deleted.
+     */
+    boolean recycleLogFile( File logFile );
+
+    /**
+     * Allocates the file for the next new log version ahead of time, unless it has already been allocated, so that rotating
+     * the log doesn't have to. Meant to be called off the commit path, since allocating a log file can take a while.
+     */
+    void prepareNextLogFile();
 }
@@ -49,6 +49,9 @@ import org.neo4j.storageengine.api.StoreIdProvider;
 import org.neo4j.storageengine.api.TransactionIdStore;
 
 import static java.util.Objects.requireNonNull;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_direct_io;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_position_index;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_prepare_in_background;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_logical_logs;
 
@@ -277,10 +280,14 @@ public class LogFilesBuilder
         // Register listener for rotation threshold
         AtomicLong rotationThreshold = getRotationThresholdAndRegisterForUpdates();
         AtomicBoolean tryPreallocateTransactionLogs = getTryToPreallocateTransactionLogs();
+        boolean directIO = !readOnly && config.get( tx_log_direct_io );
+        // Pruned log files are zeroed by the job that prepares the next log file, so they're only kept when it runs
+        boolean recycleLogFiles = directIO && config.get( tx_log_prepare_in_background );
+        boolean positionIndex = !readOnly && config.get( tx_log_position_index );
         var nativeAccess = getNativeAccess();
 
-        return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, logEntryReader, lastCommittedIdSupplier,
-                committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier, fileSystem,
+        return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, directIO, recycleLogFiles, positionIndex, logEntryReader,
+                lastCommittedIdSupplier, committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier, fileSystem,
                 logProvider, databaseTracers, storeIdSupplier, nativeAccess, memoryTracker );
     }
 
@@ -22,8 +22,10 @@ package org.neo4j.kernel.impl.transaction.log.files;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.function.LongSupplier;
 
+import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.memory.HeapScopedBuffer;
@@ -33,7 +35,10 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogFileCreateEvent;
+import org.neo4j.logging.Log;
 
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
@@ -41,12 +46,18 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_LO
 
 class TransactionLogChannelAllocator
 {
+    private static final int DIRECT_IO_BUFFER_SIZE = toIntExact( ByteUnit.mebiBytes( 1 ) );
+    private static final int ZEROING_BUFFER_SIZE = toIntExact( ByteUnit.mebiBytes( 1 ) );
+
     private final TransactionLogFilesContext logFilesContext;
     private final FileSystemAbstraction fileSystem;
     private final TransactionLogFilesHelper fileHelper;
     private final LogHeaderCache logHeaderCache;
     private final LogFileChannelNativeAccessor nativeChannelAccessor;
     private final DatabaseTracer databaseTracer;
+    private final Log log;
+    private final Object reserveLock = new Object();
+    private boolean directIOUnavailable;
 
     TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
             LogFileChannelNativeAccessor nativeChannelAccessor )
@@ -57,6 +68,7 @@ class TransactionLogChannelAllocator
         this.fileHelper = fileHelper;
         this.logHeaderCache = logHeaderCache;
         this.nativeChannelAccessor = nativeChannelAccessor;
+        this.log = logFilesContext.getLogProvider().getLog( getClass() );
     }
 
     PhysicalLogVersionedStoreChannel createLogChannel( long version, LongSupplier lastCommittedTransactionId ) throws IOException
@@ -81,6 +93,10 @@ class TransactionLogChannelAllocator
                 }
             }
             byte formatVersion = header == null ? CURRENT_LOG_FORMAT_VERSION : header.getLogFormatVersion();
+            if ( logFilesContext.isDirectIO() )
+            {
+                storeChannel = openDirectIOChannel( logFile, storeChannel );
+            }
             return new PhysicalLogVersionedStoreChannel( storeChannel, version, formatVersion, logFile, nativeChannelAccessor );
         }
     }
@@ -136,22 +152,151 @@ class TransactionLogChannelAllocator
         }
     }
 
+    /**
+     * Keeps the given log file, which is being pruned, as the recycling log file, so that the next new log version can
+     * reuse it instead of creating a new file. Pruning only renames the file; it's zeroed by
+     * {@link #prepareReserveLogFile()}, on the background job that prepares the next log file, before it becomes the
+     * reserve log file. Pruned files are therefore only kept when both direct I/O and background preparation are enabled,
+     * see {@link TransactionLogFilesContext#isRecycleLogFiles()}. Direct I/O is where overwriting blocks that have been
+     * written before saves the file system from updating metadata on every force.
+     *
+     * @param logFile the log file being pruned.
+     * @return {@code true} if the log file is gone, {@code false} if it should be deleted by the caller.
+     */
+    boolean recycleLogFile( File logFile )
+    {
+        if ( !logFilesContext.isRecycleLogFiles() )
+        {
+            return false;
+        }
+        synchronized ( reserveLock )
+        {
+            File recyclingFile = fileHelper.getRecyclingLogFile();
+            if ( fileSystem.fileExists( recyclingFile ) )
+            {
+                return false;
+            }
+            try
+            {
+                fileSystem.renameFile( logFile, recyclingFile );
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Unable to keep log file " + logFile + " for reuse. It will be deleted instead.", e );
+            }
+        }
+        return !fileSystem.fileExists( logFile );
+    }
+
+    /**
+     * Makes a zeroed reserve log file unless there already is one, so that the next new log version can be created by
+     * renaming it instead of allocating it while the log is being rotated. A recycled log file is zeroed and used if
+     * there is one, otherwise a new file is allocated. The reserve file is used whether or not direct I/O is enabled;
+     * only the reuse of pruned files depends on it. Failing to make it is not a problem as such, the next rotation
+     * will then allocate its file as usual.
+     */
+    void prepareReserveLogFile()
+    {
+        if ( fileSystem.fileExists( fileHelper.getReserveLogFile() ) )
+        {
+            return;
+        }
+        File recyclingFile = fileHelper.getRecyclingLogFile();
+        // Zeroed under another name first, so that a crash can never leave a reserve file with old log entries in it
+        File preparingFile = fileSystem.fileExists( recyclingFile ) ? recyclingFile : fileHelper.getPreparingLogFile();
+        try
+        {
+            zeroFill( preparingFile );
+            makeReserveLogFile( preparingFile );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Unable to prepare the next transaction log file ahead of rotation.", e );
+            fileSystem.deleteFile( preparingFile );
+        }
+    }
+
+    private void makeReserveLogFile( File zeroedFile ) throws IOException
+    {
+        synchronized ( reserveLock )
+        {
+            File reserveFile = fileHelper.getReserveLogFile();
+            if ( fileSystem.fileExists( reserveFile ) )
+            {
+                fileSystem.deleteFile( zeroedFile );
+            }
+            else
+            {
+                fileSystem.renameFile( zeroedFile, reserveFile );
+            }
+        }
+    }
+
+    private void zeroFill( File file ) throws IOException
+    {
+        try ( StoreChannel channel = fileSystem.write( file );
+              var scopedBuffer = new HeapScopedBuffer( ZEROING_BUFFER_SIZE, logFilesContext.getMemoryTracker() ) )
+        {
+            ByteBuffer zeros = scopedBuffer.getBuffer();
+            long size = max( channel.size(), logFilesContext.getRotationThreshold().get() );
+            for ( long position = 0; position < size; position += zeros.capacity() )
+            {
+                zeros.clear();
+                zeros.limit( (int) Math.min( zeros.capacity(), size - position ) );
+                channel.writeAll( zeros, position );
+            }
+            channel.force( false );
+        }
+    }
+
+    private StoreChannel openDirectIOChannel( File logFile, StoreChannel storeChannel )
+    {
+        if ( !directIOUnavailable )
+        {
+            try
+            {
+                return DirectIOLogChannel.open( fileSystem, logFile, storeChannel, DIRECT_IO_BUFFER_SIZE, logFilesContext.getMemoryTracker() );
+            }
+            catch ( IOException | UnsupportedOperationException e )
+            {
+                log.warn( "Unable to append to transaction logs with direct I/O, falling back to buffered I/O.", e );
+                directIOUnavailable = true;
+            }
+        }
+        return storeChannel;
+    }
+
     private AllocatedFile allocateFile( long version ) throws IOException
     {
         File file = fileHelper.getLogFileForVersion( version );
         boolean fileExist = fileSystem.fileExists( file );
+        boolean reusedFile = !fileExist && reuseReserveLogFile( file );
         StoreChannel storeChannel = fileSystem.write( file );
         if ( fileExist )
         {
             nativeChannelAccessor.adviseSequentialAccessAndKeepInCache( storeChannel, version );
         }
-        else if ( logFilesContext.getTryPreallocateTransactionLogs().get() )
+        else if ( !reusedFile && logFilesContext.getTryPreallocateTransactionLogs().get() )
         {
             nativeChannelAccessor.preallocateSpace( storeChannel, version );
         }
         return new AllocatedFile( file, storeChannel );
     }
 
+    private boolean reuseReserveLogFile( File file ) throws IOException
+    {
+        synchronized ( reserveLock )
+        {
+            File reserveFile = fileHelper.getReserveLogFile();
+            if ( !fileSystem.fileExists( reserveFile ) )
+            {
+                return false;
+            }
+            fileSystem.renameFile( reserveFile, file );
+            return true;
+        }
+    }
+
     private static class AllocatedFile
     {
         private final File file;
@@ -43,6 +43,7 @@ import org.neo4j.kernel.impl.transaction.log.ReaderLogVersionBridge;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.LogVersionRepository;
 
@@ -61,10 +62,12 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
     private final LogVersionBridge readerLogVersionBridge;
     private final PageCacheTracer pageCacheTracer;
     private final MemoryTracker memoryTracker;
+    private final Log log;
 
     private volatile PhysicalLogVersionedStoreChannel channel;
     private PositionAwarePhysicalFlushableChecksumChannel writer;
     private LogVersionRepository logVersionRepository;
+    private TransactionLogPositionIndex positionIndex;
 
     TransactionLogFile( LogFiles logFiles, TransactionLogFilesContext context )
     {
@@ -74,6 +77,7 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
         this.readerLogVersionBridge = new ReaderLogVersionBridge( logFiles );
         this.pageCacheTracer = context.getDatabaseTracers().getPageCacheTracer();
         memoryTracker = context.getMemoryTracker();
+        this.log = context.getLogProvider().getLog( getClass() );
     }
 
     @Override
@@ -92,6 +96,37 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
         seekChannelPosition( currentLogVersion );
 
         writer = new PositionAwarePhysicalFlushableChecksumChannel( channel, new NativeScopedBuffer( calculateLogBufferSize(), memoryTracker ) );
+        positionIndex = openPositionIndex( currentLogVersion, context.getLastCommittedTransactionId() );
+    }
+
+    /**
+     * The position index is only an optimisation for locating transactions, so failing to open it leaves it disabled rather than failing the log.
+     */
+    private TransactionLogPositionIndex openPositionIndex( long logVersion, long lastCommittedTransactionId )
+    {
+        if ( !context.isPositionIndex() )
+        {
+            return null;
+        }
+        try
+        {
+            return TransactionLogPositionIndex.openForAppend( context.getFileSystem(), logFiles.getPositionIndexFileForVersion( logVersion ), logVersion,
+                    lastCommittedTransactionId, TransactionLogPositionIndex.INDEX_INTERVAL );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            log.warn( "Unable to open the transaction log position index for log version " + logVersion +
+                    ". Transactions will be located by scanning the log files instead.", e );
+            return null;
+        }
+    }
+
+    private void disablePositionIndex( Exception cause )
+    {
+        log.warn( "Unable to maintain the transaction log position index. Transactions will be located by scanning the log files instead.", cause );
+        TransactionLogPositionIndex failedIndex = positionIndex;
+        positionIndex = null;
+        IOUtils.closeAllSilently( failedIndex );
     }
 
     private void seekChannelPosition( long currentLogVersion ) throws IOException
@@ -165,7 +200,7 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
     @Override
     public void shutdown() throws IOException
     {
-        IOUtils.closeAll( writer );
+        IOUtils.closeAll( writer, positionIndex );
     }
 
     @Override
@@ -259,9 +294,32 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
          */
         PhysicalLogVersionedStoreChannel newLog = logFiles.createLogChannelForVersion( newLogVersion, context::committingTransactionId );
         currentLog.close();
+        rotatePositionIndex( newLogVersion );
         return newLog;
     }
 
+    /**
+     * The index of the rotated away log file is complete at this point. An index left behind for the new log version, by a crash
+     * in the middle of a previous rotation, only has entries for transactions that were never recovered, and those are dropped.
+     */
+    private void rotatePositionIndex( long newLogVersion )
+    {
+        if ( positionIndex != null )
+        {
+            try
+            {
+                positionIndex.close();
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                disablePositionIndex( e );
+                return;
+            }
+            positionIndex = null;
+            positionIndex = openPositionIndex( newLogVersion, context.committingTransactionId() );
+        }
+    }
+
     @Override
     public FlushablePositionAwareChecksumChannel getWriter()
     {
@@ -291,6 +349,33 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
         }
     }
 
+    @Override
+    public void transactionAppended( long transactionId, LogPosition position )
+    {
+        if ( positionIndex != null )
+        {
+            try
+            {
+                positionIndex.transactionAppended( transactionId, position );
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                disablePositionIndex( e );
+            }
+        }
+    }
+
+    @Override
+    public LogPosition findPositionHint( long logVersion, long transactionId ) throws IOException
+    {
+        if ( !context.isPositionIndex() )
+        {
+            return null;
+        }
+        return TransactionLogPositionIndex.lookup( context.getFileSystem(), logFiles.getPositionIndexFileForVersion( logVersion ), logVersion,
+                transactionId );
+    }
+
     /**
      * Calculate size of byte buffer for transaction log file based on number of available cpu's.
      * Minimal buffer size is 512KB. Every another 4 cpu's will add another 512KB into the buffer size.
@@ -115,6 +115,12 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
         return fileHelper.getLogFileForVersion( version );
     }
 
+    @Override
+    public File getPositionIndexFileForVersion( long version )
+    {
+        return fileHelper.getPositionIndexFileForVersion( version );
+    }
+
     @Override
     public File getHighestLogFile()
     {
@@ -230,6 +236,18 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
         return channelAllocator.createLogChannel( version, lastTransactionIdSupplier );
     }
 
+    @Override
+    public boolean recycleLogFile( File logFile )
+    {
+        return channelAllocator.recycleLogFile( logFile );
+    }
+
+    @Override
+    public void prepareNextLogFile()
+    {
+        channelAllocator.prepareReserveLogFile();
+    }
+
     @Override
     public void accept( LogHeaderVisitor visitor ) throws IOException
     {
@@ -38,6 +38,9 @@ class TransactionLogFilesContext
 {
     private final AtomicLong rotationThreshold;
     private final AtomicBoolean tryPreallocateTransactionLogs;
+    private final boolean directIO;
+    private final boolean recycleLogFiles;
+    private final boolean positionIndex;
     private final LogEntryReader logEntryReader;
     private final LongSupplier lastCommittedTransactionIdSupplier;
     private final LongSupplier committingTransactionIdSupplier;
@@ -50,13 +53,17 @@ class TransactionLogFilesContext
     private final NativeAccess nativeAccess;
     private final MemoryTracker memoryTracker;
 
-    TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, LogEntryReader logEntryReader,
-            LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier, Supplier<LogPosition> lastClosedPositionSupplier,
-            Supplier<LogVersionRepository> logVersionRepositorySupplier, FileSystemAbstraction fileSystem,
+    TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, boolean directIO, boolean recycleLogFiles,
+            boolean positionIndex,
+            LogEntryReader logEntryReader, LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier,
+            Supplier<LogPosition> lastClosedPositionSupplier, Supplier<LogVersionRepository> logVersionRepositorySupplier, FileSystemAbstraction fileSystem,
             LogProvider logProvider, DatabaseTracers databaseTracers, Supplier<StoreId> storeId, NativeAccess nativeAccess, MemoryTracker memoryTracker )
     {
         this.rotationThreshold = rotationThreshold;
         this.tryPreallocateTransactionLogs = tryPreallocateTransactionLogs;
+        this.directIO = directIO;
+        this.recycleLogFiles = recycleLogFiles;
+        this.positionIndex = positionIndex;
         this.logEntryReader = logEntryReader;
         this.lastCommittedTransactionIdSupplier = lastCommittedTransactionIdSupplier;
         this.committingTransactionIdSupplier = committingTransactionIdSupplier;
@@ -115,6 +122,21 @@ class TransactionLogFilesContext
         return tryPreallocateTransactionLogs;
     }
 
+    boolean isDirectIO()
+    {
+        return directIO;
+    }
+
+    boolean isRecycleLogFiles()
+    {
+        return recycleLogFiles;
+    }
+
+    boolean isPositionIndex()
+    {
+        return positionIndex;
+    }
+
     NativeAccess getNativeAccess()
     {
         return nativeAccess;
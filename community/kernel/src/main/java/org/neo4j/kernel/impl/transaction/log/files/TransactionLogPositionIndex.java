@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * Sparse index of transaction id to start position of that transaction, for a single log file. An entry is added for the first
+ * transaction appended to the log file, and after that for the first transaction starting at least {@link #INDEX_INTERVAL} bytes
+ * after the previously indexed transaction. Finding any transaction in the log file is then one binary search in the index
+ * followed by a scan of at most roughly that many bytes.
+ * <p>
+ * Each entry is a transaction id followed by a byte offset, both strictly increasing. The index is only ever a hint: it's written
+ * without being forced along with the log, and entries for transactions that were not recovered are dropped when the index is
+ * opened for appending, so readers must be prepared for the indexed transaction not being where the index says it is.
+ */
+class TransactionLogPositionIndex implements Closeable
+{
+    static final int ENTRY_SIZE = Long.BYTES * 2;
+    static final long INDEX_INTERVAL = FeatureToggles.getLong( TransactionLogPositionIndex.class, "interval", ByteUnit.kibiBytes( 64 ) );
+    private static final long NO_ENTRY = -1;
+
+    private final StoreChannel channel;
+    private final long logVersion;
+    private final long interval;
+    private final ByteBuffer entry = ByteBuffer.allocate( ENTRY_SIZE );
+    private long lastIndexedTransactionId;
+    private long lastIndexedOffset;
+
+    private TransactionLogPositionIndex( StoreChannel channel, long logVersion, long interval, long lastIndexedTransactionId, long lastIndexedOffset )
+    {
+        this.channel = channel;
+        this.logVersion = logVersion;
+        this.interval = interval;
+        this.lastIndexedTransactionId = lastIndexedTransactionId;
+        this.lastIndexedOffset = lastIndexedOffset;
+    }
+
+    /**
+     * Opens the index of the given log version for appending, creating it if it doesn't exist. Any entries after the last valid entry
+     * at or before {@code lastCommittedTransactionId} are truncated away, since those may point to transactions that were written,
+     * but not recovered, before a crash.
+     */
+    static TransactionLogPositionIndex openForAppend( FileSystemAbstraction fs, File file, long logVersion, long lastCommittedTransactionId,
+            long interval ) throws IOException
+    {
+        StoreChannel channel = fs.write( file );
+        try
+        {
+            long entries = channel.size() / ENTRY_SIZE;
+            ByteBuffer buffer = ByteBuffer.allocate( ENTRY_SIZE );
+            long lastTransactionId = NO_ENTRY;
+            long lastOffset = NO_ENTRY;
+            long validEntries = 0;
+            for ( ; validEntries < entries; validEntries++ )
+            {
+                readEntry( channel, validEntries, buffer );
+                long transactionId = buffer.getLong();
+                long offset = buffer.getLong();
+                if ( transactionId <= lastTransactionId || offset <= lastOffset || transactionId > lastCommittedTransactionId )
+                {
+                    break;
+                }
+                lastTransactionId = transactionId;
+                lastOffset = offset;
+            }
+            channel.truncate( validEntries * ENTRY_SIZE );
+            channel.position( validEntries * ENTRY_SIZE );
+            return new TransactionLogPositionIndex( channel, logVersion, interval, lastTransactionId, lastOffset );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the position of the transaction with the highest id at or below the given transaction id in the index of the given log version.
+     *
+     * @return the indexed position to start looking for the given transaction from, or {@code null} if the index doesn't exist or
+     * doesn't have any transaction at or before the given one.
+     */
+    static LogPosition lookup( FileSystemAbstraction fs, File file, long logVersion, long transactionId ) throws IOException
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            return null;
+        }
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( ENTRY_SIZE );
+            long low = 0;
+            long high = channel.size() / ENTRY_SIZE - 1;
+            long foundOffset = NO_ENTRY;
+            while ( low <= high )
+            {
+                long mid = (low + high) >>> 1;
+                readEntry( channel, mid, buffer );
+                long midTransactionId = buffer.getLong();
+                if ( midTransactionId <= transactionId )
+                {
+                    foundOffset = buffer.getLong();
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid - 1;
+                }
+            }
+            return foundOffset == NO_ENTRY ? null : new LogPosition( logVersion, foundOffset );
+        }
+    }
+
+    /**
+     * Called for every transaction appended to the log file of this index, in order. Only adds an entry if the transaction starts
+     * far enough from the previously indexed transaction.
+     */
+    void transactionAppended( long transactionId, LogPosition position ) throws IOException
+    {
+        long offset = position.getByteOffset();
+        if ( position.getLogVersion() != logVersion || transactionId <= lastIndexedTransactionId ||
+             (lastIndexedOffset != NO_ENTRY && offset - lastIndexedOffset < interval) )
+        {
+            return;
+        }
+        entry.clear();
+        entry.putLong( transactionId ).putLong( offset ).flip();
+        channel.writeAll( entry );
+        lastIndexedTransactionId = transactionId;
+        lastIndexedOffset = offset;
+    }
+
+    long getLogVersion()
+    {
+        return logVersion;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            channel.force( false );
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    private static void readEntry( StoreChannel channel, long index, ByteBuffer buffer ) throws IOException
+    {
+        buffer.clear();
+        long position = index * ENTRY_SIZE;
+        while ( buffer.hasRemaining() )
+        {
+            if ( channel.read( buffer, position + buffer.position() ) == -1 )
+            {
+                throw new IOException( "Unexpected end of transaction position index at " + position );
+            }
+        }
+        buffer.flip();
+    }
+}
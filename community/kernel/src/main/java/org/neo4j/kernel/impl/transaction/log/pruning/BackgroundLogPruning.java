@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.pruning;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * {@link LogPruning} which prunes logs on a background job in the {@link Group#TRANSACTION_LOG_PRUNING} group, so that the thread
+ * asking for logs to be pruned, typically one that just completed a check point, doesn't wait for log files to be deleted.
+ * Requests coming in while logs are being pruned are coalesced into one pruning up to the highest requested version.
+ * Once stopped, logs are pruned on the calling thread.
+ */
+public class BackgroundLogPruning extends LifecycleAdapter implements LogPruning
+{
+    private static final long NO_REQUEST = -1;
+
+    private final LogPruning delegate;
+    private final JobScheduler scheduler;
+    private final Log log;
+    private final AtomicLong requestedVersion = new AtomicLong( NO_REQUEST );
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile JobHandle<?> handle = JobHandle.EMPTY;
+    private volatile boolean stopped;
+
+    public BackgroundLogPruning( LogPruning delegate, JobScheduler scheduler, LogProvider logProvider )
+    {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.log = logProvider.getLog( getClass() );
+    }
+
+    @Override
+    public void pruneLogs( long currentVersion )
+    {
+        if ( stopped )
+        {
+            delegate.pruneLogs( currentVersion );
+            return;
+        }
+        requestedVersion.accumulateAndGet( currentVersion, Math::max );
+        schedulePruning();
+    }
+
+    @Override
+    public boolean mightHaveLogsToPrune()
+    {
+        return delegate.mightHaveLogsToPrune();
+    }
+
+    @Override
+    public String describeCurrentStrategy()
+    {
+        return delegate.describeCurrentStrategy();
+    }
+
+    @Override
+    public void stop() throws Exception
+    {
+        stopped = true;
+        try
+        {
+            handle.waitTermination();
+        }
+        catch ( ExecutionException e )
+        {
+            // Already logged by the job itself
+        }
+    }
+
+    private void schedulePruning()
+    {
+        if ( !stopped && scheduled.compareAndSet( false, true ) )
+        {
+            try
+            {
+                handle = scheduler.schedule( Group.TRANSACTION_LOG_PRUNING, this::pruneRequestedLogs );
+            }
+            catch ( RejectedExecutionException e )
+            {
+                // The scheduler is shutting down, logs will be pruned after the next check point instead
+                scheduled.set( false );
+            }
+        }
+    }
+
+    private void pruneRequestedLogs()
+    {
+        try
+        {
+            long version;
+            while ( !stopped && (version = requestedVersion.getAndSet( NO_REQUEST )) != NO_REQUEST )
+            {
+                delegate.pruneLogs( version );
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            log.error( "Failed to prune transaction log files.", e );
+        }
+        finally
+        {
+            scheduled.set( false );
+        }
+        // A request may have come in after the last one was picked up, but before this job was marked as done
+        if ( requestedVersion.get() != NO_REQUEST )
+        {
+            schedulePruning();
+        }
+    }
+}
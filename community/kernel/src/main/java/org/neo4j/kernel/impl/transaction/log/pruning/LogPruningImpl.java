@@ -130,7 +130,11 @@ public class LogPruningImpl implements LogPruning
             fromVersion = fromVersion == NO_VERSION ? version : Math.min( fromVersion, version );
             toVersion = toVersion == NO_VERSION ? version : Math.max( toVersion, version );
             File logFile = logFiles.getLogFileForVersion( version );
-            fs.deleteFile( logFile );
+            if ( !logFiles.recycleLogFile( logFile ) )
+            {
+                fs.deleteFile( logFile );
+            }
+            fs.deleteFile( logFiles.getPositionIndexFileForVersion( version ) );
         }
 
         String describeResult( LogPruneStrategy strategy )
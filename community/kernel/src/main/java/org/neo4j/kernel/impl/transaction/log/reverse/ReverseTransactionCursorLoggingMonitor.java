@@ -33,11 +33,11 @@ public class ReverseTransactionCursorLoggingMonitor implements ReversedTransacti
     }
 
     @Override
-    public void transactionalLogRecordReadFailure( long[] transactionOffsets, int transactionIndex, long logVersion )
+    public void transactionalLogRecordReadFailure( int readableTransactions, long lastTransactionStartOffset, long logVersion )
     {
-        log.warn( transactionIndex > 0 ?
+        log.warn( readableTransactions > 0 ?
                format( "Fail to read transaction log version %d. Last valid transaction start offset is: %d.",
-                       logVersion, transactionOffsets[transactionIndex - 1] ) :
+                       logVersion, lastTransactionStartOffset ) :
                format( "Fail to read first transaction of log version %d.", logVersion) );
     }
 }
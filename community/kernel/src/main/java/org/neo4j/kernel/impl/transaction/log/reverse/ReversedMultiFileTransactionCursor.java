@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.memory.MemoryTracker;
 
 import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
 import static org.neo4j.kernel.impl.transaction.log.reverse.EagerlyReversedTransactionCursor.eagerlyReverse;
@@ -66,11 +67,12 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
      * @param logEntryReader {@link LogEntryReader} to use.
      * @param failOnCorruptedLogFiles fail reading from log files as soon as first error is encountered
      * @param monitor reverse transaction cursor monitor
+     * @param memoryTracker tracker of the memory used to index the transactions in each log file
      * @return a {@link TransactionCursor} which returns transactions from the end of the log stream and backwards to
      * and including transaction starting at {@link LogPosition}.
      */
     public static TransactionCursor fromLogFile( LogFiles logFiles, LogFile logFile, LogPosition backToPosition,
-            LogEntryReader logEntryReader, boolean failOnCorruptedLogFiles, ReversedTransactionCursorMonitor monitor )
+            LogEntryReader logEntryReader, boolean failOnCorruptedLogFiles, ReversedTransactionCursorMonitor monitor, MemoryTracker memoryTracker )
     {
         long highestVersion = logFiles.getHighestLogVersion();
         ThrowingFunction<LogPosition,TransactionCursor,IOException> factory = position ->
@@ -81,7 +83,7 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
                 // This is a channel which can be positioned explicitly and is the typical case for such channels
                 // Let's take advantage of this fact and use a bit smarter reverse implementation
                 return new ReversedSingleFileTransactionCursor( (ReadAheadLogChannel) channel, logEntryReader,
-                        failOnCorruptedLogFiles, monitor );
+                        failOnCorruptedLogFiles, monitor, memoryTracker );
             }
 
             // Fall back to simply eagerly reading each single log file and reversing in memory
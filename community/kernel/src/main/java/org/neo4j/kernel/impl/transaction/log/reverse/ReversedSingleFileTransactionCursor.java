@@ -21,7 +21,6 @@ package org.neo4j.kernel.impl.transaction.log.reverse;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
-import java.util.Arrays;
 import java.util.Deque;
 
 import org.neo4j.io.fs.ReadAheadChannel;
@@ -33,6 +32,7 @@ import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.UnsupportedLogVersionException;
+import org.neo4j.memory.MemoryTracker;
 
 /**
  * Returns transactions in reverse order in a log file. It tries to keep peak memory consumption to a minimum
@@ -40,7 +40,9 @@ import org.neo4j.kernel.impl.transaction.log.entry.UnsupportedLogVersionExceptio
  * taking advantage of read-ahead feature of the {@link ReadAheadLogChannel} by moving in chunks backwards in roughly
  * the size of the read-ahead window. Coming across large transactions means moving further back to at least read one transaction
  * per chunk "move". This is all internal, so from the outside it simply reverses a transaction log.
- * The memory overhead compared to reading a log in the natural order is almost negligible.
+ * The memory overhead compared to reading a log in the natural order is almost negligible: the offsets are kept
+ * off-heap and the transactions materialized at any point in time are those of a single chunk. Chunks start at a page
+ * boundary, so that each chunk is typically read with a single aligned read.
  *
  * This cursor currently only works for a single log file, such that the given {@link ReadAheadLogChannel} should not be
  * instantiated with a {@link LogVersionBridge} moving it over to other versions when exhausted. For reversing a whole
@@ -72,14 +74,12 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
     // Should be generally large enough to hold transactions in a chunk, where one chunk is the read-ahead size of ReadAheadLogChannel
     private final Deque<CommittedTransactionRepresentation> chunkTransactions = new ArrayDeque<>( 20 );
     private CommittedTransactionRepresentation currentChunkTransaction;
-    // May be longer than required, offsetLength holds the actual length.
-    private final long[] offsets;
-    private int offsetsLength;
+    private final TransactionStartOffsets offsets;
     private int chunkStartOffsetIndex;
     private long totalSize;
 
     ReversedSingleFileTransactionCursor( ReadAheadLogChannel channel, LogEntryReader logEntryReader, boolean failOnCorruptedLogFiles,
-            ReversedTransactionCursorMonitor monitor ) throws IOException
+            ReversedTransactionCursorMonitor monitor, MemoryTracker memoryTracker ) throws IOException
     {
         this.channel = channel;
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
@@ -87,33 +87,34 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
         // There's an assumption here: that the underlying channel can move in between calls and that the
         // transaction cursor will just happily read from the new position.
         this.transactionCursor = new PhysicalTransactionCursor( channel, logEntryReader );
-        this.offsets = sketchOutTransactionStartOffsets();
+        this.offsets = new TransactionStartOffsets( memoryTracker );
+        try
+        {
+            sketchOutTransactionStartOffsets();
+        }
+        catch ( Throwable t )
+        {
+            offsets.close();
+            throw t;
+        }
     }
 
     // Also initializes offset indexes
-    private long[] sketchOutTransactionStartOffsets() throws IOException
+    private void sketchOutTransactionStartOffsets() throws IOException
     {
-        // Grows on demand. Initially sized to be able to hold all transaction start offsets for a single log file
-        long[] offsets = new long[10_000];
-        int offsetCursor = 0;
-
         long logVersion = channel.getVersion();
         long startOffset = channel.position();
         try
         {
             while ( transactionCursor.next() )
             {
-                if ( offsetCursor == offsets.length )
-                {   // Grow
-                    offsets = Arrays.copyOf( offsets, offsetCursor * 2 );
-                }
-                offsets[offsetCursor++] = startOffset;
+                offsets.add( startOffset );
                 startOffset = channel.position();
             }
         }
         catch ( IOException | UnsupportedLogVersionException e )
         {
-            monitor.transactionalLogRecordReadFailure( offsets, offsetCursor, logVersion );
+            monitor.transactionalLogRecordReadFailure( offsets.size(), offsets.last(), logVersion );
             if ( failOnCorruptedLogFiles )
             {
                 throw e;
@@ -126,11 +127,8 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
                     logVersion + ", but continued through to version " + channel.getVersion() + ". This isn't supported" );
         }
 
-        offsetsLength = offsetCursor;
-        chunkStartOffsetIndex = offsetCursor;
+        chunkStartOffsetIndex = offsets.size();
         totalSize = channel.position();
-
-        return offsets;
     }
 
     @Override
@@ -152,12 +150,13 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
     {
         assert chunkStartOffsetIndex > 0;
 
-        // Start at lowOffsetIndex - 1 and count backwards until almost reaching the chunk size
-        long highOffset = chunkStartOffsetIndex == offsetsLength ? totalSize : offsets[chunkStartOffsetIndex];
+        // Start at lowOffsetIndex - 1 and count backwards until almost reaching the chunk size, counting from the
+        // page boundary the chunk will be read from
+        long highOffset = chunkStartOffsetIndex == offsets.size() ? totalSize : offsets.get( chunkStartOffsetIndex );
         int newLowOffsetIndex = chunkStartOffsetIndex;
         while ( newLowOffsetIndex > 0 )
         {
-            long deltaOffset = highOffset - offsets[--newLowOffsetIndex];
+            long deltaOffset = highOffset - pageAligned( offsets.get( --newLowOffsetIndex ) );
             if ( deltaOffset > CHUNK_SIZE )
             {   // We've now read more than the read-ahead size, let's call this the end of this chunk
                 break;
@@ -169,7 +168,7 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
         // chunk into actual transaction objects
         int chunkLength = chunkStartOffsetIndex - newLowOffsetIndex;
         chunkStartOffsetIndex = newLowOffsetIndex;
-        channel.setCurrentPosition( offsets[chunkStartOffsetIndex] );
+        positionAtChunkStart( offsets.get( chunkStartOffsetIndex ) );
         assert chunkTransactions.isEmpty();
         for ( int i = 0; i < chunkLength; i++ )
         {
@@ -180,6 +179,26 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
         }
     }
 
+    /**
+     * Fills the read-ahead buffer from the page boundary at or below the chunk start, and then moves to the chunk start
+     * within that buffer. Reading the chunk then continues from the buffer, instead of with a read starting in the middle of a page.
+     */
+    private void positionAtChunkStart( long chunkStart ) throws IOException
+    {
+        long alignedStart = pageAligned( chunkStart );
+        if ( alignedStart != chunkStart )
+        {
+            channel.setCurrentPosition( alignedStart );
+            channel.get();
+        }
+        channel.setCurrentPosition( chunkStart );
+    }
+
+    private static long pageAligned( long offset )
+    {
+        return offset - offset % CHUNK_SIZE;
+    }
+
     private boolean currentChunkExhausted()
     {
         return chunkTransactions.isEmpty();
@@ -193,7 +212,14 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
     @Override
     public void close() throws IOException
     {
-        transactionCursor.close(); // closes the channel too
+        try
+        {
+            transactionCursor.close(); // closes the channel too
+        }
+        finally
+        {
+            offsets.close();
+        }
     }
 
     @Override
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.reverse;
+
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.memory.NativeScopedBuffer;
+import org.neo4j.memory.MemoryTracker;
+
+/**
+ * Growable array of transaction start offsets, kept off-heap so that indexing the transactions of a large log file
+ * doesn't put pressure on the heap right when reverse recovery needs it the most.
+ */
+class TransactionStartOffsets implements AutoCloseable
+{
+    private static final int INITIAL_CAPACITY = 10_000;
+
+    private final MemoryTracker memoryTracker;
+    private NativeScopedBuffer scopedBuffer;
+    private ByteBuffer offsets;
+    private int size;
+
+    TransactionStartOffsets( MemoryTracker memoryTracker )
+    {
+        this.memoryTracker = memoryTracker;
+        this.scopedBuffer = new NativeScopedBuffer( INITIAL_CAPACITY * Long.BYTES, memoryTracker );
+        this.offsets = scopedBuffer.getBuffer();
+    }
+
+    void add( long offset )
+    {
+        if ( offsets.remaining() < Long.BYTES )
+        {
+            grow();
+        }
+        offsets.putLong( offset );
+        size++;
+    }
+
+    long get( int index )
+    {
+        return offsets.getLong( index * Long.BYTES );
+    }
+
+    /**
+     * @return the offset added last, or {@code -1} if there are no offsets.
+     */
+    long last()
+    {
+        return size == 0 ? -1 : get( size - 1 );
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    @Override
+    public void close()
+    {
+        scopedBuffer.close();
+    }
+
+    private void grow()
+    {
+        NativeScopedBuffer grown = new NativeScopedBuffer( offsets.capacity() * 2L, memoryTracker );
+        offsets.flip();
+        grown.getBuffer().put( offsets );
+        scopedBuffer.close();
+        scopedBuffer = grown;
+        offsets = grown.getBuffer();
+    }
+}
@@ -22,6 +22,9 @@ package org.neo4j.kernel.impl.transaction.log.rotation;
 import java.io.File;
 import java.io.IOException;
 import java.time.Clock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
@@ -33,6 +36,9 @@ import org.neo4j.util.VisibleForTesting;
 
 /**
  * Default implementation of the LogRotation interface.
+ * <p>
+ * Optionally prepares the file of the next log version on a background executor, so that the rotation itself only has to
+ * write the header of the prepared file and swap channels.
  */
 public class LogRotationImpl implements LogRotation
 {
@@ -41,10 +47,21 @@ public class LogRotationImpl implements LogRotation
     private final LogFiles logFiles;
     private final Health databaseHealth;
     private final LogFile logFile;
+    private final Executor preparationExecutor;
+    private final AtomicBoolean preparationNeeded = new AtomicBoolean( true );
     private long lastRotationCompleted; // Guarded by `this`.
 
     public LogRotationImpl( LogFiles logFiles, Clock clock, Health databaseHealth, LogRotationMonitor monitor )
     {
+        this( logFiles, clock, databaseHealth, monitor, null );
+    }
+
+    /**
+     * @param preparationExecutor executor to prepare the next log file on ahead of rotation, or {@code null} to not prepare it.
+     */
+    public LogRotationImpl( LogFiles logFiles, Clock clock, Health databaseHealth, LogRotationMonitor monitor, Executor preparationExecutor )
+    {
+        this.preparationExecutor = preparationExecutor;
         this.clock = clock;
         this.monitor = monitor;
         this.logFiles = logFiles;
@@ -59,6 +76,7 @@ public class LogRotationImpl implements LogRotation
          * doing force (think batching of writes), such that it can't see a bad state of the writer
          * even when rotating underlying channels.
          */
+        prepareNextLogFileIfNeeded();
         if ( logFile.rotationNeeded() )
         {
             synchronized ( logFile )
@@ -100,8 +118,24 @@ public class LogRotationImpl implements LogRotation
             long millisSinceLastRotation = lastRotationCompleted == 0 ? 0 : startTimeMillis - lastRotationCompleted;
             lastRotationCompleted = clock.millis();
             long rotationElapsedTime = lastRotationCompleted - startTimeMillis;
+            preparationNeeded.set( true );
             rotateEvent.rotationCompleted( rotationElapsedTime );
             monitor.finishLogRotation( newLogFile, currentVersion, lastTransactionId, rotationElapsedTime, millisSinceLastRotation );
         }
     }
+
+    private void prepareNextLogFileIfNeeded()
+    {
+        if ( preparationExecutor != null && preparationNeeded.get() && preparationNeeded.compareAndSet( true, false ) )
+        {
+            try
+            {
+                preparationExecutor.execute( logFiles::prepareNextLogFile );
+            }
+            catch ( RejectedExecutionException e )
+            {
+                // The executor is shutting down, and so are we. The next rotation will simply allocate its own file
+            }
+        }
+    }
 }
@@ -38,4 +38,18 @@ public interface CheckpointCounters
      * @return last checkpoint duration in milliseconds
      */
     long lastCheckpointTimeMillis();
+
+    /**
+     * Accumulated number of file pages that checkpoints did not have to look at, because no page near them had been
+     * modified since the previous flush
+     * @return accumulated number of file pages skipped by checkpoints
+     */
+    long checkPointAccumulatedSkippedPages();
+
+    /**
+     * Accumulated number of file forces that checkpoints did not have to do, because the files had not been modified
+     * since they were last forced
+     * @return accumulated number of file forces skipped by checkpoints
+     */
+    long checkPointAccumulatedSkippedForces();
 }
@@ -48,6 +48,18 @@ public interface CheckPointTracer extends CheckpointCounters
         {
             return 0;
         }
+
+        @Override
+        public long checkPointAccumulatedSkippedPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long checkPointAccumulatedSkippedForces()
+        {
+            return 0;
+        }
     };
 
     /**
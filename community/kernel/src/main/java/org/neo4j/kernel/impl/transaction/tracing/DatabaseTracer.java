@@ -43,6 +43,18 @@ public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
             return 0;
         }
 
+        @Override
+        public long checkPointAccumulatedSkippedPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long checkPointAccumulatedSkippedForces()
+        {
+            return 0;
+        }
+
         @Override
         public LogFileCreateEvent createLogFile()
         {
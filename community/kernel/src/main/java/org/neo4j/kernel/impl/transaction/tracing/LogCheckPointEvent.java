@@ -45,6 +45,11 @@ public interface LogCheckPointEvent extends LogForceEvents, AutoCloseable
         {
         }
 
+        @Override
+        public void flushSkipped( long skippedPages, long skippedForces )
+        {
+        }
+
         @Override
         public void close()
         {
@@ -63,6 +68,13 @@ public interface LogCheckPointEvent extends LogForceEvents, AutoCloseable
      */
     void checkpointCompleted( long checkpointMillis );
 
+    /**
+     * Notify about the flushing that the checkpoint did not have to do, because the pages and files were clean
+     * @param skippedPages number of file pages the checkpoint did not have to look at
+     * @param skippedForces number of files the checkpoint did not have to force
+     */
+    void flushSkipped( long skippedPages, long skippedForces );
+
     /**
      * Marks the end of the check pointing process.
      */
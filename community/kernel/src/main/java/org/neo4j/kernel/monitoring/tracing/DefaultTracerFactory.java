@@ -25,7 +25,9 @@ import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
+import org.neo4j.lock.LockTracer;
 import org.neo4j.logging.Log;
 import org.neo4j.monitoring.Monitors;
 import org.neo4j.scheduler.JobScheduler;
@@ -54,4 +56,10 @@ public class DefaultTracerFactory implements TracerFactory
     {
         return new DefaultTracer();
     }
+
+    @Override
+    public LockTracer createLockTracer( Clock clock )
+    {
+        return new LockContentionProfiler();
+    }
 }
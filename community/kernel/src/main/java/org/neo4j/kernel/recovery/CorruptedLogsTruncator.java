@@ -89,8 +89,11 @@ public class CorruptedLogsTruncator
     {
         File lastRecoveredTransactionLog = logFiles.getLogFileForVersion( recoveredTransactionLogVersion );
         fs.truncate( lastRecoveredTransactionLog, recoveredTransactionOffset );
-        forEachSubsequentLogFile( recoveredTransactionLogVersion,
-                fileIndex -> fs.deleteFile( logFiles.getLogFileForVersion( fileIndex ) ) );
+        forEachSubsequentLogFile( recoveredTransactionLogVersion, fileIndex ->
+        {
+            fs.deleteFile( logFiles.getLogFileForVersion( fileIndex ) );
+            fs.deleteFile( logFiles.getPositionIndexFileForVersion( fileIndex ) );
+        } );
     }
 
     private void forEachSubsequentLogFile( long recoveredTransactionLogVersion, LongConsumer action )
@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.Log;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
@@ -47,11 +48,26 @@ public class DefaultRecoveryService implements RecoveryService
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
     private final Log log;
+    private final JobScheduler prefetchScheduler;
+    private final int applyBatchSize;
 
     DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner, TransactionIdStore transactionIdStore,
             LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
             RecoveryStartInformationProvider.Monitor monitor, Log log )
     {
+        this( storageEngine, logTailScanner, transactionIdStore, logicalTransactionStore, logVersionRepository, logFiles, monitor, log, null, 1 );
+    }
+
+    /**
+     * @param prefetchScheduler scheduler to read transactions to recover on ahead of applying them, or {@code null} to not read ahead.
+     * @param applyBatchSize number of consecutive recovered transactions to apply to the storage engine together.
+     */
+    DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner, TransactionIdStore transactionIdStore,
+            LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
+            RecoveryStartInformationProvider.Monitor monitor, Log log, JobScheduler prefetchScheduler, int applyBatchSize )
+    {
+        this.prefetchScheduler = prefetchScheduler;
+        this.applyBatchSize = applyBatchSize;
         this.storageEngine = storageEngine;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
@@ -69,13 +85,16 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode, PageCursorTracer cursorTracer )
     {
-        return new RecoveryVisitor( storageEngine, mode, cursorTracer );
+        // Reverse recovery applies the transactions one by one, undoing them in reverse order
+        int batchSize = mode == TransactionApplicationMode.RECOVERY ? applyBatchSize : 1;
+        return new RecoveryVisitor( storageEngine, mode, cursorTracer, batchSize );
     }
 
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return logicalTransactionStore.getTransactions( position );
+        TransactionCursor transactions = logicalTransactionStore.getTransactions( position );
+        return prefetchScheduler != null ? new PrefetchingTransactionCursor( transactions, prefetchScheduler ) : transactions;
     }
 
     @Override
@@ -123,17 +142,33 @@ public class DefaultRecoveryService implements RecoveryService
         logVersionRepository.setCurrentLogVersion( positionAfterLastRecoveredTransaction.getLogVersion(), cursorTracer );
     }
 
+    /**
+     * Applies recovered transactions to the storage engine in batches of consecutive transactions, in the order they are visited,
+     * the same way committed transactions are applied in batches. Transactions still pending are applied by {@link #complete()}.
+     * They are dropped if closed without it, which only happens when recovery is aborted, and then they are not counted as
+     * recovered either, so they are recovered again on the next startup. A batch that fails to apply is not pending anymore.
+     */
     static class RecoveryVisitor implements RecoveryApplier
     {
         private final StorageEngine storageEngine;
         private final TransactionApplicationMode mode;
         private final PageCursorTracer cursorTracer;
+        private final int batchSize;
+        private TransactionToApply first;
+        private TransactionToApply last;
+        private int batched;
 
         RecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode, PageCursorTracer cursorTracer )
+        {
+            this( storageEngine, mode, cursorTracer, 1 );
+        }
+
+        RecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode, PageCursorTracer cursorTracer, int batchSize )
         {
             this.storageEngine = storageEngine;
             this.mode = mode;
             this.cursorTracer = cursorTracer;
+            this.batchSize = batchSize;
         }
 
         @Override
@@ -144,13 +179,52 @@ public class DefaultRecoveryService implements RecoveryService
             TransactionToApply tx = new TransactionToApply( txRepresentation, txId, cursorTracer );
             tx.commitment( NO_COMMITMENT, txId );
             tx.logPosition( transaction.getStartEntry().getStartPosition() );
-            storageEngine.apply( tx, mode );
+            if ( first == null )
+            {
+                first = tx;
+            }
+            else
+            {
+                last.next( tx );
+            }
+            last = tx;
+            if ( ++batched >= batchSize )
+            {
+                applyBatch();
+            }
             return false;
         }
 
+        @Override
+        public void complete() throws Exception
+        {
+            applyBatch();
+        }
+
+        @Override
+        public int pending()
+        {
+            return batched;
+        }
+
         @Override
         public void close()
-        {   // nothing to close
+        {
+            first = null;
+            last = null;
+            batched = 0;
+        }
+
+        private void applyBatch() throws Exception
+        {
+            TransactionToApply batch = first;
+            first = null;
+            last = null;
+            batched = 0;
+            if ( batch != null )
+            {
+                storageEngine.apply( batch, mode );
+            }
         }
     }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.util.FeatureToggles;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+
+/**
+ * {@link TransactionCursor} which reads and deserializes transactions from another cursor on a
+ * {@link Group#RECOVERY_PREFETCHER} job, so that reading the log overlaps with applying the transactions already read. Transactions, their positions
+ * and any failure reading them are handed over in log order, so to the consumer this cursor behaves exactly like
+ * the one it reads from.
+ * <p>
+ * The transactions read ahead are bounded both in number and in size, where the size of a transaction is estimated by the number of
+ * log bytes it was read from. A transaction that is bigger than the whole size bound on its own is still handed over, once everything
+ * before it has been taken.
+ */
+class PrefetchingTransactionCursor implements TransactionCursor
+{
+    private static final int QUEUE_SIZE = FeatureToggles.getInteger( PrefetchingTransactionCursor.class, "queueSize", 1_000 );
+    private static final long MAX_BYTES = FeatureToggles.getLong( PrefetchingTransactionCursor.class, "maxBytes", mebiBytes( 64 ) );
+    private static final long WAIT_NANOS = MILLISECONDS.toNanos( 10 );
+
+    private final TransactionCursor delegate;
+    private final BlockingQueue<Prefetched> queue = new ArrayBlockingQueue<>( QUEUE_SIZE );
+    private final JobHandle<?> prefetcher;
+    private final long maxBytes;
+    private final AtomicLong prefetchedBytes = new AtomicLong();
+    private volatile boolean closed;
+    private CommittedTransactionRepresentation current;
+    private LogPosition position;
+    private boolean exhausted;
+
+    PrefetchingTransactionCursor( TransactionCursor delegate, JobScheduler scheduler )
+    {
+        this( delegate, scheduler, MAX_BYTES );
+    }
+
+    PrefetchingTransactionCursor( TransactionCursor delegate, JobScheduler scheduler, long maxBytes )
+    {
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+        this.position = delegate.position();
+        this.prefetcher = scheduler.schedule( Group.RECOVERY_PREFETCHER, this::prefetch );
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        current = null;
+        if ( exhausted )
+        {
+            return false;
+        }
+        Prefetched prefetched;
+        try
+        {
+            prefetched = queue.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for the next transaction to recover" );
+        }
+        prefetchedBytes.addAndGet( -prefetched.bytes );
+        position = prefetched.position;
+        if ( prefetched.transaction == null )
+        {
+            exhausted = true;
+            if ( prefetched.failure != null )
+            {
+                throw rethrow( prefetched.failure );
+            }
+            return false;
+        }
+        current = prefetched.transaction;
+        return true;
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        queue.clear();
+        try
+        {
+            prefetcher.waitTermination();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException e )
+        {
+            // Failures reading are handed over to the consumer, so this is a failure of the job itself
+            throw new IOException( e.getCause() );
+        }
+        finally
+        {
+            delegate.close();
+        }
+    }
+
+    private void prefetch()
+    {
+        try
+        {
+            LogPosition start = delegate.position();
+            while ( !closed && delegate.next() )
+            {
+                LogPosition end = delegate.position();
+                if ( !hand( new Prefetched( delegate.get(), end, null, estimatedBytes( start, end ) ) ) )
+                {
+                    return;
+                }
+                start = end;
+            }
+            hand( new Prefetched( null, delegate.position(), null, 0 ) );
+        }
+        catch ( Throwable t )
+        {
+            hand( new Prefetched( null, delegate.position(), t, 0 ) );
+        }
+    }
+
+    /**
+     * @return the number of log bytes between the two positions. Transactions don't span log files, so the first transaction
+     * in a log file is counted from the start of that file.
+     */
+    private static long estimatedBytes( LogPosition start, LogPosition end )
+    {
+        return start.getLogVersion() == end.getLogVersion() ? end.getByteOffset() - start.getByteOffset() : end.getByteOffset();
+    }
+
+    /**
+     * @return {@code false} if this cursor was closed before the consumer took the prefetched item.
+     */
+    private boolean hand( Prefetched prefetched )
+    {
+        try
+        {
+            while ( !closed )
+            {
+                // Only this job adds to the prefetched bytes, so there is still room when the offer is made
+                long bytes = prefetchedBytes.get();
+                if ( bytes > 0 && bytes + prefetched.bytes > maxBytes )
+                {
+                    LockSupport.parkNanos( this, WAIT_NANOS );
+                    continue;
+                }
+                prefetchedBytes.addAndGet( prefetched.bytes );
+                if ( queue.offer( prefetched, 10, MILLISECONDS ) )
+                {
+                    return true;
+                }
+                prefetchedBytes.addAndGet( -prefetched.bytes );
+            }
+            return false;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static IOException rethrow( Throwable failure ) throws IOException
+    {
+        if ( failure instanceof IOException )
+        {
+            throw (IOException) failure;
+        }
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        throw new IOException( failure );
+    }
+
+    private static class Prefetched
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+        private final Throwable failure;
+        private final long bytes;
+
+        Prefetched( CommittedTransactionRepresentation transaction, LogPosition position, Throwable failure, long bytes )
+        {
+            this.transaction = transaction;
+            this.position = position;
+            this.failure = failure;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -27,4 +27,20 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * Applies visited transactions that have not been applied yet, for appliers that apply them in batches. Only called
+     * once all transactions to recover have been visited; transactions still pending when closed without it are not applied.
+     */
+    default void complete() throws Exception
+    {   // nothing pending by default
+    }
+
+    /**
+     * @return the number of the most recently visited transactions that have not been applied yet. When visiting or completing
+     * fails, the visited transactions that are neither applied nor pending anymore are the ones that failed to apply.
+     */
+    default int pending()
+    {
+        return 0;
+    }
 }
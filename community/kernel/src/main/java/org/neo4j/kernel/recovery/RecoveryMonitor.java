@@ -34,6 +34,18 @@ public interface RecoveryMonitor
         //noop
     }
 
+    /**
+     * Called periodically while transactions are recovered.
+     *
+     * @param recoveredTransactions number of transactions recovered so far.
+     * @param lastRecoveredTxId id of the most recently recovered transaction.
+     * @param transactionsPerSecond average number of transactions recovered per second so far.
+     */
+    default void recoveryProgress( long recoveredTransactions, long lastRecoveredTxId, long transactionsPerSecond )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
         //noop
@@ -20,6 +20,8 @@
 package org.neo4j.kernel.recovery;
 
 import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.dbms.database.DatabaseStartAbortedException;
@@ -33,7 +35,9 @@ import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.time.Stopwatch;
+import org.neo4j.util.FeatureToggles;
 
+import static java.lang.Math.max;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.neo4j.kernel.recovery.Recovery.throwUnableToCleanRecover;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
@@ -48,6 +52,8 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private static final String REVERSE_RECOVERY_TAG = "restoreDatabase";
     private static final String RECOVERY_TAG = "recoverDatabase";
     private static final String RECOVERY_COMPLETED_TAG = "databaseRecoveryCompleted";
+    private static final long PROGRESS_REPORT_INTERVAL_MILLIS =
+            FeatureToggles.getLong( TransactionLogsRecovery.class, "progressReportIntervalMillis", 10_000 );
 
     private final RecoveryService recoveryService;
     private final RecoveryMonitor monitor;
@@ -58,6 +64,10 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private final RecoveryStartupChecker recoveryStartupChecker;
     private final PageCacheTracer pageCacheTracer;
     private int numberOfRecoveredTransactions;
+    private long lastProgressReportMillis;
+    private CommittedTransactionRepresentation lastTransaction;
+    private LogPosition lastTransactionPosition;
+    private LogPosition recoveryToPosition;
 
     public TransactionLogsRecovery( RecoveryService recoveryService, CorruptedLogsTruncator logsTruncator, Lifecycle schemaLife,
             RecoveryMonitor monitor, ProgressReporter progressReporter, boolean failOnCorruptedLogFiles, RecoveryStartupChecker recoveryStartupChecker,
@@ -89,9 +99,8 @@ public class TransactionLogsRecovery extends LifecycleAdapter
 
         monitor.recoveryRequired( recoveryStartPosition );
 
-        LogPosition recoveryToPosition = recoveryStartPosition;
-        LogPosition lastTransactionPosition = recoveryStartPosition;
-        CommittedTransactionRepresentation lastTransaction = null;
+        recoveryToPosition = recoveryStartPosition;
+        lastTransactionPosition = recoveryStartPosition;
         CommittedTransactionRepresentation lastReversedTransaction = null;
         if ( !recoveryStartInformation.isMissingLogs() )
         {
@@ -115,6 +124,7 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                         lowestRecoveredTxId = transaction.getCommitEntry().getTxId();
                         reportProgress();
                     }
+                    recoveryVisitor.complete();
                 }
 
                 monitor.reverseStoreRecoveryCompleted( lowestRecoveredTxId );
@@ -128,19 +138,32 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                         var cursorTracer = pageCacheTracer.createPageCursorTracer( RECOVERY_TAG );
                         RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY, cursorTracer ) )
                 {
-                    while ( transactionsToRecover.next() )
+                    Stopwatch forwardRecoveryTime = Stopwatch.start();
+                    Deque<VisitedTransaction> visited = new ArrayDeque<>();
+                    try
                     {
-                        recoveryStartupChecker.checkIfCanceled();
-                        lastTransaction = transactionsToRecover.get();
-                        long txId = lastTransaction.getCommitEntry().getTxId();
-                        recoveryVisitor.visit( lastTransaction );
-                        monitor.transactionRecovered( txId );
-                        numberOfRecoveredTransactions++;
-                        lastTransactionPosition = transactionsToRecover.position();
-                        recoveryToPosition = lastTransactionPosition;
-                        reportProgress();
+                        while ( transactionsToRecover.next() )
+                        {
+                            recoveryStartupChecker.checkIfCanceled();
+                            CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                            recoveryVisitor.visit( transaction );
+                            visited.add( new VisitedTransaction( transaction, transactionsToRecover.position() ) );
+                            transactionsApplied( visited, recoveryVisitor, forwardRecoveryTime );
+                            reportProgress();
+                        }
+                        recoveryVisitor.complete();
+                        transactionsApplied( visited, recoveryVisitor, forwardRecoveryTime );
+                        recoveryToPosition = transactionsToRecover.position();
+                    }
+                    catch ( Error | ClosedByInterruptException | DatabaseStartAbortedException e )
+                    {
+                        throw e;
+                    }
+                    catch ( Throwable t )
+                    {
+                        applyPending( visited, recoveryVisitor, forwardRecoveryTime, t );
+                        throw t;
                     }
-                    recoveryToPosition = transactionsToRecover.position();
                 }
             }
             catch ( Error | ClosedByInterruptException | DatabaseStartAbortedException e )
@@ -177,6 +200,47 @@ public class TransactionLogsRecovery extends LifecycleAdapter
         monitor.recoveryCompleted( numberOfRecoveredTransactions, recoveryStartTime.elapsed( MILLISECONDS ) );
     }
 
+    /**
+     * Counts the visited transactions that the applier no longer has pending as recovered. Only those have been applied, so
+     * only those may move the position recovery ends at, which is where the logs are truncated if recovery fails later on.
+     */
+    private void transactionsApplied( Deque<VisitedTransaction> visited, RecoveryApplier recoveryVisitor, Stopwatch forwardRecoveryTime )
+    {
+        while ( visited.size() > recoveryVisitor.pending() )
+        {
+            VisitedTransaction applied = visited.removeFirst();
+            long txId = applied.transaction.getCommitEntry().getTxId();
+            lastTransaction = applied.transaction;
+            lastTransactionPosition = applied.position;
+            recoveryToPosition = applied.position;
+            monitor.transactionRecovered( txId );
+            numberOfRecoveredTransactions++;
+            reportThroughput( forwardRecoveryTime, txId );
+        }
+    }
+
+    /**
+     * A transaction that can't be read or applied ends recovery at the transactions before it. Visited transactions that were
+     * neither counted as recovered nor are still pending were in the batch that failed to apply, and are left out. The ones still
+     * pending are intact, so they are applied and counted as recovered before the failure is handled.
+     */
+    private void applyPending( Deque<VisitedTransaction> visited, RecoveryApplier recoveryVisitor, Stopwatch forwardRecoveryTime, Throwable failure )
+    {
+        while ( visited.size() > recoveryVisitor.pending() )
+        {
+            visited.removeFirst();
+        }
+        try
+        {
+            recoveryVisitor.complete();
+            transactionsApplied( visited, recoveryVisitor, forwardRecoveryTime );
+        }
+        catch ( Throwable applyFailure )
+        {
+            failure.addSuppressed( applyFailure );
+        }
+    }
+
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
@@ -192,6 +256,16 @@ public class TransactionLogsRecovery extends LifecycleAdapter
         progressReporter.progress( 1 );
     }
 
+    private void reportThroughput( Stopwatch forwardRecoveryTime, long txId )
+    {
+        long elapsedMillis = forwardRecoveryTime.elapsed( MILLISECONDS );
+        if ( elapsedMillis - lastProgressReportMillis >= PROGRESS_REPORT_INTERVAL_MILLIS )
+        {
+            lastProgressReportMillis = elapsedMillis;
+            monitor.recoveryProgress( numberOfRecoveredTransactions, txId, numberOfRecoveredTransactions * 1000L / max( 1, elapsedMillis ) );
+        }
+    }
+
     private static long getNumberOfTransactionToRecover( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
@@ -216,4 +290,16 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     {
         schemaLife.shutdown();
     }
+
+    private static class VisitedTransaction
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+
+        VisitedTransaction( CommittedTransactionRepresentation transaction, LogPosition position )
+        {
+            this.transaction = transaction;
+            this.position = position;
+        }
+    }
 }
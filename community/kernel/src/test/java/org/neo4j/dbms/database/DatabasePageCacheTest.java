@@ -38,6 +38,7 @@ import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
 import org.neo4j.test.rule.TestDirectory;
 
 import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.CREATE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.eclipse.collections.impl.factory.Sets.immutable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -52,6 +53,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.MEMORY_MAPPED;
 import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
 
 @TestDirectoryExtension
@@ -91,6 +93,18 @@ class DatabasePageCacheTest
         verify( globalPageCache ).map( mapFile, EMPTY, PAGE_SIZE, immutable.empty() );
     }
 
+    @Test
+    void mapDatabaseFileWithDefaultOpenOptions() throws IOException
+    {
+        File mapFile = testDirectory.createFile( "mapFile" );
+        try ( DatabasePageCache memoryMappedCache = new DatabasePageCache( globalPageCache, EMPTY, immutable.of( MEMORY_MAPPED ) ) )
+        {
+            memoryMappedCache.map( mapFile, EMPTY, PAGE_SIZE, immutable.of( CREATE ) );
+
+            verify( globalPageCache ).map( mapFile, EMPTY, PAGE_SIZE, immutable.of( CREATE, MEMORY_MAPPED ) );
+        }
+    }
+
     @Test
     void listExistingDatabaseMappings() throws IOException
     {
@@ -221,6 +235,29 @@ class DatabasePageCacheTest
         }
     }
 
+    @Test
+    void dirtyPagesOnlyCountDatabaseRelatedFiles() throws IOException
+    {
+        try ( DatabasePageCache anotherDatabaseCache = new DatabasePageCache( globalPageCache, EMPTY ) )
+        {
+            File mapFile1 = testDirectory.createFile( "mapFile1" );
+            File mapFile2 = testDirectory.createFile( "mapFile2" );
+            File mapFile3 = testDirectory.createFile( "mapFile3" );
+            databasePageCache.map( mapFile1, PAGE_SIZE );
+            databasePageCache.map( mapFile2, PAGE_SIZE );
+            anotherDatabaseCache.map( mapFile3, PAGE_SIZE );
+
+            List<PagedFile> pagedFiles = pagedFileMapper.getPagedFiles();
+            when( findPagedFile( pagedFiles, mapFile1 ).dirtyPages() ).thenReturn( 3L );
+            when( findPagedFile( pagedFiles, mapFile2 ).dirtyPages() ).thenReturn( 4L );
+            when( findPagedFile( pagedFiles, mapFile3 ).dirtyPages() ).thenReturn( 100L );
+
+            assertEquals( 7L, databasePageCache.dirtyPages() );
+            assertEquals( 100L, anotherDatabaseCache.dirtyPages() );
+            verify( globalPageCache, never() ).dirtyPages();
+        }
+    }
+
     @Test
     void closingFileCloseCacheMapping() throws IOException
     {
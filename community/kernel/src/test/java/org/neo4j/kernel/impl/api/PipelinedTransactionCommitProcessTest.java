@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.api.CommitPipelineStatistics.Stage;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TestableTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.storageengine.api.TransactionIdStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.internal.helpers.Exceptions.contains;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.EXTERNAL;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+class PipelinedTransactionCommitProcessTest
+{
+    private final CommitEvent commitEvent = CommitEvent.NULL;
+    private final AtomicLong lastCommittingTransactionId = new AtomicLong( TransactionIdStore.BASE_TX_ID );
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final List<Long> appliedTransactionIds = new ArrayList<>();
+    private final List<TransactionApplicationMode> appliedModes = new ArrayList<>();
+    private final JobScheduler jobScheduler = JobSchedulerFactory.createInitialisedScheduler();
+    private PipelinedTransactionCommitProcess commitProcess;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer( invocation -> lastCommittingTransactionId.incrementAndGet() );
+        // Only ever called from the apply stage thread
+        doAnswer( invocation ->
+        {
+            TransactionToApply tx = invocation.getArgument( 0 );
+            while ( tx != null )
+            {
+                appliedTransactionIds.add( tx.transactionId() );
+                appliedModes.add( invocation.getArgument( 1 ) );
+                tx = tx.next();
+            }
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        if ( commitProcess != null )
+        {
+            commitProcess.stop();
+        }
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldFailWithProperMessageOnAppendException() throws Exception
+    {
+        TransactionAppender appender = mock( TransactionAppender.class );
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( new IOException( rootCause ) ).when( appender ).appendWithoutForce( any( TransactionToApply.class ), any( LogAppendEvent.class ) );
+        startCommitProcess( appender );
+
+        TransactionFailureException exception =
+                assertThrows( TransactionFailureException.class, () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) );
+        assertThat( exception.getMessage() ).contains( "Could not append transaction representation to log" );
+        assertTrue( contains( exception, rootCause.getMessage(), rootCause.getClass() ) );
+    }
+
+    @Test
+    void shouldCloseTransactionRegardlessOfWhetherOrNotItAppliedCorrectly() throws Exception
+    {
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( new IOException( rootCause ) ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        startCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+
+        TransactionFailureException exception =
+                assertThrows( TransactionFailureException.class, () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) );
+        assertThat( exception.getMessage() ).contains( "Could not apply the transaction to the store" );
+        assertTrue( contains( exception, rootCause.getMessage(), rootCause.getClass() ) );
+        verify( transactionIdStore ).transactionClosed( eq( lastCommittingTransactionId.get() ), anyLong(), anyLong(), any( PageCursorTracer.class ) );
+    }
+
+    @Test
+    void shouldCommitSynchronouslyWhenNotStarted() throws Exception
+    {
+        commitProcess = new PipelinedTransactionCommitProcess( new TestableTransactionAppender( transactionIdStore ), storageEngine, jobScheduler );
+
+        long txId = commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL );
+
+        assertEquals( List.of( txId ), appliedTransactionIds );
+        assertEquals( 0, commitProcess.statistics().batches( Stage.APPEND ) );
+    }
+
+    @Test
+    void shouldCommitAllTransactionsFromConcurrentCommitters() throws Exception
+    {
+        startCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+        int committers = 8;
+        int commitsPerCommitter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool( committers );
+        try
+        {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for ( int i = 0; i < committers; i++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    List<Long> committed = new ArrayList<>();
+                    for ( int j = 0; j < commitsPerCommitter; j++ )
+                    {
+                        // Every other commit hands two transactions to the pipeline at once
+                        TransactionToApply batch = mockedTransaction();
+                        if ( j % 2 == 0 )
+                        {
+                            batch.next( mockedTransaction() );
+                        }
+                        long lastTxId = commitProcess.commit( batch, commitEvent, INTERNAL );
+                        assertEquals( lastTxId, batch.next() == null ? batch.transactionId() : batch.next().transactionId() );
+                        committed.add( lastTxId );
+                    }
+                    return committed;
+                } ) );
+            }
+            for ( Future<List<Long>> future : futures )
+            {
+                assertEquals( commitsPerCommitter, future.get().size() );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        commitProcess.stop();
+        long transactions = committers * (commitsPerCommitter + commitsPerCommitter / 2);
+        assertEquals( transactions, appliedTransactionIds.size() );
+        for ( int i = 0; i < appliedTransactionIds.size(); i++ )
+        {
+            assertEquals( TransactionIdStore.BASE_TX_ID + 1 + i, appliedTransactionIds.get( i ) );
+        }
+        CommitPipelineStatistics statistics = commitProcess.statistics();
+        for ( Stage stage : Stage.values() )
+        {
+            assertEquals( transactions, statistics.transactions( stage ) );
+            assertThat( statistics.batches( stage ) ).isBetween( 1L, transactions );
+        }
+        commitProcess = null;
+    }
+
+    @Test
+    void shouldApplyTransactionsInTheModeTheyWereCommittedIn() throws Exception
+    {
+        startCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+
+        long internalTxId = commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL );
+        long externalTxId = commitProcess.commit( mockedTransaction(), commitEvent, EXTERNAL );
+
+        assertEquals( List.of( internalTxId, externalTxId ), appliedTransactionIds );
+        assertEquals( List.of( INTERNAL, EXTERNAL ), appliedModes );
+    }
+
+    @Test
+    void shouldTraceEverySubmissionWithItsOwnEvents() throws Exception
+    {
+        startCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+        int committers = 8;
+        List<CommitEvent> commitEvents = new ArrayList<>();
+        List<LogAppendEvent> logAppendEvents = new ArrayList<>();
+        for ( int i = 0; i < committers; i++ )
+        {
+            CommitEvent commitEvent = mock( CommitEvent.class );
+            LogAppendEvent logAppendEvent = mock( LogAppendEvent.class, RETURNS_MOCKS );
+            when( commitEvent.beginLogAppend() ).thenReturn( logAppendEvent );
+            when( commitEvent.beginStoreApply() ).thenReturn( StoreApplyEvent.NULL );
+            commitEvents.add( commitEvent );
+            logAppendEvents.add( logAppendEvent );
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( committers );
+        try
+        {
+            List<Future<Long>> futures = new ArrayList<>();
+            for ( CommitEvent commitEvent : commitEvents )
+            {
+                futures.add( executor.submit( () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) ) );
+            }
+            for ( Future<Long> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        for ( int i = 0; i < committers; i++ )
+        {
+            verify( commitEvents.get( i ) ).beginLogAppend();
+            verify( commitEvents.get( i ) ).beginStoreApply();
+            verify( logAppendEvents.get( i ) ).close();
+        }
+    }
+
+    @Test
+    void shouldOnlyFailSubmissionsThatFailedToApply() throws Exception
+    {
+        doAnswer( invocation ->
+        {
+            if ( invocation.getArgument( 1 ) == EXTERNAL )
+            {
+                throw new IOException( "Mock exception" );
+            }
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        startCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+
+        long internalTxId = commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL );
+        assertThrows( TransactionFailureException.class, () -> commitProcess.commit( mockedTransaction(), commitEvent, EXTERNAL ) );
+
+        assertEquals( TransactionIdStore.BASE_TX_ID + 1, internalTxId );
+    }
+
+    private void startCommitProcess( TransactionAppender appender )
+    {
+        commitProcess = new PipelinedTransactionCommitProcess( appender, storageEngine, jobScheduler );
+        commitProcess.start();
+    }
+
+    private static TransactionToApply mockedTransaction()
+    {
+        TransactionRepresentation transaction = mock( TransactionRepresentation.class );
+        when( transaction.additionalHeader() ).thenReturn( new byte[0] );
+        return new TransactionToApply( transaction, NULL );
+    }
+}
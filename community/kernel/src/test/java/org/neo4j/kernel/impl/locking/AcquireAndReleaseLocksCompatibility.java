@@ -197,6 +197,55 @@ abstract class AcquireAndReleaseLocksCompatibility extends LockCompatibilityTest
         assertEquals( 4, lockCount() );
     }
 
+    @Test
+    void shouldAcquireSortedExclusiveLocks()
+    {
+        clientA.acquireExclusiveSorted( LockTracer.NONE, NODE, new long[]{10, 100, 1000} );
+
+        assertFalse( clientB.trySharedLock( NODE, 10 ) );
+        assertFalse( clientB.trySharedLock( NODE, 100 ) );
+        assertFalse( clientB.trySharedLock( NODE, 1000 ) );
+
+        assertEquals( 3, lockCount() );
+    }
+
+    @Test
+    void shouldAcquireSortedExclusiveLocksWhenSomeAreAlreadyHeld()
+    {
+        clientA.acquireExclusive( LockTracer.NONE, NODE, 100 );
+        clientA.acquireExclusiveSorted( LockTracer.NONE, NODE, new long[]{10, 100, 1000} );
+        assertEquals( 3, lockCount() );
+
+        // The lock that was already held has been re-entered, rather than acquired again
+        clientA.releaseExclusive( NODE, 100 );
+        assertEquals( 3, lockCount() );
+        clientA.releaseExclusive( NODE, 100 );
+        assertEquals( 2, lockCount() );
+    }
+
+    @Test
+    void sortedExclusiveLocksShouldWaitForHeldLock()
+    {
+        // Given
+        clientB.acquireExclusive( LockTracer.NONE, NODE, 100 );
+
+        // When
+        Future<Void> clientALocks = acquireExclusiveSorted( clientA, LockTracer.NONE, NODE, 10, 100, 1000 ).callAndAssertWaiting();
+
+        // Then the locks before the held one have been acquired, in order, but not the ones after it
+        assertFalse( clientC.trySharedLock( NODE, 10 ) );
+        assertTrue( clientC.trySharedLock( NODE, 1000 ) );
+        clientC.releaseShared( NODE, 1000 );
+
+        // And when
+        clientB.releaseExclusive( NODE, 100 );
+
+        // Then
+        assertNotWaiting( clientA, clientALocks );
+        assertFalse( clientC.trySharedLock( NODE, 100 ) );
+        assertFalse( clientC.trySharedLock( NODE, 1000 ) );
+    }
+
     @Test
     void shouldAcquireMultipleSharedLocksWhileHavingSomeExclusiveLocks()
     {
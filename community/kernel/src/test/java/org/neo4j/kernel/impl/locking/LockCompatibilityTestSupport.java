@@ -159,6 +159,22 @@ public abstract class LockCompatibilityTestSupport
         };
     }
 
+    protected LockCommand acquireExclusiveSorted(
+            final Locks.Client client,
+            final LockTracer tracer,
+            final ResourceType resourceType,
+            final long... sortedKeys )
+    {
+        return new LockCommand( clientToThreadMap.get( client ), client )
+        {
+            @Override
+            public void doWork( Locks.Client client ) throws AcquireLockTimeoutException
+            {
+                client.acquireExclusiveSorted( tracer, resourceType, sortedKeys );
+            }
+        };
+    }
+
     protected LockCommand acquireShared(
             Locks.Client client,
             final LockTracer tracer,
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import org.neo4j.kernel.impl.locking.ResourceTypeContention.ContendedResource;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.lock.ResourceTypes.LABEL;
+import static org.neo4j.lock.ResourceTypes.NODE;
+import static org.neo4j.lock.ResourceTypes.RELATIONSHIP;
+
+class LockContentionProfilerTest
+{
+    private final LockContentionProfiler profiler = new LockContentionProfiler();
+
+    @Test
+    void shouldHaveNoContentionBeforeAnyWait()
+    {
+        assertThat( profiler.contention() ).isEmpty();
+    }
+
+    @Test
+    void shouldCountWaitsPerResourceTypeMostWaitedForFirst()
+    {
+        // when
+        waitFor( NODE, 1 );
+        waitFor( RELATIONSHIP, 2 );
+        waitFor( RELATIONSHIP, 3 );
+        waitFor( RELATIONSHIP, 2 );
+
+        // then
+        List<ResourceTypeContention> contention = profiler.contention();
+        assertThat( contention ).hasSize( 2 );
+        assertThat( contention.get( 0 ).resourceType() ).isEqualTo( RELATIONSHIP );
+        assertThat( contention.get( 0 ).waits() ).isEqualTo( 3 );
+        assertThat( contention.get( 1 ).resourceType() ).isEqualTo( NODE );
+        assertThat( contention.get( 1 ).waits() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void shouldCountEveryResourceOfAWait()
+    {
+        // when
+        waitFor( LABEL, 4, 5, 6 );
+
+        // then
+        ResourceTypeContention contention = profiler.contention().get( 0 );
+        assertThat( contention.waits() ).isEqualTo( 1 );
+        assertThat( contention.mostContended( 10 ) ).extracting( ContendedResource::resourceId ).containsExactlyInAnyOrder( 4L, 5L, 6L );
+    }
+
+    @Test
+    void shouldTrackWaitTimes()
+    {
+        // given
+        ResourceTypeContention contention = new ResourceTypeContention( NODE );
+
+        // when
+        for ( int i = 0; i < 98; i++ )
+        {
+            contention.waited( 1_000, 1 );
+        }
+        contention.waited( 1_000_000, 1 );
+        contention.waited( 1_000_000, 1 );
+
+        // then
+        assertThat( contention.waits() ).isEqualTo( 100 );
+        assertThat( contention.totalWaitNanos() ).isEqualTo( 98 * 1_000 + 2 * 1_000_000 );
+        assertThat( contention.maxWaitNanos() ).isEqualTo( 1_000_000 );
+        assertThat( contention.waitNanosAtPercentile( 50 ) ).isBetween( 1_000L, 2 * 1_000L );
+        assertThat( contention.waitNanosAtPercentile( 99 ) ).isEqualTo( 1_000_000 );
+        assertThat( contention.waitNanosAtPercentile( 100 ) ).isEqualTo( 1_000_000 );
+    }
+
+    @Test
+    void shouldHaveNoWaitTimeWithoutWaits()
+    {
+        ResourceTypeContention contention = new ResourceTypeContention( NODE );
+
+        assertThat( contention.waitNanosAtPercentile( 99 ) ).isZero();
+        assertThat( contention.mostContended( 10 ) ).isEmpty();
+    }
+
+    @Test
+    void shouldListMostContendedResourcesFirst()
+    {
+        // given
+        ResourceTypeContention contention = new ResourceTypeContention( NODE );
+
+        // when
+        for ( long resourceId = 0; resourceId < 1_000; resourceId++ )
+        {
+            contention.waited( 10, resourceId );
+        }
+        for ( int i = 0; i < 100; i++ )
+        {
+            contention.waited( 10, 42 );
+            if ( i % 2 == 0 )
+            {
+                contention.waited( 10, 7 );
+            }
+        }
+
+        // then
+        List<ContendedResource> mostContended = contention.mostContended( 2 );
+        assertThat( mostContended ).extracting( ContendedResource::resourceId ).containsExactly( 42L, 7L );
+        assertThat( mostContended.get( 0 ).waits() ).isGreaterThanOrEqualTo( 101 );
+        assertThat( mostContended.get( 1 ).waits() ).isGreaterThanOrEqualTo( 51 );
+    }
+
+    private void waitFor( ResourceType resourceType, long... resourceIds )
+    {
+        LockWaitEvent event = profiler.waitForLock( true, resourceType, resourceIds );
+        event.close();
+    }
+}
@@ -73,12 +73,8 @@ class DetachingRelationshipDeleterTest
         locking.lockNodesAndDeleteRelationships( nodeId, ktx );
 
         // then
-        inOrder.verify( locks ).acquireExclusive( NONE, NODE, 3L, 40L, 41L, nodeId, 43L, 49L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 2L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 3L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 22L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 23L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 50L );
+        inOrder.verify( locks ).acquireExclusiveSorted( NONE, NODE, new long[]{3L, 40L, 41L, nodeId, 43L, 49L} );
+        inOrder.verify( locks ).acquireExclusiveSorted( NONE, RELATIONSHIP, new long[]{2L, 3L, 21L, 22L, 23L, 50L} );
         assertEquals( set( 21L, 22L, 23L, 2L, 3L, 50L ), collector.set );
     }
 
@@ -92,7 +88,7 @@ class DetachingRelationshipDeleterTest
 
         locking.lockNodesAndDeleteRelationships( nodeId, ktx );
 
-        verify( locks ).acquireExclusive( NONE, NODE, nodeId );
+        verify( locks ).acquireExclusiveSorted( NONE, NODE, new long[]{nodeId} );
         verifyNoMoreInteractions( locks );
     }
 
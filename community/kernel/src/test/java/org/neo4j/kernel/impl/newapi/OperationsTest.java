@@ -212,11 +212,32 @@ class OperationsTest
         long rId = operations.relationshipCreate( 1, 2, 3 );
 
         // then
-        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 1 );
-        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 3 );
+        order.verify( locks ).acquireExclusiveSorted( LockTracer.NONE, ResourceTypes.NODE, new long[]{1, 3} );
         order.verify( txState ).relationshipDoCreate( rId, 2, 1, 3 );
     }
 
+    @Test
+    void shouldLockSortedNodesAsOneBatch()
+    {
+        // when
+        allStoreHolder.acquireExclusiveNodeLock( 2, 7, 11 );
+
+        // then
+        verify( locks ).acquireExclusiveSorted( LockTracer.NONE, ResourceTypes.NODE, new long[]{2, 7, 11} );
+        verifyNoMoreInteractions( locks );
+    }
+
+    @Test
+    void shouldNotLockUnsortedRelationshipsAsOneBatch()
+    {
+        // when
+        allStoreHolder.acquireExclusiveRelationshipLock( 11, 2, 7 );
+
+        // then
+        verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, 11, 2, 7 );
+        verifyNoMoreInteractions( locks );
+    }
+
     @Test
     void shouldAcquireNodeLocksWhenCreatingRelationshipInOrderOfAscendingId() throws Exception
     {
@@ -230,8 +251,7 @@ class OperationsTest
 
         // THEN
         InOrder lockingOrder = inOrder( locks );
-        lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-        lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+        lockingOrder.verify( locks ).acquireExclusiveSorted( LockTracer.NONE, ResourceTypes.NODE, new long[]{lowId, highId} );
         lockingOrder.verifyNoMoreInteractions();
         reset( locks );
 
@@ -240,8 +260,7 @@ class OperationsTest
 
         // THEN
         InOrder lowLockingOrder = inOrder( locks );
-        lowLockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-        lowLockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+        lowLockingOrder.verify( locks ).acquireExclusiveSorted( LockTracer.NONE, ResourceTypes.NODE, new long[]{lowId, highId} );
         lowLockingOrder.verifyNoMoreInteractions();
     }
 
@@ -262,8 +281,7 @@ class OperationsTest
 
         // THEN
         InOrder lockingOrder = inOrder( locks );
-        lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-        lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+        lockingOrder.verify( locks ).acquireExclusiveSorted( LockTracer.NONE, ResourceTypes.NODE, new long[]{lowId, highId} );
         lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relationshipId );
         lockingOrder.verifyNoMoreInteractions();
         reset( locks );
@@ -276,8 +294,7 @@ class OperationsTest
 
         // THEN
         InOrder highLowIdOrder = inOrder( locks );
-        highLowIdOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, lowId );
-        highLowIdOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, highId );
+        highLowIdOrder.verify( locks ).acquireExclusiveSorted( LockTracer.NONE, ResourceTypes.NODE, new long[]{lowId, highId} );
         highLowIdOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relationshipId );
         highLowIdOrder.verifyNoMoreInteractions();
     }
@@ -865,7 +882,7 @@ class OperationsTest
 
         operations.nodeDetachDelete( nodeId );
 
-        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, nodeId );
+        order.verify( locks ).acquireExclusiveSorted( LockTracer.NONE, ResourceTypes.NODE, new long[]{nodeId} );
         order.verify( locks, never() ).releaseExclusive( ResourceTypes.NODE, nodeId );
         order.verify( txState ).nodeDoDelete( nodeId );
     }
@@ -883,8 +900,8 @@ class OperationsTest
 
         operations.nodeDetachDelete( nodeId );
 
-        order.verify( locks ).acquireExclusive(
-                LockTracer.NONE, ResourceTypes.NODE, nodeId, 2L );
+        order.verify( locks ).acquireExclusiveSorted(
+                LockTracer.NONE, ResourceTypes.NODE, new long[]{nodeId, 2L} );
         order.verify( locks, never() ).releaseExclusive( ResourceTypes.NODE, nodeId );
         order.verify( locks, never() ).releaseExclusive( ResourceTypes.NODE, 2L );
         order.verify( txState ).nodeDoDelete( nodeId );
@@ -932,7 +949,7 @@ class OperationsTest
 
         // then
         InOrder order = inOrder( locks );
-        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, nodeId );
+        order.verify( locks ).acquireExclusiveSorted( LockTracer.NONE, ResourceTypes.NODE, new long[]{nodeId} );
         order.verify( locks ).acquireShared( LockTracer.NONE, ResourceTypes.LABEL, labelId1, labelId2 );
         order.verifyNoMoreInteractions();
     }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+@TestDirectoryExtension
+class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 8192;
+    private static final int PAGES = 100;
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler scheduler;
+    private File databaseDirectory;
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        scheduler = JobSchedulerFactory.createInitialisedScheduler();
+        databaseDirectory = testDirectory.homeDir().getCanonicalFile();
+        file = new File( databaseDirectory, "store" );
+        fs.write( file ).close();
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler, PageCacheTracer.NULL );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( int i = 0; i < PAGES; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( i );
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        scheduler.close();
+        fs.close();
+    }
+
+    @Test
+    void mustReloadProfiledPagesOnStart() throws Exception
+    {
+        Config config = Config.defaults();
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler, PageCacheTracer.NULL );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, PageCursorTracer.NULL ) )
+            {
+                assertTrue( cursor.next( 3 ) );
+                assertTrue( cursor.next( 7 ) );
+                assertTrue( cursor.next( 64 ) );
+            }
+            warmer( pageCache, config, PageCacheTracer.NULL ).profile();
+        }
+        assertTrue( fs.fileExists( new File( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ), "store.cacheprof" ) ) );
+
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler, tracer );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config, tracer );
+            warmer.start();
+            warmer.awaitWarmup();
+            warmer.stop();
+
+            assertEquals( 3, tracer.faults() );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, PageCursorTracer.NULL ) )
+            {
+                assertTrue( isResident( cursor, 3 ) );
+                assertTrue( isResident( cursor, 7 ) );
+                assertTrue( isResident( cursor, 64 ) );
+                assertFalse( isResident( cursor, 4 ) );
+            }
+        }
+    }
+
+    @Test
+    void mustPreloadWholeFilesWhenPrefetchIsEnabled() throws Exception
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.pagecache_warmup_prefetch, true );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler, tracer );
+              PagedFile ignore = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config, tracer );
+            warmer.start();
+            warmer.awaitWarmup();
+            warmer.stop();
+
+            assertEquals( PAGES, tracer.faults() );
+        }
+    }
+
+    @Test
+    void mustIgnoreFilesExcludedByPrefetchWhitelist() throws Exception
+    {
+        Config config = Config.newBuilder()
+                .set( GraphDatabaseSettings.pagecache_warmup_prefetch, true )
+                .set( GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist, "other.*" )
+                .build();
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler, tracer );
+              PagedFile ignore = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config, tracer );
+            warmer.start();
+            warmer.awaitWarmup();
+            warmer.stop();
+
+            assertEquals( 0, tracer.faults() );
+        }
+    }
+
+    private PageCacheWarmer warmer( PageCache pageCache, Config config, PageCacheTracer tracer )
+    {
+        return new PageCacheWarmer( fs, pageCache, scheduler, databaseDirectory, config, NullLog.getInstance(), tracer );
+    }
+
+    private static boolean isResident( PageCursor cursor, long pageId ) throws IOException
+    {
+        return cursor.next( pageId ) && cursor.getCurrentPageId() == pageId;
+    }
+}
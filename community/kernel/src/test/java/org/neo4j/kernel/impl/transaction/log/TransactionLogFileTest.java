@@ -29,6 +29,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.internal.nativeimpl.NativeAccess;
 import org.neo4j.internal.nativeimpl.NativeCallResult;
+import org.neo4j.internal.nativeimpl.NativeIoQueue;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.ReadableChannel;
@@ -435,6 +436,42 @@ class TransactionLogFileTest
             return NativeCallResult.SUCCESS;
         }
 
+        @Override
+        public NativeCallResult tryAdviseHugePages( long address, long bytes )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public long tryMapHugePages( long bytes )
+        {
+            return 0;
+        }
+
+        @Override
+        public NativeCallResult tryUnmapMemory( long address, long bytes )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeCallResult tryInterleaveMemory( long address, long bytes, int[] nodes )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeCallResult tryBindMemory( long address, long bytes, int[] nodes )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeIoQueue tryCreateIoQueue( int depth )
+        {
+            return null;
+        }
+
         @Override
         public String describe()
         {
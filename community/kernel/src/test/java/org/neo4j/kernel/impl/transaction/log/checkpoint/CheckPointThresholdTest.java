@@ -21,6 +21,9 @@ package org.neo4j.kernel.impl.transaction.log.checkpoint;
 
 import org.junit.jupiter.api.Test;
 
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -223,4 +226,92 @@ class CheckPointThresholdTest extends CheckPointThresholdTestSupport
         withIntervalTime( "100ms" );
         assertThat( createThreshold().checkFrequencyMillis() ).isEqualTo( 100L );
     }
+
+    @Test
+    void adaptiveThresholdMustTriggerOnDirtyPageRatio()
+    {
+        withPolicy( "adaptive" );
+        TestPressure testPressure = new TestPressure();
+        pressure = testPressure;
+        CheckPointThreshold threshold = createThreshold();
+        threshold.initialize( 2 );
+
+        testPressure.dirtyPageRatio = 0.05;
+        assertFalse( threshold.isCheckPointingNeeded( 3, notTriggered ) );
+
+        testPressure.dirtyPageRatio = 0.25;
+        assertTrue( threshold.isCheckPointingNeeded( 3, triggered ) );
+        verifyTriggered( "25.0% dirty pages" );
+        verifyNoMoreTriggers();
+    }
+
+    @Test
+    void adaptiveThresholdMustTriggerOnLogGrowthSinceLastCheckPoint()
+    {
+        withPolicy( "adaptive" );
+        long logFileSize = config.get( GraphDatabaseSettings.logical_log_rotation_threshold );
+        TestPressure testPressure = new TestPressure();
+        pressure = testPressure;
+        CheckPointThreshold threshold = createThreshold();
+        testPressure.position = new LogPosition( 3, logFileSize / 2 );
+        threshold.initialize( 2 );
+
+        testPressure.position = new LogPosition( 4, 0 );
+        assertFalse( threshold.isCheckPointingNeeded( 3, notTriggered ) );
+
+        testPressure.position = new LogPosition( 4, logFileSize / 2 );
+        assertTrue( threshold.isCheckPointingNeeded( 3, triggered ) );
+        verifyTriggered( "of transaction log" );
+        verifyNoMoreTriggers();
+
+        threshold.checkPointHappened( 3 );
+        testPressure.position = new LogPosition( 4, logFileSize / 2 + 100 );
+        assertFalse( threshold.isCheckPointingNeeded( 4, notTriggered ) );
+    }
+
+    @Test
+    void adaptiveThresholdMustNotTriggerWithoutNewTransactions()
+    {
+        withPolicy( "adaptive" );
+        TestPressure testPressure = new TestPressure();
+        pressure = testPressure;
+        CheckPointThreshold threshold = createThreshold();
+        threshold.initialize( 2 );
+
+        testPressure.dirtyPageRatio = 1.0;
+        assertFalse( threshold.isCheckPointingNeeded( 2, notTriggered ) );
+    }
+
+    @Test
+    void adaptiveThresholdMustStillTriggerOnPeriodicThresholds()
+    {
+        withPolicy( "adaptive" );
+        withIntervalTx( 2 );
+        pressure = new TestPressure();
+        CheckPointThreshold threshold = createThreshold();
+        threshold.initialize( 2 );
+
+        assertTrue( threshold.isCheckPointingNeeded( 4, triggered ) );
+        verifyTriggered( "every 2 transactions" );
+        verifyNoMoreTriggers();
+        assertThat( threshold.checkFrequencyMillis() ).isEqualTo( AdaptiveCheckPointThreshold.CHECK_FREQUENCY_MILLIS );
+    }
+
+    private static class TestPressure implements CheckPointPressure
+    {
+        private volatile double dirtyPageRatio;
+        private volatile LogPosition position = new LogPosition( 0, 0 );
+
+        @Override
+        public double dirtyPageRatio()
+        {
+            return dirtyPageRatio;
+        }
+
+        @Override
+        public LogPosition lastClosedTransactionPosition()
+        {
+            return position;
+        }
+    }
 }
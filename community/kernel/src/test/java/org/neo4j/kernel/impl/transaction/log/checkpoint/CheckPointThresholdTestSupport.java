@@ -45,6 +45,7 @@ public class CheckPointThresholdTestSupport
     protected FakeClock clock;
     protected LogPruning logPruning;
     protected LogProvider logProvider;
+    protected CheckPointPressure pressure;
     protected Integer intervalTx;
     protected Duration intervalTime;
     protected Consumer<String> notTriggered;
@@ -58,6 +59,7 @@ public class CheckPointThresholdTestSupport
         clock = Clocks.fakeClock();
         logPruning = LogPruning.NO_PRUNING;
         logProvider = NullLogProvider.getInstance();
+        pressure = CheckPointPressure.NONE;
         intervalTx = config.get( GraphDatabaseSettings.check_point_interval_tx );
         intervalTime = config.get( GraphDatabaseSettings.check_point_interval_time );
         triggerConsumer = new LinkedBlockingQueue<>();
@@ -84,7 +86,7 @@ public class CheckPointThresholdTestSupport
 
     protected CheckPointThreshold createThreshold()
     {
-        return CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider );
+        return CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider, pressure );
     }
 
     protected void verifyTriggered( String... reason )
@@ -36,7 +36,9 @@ import java.util.function.BooleanSupplier;
 
 import org.neo4j.function.ThrowingConsumer;
 import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
@@ -135,6 +137,33 @@ class CheckPointerImplTest
         verifyNoMoreInteractions( forceOperation, health, appender, threshold, tracer );
     }
 
+    @Test
+    void shouldReportFlushingSkippedByCheckPoint() throws Throwable
+    {
+        // Given
+        DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+        pageCacheTracer.flushSkippedPages( 100 );
+        pageCacheTracer.skippedForces( 1 );
+        LogCheckPointEvent event = mock( LogCheckPointEvent.class );
+        when( tracer.beginCheckPoint() ).thenReturn( event );
+        doAnswer( invocation ->
+        {
+            pageCacheTracer.flushSkippedPages( 4096 );
+            pageCacheTracer.skippedForces( 3 );
+            return null;
+        } ).when( forceOperation ).flushAndForce( any( IOLimiter.class ), any( PageCursorTracer.class ) );
+        CheckPointerImpl checkPointing = checkPointer( new StoreCopyCheckPointMutex(), pageCacheTracer );
+        mockTxIdStore();
+
+        checkPointing.start();
+
+        // When
+        checkPointing.forceCheckPoint( INFO );
+
+        // Then
+        verify( event ).flushSkipped( 4096, 3 );
+    }
+
     @Test
     void shouldForceCheckPointAlways() throws Throwable
     {
@@ -522,10 +551,15 @@ class CheckPointerImplTest
     }
 
     private CheckPointerImpl checkPointer( StoreCopyCheckPointMutex mutex )
+    {
+        return checkPointer( mutex, PageCacheTracer.NULL );
+    }
+
+    private CheckPointerImpl checkPointer( StoreCopyCheckPointMutex mutex, PageCacheTracer pageCacheTracer )
     {
         var databaseTracers = mock( DatabaseTracers.class );
         when( databaseTracers.getDatabaseTracer() ).thenReturn( tracer );
-        when( databaseTracers.getPageCacheTracer() ).thenReturn( PageCacheTracer.NULL );
+        when( databaseTracers.getPageCacheTracer() ).thenReturn( pageCacheTracer );
         return new CheckPointerImpl( txIdStore, threshold, forceOperation, logPruning, appender, health,
                 NullLogProvider.getInstance(), databaseTracers, limiter, mutex );
     }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Flushable;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.kernel.impl.transaction.log.checkpoint.LatencyAwareIOLimiter.ADJUST_INTERVAL_MILLIS;
+import static org.neo4j.kernel.impl.transaction.log.checkpoint.LatencyAwareIOLimiter.MIN_IOPS;
+
+class LatencyAwareIOLimiterTest
+{
+    private static final Flushable NO_FLUSH = () ->
+    {
+    };
+
+    private final FakeClock clock = Clocks.fakeClock();
+
+    @Test
+    void mustLowerLimitWhenLogForcesAreSlow()
+    {
+        LatencyAwareIOLimiter limiter = createLimiter( 1000 );
+        assertEquals( 1000, limiter.currentLimit() );
+
+        forceLog( limiter, 100, ofMillis( 50 ).toNanos() );
+        adjust( limiter );
+        assertEquals( 500, limiter.currentLimit() );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            forceLog( limiter, 100, ofMillis( 50 ).toNanos() );
+            adjust( limiter );
+        }
+        assertEquals( MIN_IOPS, limiter.currentLimit() );
+    }
+
+    @Test
+    void mustRaiseLimitBackToConfiguredLimitWhenLogForcesAreFastAgain()
+    {
+        LatencyAwareIOLimiter limiter = createLimiter( 1000 );
+        forceLog( limiter, 100, ofMillis( 50 ).toNanos() );
+        adjust( limiter );
+        assertEquals( 500, limiter.currentLimit() );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            forceLog( limiter, 100, ofMillis( 1 ).toNanos() );
+            adjust( limiter );
+        }
+        assertEquals( 1000, limiter.currentLimit() );
+    }
+
+    @Test
+    void mustLookAtHighPercentileOfLogForceTimes()
+    {
+        LatencyAwareIOLimiter limiter = createLimiter( 1000 );
+        forceLog( limiter, 95, ofMillis( 1 ).toNanos() );
+        forceLog( limiter, 5, ofMillis( 50 ).toNanos() );
+        adjust( limiter );
+        assertEquals( 500, limiter.currentLimit() );
+
+        forceLog( limiter, 100, ofMillis( 1 ).toNanos() );
+        forceLog( limiter, 1, ofMillis( 50 ).toNanos() );
+        adjust( limiter );
+        assertEquals( 625, limiter.currentLimit() );
+    }
+
+    @Test
+    void mustOnlyLimitWithoutConfiguredLimitWhileLogForcesAreSlow()
+    {
+        LatencyAwareIOLimiter limiter = createLimiter( -1 );
+        assertFalse( limiter.isLimited() );
+
+        forceLog( limiter, 100, ofMillis( 50 ).toNanos() );
+        adjust( limiter );
+        assertTrue( limiter.isLimited() );
+
+        for ( int i = 0; i < 20 && limiter.isLimited(); i++ )
+        {
+            forceLog( limiter, 100, ofMillis( 1 ).toNanos() );
+            adjust( limiter );
+        }
+        assertFalse( limiter.isLimited() );
+    }
+
+    @Test
+    void mustNotLimitWhileDisabled()
+    {
+        LatencyAwareIOLimiter limiter = createLimiter( 1000 );
+        limiter.disableLimit();
+        try
+        {
+            assertFalse( limiter.isLimited() );
+            long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 10_000, NO_FLUSH );
+            assertEquals( IOLimiter.INITIAL_STAMP, stamp );
+        }
+        finally
+        {
+            limiter.enableLimit();
+        }
+        assertTrue( limiter.isLimited() );
+    }
+
+    @Test
+    void mustCountIOsWithinQuantum()
+    {
+        LatencyAwareIOLimiter limiter = createLimiter( 1000 );
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 10, NO_FLUSH );
+        stamp = limiter.maybeLimitIO( stamp, 10, NO_FLUSH );
+        stamp = limiter.maybeLimitIO( stamp, 10, NO_FLUSH );
+        assertThat( stamp >>> 32 ).isEqualTo( 30L );
+
+        // Moving on to the next quantum starts counting from scratch.
+        clock.forward( 100, MILLISECONDS );
+        stamp = limiter.maybeLimitIO( stamp, 10, NO_FLUSH );
+        assertThat( stamp >>> 32 ).isEqualTo( 10L );
+    }
+
+    private LatencyAwareIOLimiter createLimiter( int iopsLimit )
+    {
+        Config config = Config.newBuilder()
+                .set( GraphDatabaseSettings.check_point_iops_limit, iopsLimit )
+                .set( GraphDatabaseInternalSettings.check_point_iops_target_latency, ofMillis( 10 ) )
+                .build();
+        return new LatencyAwareIOLimiter( config, clock );
+    }
+
+    private static void forceLog( LatencyAwareIOLimiter limiter, int times, long forceNanos )
+    {
+        for ( int i = 0; i < times; i++ )
+        {
+            limiter.logForced( forceNanos );
+        }
+    }
+
+    private void adjust( LatencyAwareIOLimiter limiter )
+    {
+        clock.forward( ADJUST_INTERVAL_MILLIS, MILLISECONDS );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, NO_FLUSH );
+    }
+}
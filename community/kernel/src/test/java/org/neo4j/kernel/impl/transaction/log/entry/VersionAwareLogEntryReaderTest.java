@@ -23,14 +23,19 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.neo4j.kernel.impl.api.TestCommand;
 import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
 import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
+import org.neo4j.kernel.impl.transaction.log.LogEntryCursor;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
 import org.neo4j.storageengine.api.CommandReader;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -143,6 +148,138 @@ class VersionAwareLogEntryReaderTest
         assertNull( logEntry );
     }
 
+    @Test
+    void shouldReadEntriesOfCompressedTransactions() throws IOException
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel( 10_000 );
+        TransactionLogWriter writer = new TransactionLogWriter( new LogEntryWriter( channel ), true );
+        TestCommand command1 = new TestCommand( new byte[]{1, 2, 3} );
+        TestCommand command2 = new TestCommand( new byte[100] );
+        int checksum1 = writer.append( transaction( command1, command2 ), 42, BASE_TX_CHECKSUM );
+        int secondFrameOffset = channel.writerPosition();
+        int checksum2 = writer.append( transaction( command2 ), 43, checksum1 );
+
+        // when
+        InMemoryClosableChannel.Reader reader = channel.reader();
+        LogEntryStart start1 = (LogEntryStart) logEntryReader.readLogEntry( reader );
+        LogEntryCommand readCommand1 = (LogEntryCommand) logEntryReader.readLogEntry( reader );
+        LogEntryCommand readCommand2 = (LogEntryCommand) logEntryReader.readLogEntry( reader );
+        LogEntryCommit commit1 = (LogEntryCommit) logEntryReader.readLogEntry( reader );
+        LogEntryStart start2 = (LogEntryStart) logEntryReader.readLogEntry( reader );
+        assertTrue( logEntryReader.readLogEntry( reader ) instanceof LogEntryCommand );
+        LogEntryCommit commit2 = (LogEntryCommit) logEntryReader.readLogEntry( reader );
+
+        // then
+        assertEquals( new LogPosition( 0, 0 ), start1.getStartPosition() );
+        assertEquals( command1, readCommand1.getCommand() );
+        assertEquals( command2, readCommand2.getCommand() );
+        assertEquals( 42, commit1.getTxId() );
+        assertEquals( checksum1, commit1.getChecksum() );
+        assertEquals( new LogPosition( 0, secondFrameOffset ), start2.getStartPosition() );
+        assertEquals( checksum1, start2.getPreviousChecksum() );
+        assertEquals( 43, commit2.getTxId() );
+        assertEquals( checksum2, commit2.getChecksum() );
+        assertNull( logEntryReader.readLogEntry( reader ) );
+        assertEquals( new LogPosition( 0, channel.writerPosition() ), logEntryReader.lastPosition() );
+    }
+
+    @Test
+    void shouldReadEntriesOfCompressedTransactionsFromInterleavedCursors() throws IOException
+    {
+        // given
+        InMemoryClosableChannel firstChannel = new InMemoryClosableChannel( 10_000 );
+        InMemoryClosableChannel secondChannel = new InMemoryClosableChannel( 10_000 );
+        for ( InMemoryClosableChannel channel : new InMemoryClosableChannel[]{firstChannel, secondChannel} )
+        {
+            TransactionLogWriter writer = new TransactionLogWriter( new LogEntryWriter( channel ), true );
+            int checksum = writer.append( transaction( new TestCommand( new byte[]{1} ), new TestCommand( new byte[]{2} ) ), 1, BASE_TX_CHECKSUM );
+            writer.append( transaction( new TestCommand( new byte[]{3} ) ), 2, checksum );
+        }
+
+        // when
+        LogEntryCursor firstCursor = new LogEntryCursor( logEntryReader, firstChannel.reader() );
+        LogEntryCursor secondCursor = new LogEntryCursor( logEntryReader, secondChannel.reader() );
+        for ( int entry = 0; entry < 7; entry++ )
+        {
+            assertTrue( firstCursor.next() );
+            assertTrue( secondCursor.next() );
+
+            // then
+            assertEquals( firstCursor.get().getType(), secondCursor.get().getType() );
+            if ( firstCursor.get() instanceof LogEntryCommit )
+            {
+                assertEquals( ((LogEntryCommit) firstCursor.get()).getTxId(), ((LogEntryCommit) secondCursor.get()).getTxId() );
+            }
+        }
+        assertFalse( firstCursor.next() );
+        assertFalse( secondCursor.next() );
+    }
+
+    @Test
+    void shouldWriteSameChecksumsForCompressedTransactions() throws IOException
+    {
+        // given
+        PhysicalTransactionRepresentation transaction = transaction( new TestCommand( new byte[]{5, 6, 7} ) );
+
+        // when
+        int plainChecksum = new TransactionLogWriter( new LogEntryWriter( new InMemoryClosableChannel() ), false ).append( transaction, 7, 99 );
+        int compressedChecksum = new TransactionLogWriter( new LogEntryWriter( new InMemoryClosableChannel() ), true ).append( transaction, 7, 99 );
+
+        // then
+        assertEquals( plainChecksum, compressedChecksum );
+    }
+
+    @Test
+    void shouldReturnNullWhenCompressedFrameIsPartiallyWritten() throws IOException
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        new TransactionLogWriter( new LogEntryWriter( channel ), true ).append( transaction( new TestCommand( new byte[]{1} ) ), 1, BASE_TX_CHECKSUM );
+        channel.truncateTo( channel.writerPosition() - 5 );
+
+        // when
+        final LogEntry logEntry = logEntryReader.readLogEntry( channel.reader() );
+
+        // then
+        assertNull( logEntry );
+    }
+
+    @Test
+    void shouldFailOnCorruptCompressedFrame() throws IOException
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        new TransactionLogWriter( new LogEntryWriter( channel ), true ).append( transaction( new TestCommand( new byte[]{1} ) ), 1, BASE_TX_CHECKSUM );
+        int end = channel.positionWriter( channel.writerPosition() - 6 );
+        channel.put( (byte) 0x7F );
+        channel.positionWriter( end );
+
+        // when
+        IOException e = assertThrows( IOException.class, () -> logEntryReader.readLogEntry( channel.reader() ) );
+
+        // then
+        assertTrue( e.getMessage().contains( "At position LogPosition{logVersion=0, byteOffset=0}" ), e.getMessage() );
+    }
+
+    @Test
+    void shouldRejectCompressedFrameLengthsAboveMaxFrameSize()
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        channel.beginChecksum();
+        channel.put( LATEST.version() );
+        channel.put( LogEntryTypeCodes.COMPRESSED_FRAME );
+        channel.putInt( 10 );
+        channel.putInt( LogEntryFrameChannel.MAX_COMPRESSED_FRAME_SIZE + 1 );
+
+        // when
+        IOException e = assertThrows( IOException.class, () -> logEntryReader.readLogEntry( channel.reader() ) );
+
+        // then
+        assertTrue( e.getMessage().contains( "Invalid compressed frame lengths" ), e.getMessage() );
+    }
+
     @Disabled // TODO it's not clear what the benefit verifying the chain will give us, so it's disable for now
     @Test
     void shouldValidateChecksumChain() throws IOException
@@ -184,6 +321,13 @@ class VersionAwareLogEntryReaderTest
         assertTrue( e.getMessage().contains( "The checksum chain is broken" ) );
     }
 
+    private static PhysicalTransactionRepresentation transaction( TestCommand... commands )
+    {
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( List.of( commands ) );
+        transaction.setHeader( new byte[]{9}, 1, 2, 3, -1 );
+        return transaction;
+    }
+
     private static void writeStartEntry( InMemoryClosableChannel channel, LogEntryStart start )
     {
         channel.beginChecksum();
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.kernel.impl.transaction.log.files.DirectIOLogChannel.BLOCK_SIZE;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+@TestDirectoryExtension
+@EnabledOnOs( OS.LINUX )
+class DirectIOLogChannelTest
+{
+    private static final int BUFFER_SIZE = 4 * BLOCK_SIZE;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    private File file;
+
+    @BeforeEach
+    void setUp()
+    {
+        file = testDirectory.file( "log" );
+    }
+
+    @Test
+    void appendedBytesMustBeInFileAfterForce() throws IOException
+    {
+        byte[] data = randomBytes( 10_000 );
+        try ( DirectIOLogChannel channel = open( 0 ) )
+        {
+            int offset = 0;
+            for ( int size : new int[]{1, 7, 4096, 100, 3000, 2796} )
+            {
+                channel.writeAll( ByteBuffer.wrap( data, offset, size ) );
+                offset += size;
+                assertEquals( offset, channel.position() );
+                channel.force( false );
+                assertArrayEquals( Arrays.copyOf( data, offset ), readFile( offset ) );
+            }
+        }
+    }
+
+    @Test
+    void appendsLargerThanTheBuffersMustBeWrittenInFull() throws IOException
+    {
+        byte[] data = randomBytes( BUFFER_SIZE * 5 + 123 );
+        try ( DirectIOLogChannel channel = open( 0 ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( data ) );
+            assertEquals( data.length, channel.position() );
+        }
+        assertArrayEquals( data, readFile( data.length ) );
+    }
+
+    @Test
+    void partialLastBlockMustBePaddedWithZeros() throws IOException
+    {
+        try ( DirectIOLogChannel channel = open( 0 ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( randomBytes( 100 ) ) );
+            channel.force( false );
+        }
+        byte[] block = readFile( BLOCK_SIZE );
+        for ( int i = 100; i < BLOCK_SIZE; i++ )
+        {
+            assertEquals( 0, block[i] );
+        }
+    }
+
+    @Test
+    void mustContinueAppendingAfterExistingBytes() throws IOException
+    {
+        byte[] existing = randomBytes( 5000 );
+        try ( StoreChannel channel = fileSystem.write( file ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( existing ) );
+        }
+        byte[] appended = randomBytes( 300 );
+        try ( DirectIOLogChannel channel = open( existing.length ) )
+        {
+            assertEquals( existing.length, channel.position() );
+            channel.writeAll( ByteBuffer.wrap( appended ) );
+        }
+
+        byte[] expected = Arrays.copyOf( existing, existing.length + appended.length );
+        System.arraycopy( appended, 0, expected, existing.length, appended.length );
+        assertArrayEquals( expected, readFile( expected.length ) );
+    }
+
+    @Test
+    void truncateMustDiscardBytesAfterTheGivenSize() throws IOException
+    {
+        byte[] data = randomBytes( 6000 );
+        try ( DirectIOLogChannel channel = open( 0 ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( data ) );
+            channel.truncate( 5000 );
+            assertEquals( 5000, channel.position() );
+            assertEquals( 5000, channel.size() );
+        }
+        assertArrayEquals( Arrays.copyOf( data, 5000 ), readFile( 5000 ) );
+    }
+
+    @Test
+    void forcesConcurrentWithAppendsMustNotLoseAnyBytes() throws Exception
+    {
+        byte[] data = randomBytes( BUFFER_SIZE * 20 );
+        AtomicBoolean appending = new AtomicBoolean( true );
+        try ( DirectIOLogChannel channel = open( 0 ) )
+        {
+            Thread forcer = new Thread( () ->
+            {
+                try
+                {
+                    while ( appending.get() )
+                    {
+                        channel.force( false );
+                    }
+                }
+                catch ( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            } );
+            forcer.start();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int offset = 0;
+            while ( offset < data.length )
+            {
+                int size = Math.min( random.nextInt( 1, BLOCK_SIZE * 2 ), data.length - offset );
+                channel.writeAll( ByteBuffer.wrap( data, offset, size ) );
+                offset += size;
+            }
+            appending.set( false );
+            forcer.join();
+            channel.force( false );
+        }
+        assertArrayEquals( data, readFile( data.length ) );
+    }
+
+    @Test
+    void readMustSeeAppendedBytes() throws IOException
+    {
+        byte[] data = randomBytes( 3000 );
+        try ( DirectIOLogChannel channel = open( 0 ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( data ) );
+            channel.position( 1000 );
+            ByteBuffer buffer = ByteBuffer.allocate( 2000 );
+            channel.readAll( buffer );
+            assertArrayEquals( Arrays.copyOfRange( data, 1000, 3000 ), buffer.array() );
+            assertEquals( 3000, channel.position() );
+        }
+    }
+
+    @Test
+    void positionalWriteMustOverwriteBytesAndKeepAppending() throws IOException
+    {
+        byte[] data = randomBytes( 3 * BLOCK_SIZE + 500 );
+        byte[] overwrite = randomBytes( BLOCK_SIZE + 10 );
+        byte[] appended = randomBytes( 200 );
+        int overwriteOffset = 2 * BLOCK_SIZE + 100;
+        try ( DirectIOLogChannel channel = open( 0 ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( data ) );
+            channel.writeAll( ByteBuffer.wrap( overwrite ), overwriteOffset );
+            assertEquals( data.length, channel.position() );
+            channel.writeAll( ByteBuffer.wrap( appended ) );
+        }
+
+        byte[] expected = Arrays.copyOf( data, data.length + appended.length );
+        System.arraycopy( overwrite, 0, expected, overwriteOffset, overwrite.length );
+        System.arraycopy( appended, 0, expected, data.length, appended.length );
+        assertArrayEquals( expected, readFile( expected.length ) );
+    }
+
+    @Test
+    void scatteringReadMustFillBuffersInOrder() throws IOException
+    {
+        byte[] data = randomBytes( 3000 );
+        try ( DirectIOLogChannel channel = open( 0 ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( data ) );
+            channel.position( 0 );
+            ByteBuffer first = ByteBuffer.allocate( 1000 );
+            ByteBuffer second = ByteBuffer.allocate( 2500 );
+            assertEquals( 3000, channel.read( new ByteBuffer[]{first, second} ) );
+            assertArrayEquals( Arrays.copyOf( data, 1000 ), first.array() );
+            assertArrayEquals( Arrays.copyOfRange( data, 1000, 3000 ), Arrays.copyOf( second.array(), 2000 ) );
+            assertEquals( -1, channel.read( new ByteBuffer[]{ByteBuffer.allocate( 10 )} ) );
+        }
+    }
+
+    private DirectIOLogChannel open( long position ) throws IOException
+    {
+        StoreChannel channel = fileSystem.write( file );
+        channel.position( position );
+        return DirectIOLogChannel.open( fileSystem, file, channel, BUFFER_SIZE, INSTANCE );
+    }
+
+    private byte[] readFile( int length ) throws IOException
+    {
+        try ( StoreChannel channel = fileSystem.read( file ) )
+        {
+            assertThat( channel.size() ).isGreaterThanOrEqualTo( length );
+            ByteBuffer buffer = ByteBuffer.allocate( length );
+            channel.readAll( buffer );
+            return buffer.array();
+        }
+    }
+
+    private static byte[] randomBytes( int length )
+    {
+        byte[] bytes = new byte[length];
+        ThreadLocalRandom.current().nextBytes( bytes );
+        return bytes;
+    }
+}
@@ -41,8 +41,12 @@ import org.neo4j.test.extension.pagecache.PageCacheExtension;
 import org.neo4j.test.rule.TestDirectory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_direct_io;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.tx_log_prepare_in_background;
 import static org.neo4j.configuration.GraphDatabaseSettings.neo4j_home;
 import static org.neo4j.configuration.GraphDatabaseSettings.transaction_logs_root_path;
 import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
@@ -127,6 +131,15 @@ class LogFilesBuilderTest
         assertEquals( 2, context.getLogVersionRepository().getCurrentLogVersion() );
     }
 
+    @Test
+    void recycleLogFilesOnlyWithDirectIOAndBackgroundPreparation() throws IOException
+    {
+        assertFalse( buildContext( false, false ).isRecycleLogFiles() );
+        assertFalse( buildContext( true, false ).isRecycleLogFiles() );
+        assertFalse( buildContext( false, true ).isRecycleLogFiles() );
+        assertTrue( buildContext( true, true ).isRecycleLogFiles() );
+    }
+
     @Test
     void buildDefaultContextWithDependencies() throws IOException
     {
@@ -202,4 +215,18 @@ class LogFilesBuilderTest
     {
         return builder( databaseLayout, fileSystem ).withLogEntryReader( logEntryReader() );
     }
+
+    private TransactionLogFilesContext buildContext( boolean directIO, boolean prepareInBackground ) throws IOException
+    {
+        Config config = Config.newBuilder()
+                .set( tx_log_direct_io, directIO )
+                .set( tx_log_prepare_in_background, prepareInBackground )
+                .build();
+        return builder( databaseLayout, fileSystem )
+                .withLogVersionRepository( new SimpleLogVersionRepository( 2 ) )
+                .withTransactionIdStore( new SimpleTransactionIdStore() )
+                .withLogEntryReader( logEntryReader() )
+                .withConfig( config )
+                .buildContext();
+    }
 }
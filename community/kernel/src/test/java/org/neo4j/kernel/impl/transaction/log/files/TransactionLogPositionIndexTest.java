@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.kernel.impl.transaction.log.files.TransactionLogPositionIndex.ENTRY_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.files.TransactionLogPositionIndex.lookup;
+import static org.neo4j.kernel.impl.transaction.log.files.TransactionLogPositionIndex.openForAppend;
+
+@EphemeralTestDirectoryExtension
+class TransactionLogPositionIndexTest
+{
+    private static final long VERSION = 3;
+    private static final long INTERVAL = 1000;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fs;
+    private File file;
+
+    @BeforeEach
+    void setUp()
+    {
+        file = testDirectory.file( "index" );
+    }
+
+    @Test
+    void shouldOnlyIndexTransactionsAtLeastIntervalApart() throws IOException
+    {
+        // when
+        try ( TransactionLogPositionIndex index = openForAppend( fs, file, VERSION, Long.MAX_VALUE, INTERVAL ) )
+        {
+            // 10 transactions of 300 bytes each, starting at offset 64
+            for ( int i = 0; i < 10; i++ )
+            {
+                index.transactionAppended( 10 + i, new LogPosition( VERSION, 64 + i * 300 ) );
+            }
+        }
+
+        // then transactions 10, 14 and 18 are indexed
+        assertEquals( 3 * ENTRY_SIZE, fs.getFileSize( file ) );
+        assertEquals( new LogPosition( VERSION, 64 ), lookup( fs, file, VERSION, 10 ) );
+        assertEquals( new LogPosition( VERSION, 64 ), lookup( fs, file, VERSION, 13 ) );
+        assertEquals( new LogPosition( VERSION, 1264 ), lookup( fs, file, VERSION, 14 ) );
+        assertEquals( new LogPosition( VERSION, 1264 ), lookup( fs, file, VERSION, 17 ) );
+        assertEquals( new LogPosition( VERSION, 2464 ), lookup( fs, file, VERSION, 19 ) );
+        assertEquals( new LogPosition( VERSION, 2464 ), lookup( fs, file, VERSION, 1_000 ) );
+        assertNull( lookup( fs, file, VERSION, 9 ) );
+    }
+
+    @Test
+    void shouldNotFindAnythingWithoutIndexFile() throws IOException
+    {
+        assertNull( lookup( fs, file, VERSION, 10 ) );
+    }
+
+    @Test
+    void shouldIgnoreTransactionsOfOtherLogVersions() throws IOException
+    {
+        try ( TransactionLogPositionIndex index = openForAppend( fs, file, VERSION, Long.MAX_VALUE, INTERVAL ) )
+        {
+            index.transactionAppended( 10, new LogPosition( VERSION - 1, 64 ) );
+            index.transactionAppended( 11, new LogPosition( VERSION, 64 ) );
+        }
+
+        assertEquals( ENTRY_SIZE, fs.getFileSize( file ) );
+        assertNull( lookup( fs, file, VERSION, 10 ) );
+        assertEquals( new LogPosition( VERSION, 64 ), lookup( fs, file, VERSION, 11 ) );
+    }
+
+    @Test
+    void shouldDropEntriesOfTransactionsAfterLastCommittedWhenOpening() throws IOException
+    {
+        // given
+        try ( TransactionLogPositionIndex index = openForAppend( fs, file, VERSION, Long.MAX_VALUE, INTERVAL ) )
+        {
+            for ( int i = 0; i < 5; i++ )
+            {
+                index.transactionAppended( 10 + i, new LogPosition( VERSION, 64 + i * INTERVAL ) );
+            }
+        }
+
+        // when transaction 12 is the last one that was recovered, and new transactions are appended after it
+        try ( TransactionLogPositionIndex index = openForAppend( fs, file, VERSION, 12, INTERVAL ) )
+        {
+            index.transactionAppended( 13, new LogPosition( VERSION, 64 + 2 * INTERVAL + 10 ) );
+            index.transactionAppended( 14, new LogPosition( VERSION, 64 + 3 * INTERVAL + 10 ) );
+        }
+
+        // then
+        assertEquals( 4 * ENTRY_SIZE, fs.getFileSize( file ) );
+        assertEquals( new LogPosition( VERSION, 64 + 2 * INTERVAL ), lookup( fs, file, VERSION, 12 ) );
+        assertEquals( new LogPosition( VERSION, 64 + 3 * INTERVAL + 10 ), lookup( fs, file, VERSION, 14 ) );
+    }
+
+    @Test
+    void shouldDropPartiallyWrittenAndInvalidEntriesWhenOpening() throws IOException
+    {
+        // given two valid entries, one entry which is out of order and half an entry
+        try ( StoreChannel channel = fs.write( file ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( ENTRY_SIZE * 4 );
+            buffer.putLong( 10 ).putLong( 64 );
+            buffer.putLong( 20 ).putLong( 2000 );
+            buffer.putLong( 0 ).putLong( 0 );
+            buffer.putLong( 30 );
+            buffer.flip();
+            channel.writeAll( buffer );
+        }
+
+        // when
+        try ( TransactionLogPositionIndex index = openForAppend( fs, file, VERSION, Long.MAX_VALUE, INTERVAL ) )
+        {
+            index.transactionAppended( 30, new LogPosition( VERSION, 4000 ) );
+        }
+
+        // then
+        assertEquals( 3 * ENTRY_SIZE, fs.getFileSize( file ) );
+        assertEquals( new LogPosition( VERSION, 2000 ), lookup( fs, file, VERSION, 29 ) );
+        assertEquals( new LogPosition( VERSION, 4000 ), lookup( fs, file, VERSION, 30 ) );
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.pruning;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+class BackgroundLogPruningTest
+{
+    private final CountDownLatch pruningStarted = new CountDownLatch( 1 );
+    private final CountDownLatch releasePruning = new CountDownLatch( 1 );
+    private final List<Long> prunedVersions = new CopyOnWriteArrayList<>();
+    private final LogPruning blockingPruning = new LogPruning()
+    {
+        @Override
+        public void pruneLogs( long currentVersion )
+        {
+            pruningStarted.countDown();
+            try
+            {
+                releasePruning.await();
+            }
+            catch ( InterruptedException e )
+            {
+                throw new RuntimeException( e );
+            }
+            prunedVersions.add( currentVersion );
+        }
+
+        @Override
+        public boolean mightHaveLogsToPrune()
+        {
+            return true;
+        }
+
+        @Override
+        public String describeCurrentStrategy()
+        {
+            return "blocking";
+        }
+    };
+    private JobScheduler jobScheduler;
+
+    @BeforeEach
+    void setUp()
+    {
+        jobScheduler = createInitialisedScheduler();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        releasePruning.countDown();
+        jobScheduler.shutdown();
+    }
+
+    @Test
+    void shouldPruneWithoutBlockingCaller() throws Exception
+    {
+        BackgroundLogPruning pruning = new BackgroundLogPruning( blockingPruning, jobScheduler, NullLogProvider.getInstance() );
+
+        pruning.pruneLogs( 3 );
+
+        assertTrue( pruningStarted.await( 1, SECONDS ) );
+        assertThat( prunedVersions ).isEmpty();
+        releasePruning.countDown();
+        pruning.stop();
+        assertThat( prunedVersions ).containsExactly( 3L );
+    }
+
+    @Test
+    void shouldCoalesceRequestsMadeWhilePruning() throws Exception
+    {
+        BackgroundLogPruning pruning = new BackgroundLogPruning( blockingPruning, jobScheduler, NullLogProvider.getInstance() );
+        pruning.pruneLogs( 3 );
+        assertTrue( pruningStarted.await( 1, SECONDS ) );
+
+        pruning.pruneLogs( 5 );
+        pruning.pruneLogs( 7 );
+        pruning.pruneLogs( 6 );
+        releasePruning.countDown();
+
+        while ( prunedVersions.size() < 2 )
+        {
+            Thread.onSpinWait();
+        }
+        pruning.stop();
+        assertThat( prunedVersions ).containsExactly( 3L, 7L );
+    }
+
+    @Test
+    void shouldPruneOnCallingThreadOnceStopped() throws Exception
+    {
+        BackgroundLogPruning pruning = new BackgroundLogPruning( blockingPruning, jobScheduler, NullLogProvider.getInstance() );
+        pruning.stop();
+        releasePruning.countDown();
+
+        pruning.pruneLogs( 4 );
+
+        assertThat( prunedVersions ).containsExactly( 4L );
+    }
+}
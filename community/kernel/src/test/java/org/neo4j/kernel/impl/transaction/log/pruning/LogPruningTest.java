@@ -62,6 +62,8 @@ class LogPruningTest
         logFiles = mock( LogFiles.class );
         doAnswer( inv -> new File( String.valueOf( inv.getArguments()[0] ) ) )
                 .when( logFiles ).getLogFileForVersion( anyLong() );
+        doAnswer( inv -> new File( "index-" + inv.getArguments()[0] ) )
+                .when( logFiles ).getPositionIndexFileForVersion( anyLong() );
         logProvider = NullLogProvider.getInstance();
         clock = mock( SystemNanoClock.class );
         factory = mock( LogPruneStrategyFactory.class );
@@ -76,7 +78,9 @@ class LogPruningTest
         pruning.pruneLogs( 5 );
         InOrder order = inOrder( fs );
         order.verify( fs ).deleteFile( new File( "3" ) );
+        order.verify( fs ).deleteFile( new File( "index-3" ) );
         order.verify( fs ).deleteFile( new File( "4" ) );
+        order.verify( fs ).deleteFile( new File( "index-4" ) );
         // Log file 5 is not deleted; it's the lowest version expected to remain after pruning.
         verifyNoMoreInteractions( fs );
     }
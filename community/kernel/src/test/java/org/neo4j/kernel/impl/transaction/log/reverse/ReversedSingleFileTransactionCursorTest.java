@@ -46,6 +46,8 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.logging.AssertableLogProvider;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StoreId;
@@ -63,6 +65,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.neo4j.kernel.impl.transaction.log.GivenTransactionCursor.exhaust;
 import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 
 @Neo4jLayoutExtension
@@ -140,6 +143,26 @@ class ReversedSingleFileTransactionCursorTest
         assertTransactionRange( readTransactions, txId, TransactionIdStore.BASE_TX_ID );
     }
 
+    @Test
+    void shouldKeepTransactionOffsetsOffHeapAndReleaseThemOnClose() throws Exception
+    {
+        // given
+        writeTransactions( 20_000, 1, 1 );
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+
+        // when
+        CommittedTransactionRepresentation[] readTransactions;
+        try ( ReversedSingleFileTransactionCursor cursor = txCursor( false, memoryTracker ) )
+        {
+            assertThat( memoryTracker.usedNativeMemory() ).isGreaterThanOrEqualTo( 20_000L * Long.BYTES );
+            readTransactions = exhaust( cursor );
+        }
+
+        // then
+        assertTransactionRange( readTransactions, txId, TransactionIdStore.BASE_TX_ID );
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
     @Test
     void shouldHandleEmptyLog() throws Exception
     {
@@ -163,7 +186,7 @@ class ReversedSingleFileTransactionCursorTest
         // when
         try ( ReadAheadLogChannel channel = (ReadAheadLogChannel) logFile.getReader( logFiles.extractHeader( 0 ).getStartPosition() ) )
         {
-            new ReversedSingleFileTransactionCursor( channel, logEntryReader(), false, monitor );
+            new ReversedSingleFileTransactionCursor( channel, logEntryReader(), false, monitor, INSTANCE );
             fail( "Should've failed" );
         }
         catch ( IllegalArgumentException e )
@@ -224,11 +247,16 @@ class ReversedSingleFileTransactionCursorTest
     }
 
     private ReversedSingleFileTransactionCursor txCursor( boolean failOnCorruptedLogFiles ) throws IOException
+    {
+        return txCursor( failOnCorruptedLogFiles, INSTANCE );
+    }
+
+    private ReversedSingleFileTransactionCursor txCursor( boolean failOnCorruptedLogFiles, MemoryTracker memoryTracker ) throws IOException
     {
         ReadAheadLogChannel fileReader = (ReadAheadLogChannel) logFile.getReader( logFiles.extractHeader( 0 ).getStartPosition() );
         try
         {
-            return new ReversedSingleFileTransactionCursor( fileReader, logEntryReader(), failOnCorruptedLogFiles, monitor );
+            return new ReversedSingleFileTransactionCursor( fileReader, logEntryReader(), failOnCorruptedLogFiles, monitor, memoryTracker );
         }
         catch ( Exception e )
         {
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.recovery.DefaultRecoveryService.RecoveryVisitor;
+import org.neo4j.storageengine.api.StorageEngine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+
+class DefaultRecoveryServiceTest
+{
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+
+    @Test
+    void shouldApplyTransactionsInBatchesAndPendingOnesOnComplete() throws Exception
+    {
+        try ( RecoveryVisitor visitor = new RecoveryVisitor( storageEngine, RECOVERY, NULL, 3 ) )
+        {
+            for ( long txId = 2; txId <= 5; txId++ )
+            {
+                visitor.visit( transaction( txId ) );
+            }
+            verify( storageEngine ).apply( any( TransactionToApply.class ), eq( RECOVERY ) );
+
+            visitor.complete();
+            verify( storageEngine, times( 2 ) ).apply( any( TransactionToApply.class ), eq( RECOVERY ) );
+        }
+    }
+
+    @Test
+    void shouldNotApplyPendingTransactionsWhenClosedWithoutCompleting() throws Exception
+    {
+        try ( RecoveryVisitor visitor = new RecoveryVisitor( storageEngine, RECOVERY, NULL, 3 ) )
+        {
+            visitor.visit( transaction( 2 ) );
+            visitor.visit( transaction( 3 ) );
+        }
+
+        verifyNoInteractions( storageEngine );
+    }
+
+    @Test
+    void shouldNotKeepBatchPendingWhenItFailsToApply() throws Exception
+    {
+        doThrow( new RuntimeException( "apply failure" ) ).when( storageEngine ).apply( any( TransactionToApply.class ), eq( RECOVERY ) );
+
+        try ( RecoveryVisitor visitor = new RecoveryVisitor( storageEngine, RECOVERY, NULL, 2 ) )
+        {
+            visitor.visit( transaction( 2 ) );
+            assertEquals( 1, visitor.pending() );
+
+            assertThrows( RuntimeException.class, () -> visitor.visit( transaction( 3 ) ) );
+            assertEquals( 0, visitor.pending() );
+        }
+    }
+
+    private static CommittedTransactionRepresentation transaction( long txId )
+    {
+        LogEntryStart start = new LogEntryStart( 1, 2, BASE_TX_CHECKSUM, new byte[0], new LogPosition( 0, txId ) );
+        return new CommittedTransactionRepresentation( start, mock( TransactionRepresentation.class ), new LogEntryCommit( txId, 3, BASE_TX_CHECKSUM ) );
+    }
+}
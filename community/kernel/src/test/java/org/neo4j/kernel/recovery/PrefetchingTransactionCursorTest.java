@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class PrefetchingTransactionCursorTest
+{
+    private final JobScheduler scheduler = JobSchedulerFactory.createInitialisedScheduler();
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        scheduler.close();
+    }
+
+    @Test
+    void shouldReturnTransactionsAndPositionsInOrder() throws IOException
+    {
+        FakeCursor delegate = new FakeCursor( 5_000, null );
+
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( delegate, scheduler ) )
+        {
+            assertEquals( new LogPosition( 0, 0 ), cursor.position() );
+            for ( int i = 0; i < 5_000; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertSame( delegate.transactions.get( i ), cursor.get() );
+                assertEquals( new LogPosition( 0, i + 1 ), cursor.position() );
+            }
+            assertFalse( cursor.next() );
+            assertFalse( cursor.next() );
+            assertEquals( new LogPosition( 0, 5_000 ), cursor.position() );
+        }
+        assertTrue( delegate.closed );
+    }
+
+    @Test
+    void shouldRethrowReadFailureAfterTransactionsReadBeforeIt() throws IOException
+    {
+        IOException failure = new IOException( "corrupt" );
+        FakeCursor delegate = new FakeCursor( 3, failure );
+
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( delegate, scheduler ) )
+        {
+            assertTrue( cursor.next() );
+            assertTrue( cursor.next() );
+            assertTrue( cursor.next() );
+            assertSame( failure, assertThrows( IOException.class, cursor::next ) );
+            assertEquals( new LogPosition( 0, 3 ), cursor.position() );
+        }
+    }
+
+    @Test
+    void shouldCloseWithoutReadingAllTransactions() throws IOException
+    {
+        FakeCursor delegate = new FakeCursor( 100_000, null );
+
+        PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( delegate, scheduler );
+        assertTrue( cursor.next() );
+        cursor.close();
+
+        assertTrue( delegate.closed );
+        assertTrue( delegate.read < 100_000 );
+    }
+
+    @Test
+    void shouldOnlyReadAheadAsManyLogBytesAsAllowed() throws Exception
+    {
+        FakeCursor delegate = new FakeCursor( 10, null, 100 );
+
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( delegate, scheduler, 250 ) )
+        {
+            // Two transactions fit in the budget, and the third one is read but waits to be handed over
+            awaitRead( delegate, 3 );
+            Thread.sleep( 100 );
+            assertEquals( 3, delegate.read );
+
+            assertTrue( cursor.next() );
+            awaitRead( delegate, 4 );
+            Thread.sleep( 100 );
+            assertEquals( 4, delegate.read );
+        }
+    }
+
+    @Test
+    void shouldHandOverTransactionBiggerThanAllowedBytes() throws IOException
+    {
+        FakeCursor delegate = new FakeCursor( 3, null, 1_000 );
+
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( delegate, scheduler, 250 ) )
+        {
+            assertTrue( cursor.next() );
+            assertTrue( cursor.next() );
+            assertTrue( cursor.next() );
+            assertFalse( cursor.next() );
+            assertEquals( new LogPosition( 0, 3_000 ), cursor.position() );
+        }
+    }
+
+    @Test
+    void shouldReadTransactionsOnRecoveryPrefetcherJob() throws IOException
+    {
+        FakeCursor delegate = new FakeCursor( 1, null );
+
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( delegate, scheduler ) )
+        {
+            assertTrue( cursor.next() );
+        }
+        assertTrue( delegate.readingThread.startsWith( "neo4j." + Group.RECOVERY_PREFETCHER.groupName() ), delegate.readingThread );
+    }
+
+    private static void awaitRead( FakeCursor delegate, int read ) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ( delegate.read < read && System.currentTimeMillis() < deadline )
+        {
+            Thread.sleep( 1 );
+        }
+        assertEquals( read, delegate.read );
+    }
+
+    private static class FakeCursor implements TransactionCursor
+    {
+        private final List<CommittedTransactionRepresentation> transactions = new ArrayList<>();
+        private final IOException failure;
+        private final int bytesPerTransaction;
+        private volatile int read;
+        private volatile boolean closed;
+        private volatile String readingThread;
+
+        FakeCursor( int count, IOException failure )
+        {
+            this( count, failure, 1 );
+        }
+
+        FakeCursor( int count, IOException failure, int bytesPerTransaction )
+        {
+            this.bytesPerTransaction = bytesPerTransaction;
+            for ( int i = 0; i < count; i++ )
+            {
+                transactions.add( mock( CommittedTransactionRepresentation.class ) );
+            }
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            readingThread = Thread.currentThread().getName();
+            if ( read < transactions.size() )
+            {
+                read++;
+                return true;
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return false;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions.get( read - 1 );
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return new LogPosition( 0, (long) read * bytesPerTransaction );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
@@ -26,6 +26,8 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
@@ -41,6 +43,7 @@ import org.neo4j.kernel.database.DatabaseStartupController;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
@@ -48,6 +51,7 @@ import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PositionAwarePhysicalFlushableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
@@ -60,8 +64,10 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.recovery.DefaultRecoveryService.RecoveryVisitor;
 import org.neo4j.logging.Log;
 import org.neo4j.monitoring.Monitors;
+import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StoreId;
@@ -81,8 +87,12 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -97,6 +107,8 @@ import static org.neo4j.kernel.recovery.RecoveryStartInformation.NO_RECOVERY_REQ
 import static org.neo4j.kernel.recovery.RecoveryStartInformationProvider.NO_MONITOR;
 import static org.neo4j.kernel.recovery.RecoveryStartupChecker.EMPTY_CHECKER;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_RECOVERY;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
 
@@ -485,6 +497,63 @@ class TransactionLogsRecoveryTest
         verify( monitor, never() ).recoveryCompleted( anyInt(), anyLong() );
     }
 
+    @Test
+    void shouldOnlyCountTransactionsAsRecoveredOnceTheirBatchIsApplied() throws Exception
+    {
+        // given
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        doNothing().doThrow( new RuntimeException( "apply failure" ) ).when( storageEngine ).apply( any( CommandsToApply.class ), eq( RECOVERY ) );
+        FakeTransactionCursor transactions = new FakeTransactionCursor( 5, null );
+        RecoveryService recoveryService = batchingRecoveryService( storageEngine, transactions );
+        CorruptedLogsTruncator logsTruncator = mock( CorruptedLogsTruncator.class );
+        RecoveryMonitor monitor = mock( RecoveryMonitor.class );
+
+        // when the second batch, of the third and fourth transaction, fails to apply
+        new TransactionLogsRecovery( recoveryService, logsTruncator, schemaLife, monitor, ProgressReporter.SILENT, false, EMPTY_CHECKER, NULL ).init();
+
+        // then
+        CommittedTransactionRepresentation lastApplied = transactions.transactions.get( 1 );
+        LogPosition afterLastApplied = new LogPosition( 0, 200 );
+        verify( monitor, times( 2 ) ).transactionRecovered( anyLong() );
+        verify( monitor ).failToRecoverTransactionsAfterCommit( any(), eq( lastApplied.getCommitEntry() ), eq( afterLastApplied ) );
+        verify( logsTruncator ).truncate( afterLastApplied );
+        verify( recoveryService ).transactionsRecovered( eq( lastApplied ), eq( afterLastApplied ), eq( afterLastApplied ), eq( false ), any() );
+        verify( monitor ).recoveryCompleted( eq( 2 ), anyLong() );
+    }
+
+    @Test
+    void shouldApplyPendingTransactionsBeforeTruncatingAtUnreadableTransaction() throws Exception
+    {
+        // given
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        FakeTransactionCursor transactions = new FakeTransactionCursor( 3, new IOException( "corrupt" ) );
+        RecoveryService recoveryService = batchingRecoveryService( storageEngine, transactions );
+        CorruptedLogsTruncator logsTruncator = mock( CorruptedLogsTruncator.class );
+        RecoveryMonitor monitor = mock( RecoveryMonitor.class );
+
+        // when
+        new TransactionLogsRecovery( recoveryService, logsTruncator, schemaLife, monitor, ProgressReporter.SILENT, false, EMPTY_CHECKER, NULL ).init();
+
+        // then
+        CommittedTransactionRepresentation lastRead = transactions.transactions.get( 2 );
+        LogPosition afterLastRead = new LogPosition( 0, 300 );
+        verify( storageEngine, times( 2 ) ).apply( any( CommandsToApply.class ), eq( RECOVERY ) );
+        verify( monitor, times( 3 ) ).transactionRecovered( anyLong() );
+        verify( logsTruncator ).truncate( afterLastRead );
+        verify( recoveryService ).transactionsRecovered( eq( lastRead ), eq( afterLastRead ), eq( afterLastRead ), eq( false ), any() );
+    }
+
+    private static RecoveryService batchingRecoveryService( StorageEngine storageEngine, TransactionCursor transactions ) throws Exception
+    {
+        RecoveryService recoveryService = mock( RecoveryService.class );
+        when( recoveryService.getRecoveryStartInformation() ).thenReturn( new RecoveryStartInformation( new LogPosition( 0, 0 ), 2 ) );
+        when( recoveryService.getTransactionsInReverseOrder( any() ) ).thenReturn( new FakeTransactionCursor( 0, null ) );
+        when( recoveryService.getTransactions( any() ) ).thenReturn( transactions );
+        when( recoveryService.getRecoveryApplier( eq( REVERSE_RECOVERY ), any() ) ).thenReturn( mock( RecoveryApplier.class ) );
+        when( recoveryService.getRecoveryApplier( eq( RECOVERY ), any() ) ).thenReturn( new RecoveryVisitor( storageEngine, RECOVERY, NULL, 2 ) );
+        return recoveryService;
+    }
+
     private boolean recover( File storeDir, LogFiles logFiles )
     {
         return recover( storeDir, logFiles, EMPTY_CHECKER );
@@ -555,4 +624,58 @@ class TransactionLogsRecoveryTest
             visitor.visit( Pair.of( first, consumer ) );
         }
     }
+
+    /**
+     * Transactions with ids from 2, each taking up 100 bytes of the log.
+     */
+    private static class FakeTransactionCursor implements TransactionCursor
+    {
+        private final List<CommittedTransactionRepresentation> transactions = new ArrayList<>();
+        private final IOException failure;
+        private int read;
+
+        FakeTransactionCursor( int count, IOException failure )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                long txId = i + 2;
+                LogEntryStart start = new LogEntryStart( 1, 2, BASE_TX_CHECKSUM, new byte[0], new LogPosition( 0, i * 100 ) );
+                transactions.add( new CommittedTransactionRepresentation( start, mock( TransactionRepresentation.class ),
+                        new LogEntryCommit( txId, 3, BASE_TX_CHECKSUM ) ) );
+            }
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( read < transactions.size() )
+            {
+                read++;
+                return true;
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return false;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions.get( read - 1 );
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return new LogPosition( 0, read * 100L );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
 }
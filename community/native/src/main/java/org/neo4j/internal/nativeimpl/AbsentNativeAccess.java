@@ -51,6 +51,42 @@ public class AbsentNativeAccess implements NativeAccess
         return NativeCallResult.SUCCESS;
     }
 
+    @Override
+    public NativeCallResult tryAdviseHugePages( long address, long bytes )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
+    @Override
+    public long tryMapHugePages( long bytes )
+    {
+        return 0;
+    }
+
+    @Override
+    public NativeCallResult tryUnmapMemory( long address, long bytes )
+    {
+        return new NativeCallResult( ERROR, "Memory was not mapped by native access." );
+    }
+
+    @Override
+    public NativeCallResult tryInterleaveMemory( long address, long bytes, int[] nodes )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
+    @Override
+    public NativeCallResult tryBindMemory( long address, long bytes, int[] nodes )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
+    @Override
+    public NativeIoQueue tryCreateIoQueue( int depth )
+    {
+        return null;
+    }
+
     @Override
     public String describe()
     {
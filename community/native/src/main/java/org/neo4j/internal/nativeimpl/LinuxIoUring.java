@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+
+import static org.neo4j.internal.nativeimpl.LinuxNativeAccess.mmap;
+import static org.neo4j.internal.nativeimpl.LinuxNativeAccess.munmap;
+import static org.neo4j.internal.nativeimpl.LinuxNativeAccess.syscall;
+
+/**
+ * A {@link NativeIoQueue} on top of the Linux io_uring interface.
+ * <p>
+ * The submission and completion rings, and the submission queue entries, are memory shared with the kernel. Operations are only
+ * submitted through {@code io_uring_enter}, never through a kernel side polling thread, so the system call orders our stores to the rings
+ * before the kernel reads them, and the kernel stores to the rings before we read them.
+ * <p>
+ * Reads and writes use the vectored opcodes with a single io vector per entry, since those are available in all kernels with io_uring.
+ * The io vectors must stay valid until their operation completes, which is why {@link #submitAndAwait(CompletionHandler)} always waits for the
+ * whole batch, so every entry and io vector is free again once it returns.
+ */
+final class LinuxIoUring implements NativeIoQueue
+{
+    /**
+     * The io_uring system calls have the same numbers on all architectures.
+     * For more info check man page for io_uring_setup and io_uring_enter.
+     */
+    private static final long SYS_IO_URING_SETUP = 425;
+    private static final long SYS_IO_URING_ENTER = 426;
+
+    /**
+     * Constants defined in io_uring.h for the mmap offsets of the rings, the enter flags, and the opcodes.
+     */
+    private static final long IORING_OFF_SQ_RING = 0L;
+    private static final long IORING_OFF_CQ_RING = 0x8000000L;
+    private static final long IORING_OFF_SQES = 0x10000000L;
+    private static final int IORING_ENTER_GETEVENTS = 1;
+    private static final byte IORING_OP_READV = 1;
+    private static final byte IORING_OP_WRITEV = 2;
+
+    /**
+     * Layout of struct io_uring_params, with the embedded struct io_sqring_offsets and struct io_cqring_offsets.
+     */
+    private static final int PARAMS_SIZE = 120;
+    private static final int PARAMS_SQ_ENTRIES = 0;
+    private static final int PARAMS_CQ_ENTRIES = 4;
+    private static final int SQ_OFF_TAIL = 44;
+    private static final int SQ_OFF_RING_MASK = 48;
+    private static final int SQ_OFF_ARRAY = 64;
+    private static final int CQ_OFF_HEAD = 80;
+    private static final int CQ_OFF_TAIL = 84;
+    private static final int CQ_OFF_RING_MASK = 88;
+    private static final int CQ_OFF_CQES = 100;
+
+    /**
+     * Layout of struct io_uring_sqe, struct io_uring_cqe and struct iovec.
+     */
+    private static final int SQE_SIZE = 64;
+    private static final int SQE_OPCODE = 0;
+    private static final int SQE_FD = 4;
+    private static final int SQE_OFF = 8;
+    private static final int SQE_ADDR = 16;
+    private static final int SQE_LEN = 24;
+    private static final int SQE_USER_DATA = 32;
+    private static final int CQE_SIZE = 16;
+    private static final int CQE_USER_DATA = 0;
+    private static final int CQE_RES = 8;
+    private static final int IOVEC_SIZE = 16;
+
+    private static final int PROT_READ_WRITE = 0x1 | 0x2;
+    private static final int MAP_SHARED_POPULATE = 0x01 | 0x8000;
+    private static final long MAP_FAILED = -1;
+    private static final int EINTR = 4;
+    private static final int EAGAIN = 11;
+    private static final int EBUSY = 16;
+
+    private final int ringFd;
+    private final int sqEntries;
+    private final long sqRingSize;
+    private final long cqRingSize;
+    private final long sqesSize;
+    private final Pointer sqRing;
+    private final Pointer cqRing;
+    private final Pointer sqes;
+    private final Pointer iovecs;
+    private final int sqMask;
+    private final int sqArray;
+    private final int cqMask;
+    private final int cqes;
+    private final int sqTailOffset;
+    private final int cqHeadOffset;
+    private final int cqTailOffset;
+    private int sqTail;
+    private int prepared;
+    private boolean abandoned;
+    private boolean closed;
+
+    private LinuxIoUring( int ringFd, Memory params ) throws IOException
+    {
+        this.ringFd = ringFd;
+        sqEntries = params.getInt( PARAMS_SQ_ENTRIES );
+        int cqEntries = params.getInt( PARAMS_CQ_ENTRIES );
+        sqArray = params.getInt( SQ_OFF_ARRAY );
+        cqes = params.getInt( CQ_OFF_CQES );
+        sqRingSize = sqArray + (long) sqEntries * Integer.BYTES;
+        cqRingSize = cqes + (long) cqEntries * CQE_SIZE;
+        sqesSize = (long) sqEntries * SQE_SIZE;
+
+        long sqRingAddress = MAP_FAILED;
+        long cqRingAddress = MAP_FAILED;
+        long sqesAddress = MAP_FAILED;
+        try
+        {
+            sqRingAddress = mmap( 0, sqRingSize, PROT_READ_WRITE, MAP_SHARED_POPULATE, ringFd, IORING_OFF_SQ_RING );
+            cqRingAddress = mmap( 0, cqRingSize, PROT_READ_WRITE, MAP_SHARED_POPULATE, ringFd, IORING_OFF_CQ_RING );
+            sqesAddress = mmap( 0, sqesSize, PROT_READ_WRITE, MAP_SHARED_POPULATE, ringFd, IORING_OFF_SQES );
+        }
+        catch ( LastErrorException e )
+        {
+            unmap( sqRingAddress, sqRingSize );
+            unmap( cqRingAddress, cqRingSize );
+            throw new IOException( "Could not map the io_uring rings, error " + e.getErrorCode(), e );
+        }
+        long iovecsAddress = Native.malloc( (long) sqEntries * IOVEC_SIZE );
+        if ( iovecsAddress == 0 )
+        {
+            unmap( sqRingAddress, sqRingSize );
+            unmap( cqRingAddress, cqRingSize );
+            unmap( sqesAddress, sqesSize );
+            throw new IOException( "Could not allocate the io_uring io vectors" );
+        }
+        sqRing = new Pointer( sqRingAddress );
+        cqRing = new Pointer( cqRingAddress );
+        sqes = new Pointer( sqesAddress );
+        iovecs = new Pointer( iovecsAddress );
+        sqMask = sqRing.getInt( params.getInt( SQ_OFF_RING_MASK ) );
+        cqMask = cqRing.getInt( params.getInt( CQ_OFF_RING_MASK ) );
+        sqTail = sqRing.getInt( params.getInt( SQ_OFF_TAIL ) );
+        sqTailOffset = params.getInt( SQ_OFF_TAIL );
+        cqHeadOffset = params.getInt( CQ_OFF_HEAD );
+        cqTailOffset = params.getInt( CQ_OFF_TAIL );
+    }
+
+    /**
+     * Set up a new io_uring instance.
+     * @param depth the requested number of submission queue entries, which the kernel rounds up to a power of two
+     * @throws IOException if the kernel does not support io_uring, or does not permit this process to use it
+     */
+    static LinuxIoUring create( int depth ) throws IOException
+    {
+        Memory params = new Memory( PARAMS_SIZE );
+        params.clear();
+        int ringFd;
+        try
+        {
+            ringFd = (int) syscall( SYS_IO_URING_SETUP, depth, Pointer.nativeValue( params ), 0, 0, 0, 0 );
+        }
+        catch ( LastErrorException e )
+        {
+            throw new IOException( "Could not set up io_uring, error " + e.getErrorCode(), e );
+        }
+        try
+        {
+            return new LinuxIoUring( ringFd, params );
+        }
+        catch ( IOException e )
+        {
+            LinuxNativeAccess.close( ringFd );
+            throw e;
+        }
+    }
+
+    @Override
+    public int depth()
+    {
+        return sqEntries;
+    }
+
+    @Override
+    public boolean prepareRead( int fd, long fileOffset, long address, int length, long userData )
+    {
+        return prepare( IORING_OP_READV, fd, fileOffset, address, length, userData );
+    }
+
+    @Override
+    public boolean prepareWrite( int fd, long fileOffset, long address, int length, long userData )
+    {
+        return prepare( IORING_OP_WRITEV, fd, fileOffset, address, length, userData );
+    }
+
+    private boolean prepare( byte opcode, int fd, long fileOffset, long address, int length, long userData )
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "io_uring has been closed" );
+        }
+        if ( prepared == sqEntries )
+        {
+            return false;
+        }
+        int index = (sqTail + prepared) & sqMask;
+        long iovec = (long) index * IOVEC_SIZE;
+        iovecs.setLong( iovec, address );
+        iovecs.setLong( iovec + Long.BYTES, length );
+
+        long sqe = (long) index * SQE_SIZE;
+        sqes.setMemory( sqe, SQE_SIZE, (byte) 0 );
+        sqes.setByte( sqe + SQE_OPCODE, opcode );
+        sqes.setInt( sqe + SQE_FD, fd );
+        sqes.setLong( sqe + SQE_OFF, fileOffset );
+        sqes.setLong( sqe + SQE_ADDR, Pointer.nativeValue( iovecs ) + iovec );
+        sqes.setInt( sqe + SQE_LEN, 1 );
+        sqes.setLong( sqe + SQE_USER_DATA, userData );
+        sqRing.setInt( sqArray + (long) index * Integer.BYTES, index );
+        prepared++;
+        return true;
+    }
+
+    @Override
+    public void submitAndAwait( CompletionHandler handler ) throws IOException
+    {
+        int toComplete = prepared;
+        if ( toComplete == 0 )
+        {
+            return;
+        }
+        sqTail += prepared;
+        sqRing.setInt( sqTailOffset, sqTail );
+        int toSubmit = prepared;
+        prepared = 0;
+
+        while ( toComplete > 0 )
+        {
+            try
+            {
+                toSubmit -= (int) syscall( SYS_IO_URING_ENTER, ringFd, toSubmit, toComplete, IORING_ENTER_GETEVENTS, 0, 0 );
+            }
+            catch ( LastErrorException e )
+            {
+                int errno = e.getErrorCode();
+                if ( errno != EINTR && errno != EAGAIN && errno != EBUSY )
+                {
+                    // The entries the kernel has already consumed still refer to the buffers of the caller, so they have to
+                    // complete before the caller can reuse those buffers, or close this queue.
+                    awaitInFlight( handler, toComplete - toSubmit );
+                    throw new IOException( "Could not submit to io_uring, error " + errno, e );
+                }
+            }
+            toComplete -= reap( handler );
+        }
+    }
+
+    /**
+     * Wait for the given number of operations, that were submitted but have not been reaped, to complete. If the kernel refuses to
+     * wait for them, the queue is marked as abandoned, so that {@link #close()} leaves the io vectors they might still refer to alone.
+     */
+    private void awaitInFlight( CompletionHandler handler, int inFlight )
+    {
+        inFlight -= reap( handler );
+        while ( inFlight > 0 )
+        {
+            try
+            {
+                syscall( SYS_IO_URING_ENTER, ringFd, 0, inFlight, IORING_ENTER_GETEVENTS, 0, 0 );
+            }
+            catch ( LastErrorException e )
+            {
+                int errno = e.getErrorCode();
+                if ( errno != EINTR && errno != EAGAIN && errno != EBUSY )
+                {
+                    abandoned = true;
+                    return;
+                }
+            }
+            inFlight -= reap( handler );
+        }
+    }
+
+    private int reap( CompletionHandler handler )
+    {
+        int head = cqRing.getInt( cqHeadOffset );
+        int tail = cqRing.getInt( cqTailOffset );
+        int count = 0;
+        while ( head != tail )
+        {
+            long cqe = cqes + (long) (head & cqMask) * CQE_SIZE;
+            handler.completed( cqRing.getLong( cqe + CQE_USER_DATA ), cqRing.getInt( cqe + CQE_RES ) );
+            head++;
+            count++;
+        }
+        cqRing.setInt( cqHeadOffset, head );
+        return count;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+        unmap( Pointer.nativeValue( sqes ), sqesSize );
+        unmap( Pointer.nativeValue( cqRing ), cqRingSize );
+        unmap( Pointer.nativeValue( sqRing ), sqRingSize );
+        if ( !abandoned )
+        {
+            // Closing the ring cancels operations that are still in flight, but the kernel might not be done with their io vectors yet.
+            Native.free( Pointer.nativeValue( iovecs ) );
+        }
+        LinuxNativeAccess.close( ringFd );
+    }
+
+    private static void unmap( long address, long size )
+    {
+        if ( address != MAP_FAILED )
+        {
+            munmap( address, size );
+        }
+    }
+}
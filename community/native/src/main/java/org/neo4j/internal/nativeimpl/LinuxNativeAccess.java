@@ -24,6 +24,12 @@ import com.sun.jna.Native;
 import com.sun.jna.Platform;
 import com.sun.jna.Pointer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+
 import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
 
 public class LinuxNativeAccess implements NativeAccess
@@ -47,6 +53,37 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static final int POSIX_FADV_DONTNEED = 4;
 
+    /**
+     * Constant defined in mman.h and suggest that the specified memory region should be backed by transparent huge pages.
+     * For more info check man page for madvise.
+     */
+    private static final int MADV_HUGEPAGE = 14;
+
+    /**
+     * Constants defined in mman.h for an anonymous, private, readable and writable mapping that is backed by the huge page pool.
+     * For more info check man page for mmap.
+     */
+    private static final int PROT_READ_WRITE = 0x1 | 0x2;
+    private static final int MAP_PRIVATE_ANONYMOUS = 0x02 | 0x20;
+    private static final int MAP_HUGETLB = 0x40000;
+    private static final long MAP_FAILED = -1;
+
+    /**
+     * Constants defined in mempolicy.h for binding or interleaving memory over a set of NUMA nodes, and for moving any pages that
+     * have already been populated so that they conform to the new policy.
+     * For more info check man page for mbind.
+     */
+    private static final int MPOL_BIND = 2;
+    private static final int MPOL_INTERLEAVE = 3;
+    private static final int MPOL_MF_MOVE = 1 << 1;
+
+    /**
+     * The C library does not expose mbind, that lives in libnuma, so it is called through syscall with the platform specific number.
+     */
+    private static final long SYS_MBIND = mbindSyscallNumber( System.getProperty( "os.arch", "" ) );
+    private static final long PAGE_SIZE = 4096;
+    private static final Path ONLINE_NUMA_NODES = Paths.get( "/sys/devices/system/node/online" );
+
     private static final int EINVAL = 22;
     private static final int ERANGE = 34;
 
@@ -98,6 +135,39 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static native int posix_fallocate( int fd, long offset, long len ) throws LastErrorException;
 
+    /**
+     * Give advice about use of memory in the range starting at address and extending for length bytes.
+     * @param address page aligned start of the memory region
+     * @param length length of the memory region in bytes
+     * @param advice advice options
+     * @return 0 on success. On error, -1 is returned and errno is set
+     */
+    private static native int madvise( long address, long length, int advice ) throws LastErrorException;
+
+    /**
+     * Create a new mapping in the virtual address space of the calling process.
+     * @return address of the mapped area on success. On error, MAP_FAILED is returned and errno is set
+     */
+    static native long mmap( long address, long length, int prot, int flags, int fd, long offset ) throws LastErrorException;
+
+    /**
+     * Delete the mappings for the specified address range.
+     * @return 0 on success. On error, -1 is returned and errno is set
+     */
+    static native int munmap( long address, long length ) throws LastErrorException;
+
+    /**
+     * Invoke the system call with the given number and arguments.
+     * @return the system call result. On error, -1 is returned and errno is set
+     */
+    static native long syscall( long number, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6 ) throws LastErrorException;
+
+    /**
+     * Close the file descriptor.
+     * @return 0 on success. On error, -1 is returned and errno is set
+     */
+    static native int close( int fd ) throws LastErrorException;
+
     /**
      * Return pointer to a string describing error number, possibly using the LC_MESSAGES part of the current locale to select the appropriate language.
      * @param errnum error number to describe
@@ -156,6 +226,191 @@ public class LinuxNativeAccess implements NativeAccess
         return wrapResult( () -> posix_fallocate( fd, 0, bytes ) );
     }
 
+    @Override
+    public NativeCallResult tryAdviseHugePages( long address, long bytes )
+    {
+        long start = alignUp( address );
+        long end = alignDown( address + bytes );
+        if ( address <= 0 || end <= start )
+        {
+            return new NativeCallResult( ERROR, "Memory region does not contain any whole pages." );
+        }
+        return wrapResult( () -> madvise( start, end - start, MADV_HUGEPAGE ) );
+    }
+
+    @Override
+    public long tryMapHugePages( long bytes )
+    {
+        if ( bytes <= 0 )
+        {
+            return 0;
+        }
+        try
+        {
+            long address = mmap( 0, bytes, PROT_READ_WRITE, MAP_PRIVATE_ANONYMOUS | MAP_HUGETLB, -1, 0 );
+            return address == MAP_FAILED ? 0 : address;
+        }
+        catch ( LastErrorException e )
+        {
+            // Most likely the huge page pool is not configured, or does not have enough free huge pages left.
+            return 0;
+        }
+    }
+
+    @Override
+    public NativeCallResult tryUnmapMemory( long address, long bytes )
+    {
+        if ( address <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Incorrect memory address." );
+        }
+        return wrapResult( () -> munmap( address, bytes ) );
+    }
+
+    @Override
+    public NativeCallResult tryInterleaveMemory( long address, long bytes, int[] nodes )
+    {
+        return memoryPolicy( address, bytes, MPOL_INTERLEAVE, nodes );
+    }
+
+    @Override
+    public NativeCallResult tryBindMemory( long address, long bytes, int[] nodes )
+    {
+        return memoryPolicy( address, bytes, MPOL_BIND, nodes );
+    }
+
+    private static NativeCallResult memoryPolicy( long address, long bytes, int mode, int[] nodes )
+    {
+        if ( SYS_MBIND < 0 )
+        {
+            return new NativeCallResult( ERROR, "Memory policies are not supported on the " + System.getProperty( "os.arch" ) + " architecture." );
+        }
+        long start = alignUp( address );
+        long end = alignDown( address + bytes );
+        if ( address <= 0 || end <= start )
+        {
+            return new NativeCallResult( ERROR, "Memory region does not contain any whole pages." );
+        }
+        BitSet nodeSet = nodes.length == 0 ? onlineNumaNodes() : toBitSet( nodes );
+        if ( nodeSet.isEmpty() )
+        {
+            return new NativeCallResult( ERROR, "No NUMA nodes available." );
+        }
+        long[] words = nodeSet.toLongArray();
+        long nodeMask = Native.malloc( (long) words.length * Long.BYTES );
+        if ( nodeMask == 0 )
+        {
+            return new NativeCallResult( ERROR, "Unable to allocate NUMA node mask." );
+        }
+        try
+        {
+            Pointer pointer = new Pointer( nodeMask );
+            for ( int i = 0; i < words.length; i++ )
+            {
+                pointer.setLong( (long) i * Long.BYTES, words[i] );
+            }
+            // The kernel ignores the last bit of maxnode, so we ask for one more than the number of bits in the mask.
+            long maxNode = (long) words.length * Long.SIZE + 1;
+            return wrapResult( () -> (int) syscall( SYS_MBIND, start, end - start, mode, nodeMask, maxNode, MPOL_MF_MOVE ) );
+        }
+        finally
+        {
+            Native.free( nodeMask );
+        }
+    }
+
+    private static BitSet onlineNumaNodes()
+    {
+        // The file contains a list of node ranges, like "0-1,3".
+        BitSet nodes = new BitSet();
+        try
+        {
+            for ( String range : Files.readString( ONLINE_NUMA_NODES ).trim().split( "," ) )
+            {
+                if ( range.isEmpty() )
+                {
+                    continue;
+                }
+                int separator = range.indexOf( '-' );
+                int from = Integer.parseInt( separator < 0 ? range : range.substring( 0, separator ) );
+                int to = separator < 0 ? from : Integer.parseInt( range.substring( separator + 1 ) );
+                nodes.set( from, to + 1 );
+            }
+        }
+        catch ( IOException | NumberFormatException e )
+        {
+            nodes.clear();
+        }
+        return nodes;
+    }
+
+    private static BitSet toBitSet( int[] nodes )
+    {
+        BitSet nodeSet = new BitSet();
+        for ( int node : nodes )
+        {
+            if ( node >= 0 )
+            {
+                nodeSet.set( node );
+            }
+        }
+        return nodeSet;
+    }
+
+    /**
+     * @param arch the value of the {@code os.arch} system property.
+     * @return the number of the mbind system call on the given architecture, or -1 if it is not known, in which case memory
+     * policies are not applied at all.
+     */
+    static long mbindSyscallNumber( String arch )
+    {
+        switch ( arch )
+        {
+        case "amd64":
+        case "x86_64":
+            return 237;
+        case "aarch64":
+        case "riscv64":
+            // Both use the generic system call table.
+            return 235;
+        case "ppc64":
+        case "ppc64le":
+            return 259;
+        case "s390x":
+            return 268;
+        default:
+            return -1;
+        }
+    }
+
+    private static long alignUp( long address )
+    {
+        return (address + PAGE_SIZE - 1) & -PAGE_SIZE;
+    }
+
+    private static long alignDown( long address )
+    {
+        return address & -PAGE_SIZE;
+    }
+
+    @Override
+    public NativeIoQueue tryCreateIoQueue( int depth )
+    {
+        if ( !NATIVE_ACCESS_AVAILABLE || depth <= 0 )
+        {
+            return null;
+        }
+        try
+        {
+            return LinuxIoUring.create( depth );
+        }
+        catch ( IOException e )
+        {
+            // Most likely the kernel is older than 5.1, or io_uring has been disabled for this process.
+            return null;
+        }
+    }
+
     @Override
     public String describe()
     {
@@ -69,6 +69,56 @@ public interface NativeAccess
      */
     NativeCallResult tryPreallocateSpace( int fd, long bytes );
 
+    /**
+     * Try to advise that the memory region starting at the provided address should be backed by transparent huge pages.
+     * Should be called before the memory is touched, since already populated pages are only collapsed into huge pages lazily, if at all.
+     * @param address start of the memory region
+     * @param bytes length of the memory region in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryAdviseHugePages( long address, long bytes );
+
+    /**
+     * Try to map an anonymous, private memory region that is backed by explicit huge pages from the operating system huge page pool.
+     * The region must be released with {@link #tryUnmapMemory(long, long)}.
+     * @param bytes length of the memory region in bytes, must be a multiple of the huge page size
+     * @return address of the mapped region, or zero if the region could not be mapped
+     */
+    long tryMapHugePages( long bytes );
+
+    /**
+     * Try to unmap a memory region that was mapped by {@link #tryMapHugePages(long)}.
+     * @param address start of the memory region
+     * @param bytes length of the memory region in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryUnmapMemory( long address, long bytes );
+
+    /**
+     * Try to interleave the pages of the provided memory region across the given NUMA nodes, in a round robin fashion.
+     * @param address start of the memory region
+     * @param bytes length of the memory region in bytes
+     * @param nodes NUMA nodes to interleave over, or an empty array for all online nodes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryInterleaveMemory( long address, long bytes, int[] nodes );
+
+    /**
+     * Try to bind the pages of the provided memory region to the given NUMA nodes.
+     * @param address start of the memory region
+     * @param bytes length of the memory region in bytes
+     * @param nodes NUMA nodes to bind memory to, or an empty array for all online nodes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryBindMemory( long address, long bytes, int[] nodes );
+
+    /**
+     * Try to create a queue for submitting batches of asynchronous file reads and writes to the operating system in a single round trip.
+     * @param depth the maximum number of operations per batch. The queue might support more than this
+     * @return a new queue that must be closed by the caller, or {@code null} if the platform does not support asynchronous file IO
+     */
+    NativeIoQueue tryCreateIoQueue( int depth );
+
     /**
      * Details about native access provider
      * @return details about native access
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import java.io.IOException;
+
+/**
+ * A queue of asynchronous file reads and writes, that are submitted to the operating system together, in a single round trip.
+ * <p>
+ * Operations are first prepared, then submitted as a batch with {@link #submitAndAwait(CompletionHandler)}, which returns when all of them
+ * have completed. A queue is not thread safe, and must only be used by one thread at a time.
+ */
+public interface NativeIoQueue extends AutoCloseable
+{
+    /**
+     * @return the maximum number of operations that can be prepared in one batch.
+     */
+    int depth();
+
+    /**
+     * Prepare a read of the given number of bytes at the given file offset, into the memory at the given address.
+     * @param fd file descriptor
+     * @param fileOffset offset in the file to read from
+     * @param address address of the memory to read into
+     * @param length number of bytes to read
+     * @param userData value that identifies the operation when it completes
+     * @return {@code true} if the read was prepared, or {@code false} if the queue is already full
+     */
+    boolean prepareRead( int fd, long fileOffset, long address, int length, long userData );
+
+    /**
+     * Prepare a write of the given number of bytes from the memory at the given address, to the given file offset.
+     * @param fd file descriptor
+     * @param fileOffset offset in the file to write to
+     * @param address address of the memory to write from
+     * @param length number of bytes to write
+     * @param userData value that identifies the operation when it completes
+     * @return {@code true} if the write was prepared, or {@code false} if the queue is already full
+     */
+    boolean prepareWrite( int fd, long fileOffset, long address, int length, long userData );
+
+    /**
+     * Submit all prepared operations, and wait for all of them to complete.
+     * @param handler is called once for every completed operation
+     * @throws IOException if the operations could not be submitted. Failures of the individual operations are instead reported to the handler.
+     * Operations that were submitted before the failure have completed, and have been reported to the handler, when this exception is thrown.
+     */
+    void submitAndAwait( CompletionHandler handler ) throws IOException;
+
+    /**
+     * Release the queue. Must not be called while operations are in flight.
+     */
+    @Override
+    void close();
+
+    interface CompletionHandler
+    {
+        /**
+         * @param userData the value that was given when the operation was prepared
+         * @param result the number of bytes transferred, which might be fewer than requested, or a negated error number if the operation failed
+         */
+        void completed( long userData, int result );
+    }
+}
@@ -19,6 +19,9 @@
  */
 package org.neo4j.internal.nativeimpl;
 
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -39,6 +42,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.internal.nativeimpl.NativeAccess.ERROR;
 
 class LinuxNativeAccessTest
@@ -52,6 +56,16 @@ class LinuxNativeAccessTest
         assertFalse( nativeAccess.isAvailable() );
     }
 
+    @Test
+    void mbindSyscallNumberDependsOnArchitecture()
+    {
+        assertEquals( 237, LinuxNativeAccess.mbindSyscallNumber( "amd64" ) );
+        assertEquals( 235, LinuxNativeAccess.mbindSyscallNumber( "aarch64" ) );
+        assertEquals( 259, LinuxNativeAccess.mbindSyscallNumber( "ppc64le" ) );
+        assertEquals( -1, LinuxNativeAccess.mbindSyscallNumber( "x86" ) );
+        assertEquals( -1, LinuxNativeAccess.mbindSyscallNumber( "" ) );
+    }
+
     @Nested
     @EnabledOnOs( OS.LINUX )
     class AccessLinuxMethodsTest
@@ -162,6 +176,105 @@ class LinuxNativeAccessTest
                 assertFalse( nativeAccess.tryEvictFromCache( descriptor ).isError() );
             }
         }
+
+        @Test
+        void failToAdviseHugePagesForRegionWithoutWholePages()
+        {
+            assertTrue( nativeAccess.tryAdviseHugePages( 0, 1024 ).isError() );
+            assertTrue( nativeAccess.tryAdviseHugePages( 4096, 10 ).isError() );
+        }
+
+        @Test
+        void failToApplyMemoryPolicyForRegionWithoutWholePages()
+        {
+            assertTrue( nativeAccess.tryInterleaveMemory( 0, 1024, new int[0] ).isError() );
+            assertTrue( nativeAccess.tryBindMemory( 4096, 10, new int[0] ).isError() );
+        }
+
+        @Test
+        void failToUnmapIncorrectAddress()
+        {
+            assertEquals( ERROR, nativeAccess.tryUnmapMemory( 0, 4096 ).getErrorCode() );
+        }
+
+        @Test
+        void mappedHugePagesMustBeUsableAndUnmappable()
+        {
+            long bytes = 2 * 1024 * 1024;
+            long address = nativeAccess.tryMapHugePages( bytes );
+            // The huge page pool is usually not configured, in which case there is nothing more to check.
+            if ( address != 0 )
+            {
+                Pointer pointer = new Pointer( address );
+                pointer.setLong( bytes - Long.BYTES, 42 );
+                assertEquals( 42, pointer.getLong( bytes - Long.BYTES ) );
+                assertFalse( nativeAccess.tryUnmapMemory( address, bytes ).isError() );
+            }
+        }
+
+        @Test
+        void ioQueueMustReadAndWriteBatches() throws IOException, IllegalAccessException
+        {
+            try ( NativeIoQueue queue = nativeAccess.tryCreateIoQueue( 4 ) )
+            {
+                // io_uring is not available in kernels older than 5.1, or might be disabled, in which case there is nothing more to check.
+                assumeTrue( queue != null );
+                assertThat( queue.depth() ).isGreaterThanOrEqualTo( 4 );
+                File file = new File( tempFile, "queued" );
+                int pageSize = 512;
+                Memory buffers = new Memory( 4 * pageSize );
+                try ( RandomAccessFile randomFile = new RandomAccessFile( file, "rw" ) )
+                {
+                    int descriptor = getDescriptor( randomFile );
+                    for ( int i = 0; i < 4; i++ )
+                    {
+                        buffers.setLong( i * pageSize, i + 1 );
+                        assertTrue( queue.prepareWrite( descriptor, (3 - i) * pageSize, Pointer.nativeValue( buffers ) + i * pageSize, pageSize, i ) );
+                    }
+                    long[] results = new long[4];
+                    queue.submitAndAwait( ( userData, result ) -> results[(int) userData] = result );
+                    assertThat( results ).containsOnly( pageSize );
+                    assertEquals( 4 * pageSize, randomFile.length() );
+
+                    buffers.clear();
+                    for ( int i = 0; i < 4; i++ )
+                    {
+                        assertTrue( queue.prepareRead( descriptor, i * pageSize, Pointer.nativeValue( buffers ) + i * pageSize, pageSize, i ) );
+                    }
+                    queue.submitAndAwait( ( userData, result ) -> results[(int) userData] = result );
+                    assertThat( results ).containsOnly( pageSize );
+                    for ( int i = 0; i < 4; i++ )
+                    {
+                        assertEquals( 4 - i, buffers.getLong( i * pageSize ) );
+                    }
+                }
+            }
+        }
+
+        @Test
+        void ioQueueMustReportFailedOperationsAndFullQueue() throws IOException, IllegalAccessException
+        {
+            try ( NativeIoQueue queue = nativeAccess.tryCreateIoQueue( 1 ) )
+            {
+                assumeTrue( queue != null );
+                Memory buffer = new Memory( 512 );
+                int descriptor = getClosedDescriptor( new File( tempFile, "closed" ) );
+                int prepared = 0;
+                while ( queue.prepareRead( descriptor, 0, Pointer.nativeValue( buffer ), 512, prepared ) )
+                {
+                    prepared++;
+                }
+                assertEquals( queue.depth(), prepared );
+
+                MutableInt completions = new MutableInt();
+                queue.submitAndAwait( ( userData, result ) ->
+                {
+                    assertThat( result ).isNegative();
+                    completions.increment();
+                } );
+                assertEquals( prepared, completions.intValue() );
+            }
+        }
     }
 
     private void preallocate( File file, long bytes ) throws IOException, IllegalAccessException
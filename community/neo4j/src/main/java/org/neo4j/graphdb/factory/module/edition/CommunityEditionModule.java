@@ -29,6 +29,7 @@ import org.neo4j.bolt.txtracking.SimpleReconciledTransactionTracker;
 import org.neo4j.collection.Dependencies;
 import org.neo4j.common.DependencyResolver;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.configuration.connectors.BoltConnector;
 import org.neo4j.configuration.connectors.ConnectorPortRegister;
@@ -71,6 +72,7 @@ import org.neo4j.kernel.impl.locking.LocksFactory;
 import org.neo4j.kernel.impl.locking.SimpleStatementLocksFactory;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.LatencyAwareIOLimiter;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFilesHelper;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.logging.Log;
@@ -132,11 +134,11 @@ public class CommunityEditionModule extends StandaloneEditionModule
 
         tokenHoldersProvider = createTokenHolderProvider( globalModule );
 
-        commitProcessFactory = new CommunityCommitProcessFactory();
+        commitProcessFactory = new CommunityCommitProcessFactory( globalModule.getJobScheduler() );
 
         constraintSemantics = createSchemaRuleVerifier();
 
-        ioLimiter = IOLimiter.UNLIMITED;
+        ioLimiter = createIOLimiter( globalModule );
 
         connectionTracker = globalDependencies.satisfyDependency( createConnectionTracker() );
         globalAvailabilityGuard = globalModule.getGlobalAvailabilityGuard();
@@ -162,6 +164,19 @@ public class CommunityEditionModule extends StandaloneEditionModule
         };
     }
 
+    private static IOLimiter createIOLimiter( GlobalModule globalModule )
+    {
+        Config globalConfig = globalModule.getGlobalConfig();
+        if ( !globalConfig.get( GraphDatabaseInternalSettings.check_point_iops_latency_feedback ) )
+        {
+            return IOLimiter.UNLIMITED;
+        }
+        // Listens to log forces of all databases, since they all share the same storage device.
+        LatencyAwareIOLimiter ioLimiter = new LatencyAwareIOLimiter( globalConfig, globalModule.getGlobalClock() );
+        globalModule.getGlobalMonitors().addMonitorListener( ioLimiter );
+        return ioLimiter;
+    }
+
     private static IdContextFactory createIdContextFactory( GlobalModule globalModule )
     {
         return IdContextFactoryBuilder.of( globalModule.getFileSystem(), globalModule.getJobScheduler(), globalModule.getGlobalConfig(),
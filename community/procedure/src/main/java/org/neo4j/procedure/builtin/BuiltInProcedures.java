@@ -58,8 +58,11 @@ import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.api.procedure.SystemProcedure;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler;
+import org.neo4j.kernel.impl.locking.ResourceTypeContention;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.lock.LockTracer;
 import org.neo4j.procedure.Admin;
 import org.neo4j.procedure.Context;
 import org.neo4j.procedure.Description;
@@ -401,6 +404,27 @@ public class BuiltInProcedures
                 .clearQueryCaches();
     }
 
+    @Admin
+    @Description( "List the lock waits in the database since it was started, per resource type, with wait time percentiles " +
+            "and the resources that were waited for the most (for example: CALL db.lockContention(5))." )
+    @Procedure( name = "db.lockContention", mode = READ )
+    public Stream<LockContentionResult> lockContention( @Name( value = "limit", defaultValue = "10" ) long limit )
+    {
+        if ( !resolver.containsDependency( LockTracer.class ) )
+        {
+            return Stream.empty();
+        }
+        LockTracer lockTracer = resolver.resolveDependency( LockTracer.class );
+        if ( !(lockTracer instanceof LockContentionProfiler) )
+        {
+            // Another tracer implementation has been configured, which does not profile lock contention.
+            return Stream.empty();
+        }
+        int resourceLimit = (int) Math.min( Integer.MAX_VALUE, Math.max( 0, limit ) );
+        return ((LockContentionProfiler) lockTracer).contention().stream()
+                .map( contention -> new LockContentionResult( contention, resourceLimit ) );
+    }
+
     @SystemProcedure
     @Procedure( name = "db.schema.nodeTypeProperties", mode = Mode.READ )
     @Description( "Show the derived property schema of the nodes in tabular form." )
@@ -566,6 +590,35 @@ public class BuiltInProcedures
         }
     }
 
+    public static class LockContentionResult
+    {
+        public final String resourceType;
+        public final long waits;
+        public final double totalWaitTimeMillis;
+        public final double p50WaitTimeMillis;
+        public final double p99WaitTimeMillis;
+        public final double maxWaitTimeMillis;
+        public final List<Map<String,Object>> contendedResources;
+
+        LockContentionResult( ResourceTypeContention contention, int resourceLimit )
+        {
+            this.resourceType = contention.resourceType().name();
+            this.waits = contention.waits();
+            this.totalWaitTimeMillis = toMillis( contention.totalWaitNanos() );
+            this.p50WaitTimeMillis = toMillis( contention.waitNanosAtPercentile( 50 ) );
+            this.p99WaitTimeMillis = toMillis( contention.waitNanosAtPercentile( 99 ) );
+            this.maxWaitTimeMillis = toMillis( contention.maxWaitNanos() );
+            this.contendedResources = contention.mostContended( resourceLimit ).stream()
+                    .map( resource -> Map.<String,Object>of( "resourceId", resource.resourceId(), "waits", resource.waits() ) )
+                    .collect( Collectors.toList() );
+        }
+
+        private static double toMillis( long nanos )
+        {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos( 1 );
+        }
+    }
+
     public static class RelationshipTypeResult
     {
         public final String relationshipType;
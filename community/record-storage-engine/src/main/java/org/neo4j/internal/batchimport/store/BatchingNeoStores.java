@@ -79,6 +79,8 @@ import org.neo4j.time.Clocks;
 import static java.lang.String.valueOf;
 import static java.nio.file.StandardOpenOption.READ;
 import static org.eclipse.collections.impl.factory.Sets.immutable;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_capped_residency_percent;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_reserved_residency_percent;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.internal.index.label.FullStoreChangeStream.EMPTY;
@@ -308,8 +310,10 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
     {
         SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory( fileSystem );
         MemoryAllocator memoryAllocator = createAllocator( ByteUnit.parse( config.get( pagecache_memory ) ), memoryTracker );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, tracer, EmptyVersionContextSupplier.EMPTY, jobScheduler, Clocks.nanoClock(),
-                memoryTracker );
+        MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, memoryAllocator, tracer, EmptyVersionContextSupplier.EMPTY, jobScheduler,
+                Clocks.nanoClock(), memoryTracker );
+        pageCache.setResidencyShares( config.get( pagecache_reserved_residency_percent ), config.get( pagecache_capped_residency_percent ) );
+        return pageCache;
     }
 
     private StoreFactory newStoreFactory( DatabaseLayout databaseLayout, IdGeneratorFactory idGeneratorFactory, PageCacheTracer cacheTracer,
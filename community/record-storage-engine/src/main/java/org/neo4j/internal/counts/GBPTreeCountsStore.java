@@ -19,6 +19,7 @@
  */
 package org.neo4j.internal.counts;
 
+import org.eclipse.collections.api.set.ImmutableSet;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
@@ -26,6 +27,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UncheckedIOException;
+import java.nio.file.OpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -98,6 +100,13 @@ public class GBPTreeCountsStore implements CountsStore
 
     public GBPTreeCountsStore( PageCache pageCache, File file, FileSystemAbstraction fileSystem, RecoveryCleanupWorkCollector recoveryCollector,
             CountsBuilder initialCountsBuilder, boolean readOnly, PageCacheTracer pageCacheTracer, Monitor monitor ) throws IOException
+    {
+        this( pageCache, file, fileSystem, recoveryCollector, initialCountsBuilder, readOnly, pageCacheTracer, monitor, immutable.empty() );
+    }
+
+    public GBPTreeCountsStore( PageCache pageCache, File file, FileSystemAbstraction fileSystem, RecoveryCleanupWorkCollector recoveryCollector,
+            CountsBuilder initialCountsBuilder, boolean readOnly, PageCacheTracer pageCacheTracer, Monitor monitor,
+            ImmutableSet<OpenOption> openOptions ) throws IOException
     {
         this.readOnly = readOnly;
         this.monitor = monitor;
@@ -107,14 +116,14 @@ public class GBPTreeCountsStore implements CountsStore
         GBPTree<CountsKey,CountsValue> instantiatedTree;
         try
         {
-            instantiatedTree = instantiateTree( pageCache, file, recoveryCollector, readOnly, header, pageCacheTracer );
+            instantiatedTree = instantiateTree( pageCache, file, recoveryCollector, readOnly, header, pageCacheTracer, openOptions );
         }
         catch ( MetadataMismatchException e )
         {
             // Corrupt, delete and rebuild
             fileSystem.deleteFileOrThrow( file );
             header = new CountsHeader( NEEDS_REBUILDING_HIGH_ID );
-            instantiatedTree = instantiateTree( pageCache, file, recoveryCollector, readOnly, header, pageCacheTracer );
+            instantiatedTree = instantiateTree( pageCache, file, recoveryCollector, readOnly, header, pageCacheTracer, openOptions );
         }
         this.tree = instantiatedTree;
         boolean successful = false;
@@ -139,12 +148,12 @@ public class GBPTreeCountsStore implements CountsStore
     }
 
     private GBPTree<CountsKey,CountsValue> instantiateTree( PageCache pageCache, File file, RecoveryCleanupWorkCollector recoveryCollector, boolean readOnly,
-            CountsHeader header, PageCacheTracer pageCacheTracer )
+            CountsHeader header, PageCacheTracer pageCacheTracer, ImmutableSet<OpenOption> openOptions )
     {
         try
         {
             return new GBPTree<>( pageCache, file, layout, 0, GBPTree.NO_MONITOR, header, header, recoveryCollector, readOnly, pageCacheTracer,
-                    immutable.empty() );
+                    openOptions );
         }
         catch ( TreeFileNotFoundException e )
         {
@@ -144,10 +144,14 @@ public class PropertyCreator
         PropertyRecord freeHost;
         if ( freeHostProxy == null )
         {
-            // We couldn't find free space along the way, so create a new host record
-            freeHost = propertyRecords.create( propertyRecordIdGenerator.nextId( cursorTracer ), primitive, cursorTracer ).forChangingData();
+            // We couldn't find free space along the way, so create a new host record, close to the one it will be linked to if there is one
+            long firstProp = primitive.getNextProp();
+            long freeHostId = firstProp != Record.NO_NEXT_PROPERTY.intValue()
+                              ? propertyRecordIdGenerator.nextId( firstProp, cursorTracer )
+                              : propertyRecordIdGenerator.nextId( cursorTracer );
+            freeHost = propertyRecords.create( freeHostId, primitive, cursorTracer ).forChangingData();
             freeHost.setInUse( true );
-            if ( primitive.getNextProp() != Record.NO_NEXT_PROPERTY.intValue() )
+            if ( firstProp != Record.NO_NEXT_PROPERTY.intValue() )
             {
                 // This isn't the first property record for the entity, re-shuffle the first one so that
                 // the new one becomes the first
@@ -221,8 +225,8 @@ public class PropertyCreator
             {
                 // Here it means the current block is done for
                 PropertyRecord prevRecord = currentRecord;
-                // Create new record
-                long propertyId = propertyRecordIdGenerator.nextId( cursorTracer );
+                // Create new record, preferably on the same page as the previous one
+                long propertyId = propertyRecordIdGenerator.nextId( prevRecord.getId(), cursorTracer );
                 currentRecord = propertyRecords.create( propertyId, owner, cursorTracer ).forChangingData();
                 createdPropertyRecords.accept( currentRecord );
                 currentRecord.setInUse( true );
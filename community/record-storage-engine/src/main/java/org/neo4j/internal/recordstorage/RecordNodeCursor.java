@@ -78,7 +78,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         }
         if ( pageCursor == null )
         {
-            pageCursor = nodePage( 0 );
+            pageCursor = nodeScanPage( 0 );
         }
         this.next = 0;
         this.highMark = nodeHighMark();
@@ -135,7 +135,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         }
         if ( pageCursor == null )
         {
-            pageCursor = nodePage( start );
+            pageCursor = nodeScanPage( start );
         }
         next = start;
         highMark = min( stop, max );
@@ -440,6 +440,11 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         return read.openPageCursorForReading( reference, cursorTracer );
     }
 
+    private PageCursor nodeScanPage( long reference )
+    {
+        return read.openPageCursorForReadingWithPrefetching( reference, cursorTracer );
+    }
+
     private long nodeHighMark()
     {
         return read.getHighestPossibleIdInUse( cursorTracer );
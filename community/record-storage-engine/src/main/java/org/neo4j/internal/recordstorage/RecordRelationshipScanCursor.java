@@ -59,7 +59,7 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
         }
         if ( pageCursor == null )
         {
-            pageCursor = relationshipPage( 0 );
+            pageCursor = relationshipScanPage( 0 );
         }
         this.next = 0;
         this.filterType = type;
@@ -116,7 +116,7 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
         }
         if ( pageCursor == null )
         {
-            pageCursor = relationshipPage( start );
+            pageCursor = relationshipScanPage( start );
         }
         next = start;
         highMark = min( stop, max );
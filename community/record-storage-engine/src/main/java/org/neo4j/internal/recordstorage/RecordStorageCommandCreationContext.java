@@ -19,7 +19,9 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.neo4j.internal.id.ReservingIdSequence;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.CommonAbstractStore;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.StandardDynamicRecordAllocator;
@@ -35,6 +37,11 @@ import static java.lang.Math.toIntExact;
  */
 class RecordStorageCommandCreationContext implements CommandCreationContext
 {
+    /**
+     * Max number of node, relationship, property and relationship group ids that a transaction reserves at a time, when it creates many of them.
+     */
+    private static final int MAX_ID_BATCH_SIZE = 64;
+
     private final NeoStores neoStores;
     private final Loaders loaders;
     private final MemoryTracker memoryTracker;
@@ -43,6 +50,10 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     private final PropertyCreator propertyCreator;
     private final PropertyDeleter propertyDeleter;
     private final PageCursorTracer cursorTracer;
+    private final ReservingIdSequence nodeIds;
+    private final ReservingIdSequence relationshipIds;
+    private final ReservingIdSequence propertyIds;
+    private final ReservingIdSequence relationshipGroupIds;
 
     RecordStorageCommandCreationContext( NeoStores neoStores, int denseNodeThreshold, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
@@ -50,7 +61,11 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         this.neoStores = neoStores;
         this.memoryTracker = memoryTracker;
         this.loaders = new Loaders( neoStores );
-        RelationshipGroupGetter relationshipGroupGetter = new RelationshipGroupGetter( neoStores.getRelationshipGroupStore(), cursorTracer );
+        this.nodeIds = reservingIdSequence( neoStores.getNodeStore() );
+        this.relationshipIds = reservingIdSequence( neoStores.getRelationshipStore() );
+        this.propertyIds = reservingIdSequence( neoStores.getPropertyStore() );
+        this.relationshipGroupIds = reservingIdSequence( neoStores.getRelationshipGroupStore() );
+        RelationshipGroupGetter relationshipGroupGetter = new RelationshipGroupGetter( relationshipGroupIds, cursorTracer );
         this.relationshipCreator = new RelationshipCreator( relationshipGroupGetter, denseNodeThreshold, cursorTracer );
         PropertyTraverser propertyTraverser = new PropertyTraverser( cursorTracer );
         this.propertyDeleter = new PropertyDeleter( propertyTraverser, cursorTracer );
@@ -58,10 +73,15 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         PropertyStore propertyStore = neoStores.getPropertyStore();
         this.propertyCreator = new PropertyCreator(
                 new StandardDynamicRecordAllocator( propertyStore.getStringStore(), propertyStore.getStringStore().getRecordDataSize() ),
-                new StandardDynamicRecordAllocator( propertyStore.getArrayStore(), propertyStore.getArrayStore().getRecordDataSize() ), propertyStore,
+                new StandardDynamicRecordAllocator( propertyStore.getArrayStore(), propertyStore.getArrayStore().getRecordDataSize() ), propertyIds,
                 propertyTraverser, propertyStore.allowStorePointsAndTemporal(), cursorTracer, memoryTracker );
     }
 
+    private static ReservingIdSequence reservingIdSequence( CommonAbstractStore<?,?> store )
+    {
+        return new ReservingIdSequence( store.getIdGenerator(), MAX_ID_BATCH_SIZE, store.getRecordsPerPage() );
+    }
+
     private long nextId( StoreType storeType )
     {
         return neoStores.getRecordStore( storeType ).nextId( cursorTracer );
@@ -70,13 +90,13 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     @Override
     public long reserveNode()
     {
-        return nextId( StoreType.NODE );
+        return nodeIds.nextId( cursorTracer );
     }
 
     @Override
     public long reserveRelationship()
     {
-        return nextId( StoreType.RELATIONSHIP );
+        return relationshipIds.nextId( cursorTracer );
     }
 
     @Override
@@ -103,9 +123,19 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         return toIntExact( neoStores.getLabelTokenStore().nextId( cursorTracer ) );
     }
 
+    @Override
+    public void releaseUnusedIds()
+    {
+        nodeIds.releaseUnused( cursorTracer );
+        relationshipIds.releaseUnused( cursorTracer );
+        propertyIds.releaseUnused( cursorTracer );
+        relationshipGroupIds.releaseUnused( cursorTracer );
+    }
+
     @Override
     public void close()
     {
+        releaseUnusedIds();
     }
 
     TransactionRecordState createTransactionRecordState( IntegrityValidator integrityValidator, long lastTransactionIdWhenStarted,
@@ -94,7 +94,9 @@ import org.neo4j.util.Preconditions;
 import org.neo4j.util.VisibleForTesting;
 import org.neo4j.util.concurrent.WorkSync;
 
+import static org.eclipse.collections.api.factory.Sets.immutable;
 import static org.neo4j.function.ThrowingAction.executeAll;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.RESERVED_RESIDENCY;
 import static org.neo4j.lock.LockService.NO_LOCK_SERVICE;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_RECOVERY;
@@ -250,7 +252,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
                 {
                     return neoStores.getMetaDataStore().getLastCommittedTransactionId();
                 }
-            }, readOnly, pageCacheTracer, GBPTreeCountsStore.NO_MONITOR );
+            }, readOnly, pageCacheTracer, GBPTreeCountsStore.NO_MONITOR, immutable.of( RESERVED_RESIDENCY ) );
         }
         catch ( IOException e )
         {
@@ -73,7 +73,7 @@ public class RelationshipGroupGetter
         if ( change == null )
         {
             assert node.isDense() : "Node " + node + " should have been dense at this point";
-            long id = idGenerator.nextId( cursorTracer );
+            long id = nextGroupId( node, existingGroup );
             change = relGroupRecords.create( id, type, cursorTracer );
             RelationshipGroupRecord record = change.forChangingData();
             record.setInUse( true );
@@ -104,6 +104,20 @@ public class RelationshipGroupGetter
         return change;
     }
 
+    /**
+     * Allocates an id for a new group, preferably close to the group that it will be linked to so that the chain stays on few pages.
+     */
+    private long nextGroupId( NodeRecord node, RelationshipGroupPosition existingGroup )
+    {
+        RecordProxy<RelationshipGroupRecord, Integer> closestPrevious = existingGroup.closestPrevious();
+        if ( closestPrevious != null )
+        {
+            return idGenerator.nextId( closestPrevious.getKey(), cursorTracer );
+        }
+        long firstGroupId = node.getNextRel();
+        return firstGroupId != Record.NO_NEXT_RELATIONSHIP.intValue() ? idGenerator.nextId( firstGroupId, cursorTracer ) : idGenerator.nextId( cursorTracer );
+    }
+
     public static class RelationshipGroupPosition
     {
         private final RecordProxy<RelationshipGroupRecord, Integer> closestPrevious;
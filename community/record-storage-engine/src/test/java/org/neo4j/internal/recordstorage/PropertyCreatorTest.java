@@ -25,6 +25,7 @@ import org.junit.jupiter.api.Test;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.internal.id.ReservingIdSequence;
 import org.neo4j.internal.recordstorage.RecordAccess.RecordProxy;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
@@ -118,6 +119,76 @@ class PropertyCreatorTest
         assertOneCursor();
     }
 
+    @Test
+    void shouldAllocateNewPropertyRecordOnSamePageAsChain()
+    {
+        // GIVEN
+        var idGenerator = propertyStore.getIdGenerator();
+        int recordsPerPage = propertyStore.getRecordsPerPage();
+        long firstInChain = recordsPerPage * 3L;
+        long nearFreeId = firstInChain + 1;
+        idGenerator.setHighId( recordsPerPage * 4L );
+        try ( var marker = idGenerator.marker( NULL ) )
+        {
+            for ( long freeId : new long[]{1, 2, nearFreeId} )
+            {
+                marker.markDeleted( freeId );
+                marker.markFree( freeId );
+            }
+        }
+        // A transaction that has already created a property record elsewhere, so that its next ids are reserved as a batch
+        ReservingIdSequence propertyIds = new ReservingIdSequence( idGenerator, 64, recordsPerPage );
+        assertEquals( 1, propertyIds.nextId( NULL ) );
+        creator = new PropertyCreator( propertyStore.getStringStore(), propertyStore.getArrayStore(), propertyIds, new PropertyTraverser( NULL ),
+                propertyStore.allowStorePointsAndTemporal(), cursorTracer, INSTANCE );
+        PropertyRecord first = records.create( firstInChain, primitive.record, NULL ).forChangingData();
+        first.setInUse( true );
+        existingRecord( first, record( property( 0, 0 ), property( 1, 1 ), property( 2, 2 ), property( 3, 3 ) ) );
+        primitive.record.setNextProp( firstInChain );
+
+        // WHEN
+        setProperty( 10, 10 );
+
+        // THEN
+        assertEquals( nearFreeId, primitive.record.getNextProp() );
+        assertChain(
+                record( property( 10, 10 ) ),
+                record( property( 0, 0 ), property( 1, 1 ), property( 2, 2 ), property( 3, 3 ) ) );
+    }
+
+    @Test
+    void shouldAllocateFirstPropertyRecordOfTransactionOnSamePageAsChain()
+    {
+        // GIVEN
+        var idGenerator = propertyStore.getIdGenerator();
+        int recordsPerPage = propertyStore.getRecordsPerPage();
+        long firstInChain = recordsPerPage * 3L;
+        long nearFreeId = firstInChain + 1;
+        idGenerator.setHighId( recordsPerPage * 4L );
+        try ( var marker = idGenerator.marker( NULL ) )
+        {
+            for ( long freeId : new long[]{1, nearFreeId} )
+            {
+                marker.markDeleted( freeId );
+                marker.markFree( freeId );
+            }
+        }
+        ReservingIdSequence propertyIds = new ReservingIdSequence( idGenerator, 64, recordsPerPage );
+        creator = new PropertyCreator( propertyStore.getStringStore(), propertyStore.getArrayStore(), propertyIds, new PropertyTraverser( NULL ),
+                propertyStore.allowStorePointsAndTemporal(), cursorTracer, INSTANCE );
+        PropertyRecord first = records.create( firstInChain, primitive.record, NULL ).forChangingData();
+        first.setInUse( true );
+        existingRecord( first, record( property( 0, 0 ), property( 1, 1 ), property( 2, 2 ), property( 3, 3 ) ) );
+        primitive.record.setNextProp( firstInChain );
+
+        // WHEN
+        setProperty( 10, 10 );
+
+        // THEN
+        assertEquals( nearFreeId, primitive.record.getNextProp() );
+        assertEquals( 1, propertyIds.nextId( NULL ) );
+    }
+
     @Test
     void shouldAddPropertyToEmptyChain()
     {
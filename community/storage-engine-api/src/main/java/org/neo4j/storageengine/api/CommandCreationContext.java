@@ -70,6 +70,12 @@ public interface CommandCreationContext extends AutoCloseable
      */
     int reserveRelationshipTypeTokenId();
 
+    /**
+     * Releases the ids that have been reserved ahead of time, but not used, by the transaction that this context was used by.
+     * A context is reused by later transactions, so this is called when a transaction is done with it, rather than on {@link #close()}.
+     */
+    void releaseUnusedIds();
+
     @Override
     void close();
 }
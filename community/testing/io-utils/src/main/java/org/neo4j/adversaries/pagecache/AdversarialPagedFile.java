@@ -119,4 +119,16 @@ public class AdversarialPagedFile implements PagedFile
     {
         return delegate.isDeleteOnClose();
     }
+
+    @Override
+    public long residentPages()
+    {
+        return delegate.residentPages();
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return delegate.dirtyPages();
+    }
 }
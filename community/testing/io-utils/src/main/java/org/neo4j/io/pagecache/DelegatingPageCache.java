@@ -74,6 +74,12 @@ public class DelegatingPageCache implements PageCache
         return delegate.maxCachedPages();
     }
 
+    @Override
+    public long dirtyPages()
+    {
+        return delegate.dirtyPages();
+    }
+
     @Override
     public VersionContextSupplier versionContextSupplier()
     {
@@ -87,6 +87,18 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.isDeleteOnClose();
     }
 
+    @Override
+    public long residentPages()
+    {
+        return delegate.residentPages();
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return delegate.dirtyPages();
+    }
+
     @Override
     public void flushAndForce( IOLimiter limiter ) throws IOException
     {
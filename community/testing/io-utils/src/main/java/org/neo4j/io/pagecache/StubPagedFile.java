@@ -101,4 +101,16 @@ public class StubPagedFile implements PagedFile
     {
         return false;
     }
+
+    @Override
+    public long residentPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return 0;
+    }
 }
@@ -20,7 +20,19 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import org.neo4j.io.fs.ReadableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryFrameChannel;
 
 public interface ReadableClosablePositionAwareChecksumChannel extends ReadableChecksumChannel, PositionAwareChannel
 {
+    /**
+     * The decompressed {@link org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes#COMPRESSED_FRAME compressed frame}
+     * last read from this channel is kept here, so that its entries can be read one by one no matter how reads of
+     * other channels are interleaved with them.
+     *
+     * @return the frame of this channel, or {@code null} if compressed frames can not be read from this channel.
+     */
+    default LogEntryFrameChannel logEntryFrame()
+    {
+        return null;
+    }
 }
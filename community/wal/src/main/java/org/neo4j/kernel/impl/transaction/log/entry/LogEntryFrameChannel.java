@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+import org.neo4j.io.fs.ChecksumMismatchException;
+import org.neo4j.io.fs.ReadPastEndException;
+import org.neo4j.io.fs.WritableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChecksumChannel;
+import org.neo4j.util.FeatureToggles;
+
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Heap backed channel holding the uncompressed content of a {@link LogEntryTypeCodes#COMPRESSED_FRAME compressed frame}.
+ * Entries are serialized into it before the frame is compressed and appended to the log, and are read back out of it
+ * once a frame has been decompressed. Checksums are calculated over the serialized entries exactly as they would be
+ * in the log channel itself, so the transaction checksum chain is the same whether or not entries are compressed.
+ * <p>
+ * All entries read from a frame report the position of the frame itself, since that is the only position
+ * in the log that can be addressed.
+ * <p>
+ * Each channel that frames are read from has its own frame channel, see
+ * {@link ReadableClosablePositionAwareChecksumChannel#logEntryFrame()}, so entries of frames from different channels
+ * can be read interleaved.
+ */
+public class LogEntryFrameChannel implements WritableChecksumChannel, ReadableClosablePositionAwareChecksumChannel
+{
+    private static final int COMPRESSION_LEVEL = FeatureToggles.getInteger( LogEntryFrameChannel.class, "compressionLevel", 3 );
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Max number of uncompressed bytes in a frame. Transactions that are bigger than this are written as plain entries,
+     * and frames that claim to be bigger are rejected when read, before any buffer is allocated for them.
+     */
+    public static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Max number of compressed bytes in a frame, i.e. the compressed size of {@link #MAX_FRAME_SIZE} bytes that do not compress at all.
+     */
+    public static final int MAX_COMPRESSED_FRAME_SIZE = toIntExact( Zstd.compressBound( MAX_FRAME_SIZE ) );
+
+    private final Checksum checksum = CHECKSUM_FACTORY.get();
+    private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+    private byte[] compressed = new byte[0];
+    private int checksumStart;
+    private long frameLogVersion;
+    private long frameByteOffset;
+    private LogPosition sourceEndPosition;
+
+    /**
+     * Clears this channel so that entries of a new frame can be written to it.
+     */
+    public void clear()
+    {
+        buffer.clear();
+        checksumStart = 0;
+        sourceEndPosition = null;
+    }
+
+    /**
+     * @return number of uncompressed bytes written since {@link #clear()}.
+     */
+    public int uncompressedLength()
+    {
+        return buffer.position();
+    }
+
+    /**
+     * Compresses everything written since {@link #clear()}.
+     *
+     * @return the number of compressed bytes, available in {@link #compressedBytes()}.
+     */
+    public int compress() throws IOException
+    {
+        int length = buffer.position();
+        int bound = toIntExact( Zstd.compressBound( length ) );
+        if ( compressed.length < bound )
+        {
+            compressed = new byte[bound];
+        }
+        long result = Zstd.compressByteArray( compressed, 0, compressed.length, buffer.array(), 0, length, COMPRESSION_LEVEL );
+        if ( Zstd.isError( result ) )
+        {
+            throw new IOException( "Unable to compress log entry frame: " + Zstd.getErrorName( result ) );
+        }
+        return toIntExact( result );
+    }
+
+    /**
+     * @return the buffer holding the result of the last {@link #compress()}.
+     */
+    public byte[] compressedBytes()
+    {
+        return compressed;
+    }
+
+    /**
+     * @return a buffer of at least the given length, to read a compressed frame into before decompressing it.
+     */
+    public byte[] compressedBuffer( int length )
+    {
+        if ( compressed.length < length )
+        {
+            compressed = new byte[length];
+        }
+        return compressed;
+    }
+
+    /**
+     * Decompresses a frame read from the log, positioned at {@code framePosition}, and makes its entries
+     * available for reading from this channel.
+     *
+     * @param sourceEndPosition position of the channel the frame was read from, right after the frame.
+     */
+    public void decompress( byte[] source, int compressedLength, int uncompressedLength, LogPosition framePosition, LogPosition sourceEndPosition )
+            throws IOException
+    {
+        this.sourceEndPosition = null;
+        buffer.clear();
+        ensureCapacity( uncompressedLength );
+        long result = Zstd.decompressByteArray( buffer.array(), 0, uncompressedLength, source, 0, compressedLength );
+        if ( Zstd.isError( result ) || result != uncompressedLength )
+        {
+            throw new IOException( "Unable to decompress log entry frame at " + framePosition + ": " +
+                    (Zstd.isError( result ) ? Zstd.getErrorName( result ) : "expected " + uncompressedLength + " bytes but got " + result) );
+        }
+        buffer.limit( uncompressedLength );
+        frameLogVersion = framePosition.getLogVersion();
+        frameByteOffset = framePosition.getByteOffset();
+        this.sourceEndPosition = sourceEndPosition;
+        beginChecksum();
+    }
+
+    /**
+     * @return {@code true} if there are entries left to read from the current frame.
+     */
+    public boolean hasRemaining()
+    {
+        return sourceEndPosition != null && buffer.hasRemaining();
+    }
+
+    /**
+     * @return position of the channel the current frame was read from, right after the frame.
+     */
+    public LogPosition sourceEndPosition()
+    {
+        return sourceEndPosition;
+    }
+
+    /**
+     * Drops the entries left in the current frame, e.g. because the channel it was read from has been moved elsewhere.
+     */
+    public void discard()
+    {
+        sourceEndPosition = null;
+    }
+
+    @Override
+    public LogEntryFrameChannel put( byte value )
+    {
+        ensureCapacity( Byte.BYTES );
+        buffer.put( value );
+        return this;
+    }
+
+    @Override
+    public LogEntryFrameChannel putShort( short value )
+    {
+        ensureCapacity( Short.BYTES );
+        buffer.putShort( value );
+        return this;
+    }
+
+    @Override
+    public LogEntryFrameChannel putInt( int value )
+    {
+        ensureCapacity( Integer.BYTES );
+        buffer.putInt( value );
+        return this;
+    }
+
+    @Override
+    public LogEntryFrameChannel putLong( long value )
+    {
+        ensureCapacity( Long.BYTES );
+        buffer.putLong( value );
+        return this;
+    }
+
+    @Override
+    public LogEntryFrameChannel putFloat( float value )
+    {
+        ensureCapacity( Float.BYTES );
+        buffer.putFloat( value );
+        return this;
+    }
+
+    @Override
+    public LogEntryFrameChannel putDouble( double value )
+    {
+        ensureCapacity( Double.BYTES );
+        buffer.putDouble( value );
+        return this;
+    }
+
+    @Override
+    public LogEntryFrameChannel put( byte[] value, int length )
+    {
+        ensureCapacity( length );
+        buffer.put( value, 0, length );
+        return this;
+    }
+
+    @Override
+    public void beginChecksum()
+    {
+        checksum.reset();
+        checksumStart = buffer.position();
+    }
+
+    @Override
+    public int putChecksum()
+    {
+        int calculatedChecksum = calculateChecksum();
+        putInt( calculatedChecksum );
+        return calculatedChecksum;
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        ensureRemaining( Byte.BYTES );
+        return buffer.get();
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        ensureRemaining( Short.BYTES );
+        return buffer.getShort();
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        ensureRemaining( Integer.BYTES );
+        return buffer.getInt();
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        ensureRemaining( Long.BYTES );
+        return buffer.getLong();
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        ensureRemaining( Float.BYTES );
+        return buffer.getFloat();
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        ensureRemaining( Double.BYTES );
+        return buffer.getDouble();
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        ensureRemaining( length );
+        buffer.get( bytes, 0, length );
+    }
+
+    @Override
+    public int endChecksumAndValidate() throws IOException
+    {
+        ensureRemaining( Integer.BYTES );
+        int calculatedChecksum = calculateChecksum();
+        int storedChecksum = buffer.getInt();
+        if ( calculatedChecksum != storedChecksum )
+        {
+            throw new ChecksumMismatchException( storedChecksum, calculatedChecksum );
+        }
+        beginChecksum();
+        return calculatedChecksum;
+    }
+
+    @Override
+    public LogPositionMarker getCurrentPosition( LogPositionMarker positionMarker )
+    {
+        positionMarker.mark( frameLogVersion, frameByteOffset );
+        return positionMarker;
+    }
+
+    @Override
+    public void close()
+    {
+        // nothing to close, the buffer is reused for the next frame
+    }
+
+    private int calculateChecksum()
+    {
+        checksum.update( buffer.array(), checksumStart, buffer.position() - checksumStart );
+        return (int) checksum.getValue();
+    }
+
+    private void ensureRemaining( int length ) throws ReadPastEndException
+    {
+        if ( buffer.remaining() < length )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+    }
+
+    private void ensureCapacity( int length )
+    {
+        if ( buffer.remaining() < length )
+        {
+            ByteBuffer grown = ByteBuffer.allocate( max( buffer.capacity() * 2, buffer.position() + length ) );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+    }
+}
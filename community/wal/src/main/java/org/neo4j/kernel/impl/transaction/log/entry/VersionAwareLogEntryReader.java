@@ -31,10 +31,16 @@ import org.neo4j.util.FeatureToggles;
 
 import static org.neo4j.internal.helpers.Exceptions.throwIfInstanceOf;
 import static org.neo4j.internal.helpers.Exceptions.withMessage;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMPRESSED_FRAME;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 
 /**
  * Reads {@link LogEntry log entries} off of a channel. Supported versions can be read intermixed.
+ * <p>
+ * {@link LogEntryTypeCodes#COMPRESSED_FRAME Compressed frames} are decompressed as they are encountered and the entries
+ * they contain are returned one by one from subsequent calls, as if they had been written to the channel uncompressed.
+ * The decompressed frame is kept by the {@link ReadableClosablePositionAwareChecksumChannel#logEntryFrame() channel} it
+ * was read from, not by this reader, so one reader can read from many channels at once.
  */
 public class VersionAwareLogEntryReader implements LogEntryReader
 {
@@ -64,6 +70,11 @@ public class VersionAwareLogEntryReader implements LogEntryReader
     {
         try
         {
+            LogEntryFrameChannel remainingFrame = remainingFrame( channel );
+            if ( remainingFrame != null )
+            {
+                return readFrameEntry( remainingFrame );
+            }
             while ( true )
             {
                 channel.getCurrentPosition( positionMarker );
@@ -95,26 +106,12 @@ public class VersionAwareLogEntryReader implements LogEntryReader
                 }
 
                 byte typeCode = channel.get();
-
-                LogEntryParser entryReader;
-                LogEntry entry;
-                try
+                if ( typeCode == COMPRESSED_FRAME )
                 {
-                    entryReader = parserSet.select( typeCode );
-                    entry = entryReader.parse( versionCode, channel, positionMarker, commandReaderFactory );
-                }
-                catch ( ReadPastEndException e )
-                {   // Make these exceptions slip by straight out to the outer handler
-                    throw e;
-                }
-                catch ( Exception e )
-                {   // Tag all other exceptions with log position and other useful information
-                    LogPosition position = positionMarker.newPosition();
-                    withMessage( e, e.getMessage() + ". At position " + position + " and entry version " + versionCode );
-                    throwIfInstanceOf( e, UnsupportedLogVersionException.class );
-                    throw new IOException( e );
+                    return readFrameEntry( openFrame( versionCode, channel ) );
                 }
 
+                LogEntry entry = parse( parserSet, versionCode, typeCode, channel );
                 verifyChecksumChain( entry );
                 return entry;
             }
@@ -125,6 +122,109 @@ public class VersionAwareLogEntryReader implements LogEntryReader
         }
     }
 
+    private LogEntry parse( LogEntryParserSet parsers, byte versionCode, byte typeCode, ReadableClosablePositionAwareChecksumChannel channel )
+            throws IOException
+    {
+        try
+        {
+            LogEntryParser entryReader = parsers.select( typeCode );
+            return entryReader.parse( versionCode, channel, positionMarker, commandReaderFactory );
+        }
+        catch ( ReadPastEndException e )
+        {   // Make these exceptions slip by straight out to the outer handler
+            throw e;
+        }
+        catch ( Exception e )
+        {   // Tag all other exceptions with log position and other useful information
+            LogPosition position = positionMarker.newPosition();
+            withMessage( e, e.getMessage() + ". At position " + position + " and entry version " + versionCode );
+            throwIfInstanceOf( e, UnsupportedLogVersionException.class );
+            throw new IOException( e );
+        }
+    }
+
+    /**
+     * Reads a whole compressed frame off of the channel, validates its checksum and decompresses it.
+     * A partially written frame at the end of the log is reported as the end of the log, like any other partially written entry.
+     */
+    private LogEntryFrameChannel openFrame( byte versionCode, ReadableClosablePositionAwareChecksumChannel channel ) throws IOException
+    {
+        LogPosition framePosition = positionMarker.newPosition();
+        LogEntryFrameChannel frame = channel.logEntryFrame();
+        if ( frame == null )
+        {
+            throw new IOException( "Compressed frames can not be read from " + channel + ". At position " + framePosition +
+                    " and entry version " + versionCode );
+        }
+        int uncompressedLength = channel.getInt();
+        int compressedLength = channel.getInt();
+        if ( uncompressedLength < 0 || uncompressedLength > LogEntryFrameChannel.MAX_FRAME_SIZE ||
+                compressedLength < 0 || compressedLength > LogEntryFrameChannel.MAX_COMPRESSED_FRAME_SIZE )
+        {
+            throw new IOException( "Invalid compressed frame lengths " + compressedLength + "/" + uncompressedLength + ". At position " + framePosition +
+                    " and entry version " + versionCode );
+        }
+        byte[] frameBytes = frame.compressedBuffer( compressedLength );
+        channel.get( frameBytes, compressedLength );
+        try
+        {
+            channel.endChecksumAndValidate();
+        }
+        catch ( ReadPastEndException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            withMessage( e, e.getMessage() + ". At position " + framePosition + " and entry version " + versionCode );
+            throw new IOException( e );
+        }
+        LogPosition frameEnd = channel.getCurrentPosition( new LogPositionMarker() ).newPosition();
+        frame.decompress( frameBytes, compressedLength, uncompressedLength, framePosition, frameEnd );
+        return frame;
+    }
+
+    /**
+     * Entries left in the frame of a channel are only served if the channel is still positioned right after the frame.
+     * Otherwise the frame is stale, e.g. because the channel was moved to another position before the frame was fully
+     * read, and is dropped.
+     *
+     * @return the frame of the given channel if it has entries left to read, otherwise {@code null}.
+     */
+    private static LogEntryFrameChannel remainingFrame( ReadableClosablePositionAwareChecksumChannel channel ) throws IOException
+    {
+        LogEntryFrameChannel frame = channel.logEntryFrame();
+        if ( frame == null || !frame.hasRemaining() )
+        {
+            return null;
+        }
+        if ( frame.sourceEndPosition().equals( channel.getCurrentPosition( new LogPositionMarker() ).newPosition() ) )
+        {
+            return frame;
+        }
+        frame.discard();
+        return null;
+    }
+
+    private LogEntry readFrameEntry( LogEntryFrameChannel frame ) throws IOException
+    {
+        try
+        {
+            frame.getCurrentPosition( positionMarker );
+            byte versionCode = frame.get();
+            LogEntryParserSet frameParserSet = parserSet.version() == versionCode ? parserSet : selector.select( versionCode );
+            byte typeCode = frame.get();
+            LogEntry entry = parse( frameParserSet, versionCode, typeCode, frame );
+            verifyChecksumChain( entry );
+            return entry;
+        }
+        catch ( ReadPastEndException e )
+        {
+            // The frame checksum has already been validated, so running out of bytes here means the frame itself is broken
+            throw new IOException( "Compressed frame ended in the middle of an entry. At position " + positionMarker.newPosition(), e );
+        }
+    }
+
     private void verifyChecksumChain( LogEntry e )
     {
         if ( VERIFY_CHECKSUM_CHAIN && verifyChecksumChain )
@@ -35,6 +35,10 @@ public class TransactionLogFilesHelper
 
     private static final String VERSION_SUFFIX = ".";
     private static final String REGEX_VERSION_SUFFIX = "\\.";
+    private static final String RESERVE_SUFFIX = "-reserve";
+    private static final String RECYCLING_SUFFIX = "-recycling";
+    private static final String PREPARING_SUFFIX = "-preparing";
+    private static final String POSITION_INDEX_SUFFIX = "-position-index";
     private static final File[] EMPTY_FILES_ARRAY = {};
 
     private final File logBaseName;
@@ -58,6 +62,40 @@ public class TransactionLogFilesHelper
         return new File( logBaseName.getPath() + VERSION_SUFFIX + version );
     }
 
+    /**
+     * @return the file that a pruned log file is kept in, zeroed, until it is reused for a new log version.
+     */
+    public File getReserveLogFile()
+    {
+        return new File( logBaseName.getPath() + RESERVE_SUFFIX );
+    }
+
+    /**
+     * @return the file that a pruned log file is kept in until it has been zeroed, before it becomes the
+     * {@link #getReserveLogFile() reserve log file}.
+     */
+    public File getRecyclingLogFile()
+    {
+        return new File( logBaseName.getPath() + RECYCLING_SUFFIX );
+    }
+
+    /**
+     * @return the file that a new log file is allocated in ahead of rotation, before it becomes the
+     * {@link #getReserveLogFile() reserve log file}.
+     */
+    public File getPreparingLogFile()
+    {
+        return new File( logBaseName.getPath() + PREPARING_SUFFIX );
+    }
+
+    /**
+     * @return the file with the sparse index of transaction positions in the log file of the given version.
+     */
+    public File getPositionIndexFileForVersion( long version )
+    {
+        return new File( logBaseName.getPath() + POSITION_INDEX_SUFFIX + VERSION_SUFFIX + version );
+    }
+
     public long getLogVersion( File historyLogFile )
     {
         String historyLogFilename = historyLogFile.getName();
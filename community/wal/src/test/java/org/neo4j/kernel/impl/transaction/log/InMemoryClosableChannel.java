@@ -29,6 +29,7 @@ import java.util.zip.Checksum;
 import org.neo4j.io.fs.ChecksumMismatchException;
 import org.neo4j.io.fs.PositionableChannel;
 import org.neo4j.io.fs.ReadPastEndException;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryFrameChannel;
 
 import static java.lang.Math.toIntExact;
 
@@ -203,6 +204,12 @@ public class InMemoryClosableChannel implements ReadableClosablePositionAwareChe
         return writer.getCurrentPosition( positionMarker );
     }
 
+    @Override
+    public LogEntryFrameChannel logEntryFrame()
+    {
+        return reader.logEntryFrame();
+    }
+
     @Override
     public int putChecksum()
     {
@@ -314,6 +321,7 @@ public class InMemoryClosableChannel implements ReadableClosablePositionAwareChe
     public class Reader extends ByteBufferBase implements ReadableClosablePositionAwareChecksumChannel, PositionableChannel
     {
         private final Checksum checksum = CHECKSUM_FACTORY.get();
+        private final LogEntryFrameChannel frame = new LogEntryFrameChannel();
 
         Reader( ByteBuffer buffer )
         {
@@ -404,6 +412,12 @@ public class InMemoryClosableChannel implements ReadableClosablePositionAwareChe
             beginChecksum();
         }
 
+        @Override
+        public LogEntryFrameChannel logEntryFrame()
+        {
+            return frame;
+        }
+
         private void ensureAvailableToRead( int i ) throws ReadPastEndException
         {
             if ( remaining() < i || position() + i > writer.position() )